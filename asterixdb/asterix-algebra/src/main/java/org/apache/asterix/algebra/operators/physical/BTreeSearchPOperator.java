@@ -42,6 +42,7 @@ import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
 import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IAlgebricksConstantValue;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
 import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
 import org.apache.hyracks.algebricks.core.algebra.metadata.IDataSourceIndex;
@@ -52,7 +53,6 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperato
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.UnnestMapOperator;
 import org.apache.hyracks.algebricks.core.algebra.properties.BroadcastPartitioningProperty;
 import org.apache.hyracks.algebricks.core.algebra.properties.ILocalStructuralProperty;
-import org.apache.hyracks.algebricks.core.algebra.properties.ILocalStructuralProperty.PropertyType;
 import org.apache.hyracks.algebricks.core.algebra.properties.INodeDomain;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPartitioningRequirementsCoordinator;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
@@ -63,8 +63,14 @@ import org.apache.hyracks.algebricks.core.algebra.properties.StructuralPropertie
 import org.apache.hyracks.algebricks.core.algebra.properties.UnorderedPartitionedProperty;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.algebricks.core.rewriter.base.PhysicalOptimizationConfig;
+import org.apache.hyracks.algebricks.data.IBinaryHashFunctionFactoryProvider;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.evaluators.ConstantEvalFactory;
 import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFactory;
 import org.apache.hyracks.storage.am.common.api.ITupleFilterFactory;
 import org.apache.hyracks.storage.am.common.impls.DefaultTupleProjectorFactory;
 import org.apache.hyracks.storage.am.lsm.btree.impls.LSMBTreeBatchPointSearchCursor;
@@ -79,6 +85,10 @@ public class BTreeSearchPOperator extends IndexSearchPOperator {
     private final boolean isPrimaryIndex;
     private final boolean isEqCondition;
     private Object implConfig;
+    // the variables and constant values of the search keys, in the order the dataset is hash partitioned on them, if
+    // the search only needs to run on the partition that owns them
+    private List<LogicalVariable> routingKeyVars;
+    private List<IAlgebricksConstantValue> routingKeys;
 
     public BTreeSearchPOperator(IDataSourceIndex<String, DataSourceId> idx, INodeDomain domain,
             boolean requiresBroadcast, boolean isPrimaryIndex, boolean isEqCondition,
@@ -98,6 +108,54 @@ public class BTreeSearchPOperator extends IndexSearchPOperator {
         return implConfig;
     }
 
+    public List<LogicalVariable> getLowKeyVarList() {
+        return lowKeyVarList;
+    }
+
+    public List<LogicalVariable> getHighKeyVarList() {
+        return highKeyVarList;
+    }
+
+    /**
+     * Makes the search only run on the partition of the index that owns the given search keys.
+     *
+     * @param routingKeyVars
+     *            the variables of the search input that hold the search keys, in the order the dataset is hash
+     *            partitioned on them
+     * @param routingKeys
+     *            the constant values of these variables
+     */
+    public void setRoutingKeys(List<LogicalVariable> routingKeyVars, List<IAlgebricksConstantValue> routingKeys) {
+        this.routingKeyVars = routingKeyVars;
+        this.routingKeys = routingKeys;
+    }
+
+    /**
+     * @return true if the search is an equality search on all the keys of the primary index, whose low and high keys
+     *         may be held by different variables
+     */
+    public boolean isPrimaryKeyEqualitySearch() {
+        if (!isEqCondition || !isPrimaryIndex || lowKeyVarList.size() != highKeyVarList.size()) {
+            return false;
+        }
+        Index searchIndex = ((DataSourceIndex) idx).getIndex();
+        int numberOfKeyFields = ((Index.ValueIndexDetails) searchIndex.getIndexDetails()).getKeyFieldNames().size();
+        return lowKeyVarList.size() == numberOfKeyFields;
+    }
+
+    /**
+     * @return true if the search is an equality search on all the keys of the primary index
+     */
+    public boolean isPrimaryKeyLookup() {
+        return isPrimaryKeyEqualitySearch() && lowKeyVarList.equals(highKeyVarList);
+    }
+
+    @Override
+    public String toString(boolean verbose) {
+        String ss = super.toString(verbose);
+        return routingKeys != null ? ss + " (routed by " + routingKeys + ')' : ss;
+    }
+
     @Override
     public PhysicalOperatorTag getOperatorTag() {
         return PhysicalOperatorTag.BTREE_SEARCH;
@@ -155,6 +213,9 @@ public class BTreeSearchPOperator extends IndexSearchPOperator {
                         String.valueOf(unnestMap.getOperatorTag()));
         }
 
+        ILogicalOperator srcExchange = unnestMap.getInputs().get(0).getValue();
+        int searchPartition = routingKeys != null
+                ? getOwningPartition(srcExchange, dataset, jobGenParams.getIndexName(), metadataProvider, context) : -1;
         Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> btreeSearch = metadataProvider.buildBtreeRuntime(
                 builder.getJobSpec(), opSchema, typeEnv, context, jobGenParams.getRetainInput(), retainMissing,
                 nonMatchWriterFactory, dataset, jobGenParams.getIndexName(), lowKeyIndexes, highKeyIndexes,
@@ -162,45 +223,59 @@ public class BTreeSearchPOperator extends IndexSearchPOperator {
                 nonFilterWriterFactory, minFilterFieldIndexes, maxFilterFieldIndexes, tupleFilterFactory, outputLimit,
                 unnestMap.getGenerateCallBackProceedResultVar(),
                 isPrimaryIndexPointSearch(op, context.getPhysicalOptimizationConfig()),
-                DefaultTupleProjectorFactory.INSTANCE);
+                DefaultTupleProjectorFactory.INSTANCE, searchPartition);
         IOperatorDescriptor opDesc = btreeSearch.first;
         opDesc.setSourceLocation(unnestMap.getSourceLocation());
 
         builder.contributeHyracksOperator(unnestMap, opDesc);
         builder.contributeAlgebricksPartitionConstraint(opDesc, btreeSearch.second);
-
-        ILogicalOperator srcExchange = unnestMap.getInputs().get(0).getValue();
         builder.contributeGraphEdge(srcExchange, 0, unnestMap, 0);
     }
 
     /**
-     * Check whether we can use {@link LSMBTreeBatchPointSearchCursor} to perform point-lookups on the primary index
+     * Computes the partition of the index that owns the routing keys, hashing them like the exchanges that partition
+     * the dataset, so that only this partition is searched. If the search input is hash partitioned, the exchange
+     * then has a single consumer partition and sends the keys there. If it is not, the operators that compute the
+     * keys only run on that partition as well, as they are connected one-to-one to the search.
+     *
+     * @return the partition that owns the routing keys, or -1 if the search must run on all the partitions
      */
-    private boolean isPrimaryIndexPointSearch(ILogicalOperator op, PhysicalOptimizationConfig config) {
-        if (!config.isBatchLookupEnabled() || !isEqCondition || !isPrimaryIndex
-                || !lowKeyVarList.equals(highKeyVarList)) {
-            return false;
+    private int getOwningPartition(ILogicalOperator srcExchange, Dataset dataset, String indexName,
+            MetadataProvider metadataProvider, JobGenContext context) throws AlgebricksException {
+        int numPartitions =
+                metadataProvider.getSplitProviderAndConstraints(dataset, indexName).first.getFileSplits().length;
+        if (numPartitions < 2) {
+            return -1;
         }
-        Index searchIndex = ((DataSourceIndex) idx).getIndex();
-        int numberOfKeyFields = ((Index.ValueIndexDetails) searchIndex.getIndexDetails()).getKeyFieldNames().size();
-
-        if (lowKeyVarList.size() != numberOfKeyFields || highKeyVarList.size() != numberOfKeyFields) {
-            return false;
-        }
-
-        IPhysicalPropertiesVector vector = op.getInputs().get(0).getValue().getDeliveredPhysicalProperties();
-        if (vector != null) {
-            for (ILocalStructuralProperty property : vector.getLocalProperties()) {
-                if (property.getPropertyType() == PropertyType.LOCAL_ORDER_PROPERTY) {
-                    LocalOrderProperty orderProperty = (LocalOrderProperty) property;
-                    if (orderProperty.getColumns().equals(lowKeyVarList)
-                            && orderProperty.getOrders().stream().allMatch(o -> o.equals(OrderKind.ASC))) {
-                        return true;
-                    }
-                }
+        IVariableTypeEnvironment env = context.getTypeEnvironment(srcExchange);
+        IBinaryHashFunctionFactoryProvider hashFunProvider = context.getBinaryHashFunctionFactoryProvider();
+        // the same hash as the one of the exchanges, see FieldHashPartitionComputerFactory
+        int hash = 0;
+        for (int i = 0; i < routingKeyVars.size(); i++) {
+            IScalarEvaluatorFactory keyEvalFactory =
+                    metadataProvider.getDataFormat().getConstantEvalFactory(routingKeys.get(i));
+            if (!(keyEvalFactory instanceof ConstantEvalFactory)) {
+                return -1;
+            }
+            byte[] key = ((ConstantEvalFactory) keyEvalFactory).getValue();
+            IBinaryHashFunction hashFn = hashFunProvider
+                    .getBinaryHashFunctionFactory(env.getVarType(routingKeyVars.get(i))).createBinaryHashFunction();
+            try {
+                hash = hash * 31 + hashFn.hash(key, 0, key.length);
+            } catch (HyracksDataException e) {
+                throw new AlgebricksException(e);
             }
         }
-        return false;
+        return FieldHashPartitionComputerFactory.toPartition(hash, numPartitions);
+    }
+
+    /**
+     * Check whether we can use {@link LSMBTreeBatchPointSearchCursor} to perform point-lookups on the primary index.
+     * The batch point-lookup sorts every frame of search keys, so the input does not need to be sorted.
+     */
+    private boolean isPrimaryIndexPointSearch(ILogicalOperator op, PhysicalOptimizationConfig config) {
+        return config.isBatchLookupEnabled() && !((AbstractUnnestMapOperator) op).propagateIndexFilter()
+                && isPrimaryKeyLookup();
     }
 
     @Override
@@ -222,12 +297,15 @@ public class BTreeSearchPOperator extends IndexSearchPOperator {
                     searchKeyVars.addAll(lowKeyVarList);
                     searchKeyVars.addAll(highKeyVarList);
                     // Also, add a local sorting property to enforce a sort before the primary-index operator.
+                    // The batch point-lookup sorts the search keys frame by frame instead.
                     List<ILocalStructuralProperty> propsLocal = new ArrayList<>();
-                    List<OrderColumn> orderColumns = new ArrayList<>();
-                    for (LogicalVariable orderVar : searchKeyVars) {
-                        orderColumns.add(new OrderColumn(orderVar, OrderKind.ASC));
+                    if (!isPrimaryIndexPointSearch(op, context.getPhysicalOptimizationConfig())) {
+                        List<OrderColumn> orderColumns = new ArrayList<>();
+                        for (LogicalVariable orderVar : searchKeyVars) {
+                            orderColumns.add(new OrderColumn(orderVar, OrderKind.ASC));
+                        }
+                        propsLocal.add(new LocalOrderProperty(orderColumns));
                     }
-                    propsLocal.add(new LocalOrderProperty(orderColumns));
                     pv[0] = new StructuralPropertiesVector(new UnorderedPartitionedProperty(searchKeyVars, domain),
                             propsLocal);
                     return new PhysicalRequirements(pv, IPartitioningRequirementsCoordinator.NO_COORDINATION);
@@ -23,6 +23,7 @@ import java.util.List;
 
 import org.apache.asterix.optimizer.rules.util.IntervalPartitions;
 import org.apache.asterix.runtime.operators.joins.interval.IntervalMergeJoinOperatorDescriptor;
+import org.apache.asterix.runtime.operators.joins.interval.PartitionedIntervalJoinOperatorDescriptor;
 import org.apache.asterix.runtime.operators.joins.interval.utils.IIntervalJoinUtilFactory;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.core.algebra.base.IHyracksJobBuilder;
@@ -53,6 +54,10 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 import org.apache.hyracks.dataflow.common.data.partition.range.RangeMap;
 
+/**
+ * If the join is partitioned, the overlapping interval partitioning join is used instead of the interval merge join.
+ * It does not require sorted inputs and spills its granule partitions to disk when the memory is full.
+ */
 public class IntervalMergeJoinPOperator extends AbstractJoinPOperator {
 
     private final List<LogicalVariable> keysLeftBranch;
@@ -61,16 +66,26 @@ public class IntervalMergeJoinPOperator extends AbstractJoinPOperator {
     protected final IntervalPartitions intervalPartitions;
 
     private final int memSizeInFrames;
+    private final boolean partitioned;
 
     public IntervalMergeJoinPOperator(JoinKind kind, JoinPartitioningType partitioningType,
             List<LogicalVariable> sideLeftOfEqualities, List<LogicalVariable> sideRightOfEqualities,
             int memSizeInFrames, IIntervalJoinUtilFactory mjcf, IntervalPartitions intervalPartitions) {
+        this(kind, partitioningType, sideLeftOfEqualities, sideRightOfEqualities, memSizeInFrames, mjcf,
+                intervalPartitions, false);
+    }
+
+    public IntervalMergeJoinPOperator(JoinKind kind, JoinPartitioningType partitioningType,
+            List<LogicalVariable> sideLeftOfEqualities, List<LogicalVariable> sideRightOfEqualities,
+            int memSizeInFrames, IIntervalJoinUtilFactory mjcf, IntervalPartitions intervalPartitions,
+            boolean partitioned) {
         super(kind, partitioningType);
         this.keysLeftBranch = sideLeftOfEqualities;
         this.keysRightBranch = sideRightOfEqualities;
         this.mjcf = mjcf;
         this.intervalPartitions = intervalPartitions;
         this.memSizeInFrames = memSizeInFrames;
+        this.partitioned = partitioned;
     }
 
     public IIntervalJoinUtilFactory getIntervalMergeJoinCheckerFactory() {
@@ -84,7 +99,8 @@ public class IntervalMergeJoinPOperator extends AbstractJoinPOperator {
 
     @Override
     public String toString() {
-        return "INTERVAL_MERGE_JOIN" + " " + keysLeftBranch + " " + keysRightBranch;
+        return (partitioned ? "PARTITIONED_INTERVAL_JOIN" : "INTERVAL_MERGE_JOIN") + " " + keysLeftBranch + " "
+                + keysRightBranch;
     }
 
     @Override
@@ -97,7 +113,10 @@ public class IntervalMergeJoinPOperator extends AbstractJoinPOperator {
         List<OrderColumn> order = intervalPartitions.getLeftStartColumn();
         IPartitioningProperty pp = new OrderedPartitionedProperty(order, null, intervalPartitions.getRangeMap());
         List<ILocalStructuralProperty> propsLocal = new ArrayList<>();
-        propsLocal.add(new LocalOrderProperty(intervalPartitions.getLeftStartColumn()));
+        if (!partitioned) {
+            // granule partitions are joined one after the other, so the partitioned join does not keep any order
+            propsLocal.add(new LocalOrderProperty(intervalPartitions.getLeftStartColumn()));
+        }
         deliveredProperties = new StructuralPropertiesVector(pp, propsLocal);
     }
 
@@ -114,7 +133,9 @@ public class IntervalMergeJoinPOperator extends AbstractJoinPOperator {
         for (LogicalVariable v : keysLeftBranch) {
             leftLocalOrderColumn.add(new OrderColumn(v, intervalPartitions.getLeftIntervalColumn().get(0).getOrder()));
         }
-        ispLeft.add(new LocalOrderProperty(leftLocalOrderColumn));
+        if (!partitioned) {
+            ispLeft.add(new LocalOrderProperty(leftLocalOrderColumn));
+        }
 
         //Create Right Local Order Column
         IPartitioningProperty ppRight = null;
@@ -124,7 +145,9 @@ public class IntervalMergeJoinPOperator extends AbstractJoinPOperator {
             rightLocalOrderColumn
                     .add(new OrderColumn(v, intervalPartitions.getRightIntervalColumn().get(0).getOrder()));
         }
-        ispRight.add(new LocalOrderProperty(rightLocalOrderColumn));
+        if (!partitioned) {
+            ispRight.add(new LocalOrderProperty(rightLocalOrderColumn));
+        }
 
         if (op.getExecutionMode() == AbstractLogicalOperator.ExecutionMode.PARTITIONED) {
             INodeDomain targetNodeDomain = context.getComputationNodeDomain();
@@ -189,6 +212,10 @@ public class IntervalMergeJoinPOperator extends AbstractJoinPOperator {
 
     IOperatorDescriptor getIntervalOperatorDescriptor(int[] keysBuild, int[] keysProbe,
             IOperatorDescriptorRegistry spec, RecordDescriptor recordDescriptor, IIntervalJoinUtilFactory mjcf) {
+        if (partitioned) {
+            return new PartitionedIntervalJoinOperatorDescriptor(spec, memSizeInFrames, keysBuild, keysProbe,
+                    recordDescriptor, mjcf);
+        }
         return new IntervalMergeJoinOperatorDescriptor(spec, memSizeInFrames, keysBuild, keysProbe, recordDescriptor,
                 mjcf);
     }
@@ -22,8 +22,10 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
+import org.apache.asterix.runtime.operators.joins.spatial.PartitionedSpatialJoinOperatorDescriptor;
 import org.apache.asterix.runtime.operators.joins.spatial.PlaneSweepJoinOperatorDescriptor;
 import org.apache.asterix.runtime.operators.joins.spatial.utils.ISpatialJoinUtilFactory;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.SpatialJoinGrid;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.common.utils.ListSet;
 import org.apache.hyracks.algebricks.core.algebra.base.IHyracksJobBuilder;
@@ -53,6 +55,9 @@ import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 
 /**
  * The right input is broadcast and the left input can be partitioned in any way.
+ * If the join is partitioned, the partition based spatial merge join (PBSM) is used instead of the plane sweep join.
+ * It does not require sorted inputs, spills grid partitions to disk when the memory is full and, if the grid is known
+ * at compile time, eliminates duplicate results with the reference point method.
  */
 public class SpatialJoinPOperator extends AbstractJoinPOperator {
 
@@ -61,15 +66,25 @@ public class SpatialJoinPOperator extends AbstractJoinPOperator {
 
     protected final ISpatialJoinUtilFactory mjcf;
     private final int memSizeInFrames;
+    private final boolean partitioned;
+    private final SpatialJoinGrid grid;
 
     public SpatialJoinPOperator(JoinKind kind, JoinPartitioningType partitioningType,
             List<LogicalVariable> keysLeftBranch, List<LogicalVariable> keysRightBranch, int memSizeInFrames,
             ISpatialJoinUtilFactory mjcf) {
+        this(kind, partitioningType, keysLeftBranch, keysRightBranch, memSizeInFrames, mjcf, false, null);
+    }
+
+    public SpatialJoinPOperator(JoinKind kind, JoinPartitioningType partitioningType,
+            List<LogicalVariable> keysLeftBranch, List<LogicalVariable> keysRightBranch, int memSizeInFrames,
+            ISpatialJoinUtilFactory mjcf, boolean partitioned, SpatialJoinGrid grid) {
         super(kind, partitioningType);
         this.keysLeftBranch = keysLeftBranch;
         this.keysRightBranch = keysRightBranch;
         this.mjcf = mjcf;
         this.memSizeInFrames = memSizeInFrames;
+        this.partitioned = partitioned;
+        this.grid = grid;
     }
 
     public List<LogicalVariable> getKeysLeftBranch() {
@@ -88,7 +103,8 @@ public class SpatialJoinPOperator extends AbstractJoinPOperator {
 
     @Override
     public String toString() {
-        return "SPATIAL_JOIN" + " " + keysLeftBranch + " " + keysRightBranch;
+        return (partitioned ? "PARTITIONED_SPATIAL_JOIN" : "SPATIAL_JOIN") + " " + keysLeftBranch + " "
+                + keysRightBranch;
     }
 
     @Override
@@ -126,6 +142,14 @@ public class SpatialJoinPOperator extends AbstractJoinPOperator {
         IPartitioningProperty pp2 = new UnorderedPartitionedProperty(new ListSet<>(keysRightBranchTileId),
                 context.getComputationNodeDomain());
 
+        StructuralPropertiesVector[] pv = new StructuralPropertiesVector[2];
+        if (partitioned) {
+            // The partitioned join sorts every partition pair itself.
+            pv[0] = new StructuralPropertiesVector(pp1, null);
+            pv[1] = new StructuralPropertiesVector(pp2, null);
+            return new PhysicalRequirements(pv, IPartitioningRequirementsCoordinator.NO_COORDINATION);
+        }
+
         List<ILocalStructuralProperty> localProperties1 = new ArrayList<>();
         List<OrderColumn> orderColumns1 = new ArrayList<OrderColumn>();
         orderColumns1.add(new OrderColumn(keysLeftBranch.get(0), OrderOperator.IOrder.OrderKind.ASC));
@@ -138,7 +162,6 @@ public class SpatialJoinPOperator extends AbstractJoinPOperator {
         orderColumns2.add(new OrderColumn(keysRightBranch.get(1), OrderOperator.IOrder.OrderKind.ASC));
         localProperties2.add(new LocalOrderProperty(orderColumns2));
 
-        StructuralPropertiesVector[] pv = new StructuralPropertiesVector[2];
         pv[0] = new StructuralPropertiesVector(pp1, localProperties1);
         pv[1] = new StructuralPropertiesVector(pp2, localProperties2);
 
@@ -156,8 +179,14 @@ public class SpatialJoinPOperator extends AbstractJoinPOperator {
         RecordDescriptor recordDescriptor =
                 JobGenHelper.mkRecordDescriptor(context.getTypeEnvironment(op), propagatedSchema, context);
 
-        IOperatorDescriptor opDesc = new PlaneSweepJoinOperatorDescriptor(spec, memSizeInFrames, keysBuild, keysProbe,
-                recordDescriptor, mjcf);
+        IOperatorDescriptor opDesc;
+        if (partitioned) {
+            opDesc = new PartitionedSpatialJoinOperatorDescriptor(spec, memSizeInFrames, keysBuild, keysProbe,
+                    recordDescriptor, mjcf, grid);
+        } else {
+            opDesc = new PlaneSweepJoinOperatorDescriptor(spec, memSizeInFrames, keysBuild, keysProbe, recordDescriptor,
+                    mjcf);
+        }
         contributeOpDesc(builder, (AbstractLogicalOperator) op, opDesc);
 
         ILogicalOperator src1 = op.getInputs().get(0).getValue();
@@ -168,6 +197,10 @@ public class SpatialJoinPOperator extends AbstractJoinPOperator {
 
     protected List<ILocalStructuralProperty> deliveredLocalProperties(ILogicalOperator op,
             IOptimizationContext context) {
+        if (partitioned) {
+            // partition pairs are swept in (tile, x) order, so no order of the inputs is maintained
+            return new LinkedList<>();
+        }
         AbstractLogicalOperator op0 = (AbstractLogicalOperator) op.getInputs().get(0).getValue();
         IPhysicalPropertiesVector pv0 = op0.getPhysicalOperator().getDeliveredProperties();
         List<ILocalStructuralProperty> lp0 = pv0.getLocalProperties();
@@ -84,11 +84,22 @@ public class SqlppCompilationProvider implements ILangCompilationProvider {
                 CompilerProperties.COMPILER_EXTERNAL_FIELD_PUSHDOWN_KEY, CompilerProperties.COMPILER_SUBPLAN_MERGE_KEY,
                 CompilerProperties.COMPILER_SUBPLAN_NESTEDPUSHDOWN_KEY, CompilerProperties.COMPILER_ARRAYINDEX_KEY,
                 CompilerProperties.COMPILER_MIN_MEMORY_ALLOCATION_KEY, FunctionUtil.IMPORT_PRIVATE_FUNCTIONS,
-                FuzzyUtils.SIM_FUNCTION_PROP_NAME, FuzzyUtils.SIM_THRESHOLD_PROP_NAME,
-                StartFeedStatement.WAIT_FOR_COMPLETION, FeedActivityDetails.FEED_POLICY_NAME,
-                FeedActivityDetails.COLLECT_LOCATIONS, SqlppQueryRewriter.INLINE_WITH_OPTION,
-                SqlppExpressionToPlanTranslator.REWRITE_IN_AS_OR_OPTION, "hash_merge", "output-record-type",
-                DisjunctivePredicateToJoinRule.REWRITE_OR_AS_JOIN_OPTION,
+                CompilerProperties.COMPILER_POINT_LOOKUP_ROUTING_KEY,
+                CompilerProperties.COMPILER_EXPRESSION_SPECIALIZATION_KEY,
+                CompilerProperties.COMPILER_PIPELINE_FUSION_KEY,
+                CompilerProperties.COMPILER_SORT_TOPK_SHARED_THRESHOLD_KEY,
+                CompilerProperties.COMPILER_SORT_PARALLELISM_KEY, CompilerProperties.COMPILER_SORT_RADIX_KEY,
+                CompilerProperties.COMPILER_WINDOW_PARALLELISM_KEY, CompilerProperties.COMPILER_WINDOW_SEGMENT_TREE_KEY,
+                CompilerProperties.COMPILER_GROUPBY_HEAVY_HITTERS_KEY,
+                CompilerProperties.COMPILER_GROUPBY_PRIMITIVE_STATES_KEY,
+                CompilerProperties.COMPILER_GROUPBY_COMBINER_BYPASS_KEY,
+                CompilerProperties.COMPILER_JOIN_BUILD_CACHE_KEY,
+                CompilerProperties.COMPILER_INTERVAL_JOIN_PARTITIONED_KEY,
+                CompilerProperties.COMPILER_SPATIAL_JOIN_PARTITIONED_KEY, FuzzyUtils.SIM_FUNCTION_PROP_NAME,
+                FuzzyUtils.SIM_THRESHOLD_PROP_NAME, StartFeedStatement.WAIT_FOR_COMPLETION,
+                FeedActivityDetails.FEED_POLICY_NAME, FeedActivityDetails.COLLECT_LOCATIONS,
+                SqlppQueryRewriter.INLINE_WITH_OPTION, SqlppExpressionToPlanTranslator.REWRITE_IN_AS_OR_OPTION,
+                "hash_merge", "output-record-type", DisjunctivePredicateToJoinRule.REWRITE_OR_AS_JOIN_OPTION,
                 SetAsterixPhysicalOperatorsRule.REWRITE_ATTEMPT_BATCH_ASSIGN,
                 EquivalenceClassUtils.REWRITE_INTERNAL_QUERYUID_PK, SqlppQueryRewriter.SQL_COMPAT_OPTION));
     }
@@ -29,9 +29,14 @@ import org.apache.asterix.om.functions.BuiltinFunctions;
 import org.apache.asterix.om.functions.IFunctionDescriptor;
 import org.apache.asterix.om.functions.IFunctionManager;
 import org.apache.asterix.om.functions.IFunctionTypeInferer;
+import org.apache.asterix.om.typecomputer.impl.TypeComputeUtils;
+import org.apache.asterix.om.types.IAType;
+import org.apache.asterix.runtime.evaluators.staticcodegen.IntegerExpression;
+import org.apache.asterix.runtime.evaluators.staticcodegen.SpecializedIntegerEvaluatorFactory;
 import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AggregateFunctionCallExpression;
@@ -97,6 +102,12 @@ public class QueryLogicalExpressionJobGen implements ILogicalExpressionJobGen {
     @Override
     public IScalarEvaluatorFactory createEvaluatorFactory(ILogicalExpression expr, IVariableTypeEnvironment env,
             IOperatorSchema[] inputSchemas, JobGenContext context) throws AlgebricksException {
+        return createEvaluatorFactory(expr, env, inputSchemas, context,
+                context.getPhysicalOptimizationConfig().isExpressionSpecializationEnabled());
+    }
+
+    private IScalarEvaluatorFactory createEvaluatorFactory(ILogicalExpression expr, IVariableTypeEnvironment env,
+            IOperatorSchema[] inputSchemas, JobGenContext context, boolean specialize) throws AlgebricksException {
         IScalarEvaluatorFactory copyEvaluatorFactory;
         switch (expr.getExpressionTag()) {
             case VARIABLE: {
@@ -111,7 +122,7 @@ public class QueryLogicalExpressionJobGen implements ILogicalExpressionJobGen {
             }
             case FUNCTION_CALL: {
                 copyEvaluatorFactory = createScalarFunctionEvaluatorFactory((AbstractFunctionCallExpression) expr, env,
-                        inputSchemas, context);
+                        inputSchemas, context, specialize);
                 return copyEvaluatorFactory;
             }
             default:
@@ -133,9 +144,11 @@ public class QueryLogicalExpressionJobGen implements ILogicalExpressionJobGen {
     }
 
     private IScalarEvaluatorFactory createScalarFunctionEvaluatorFactory(AbstractFunctionCallExpression expr,
-            IVariableTypeEnvironment env, IOperatorSchema[] inputSchemas, JobGenContext context)
+            IVariableTypeEnvironment env, IOperatorSchema[] inputSchemas, JobGenContext context, boolean specialize)
             throws AlgebricksException {
-        IScalarEvaluatorFactory[] args = codegenArguments(expr, env, inputSchemas, context);
+        IntegerExpression integerExpr = specialize ? createIntegerExpression(expr, env, inputSchemas, context) : null;
+        // the arguments of a specialized expression are part of it, so they are not specialized on their own
+        IScalarEvaluatorFactory[] args = codegenArguments(expr, env, inputSchemas, context, integerExpr == null);
         IFunctionDescriptor fd;
         if (expr.getFunctionInfo().isExternal()) {
             // Expr is an external function
@@ -144,7 +157,112 @@ public class QueryLogicalExpressionJobGen implements ILogicalExpressionJobGen {
             // Expr is an internal (built-in) function
             fd = resolveFunction(expr, env, context);
         }
-        return fd.createEvaluatorFactory(args);
+        IScalarEvaluatorFactory evaluatorFactory = fd.createEvaluatorFactory(args);
+        return integerExpr != null ? new SpecializedIntegerEvaluatorFactory(integerExpr, evaluatorFactory)
+                : evaluatorFactory;
+    }
+
+    /**
+     * Creates the integer expression tree of the given arithmetic or comparison expression, or conjunction of
+     * comparisons, if the leaves of the expression are variables, constants and fields of closed records whose types
+     * are integer types, possibly optional.
+     *
+     * @return the integer expression tree, or null if the expression is not an integer expression
+     */
+    private IntegerExpression createIntegerExpression(AbstractFunctionCallExpression expr, IVariableTypeEnvironment env,
+            IOperatorSchema[] inputSchemas, JobGenContext context) throws AlgebricksException {
+        IntegerExpression.Operator operator = getIntegerOperator(expr);
+        List<Mutable<ILogicalExpression>> arguments = expr.getArguments();
+        if (operator == null || arguments.size() < 2
+                || (operator != IntegerExpression.Operator.AND && arguments.size() != 2)) {
+            return null;
+        }
+        // an n-ary conjunction is evaluated from left to right like nested binary ones
+        IntegerExpression result = null;
+        for (Mutable<ILogicalExpression> argument : arguments) {
+            IntegerExpression operand = createIntegerOperand(argument.getValue(), env, inputSchemas, context);
+            if (operand == null || operand.isBoolean() != (operator == IntegerExpression.Operator.AND)) {
+                return null;
+            }
+            result = result == null ? operand : IntegerExpression.operation(operator, result, operand);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the integer expression tree of an operand of an integer expression. Unlike the root of the tree, an
+     * operand can also be a leaf, i.e. a variable, a constant or a field of a closed record.
+     */
+    private IntegerExpression createIntegerOperand(ILogicalExpression expr, IVariableTypeEnvironment env,
+            IOperatorSchema[] inputSchemas, JobGenContext context) throws AlgebricksException {
+        switch (expr.getExpressionTag()) {
+            case VARIABLE:
+            case CONSTANT:
+                return createIntegerLeaf(expr, env, inputSchemas, context);
+            case FUNCTION_CALL:
+                AbstractFunctionCallExpression callExpr = (AbstractFunctionCallExpression) expr;
+                // a field of a closed record is an input like a variable
+                return isFieldAccessOfVariable(callExpr) ? createIntegerLeaf(expr, env, inputSchemas, context)
+                        : createIntegerExpression(callExpr, env, inputSchemas, context);
+            default:
+                return null;
+        }
+    }
+
+    private IntegerExpression createIntegerLeaf(ILogicalExpression expr, IVariableTypeEnvironment env,
+            IOperatorSchema[] inputSchemas, JobGenContext context) throws AlgebricksException {
+        return isIntegerType(env.getType(expr))
+                ? IntegerExpression.leaf(createEvaluatorFactory(expr, env, inputSchemas, context, false)) : null;
+    }
+
+    private static boolean isFieldAccessOfVariable(AbstractFunctionCallExpression expr) {
+        return !expr.getFunctionInfo().isExternal()
+                && expr.getFunctionIdentifier().equals(BuiltinFunctions.FIELD_ACCESS_BY_INDEX)
+                && expr.getArguments().get(0).getValue().getExpressionTag() == LogicalExpressionTag.VARIABLE;
+    }
+
+    private static IntegerExpression.Operator getIntegerOperator(AbstractFunctionCallExpression expr) {
+        if (expr.getFunctionInfo().isExternal()) {
+            return null;
+        }
+        FunctionIdentifier fnId = expr.getFunctionIdentifier();
+        if (fnId.equals(BuiltinFunctions.NUMERIC_ADD)) {
+            return IntegerExpression.Operator.ADD;
+        } else if (fnId.equals(BuiltinFunctions.NUMERIC_SUBTRACT)) {
+            return IntegerExpression.Operator.SUBTRACT;
+        } else if (fnId.equals(BuiltinFunctions.NUMERIC_MULTIPLY)) {
+            return IntegerExpression.Operator.MULTIPLY;
+        } else if (fnId.equals(BuiltinFunctions.EQ)) {
+            return IntegerExpression.Operator.EQ;
+        } else if (fnId.equals(BuiltinFunctions.NEQ)) {
+            return IntegerExpression.Operator.NEQ;
+        } else if (fnId.equals(BuiltinFunctions.LT)) {
+            return IntegerExpression.Operator.LT;
+        } else if (fnId.equals(BuiltinFunctions.LE)) {
+            return IntegerExpression.Operator.LE;
+        } else if (fnId.equals(BuiltinFunctions.GT)) {
+            return IntegerExpression.Operator.GT;
+        } else if (fnId.equals(BuiltinFunctions.GE)) {
+            return IntegerExpression.Operator.GE;
+        } else if (fnId.equals(BuiltinFunctions.AND)) {
+            return IntegerExpression.Operator.AND;
+        }
+        return null;
+    }
+
+    private static boolean isIntegerType(Object type) {
+        if (!(type instanceof IAType)) {
+            return false;
+        }
+        switch (TypeComputeUtils.getActualType((IAType) type).getTypeTag()) {
+            case TINYINT:
+            case SMALLINT:
+            case INTEGER:
+            case BIGINT:
+                return true;
+            default:
+                return false;
+        }
     }
 
     private IScalarEvaluatorFactory createConstantEvaluatorFactory(ConstantExpression expr, JobGenContext context)
@@ -156,12 +274,19 @@ public class QueryLogicalExpressionJobGen implements ILogicalExpressionJobGen {
     private IScalarEvaluatorFactory[] codegenArguments(AbstractFunctionCallExpression expr,
             IVariableTypeEnvironment env, IOperatorSchema[] inputSchemas, JobGenContext context)
             throws AlgebricksException {
+        return codegenArguments(expr, env, inputSchemas, context,
+                context.getPhysicalOptimizationConfig().isExpressionSpecializationEnabled());
+    }
+
+    private IScalarEvaluatorFactory[] codegenArguments(AbstractFunctionCallExpression expr,
+            IVariableTypeEnvironment env, IOperatorSchema[] inputSchemas, JobGenContext context, boolean specialize)
+            throws AlgebricksException {
         List<Mutable<ILogicalExpression>> arguments = expr.getArguments();
         int n = arguments.size();
         IScalarEvaluatorFactory[] args = new IScalarEvaluatorFactory[n];
         int i = 0;
         for (Mutable<ILogicalExpression> a : arguments) {
-            args[i++] = createEvaluatorFactory(a.getValue(), env, inputSchemas, context);
+            args[i++] = createEvaluatorFactory(a.getValue(), env, inputSchemas, context, specialize);
         }
         return args;
     }
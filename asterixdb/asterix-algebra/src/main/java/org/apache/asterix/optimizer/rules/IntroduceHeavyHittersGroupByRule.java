@@ -0,0 +1,199 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.optimizer.rules;
+
+import java.util.List;
+
+import org.apache.asterix.om.functions.BuiltinFunctions;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.common.utils.Pair;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalPlan;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AggregateOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AssignOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.GroupByOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.OrderOperator.IOrder.OrderKind;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.ExternalGroupByPOperator;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupOperatorDescriptor;
+
+/**
+ * If a top-K ORDER operator only orders by a descending count computed by a global hash group-by, then the group-by
+ * only needs to output the groups that may be among the K largest ones. Annotates such a group-by with the number of
+ * groups it needs and the variable of the partial counts it sums, so that it tracks the heaviest groups with a
+ * bounded summary and only aggregates those once its memory is exhausted.
+ * =================
+ * matching pattern:
+ * order (topK, desc $c) <- (one-to-one or merge exchange, assign, project)*
+ * <- group by (global, external) { aggregate [$c] <- [sum($w)] } <- exchange*
+ * <- group by (local) { aggregate [$w] <- [count(...)] }
+ * =
+ * producing pattern:
+ * the same plan where the physical operator of the global group by is set to look for the topK heaviest sums of $w
+ */
+public class IntroduceHeavyHittersGroupByRule implements IAlgebraicRewriteRule {
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        AbstractLogicalOperator op = (AbstractLogicalOperator) opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.ORDER) {
+            return false;
+        }
+        if (!context.getPhysicalOptimizationConfig().isGroupByHeavyHittersEnabled()) {
+            return false;
+        }
+        OrderOperator orderOp = (OrderOperator) op;
+        int topK = orderOp.getTopK();
+        List<Pair<OrderOperator.IOrder, Mutable<ILogicalExpression>>> orderExprs = orderOp.getOrderExpressions();
+        if (topK <= 0 || topK > ExternalGroupOperatorDescriptor.HEAVY_HITTERS_MAX_TOP_K || orderExprs.size() != 1
+                || orderExprs.get(0).first.getKind() != OrderKind.DESC) {
+            return false;
+        }
+        ILogicalExpression orderExpr = orderExprs.get(0).second.getValue();
+        if (orderExpr.getExpressionTag() != LogicalExpressionTag.VARIABLE) {
+            return false;
+        }
+        LogicalVariable countVar = ((VariableReferenceExpression) orderExpr).getVariableReference();
+
+        // finds the group-by that computes the count
+        AbstractLogicalOperator child = (AbstractLogicalOperator) orderOp.getInputs().get(0).getValue();
+        while (child.getOperatorTag() != LogicalOperatorTag.GROUP) {
+            switch (child.getOperatorTag()) {
+                case EXCHANGE:
+                    if (!isOrderPreservingExchange(child.getPhysicalOperator().getOperatorTag())) {
+                        return false;
+                    }
+                    break;
+                case ASSIGN:
+                    AssignOperator assign = (AssignOperator) child;
+                    int idx = assign.getVariables().indexOf(countVar);
+                    if (idx >= 0) {
+                        ILogicalExpression expr = assign.getExpressions().get(idx).getValue();
+                        if (expr.getExpressionTag() != LogicalExpressionTag.VARIABLE) {
+                            return false;
+                        }
+                        countVar = ((VariableReferenceExpression) expr).getVariableReference();
+                    }
+                    break;
+                case PROJECT:
+                    break;
+                default:
+                    return false;
+            }
+            child = (AbstractLogicalOperator) child.getInputs().get(0).getValue();
+        }
+        GroupByOperator globalGby = (GroupByOperator) child;
+        if (!globalGby.isGlobal() || globalGby.getPhysicalOperator() == null
+                || globalGby.getPhysicalOperator().getOperatorTag() != PhysicalOperatorTag.EXTERNAL_GROUP_BY) {
+            return false;
+        }
+        ExternalGroupByPOperator globalGbyPOp = (ExternalGroupByPOperator) globalGby.getPhysicalOperator();
+        if (globalGbyPOp.getHeavyHittersTopK() > 0) {
+            return false;
+        }
+        LogicalVariable weightVar = getAggregateArgument(globalGby, countVar, BuiltinFunctions.SQL_SUM,
+                BuiltinFunctions.SUM, BuiltinFunctions.GLOBAL_SQL_SUM, BuiltinFunctions.GLOBAL_SUM,
+                BuiltinFunctions.SERIAL_SQL_SUM, BuiltinFunctions.SERIAL_SUM, BuiltinFunctions.SERIAL_GLOBAL_SQL_SUM,
+                BuiltinFunctions.SERIAL_GLOBAL_SUM);
+        if (weightVar == null) {
+            return false;
+        }
+
+        // the weights must be counts computed by the local group-by that pre-aggregates for the global one
+        child = (AbstractLogicalOperator) globalGby.getInputs().get(0).getValue();
+        while (child.getOperatorTag() == LogicalOperatorTag.EXCHANGE) {
+            child = (AbstractLogicalOperator) child.getInputs().get(0).getValue();
+        }
+        if (child.getOperatorTag() != LogicalOperatorTag.GROUP || ((GroupByOperator) child).isGlobal()
+                || !producesCount((GroupByOperator) child, weightVar)) {
+            return false;
+        }
+        globalGbyPOp.setHeavyHitters(topK, weightVar);
+        return true;
+    }
+
+    private static boolean isOrderPreservingExchange(PhysicalOperatorTag exchangeTag) {
+        // the ORDER must see all the groups of the group-by partitions it orders
+        switch (exchangeTag) {
+            case ONE_TO_ONE_EXCHANGE:
+            case RANDOM_MERGE_EXCHANGE:
+            case SORT_MERGE_EXCHANGE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean producesCount(GroupByOperator localGby, LogicalVariable var) {
+        return getAggregateCall(localGby, var, BuiltinFunctions.SQL_COUNT, BuiltinFunctions.COUNT,
+                BuiltinFunctions.SERIAL_SQL_COUNT, BuiltinFunctions.SERIAL_COUNT) != null;
+    }
+
+    private static LogicalVariable getAggregateArgument(GroupByOperator gby, LogicalVariable var,
+            FunctionIdentifier... fids) {
+        AbstractFunctionCallExpression call = getAggregateCall(gby, var, fids);
+        if (call == null || call.getArguments().size() != 1) {
+            return null;
+        }
+        ILogicalExpression arg = call.getArguments().get(0).getValue();
+        return arg.getExpressionTag() == LogicalExpressionTag.VARIABLE
+                ? ((VariableReferenceExpression) arg).getVariableReference() : null;
+    }
+
+    private static AbstractFunctionCallExpression getAggregateCall(GroupByOperator gby, LogicalVariable var,
+            FunctionIdentifier... fids) {
+        if (gby.getNestedPlans().size() != 1) {
+            return null;
+        }
+        ILogicalPlan plan = gby.getNestedPlans().get(0);
+        if (plan.getRoots().size() != 1) {
+            return null;
+        }
+        ILogicalOperator root = plan.getRoots().get(0).getValue();
+        if (root.getOperatorTag() != LogicalOperatorTag.AGGREGATE) {
+            return null;
+        }
+        AggregateOperator aggOp = (AggregateOperator) root;
+        int idx = aggOp.getVariables().indexOf(var);
+        if (idx < 0) {
+            return null;
+        }
+        AbstractFunctionCallExpression call =
+                (AbstractFunctionCallExpression) aggOp.getExpressions().get(idx).getValue();
+        for (FunctionIdentifier fid : fids) {
+            if (fid.equals(call.getFunctionIdentifier())) {
+                return call;
+            }
+        }
+        return null;
+    }
+}
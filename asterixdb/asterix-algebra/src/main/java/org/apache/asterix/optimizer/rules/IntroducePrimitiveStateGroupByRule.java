@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.optimizer.rules;
+
+import java.util.List;
+
+import org.apache.asterix.om.functions.BuiltinFunctions;
+import org.apache.asterix.om.typecomputer.impl.TypeComputeUtils;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.IAType;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalPlan;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.ConstantExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IAlgebricksConstantValue;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
+import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AggregateOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.GroupByOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.ExternalGroupByPOperator;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate.Function;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate.ValueType;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveValueTags;
+
+/**
+ * If all the aggregate functions of an external group-by are SQL COUNTs, SUMs over integer, bigint, float or double
+ * values, or AVGs over such values, then the group-by can keep its aggregate states in primitive arrays. Null and
+ * missing values are skipped, as these functions do, and the results are tagged like theirs. Annotates such a group-by
+ * with the fixed-width aggregate of each function; the other group-bys keep the serialized aggregate states.
+ * MIN and MAX are not serializable, so an external group-by never computes them. The local AVG of a group-by that
+ * pre-aggregates produces a record, so only a group-by that computes an AVG at once can use primitive states.
+ * =================
+ * matching pattern:
+ * group by (external) { aggregate [$a1, ..., $an] <- [f1($x1), ..., fn($xn)] }
+ * where each fi is serial-sql-count, a serial SQL sum or serial-sql-avg, and each $xi has a fixed-width numeric type
+ * unless fi is a count
+ * =
+ * producing pattern:
+ * the same plan where the physical operator of the group by computes each fi in primitive states
+ */
+public class IntroducePrimitiveStateGroupByRule implements IAlgebraicRewriteRule {
+
+    private static final PrimitiveValueTags COUNT_TAGS = createTags(ATypeTag.SERIALIZED_NULL_TYPE_TAG,
+            ATypeTag.SERIALIZED_NULL_TYPE_TAG, ATypeTag.SERIALIZED_MISSING_TYPE_TAG);
+    private static final PrimitiveValueTags SUM_TAGS =
+            createTags(ATypeTag.SERIALIZED_NULL_TYPE_TAG, ATypeTag.SERIALIZED_NULL_TYPE_TAG,
+                    ATypeTag.SERIALIZED_MISSING_TYPE_TAG, ATypeTag.SERIALIZED_SYSTEM_NULL_TYPE_TAG);
+    // a local sum of a group without values is a system null, which the global sum skips
+    private static final PrimitiveValueTags LOCAL_SUM_TAGS =
+            createTags(ATypeTag.SERIALIZED_SYSTEM_NULL_TYPE_TAG, ATypeTag.SERIALIZED_NULL_TYPE_TAG,
+                    ATypeTag.SERIALIZED_MISSING_TYPE_TAG, ATypeTag.SERIALIZED_SYSTEM_NULL_TYPE_TAG);
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        AbstractLogicalOperator op = (AbstractLogicalOperator) opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.GROUP
+                || !context.getPhysicalOptimizationConfig().isGroupByPrimitiveStatesEnabled()) {
+            return false;
+        }
+        GroupByOperator gby = (GroupByOperator) op;
+        if (gby.getPhysicalOperator() == null
+                || gby.getPhysicalOperator().getOperatorTag() != PhysicalOperatorTag.EXTERNAL_GROUP_BY) {
+            return false;
+        }
+        ExternalGroupByPOperator gbyPOp = (ExternalGroupByPOperator) gby.getPhysicalOperator();
+        if (gbyPOp.getPrimitiveAggregates() != null || gby.getNestedPlans().size() != 1) {
+            return false;
+        }
+        ILogicalPlan plan = gby.getNestedPlans().get(0);
+        if (plan.getRoots().size() != 1
+                || plan.getRoots().get(0).getValue().getOperatorTag() != LogicalOperatorTag.AGGREGATE) {
+            return false;
+        }
+        IVariableTypeEnvironment env = context.getOutputTypeEnvironment(gby.getInputs().get(0).getValue());
+        if (env == null) {
+            return false;
+        }
+        List<Mutable<ILogicalExpression>> aggExprs =
+                ((AggregateOperator) plan.getRoots().get(0).getValue()).getExpressions();
+        PrimitiveFieldAggregate[] aggregates = new PrimitiveFieldAggregate[aggExprs.size()];
+        for (int i = 0; i < aggregates.length; i++) {
+            ILogicalExpression aggExpr = aggExprs.get(i).getValue();
+            if (aggExpr.getExpressionTag() != LogicalExpressionTag.FUNCTION_CALL) {
+                return false;
+            }
+            aggregates[i] = getPrimitiveAggregate((AbstractFunctionCallExpression) aggExpr, env);
+            if (aggregates[i] == null) {
+                return false;
+            }
+        }
+        gbyPOp.setPrimitiveAggregates(aggregates);
+        return true;
+    }
+
+    /**
+     * @return the fixed-width aggregate that computes the given aggregate function, or null if there is none
+     */
+    private static PrimitiveFieldAggregate getPrimitiveAggregate(AbstractFunctionCallExpression call,
+            IVariableTypeEnvironment env) throws AlgebricksException {
+        if (call.getArguments().size() != 1) {
+            return null;
+        }
+        ILogicalExpression arg = call.getArguments().get(0).getValue();
+        FunctionIdentifier fid = call.getFunctionIdentifier();
+        if (fid.equals(BuiltinFunctions.SERIAL_SQL_COUNT)) {
+            // the value of a counted argument does not matter, only whether it is null or missing
+            if (arg.getExpressionTag() == LogicalExpressionTag.CONSTANT) {
+                IAlgebricksConstantValue value = ((ConstantExpression) arg).getValue();
+                return value.isNull() || value.isMissing() ? null
+                        : new PrimitiveFieldAggregate(Function.COUNT, -1, ValueType.INT64, COUNT_TAGS, fid.getName());
+            }
+            return arg.getExpressionTag() == LogicalExpressionTag.VARIABLE
+                    ? new PrimitiveFieldAggregate(Function.COUNT, -1, ValueType.INT64, COUNT_TAGS, fid.getName())
+                    : null;
+        }
+        PrimitiveValueTags tags;
+        Function function;
+        if (fid.equals(BuiltinFunctions.SERIAL_SQL_SUM) || fid.equals(BuiltinFunctions.SERIAL_GLOBAL_SQL_SUM)) {
+            function = Function.SUM;
+            tags = SUM_TAGS;
+        } else if (fid.equals(BuiltinFunctions.SERIAL_LOCAL_SQL_SUM)
+                || fid.equals(BuiltinFunctions.SERIAL_INTERMEDIATE_SQL_SUM)) {
+            function = Function.SUM;
+            tags = LOCAL_SUM_TAGS;
+        } else if (fid.equals(BuiltinFunctions.SERIAL_SQL_AVG)) {
+            function = Function.AVG;
+            tags = SUM_TAGS;
+        } else {
+            return null;
+        }
+        if (arg.getExpressionTag() != LogicalExpressionTag.VARIABLE) {
+            return null;
+        }
+        ValueType valueType =
+                getValueType((IAType) env.getVarType(((VariableReferenceExpression) arg).getVariableReference()));
+        // the serializable sums report their overflows as agg-sum
+        return valueType != null ? new PrimitiveFieldAggregate(function, -1, valueType, tags,
+                function == Function.SUM ? BuiltinFunctions.SUM.getName() : fid.getName()) : null;
+    }
+
+    private static ValueType getValueType(IAType type) {
+        if (type == null) {
+            return null;
+        }
+        // the values of an optional type may also be null or missing
+        switch (TypeComputeUtils.getActualType(type).getTypeTag()) {
+            case INTEGER:
+                return ValueType.INT32;
+            case BIGINT:
+                return ValueType.INT64;
+            case FLOAT:
+                return ValueType.FLOAT;
+            case DOUBLE:
+                return ValueType.DOUBLE;
+            default:
+                return null;
+        }
+    }
+
+    private static PrimitiveValueTags createTags(byte emptyTag, byte... absentTags) {
+        return new PrimitiveValueTags(ATypeTag.SERIALIZED_INT32_TYPE_TAG, ATypeTag.SERIALIZED_INT64_TYPE_TAG,
+                ATypeTag.SERIALIZED_FLOAT_TYPE_TAG, ATypeTag.SERIALIZED_DOUBLE_TYPE_TAG, emptyTag, absentTags);
+    }
+}
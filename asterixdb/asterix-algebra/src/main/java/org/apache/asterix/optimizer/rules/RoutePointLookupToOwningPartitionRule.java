@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.optimizer.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.asterix.algebra.operators.physical.BTreeSearchPOperator;
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.IPhysicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.ConstantExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IAlgebricksConstantValue;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AssignOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.HashPartitionExchangePOperator;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+
+/**
+ * Pattern:
+ * DISTRIBUTE_RESULT -> (PROJECT | ASSIGN | SELECT | LIMIT | gathering EXCHANGE)* -> UNNEST_MAP (primary key lookup)
+ * -> (HASH_PARTITION_EXCHANGE | ONE_TO_ONE_EXCHANGE) -> (ASSIGN)* -> EMPTY_TUPLE_SOURCE
+ * where the search keys are constants.
+ * Only the partition of the primary index that owns the keys can find them, so the search and the operators above
+ * it, as well as the operators below it that compute the keys on every partition, only need to run on that partition
+ * instead of being scheduled on all the partitions.
+ */
+public class RoutePointLookupToOwningPartitionRule implements IAlgebraicRewriteRule {
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context) {
+        return false;
+    }
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        ILogicalOperator op = opRef.getValue();
+        if (op.getOperatorTag() != LogicalOperatorTag.DISTRIBUTE_RESULT
+                || !context.getPhysicalOptimizationConfig().isPointLookupRoutingEnabled()) {
+            return false;
+        }
+        if (context.checkIfInDontApplySet(this, op)) {
+            return false;
+        }
+        context.addToDontApplySet(this, op);
+
+        AbstractLogicalOperator child = (AbstractLogicalOperator) op.getInputs().get(0).getValue();
+        while (isPartitionIndependent(child)) {
+            child = (AbstractLogicalOperator) child.getInputs().get(0).getValue();
+        }
+        if (child.getOperatorTag() != LogicalOperatorTag.UNNEST_MAP
+                || !(child.getPhysicalOperator() instanceof BTreeSearchPOperator)) {
+            return false;
+        }
+        BTreeSearchPOperator search = (BTreeSearchPOperator) child.getPhysicalOperator();
+        AbstractLogicalOperator exchange = (AbstractLogicalOperator) child.getInputs().get(0).getValue();
+        if (!search.isPrimaryKeyEqualitySearch() || exchange.getOperatorTag() != LogicalOperatorTag.EXCHANGE) {
+            return false;
+        }
+        ILogicalOperator keys = exchange.getInputs().get(0).getValue();
+        List<LogicalVariable> lowKeyVars = search.getLowKeyVarList();
+        List<LogicalVariable> highKeyVars = search.getHighKeyVarList();
+        for (int i = 0; i < lowKeyVars.size(); i++) {
+            // the low and high keys of a constant lookup are usually assigned to different variables
+            IAlgebricksConstantValue lowKey = findConstant(keys, lowKeyVars.get(i));
+            if (lowKey == null || (!lowKeyVars.get(i).equals(highKeyVars.get(i))
+                    && !lowKey.equals(findConstant(keys, highKeyVars.get(i))))) {
+                return false;
+            }
+        }
+        List<LogicalVariable> keyVars;
+        switch (exchange.getPhysicalOperator().getOperatorTag()) {
+            case HASH_PARTITION_EXCHANGE:
+                // the keys are sent to the partition that owns them
+                keyVars = ((HashPartitionExchangePOperator) exchange.getPhysicalOperator()).getHashFields();
+                break;
+            case ONE_TO_ONE_EXCHANGE:
+                // every partition computes the keys and searches its own partition of the index, which is hash
+                // partitioned on the primary keys in the order of the search keys
+                keyVars = lowKeyVars;
+                break;
+            default:
+                return false;
+        }
+        List<IAlgebricksConstantValue> routingKeys = new ArrayList<>(keyVars.size());
+        for (LogicalVariable keyVar : keyVars) {
+            IAlgebricksConstantValue key = findConstant(keys, keyVar);
+            if (key == null) {
+                return false;
+            }
+            routingKeys.add(key);
+        }
+        search.setRoutingKeys(keyVars, routingKeys);
+        return true;
+    }
+
+    /**
+     * @return true if the given operator runs on the partitions of its input, whatever they are
+     */
+    private static boolean isPartitionIndependent(AbstractLogicalOperator op) {
+        switch (op.getOperatorTag()) {
+            case PROJECT:
+            case ASSIGN:
+            case SELECT:
+            case LIMIT:
+                return true;
+            case EXCHANGE:
+                IPhysicalOperator pOp = op.getPhysicalOperator();
+                return pOp.getOperatorTag() == PhysicalOperatorTag.ONE_TO_ONE_EXCHANGE
+                        || pOp.getOperatorTag() == PhysicalOperatorTag.RANDOM_MERGE_EXCHANGE
+                        || pOp.getOperatorTag() == PhysicalOperatorTag.SORT_MERGE_EXCHANGE;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return the constant the given variable is assigned to by an assign of a chain of assigns over an empty tuple
+     *         source, or null if there is no such constant
+     */
+    private static IAlgebricksConstantValue findConstant(ILogicalOperator op, LogicalVariable var) {
+        IAlgebricksConstantValue constant = null;
+        ILogicalOperator current = op;
+        while (current.getOperatorTag() == LogicalOperatorTag.ASSIGN) {
+            AssignOperator assign = (AssignOperator) current;
+            int index = assign.getVariables().indexOf(var);
+            if (index >= 0 && constant == null) {
+                ILogicalExpression expr = assign.getExpressions().get(index).getValue();
+                if (expr.getExpressionTag() != LogicalExpressionTag.CONSTANT) {
+                    return null;
+                }
+                constant = ((ConstantExpression) expr).getValue();
+            }
+            current = current.getInputs().get(0).getValue();
+        }
+        return current.getOperatorTag() == LogicalOperatorTag.EMPTYTUPLESOURCE ? constant : null;
+    }
+}
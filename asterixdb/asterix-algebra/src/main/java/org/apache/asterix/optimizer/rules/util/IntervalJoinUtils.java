@@ -125,9 +125,12 @@ public class IntervalJoinUtils {
             List<LogicalVariable> sideLeft, List<LogicalVariable> sideRight, IOptimizationContext context,
             IntervalPartitions intervalPartitions) throws CompilationException {
         IIntervalJoinUtilFactory mjcf = createIntervalJoinCheckerFactory(fi, intervalPartitions.getRangeMap());
+        // The partitioned join only joins intervals that intersect, so it cannot evaluate before and after.
+        boolean partitioned = context.getPhysicalOptimizationConfig().isIntervalJoinPartitioned()
+                && !fi.equals(BuiltinFunctions.INTERVAL_BEFORE) && !fi.equals(BuiltinFunctions.INTERVAL_AFTER);
         op.setPhysicalOperator(new IntervalMergeJoinPOperator(op.getJoinKind(),
                 AbstractJoinPOperator.JoinPartitioningType.BROADCAST, sideLeft, sideRight,
-                context.getPhysicalOptimizationConfig().getMaxFramesForJoin(), mjcf, intervalPartitions));
+                context.getPhysicalOptimizationConfig().getMaxFramesForJoin(), mjcf, intervalPartitions, partitioned));
     }
 
     /**
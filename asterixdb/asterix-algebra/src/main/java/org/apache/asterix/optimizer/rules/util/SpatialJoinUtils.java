@@ -35,6 +35,7 @@ import org.apache.asterix.om.types.BuiltinType;
 import org.apache.asterix.om.types.IAType;
 import org.apache.asterix.runtime.operators.joins.spatial.utils.ISpatialJoinUtilFactory;
 import org.apache.asterix.runtime.operators.joins.spatial.utils.IntersectSpatialJoinUtilFactory;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.SpatialJoinGrid;
 import org.apache.commons.lang3.mutable.Mutable;
 import org.apache.commons.lang3.mutable.MutableObject;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
@@ -76,6 +77,7 @@ import org.apache.hyracks.algebricks.core.algebra.operators.physical.ReplicatePO
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.StreamProjectPOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.physical.UnnestPOperator;
 import org.apache.hyracks.algebricks.core.algebra.util.OperatorManipulationUtil;
+import org.apache.hyracks.algebricks.core.rewriter.base.PhysicalOptimizationConfig;
 import org.apache.hyracks.api.exceptions.SourceLocation;
 
 public class SpatialJoinUtils {
@@ -127,11 +129,14 @@ public class SpatialJoinUtils {
     }
 
     private static void setSpatialJoinOp(AbstractBinaryJoinOperator op, List<LogicalVariable> keysLeftBranch,
-            List<LogicalVariable> keysRightBranch, IOptimizationContext context) throws AlgebricksException {
+            List<LogicalVariable> keysRightBranch, IOptimizationContext context, SpatialJoinGrid grid)
+            throws AlgebricksException {
         ISpatialJoinUtilFactory isjuf = new IntersectSpatialJoinUtilFactory();
-        op.setPhysicalOperator(new SpatialJoinPOperator(op.getJoinKind(),
-                AbstractJoinPOperator.JoinPartitioningType.PAIRWISE, keysLeftBranch, keysRightBranch,
-                context.getPhysicalOptimizationConfig().getMaxFramesForJoin(), isjuf));
+        PhysicalOptimizationConfig physicalOptimizationConfig = context.getPhysicalOptimizationConfig();
+        op.setPhysicalOperator(
+                new SpatialJoinPOperator(op.getJoinKind(), AbstractJoinPOperator.JoinPartitioningType.PAIRWISE,
+                        keysLeftBranch, keysRightBranch, physicalOptimizationConfig.getMaxFramesForJoin(), isjuf,
+                        physicalOptimizationConfig.isSpatialJoinPartitioned(), grid));
         op.recomputeSchema();
         context.computeAndSetTypeEnvironmentForOperator(op);
     }
@@ -260,7 +265,10 @@ public class SpatialJoinUtils {
         keysRightBranch.add(rightTileIdVar);
         keysRightBranch.add(rightInputVar);
 
-        SpatialJoinUtils.setSpatialJoinOp(op, keysLeftBranch, keysRightBranch, context);
+        // The grid is known at compile time, so the join can eliminate duplicates itself.
+        SpatialJoinGrid grid = new SpatialJoinGrid(spatialJoinAnn.getMinX(), spatialJoinAnn.getMinY(),
+                spatialJoinAnn.getMaxX(), spatialJoinAnn.getMaxY(), numRows, numColumns);
+        SpatialJoinUtils.setSpatialJoinOp(op, keysLeftBranch, keysRightBranch, context, grid);
     }
 
     private static void buildSpatialJoinPlanWithDynamicMbr(AbstractBinaryJoinOperator op, IOptimizationContext context,
@@ -416,7 +424,7 @@ public class SpatialJoinUtils {
         InnerJoinOperator spatialJoinOp =
                 new InnerJoinOperator(new MutableObject<>(updatedJoinCondition), leftInputOp, rightInputOp);
         spatialJoinOp.setSourceLocation(op.getSourceLocation());
-        SpatialJoinUtils.setSpatialJoinOp(spatialJoinOp, keysLeftBranch, keysRightBranch, context);
+        SpatialJoinUtils.setSpatialJoinOp(spatialJoinOp, keysLeftBranch, keysRightBranch, context, null);
         spatialJoinOp.setSchema(op.getSchema());
         context.computeAndSetTypeEnvironmentForOperator(spatialJoinOp);
 
@@ -21,6 +21,7 @@ package org.apache.asterix.translator;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +32,7 @@ import org.apache.asterix.algebra.base.ILangExpressionToPlanTranslator;
 import org.apache.asterix.common.exceptions.CompilationException;
 import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.common.functions.FunctionSignature;
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
 import org.apache.asterix.lang.common.base.AbstractClause;
 import org.apache.asterix.lang.common.base.AbstractExpression;
 import org.apache.asterix.lang.common.base.Clause.ClauseType;
@@ -92,6 +94,7 @@ import org.apache.asterix.om.base.IAObject;
 import org.apache.asterix.om.constants.AsterixConstantValue;
 import org.apache.asterix.om.functions.BuiltinFunctions;
 import org.apache.asterix.om.typecomputer.base.TypeCastUtils;
+import org.apache.asterix.om.types.ATypeTag;
 import org.apache.asterix.om.types.BuiltinType;
 import org.apache.asterix.om.types.IAType;
 import org.apache.commons.lang3.mutable.Mutable;
@@ -135,8 +138,11 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.UnnestOperat
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.WindowOperator;
 import org.apache.hyracks.algebricks.core.algebra.plan.ALogicalPlanImpl;
 import org.apache.hyracks.algebricks.core.algebra.util.OperatorManipulationUtil;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
 import org.apache.hyracks.util.LogRedactionUtil;
+import org.apache.hyracks.util.string.UTF8StringUtil;
 
 /**
  * Each visit returns a pair of an operator and a variable. The variable
@@ -154,15 +160,42 @@ public class SqlppExpressionToPlanTranslator extends LangExpressionToPlanTransla
 
     public static final String REWRITE_IN_AS_OR_OPTION = "rewrite_in_as_or";
     private static final boolean REWRITE_IN_AS_OR_OPTION_DEFAULT = true;
+    // the statement parameters are read from the job parameters at runtime instead of being inlined as constants, so
+    // that the plan does not depend on their values, see getJobParameters()
+    public static final String BIND_STATEMENT_PARAMETERS_OPTION = "_internal_bind_statement_parameters";
+    private static final boolean BIND_STATEMENT_PARAMETERS_OPTION_DEFAULT = false;
 
     private final Map<VarIdentifier, IAObject> externalVars;
     private final boolean translateInAsOr;
+    private final boolean bindExternalVars;
 
     public SqlppExpressionToPlanTranslator(MetadataProvider metadataProvider, int currentVarCounter,
             Map<VarIdentifier, IAObject> externalVars) throws AlgebricksException {
         super(metadataProvider, currentVarCounter);
         this.externalVars = externalVars != null ? externalVars : Collections.emptyMap();
         translateInAsOr = metadataProvider.getBooleanProperty(REWRITE_IN_AS_OR_OPTION, REWRITE_IN_AS_OR_OPTION_DEFAULT);
+        bindExternalVars = metadataProvider.getBooleanProperty(BIND_STATEMENT_PARAMETERS_OPTION,
+                BIND_STATEMENT_PARAMETERS_OPTION_DEFAULT);
+    }
+
+    /**
+     * @return the job parameters that hold the values of the given statement parameters, for a job compiled with
+     *         {@link #BIND_STATEMENT_PARAMETERS_OPTION}
+     */
+    public static Map<byte[], byte[]> getJobParameters(Map<VarIdentifier, IAObject> externalVars)
+            throws HyracksDataException {
+        Map<byte[], byte[]> jobParameters = new HashMap<>();
+        ArrayBackedValueStorage storage = new ArrayBackedValueStorage();
+        for (Map.Entry<VarIdentifier, IAObject> externalVar : externalVars.entrySet()) {
+            IAObject value = externalVar.getValue();
+            storage.reset();
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(value.getType()).serialize(value,
+                    storage.getDataOutput());
+            // get-job-param() looks the parameters up by the bytes of the name without the type tag
+            jobParameters.put(UTF8StringUtil.writeStringToBytes(externalVar.getKey().getValue()),
+                    storage.toByteArray());
+        }
+        return jobParameters;
     }
 
     @Override
@@ -717,12 +750,36 @@ public class SqlppExpressionToPlanTranslator extends LangExpressionToPlanTransla
         if (SqlppVariableUtil.isExternalVariableIdentifier(varId)) {
             SourceLocation sourceLoc = varExpr.getSourceLocation();
             IAObject value = getExternalVariableValue(varId, sourceLoc);
-            return translateConstantValue(value, sourceLoc);
+            // null is the only value of its type, so it does not need to be bound
+            return bindExternalVars && value.getType().getTypeTag() != ATypeTag.NULL
+                    ? translateJobParameter(varId, value.getType(), sourceLoc)
+                    : translateConstantValue(value, sourceLoc);
         }
 
         return super.translateVariableRef(varExpr);
     }
 
+    private ILogicalExpression translateJobParameter(VarIdentifier varId, IAType valueType, SourceLocation sourceLoc)
+            throws CompilationException {
+        ConstantExpression nameExpr = new ConstantExpression(new AsterixConstantValue(new AString(varId.getValue())));
+        nameExpr.setSourceLocation(sourceLoc);
+        ScalarFunctionCallExpression paramExpr =
+                new ScalarFunctionCallExpression(FunctionUtil.getFunctionInfo(BuiltinFunctions.GET_JOB_PARAMETER));
+        paramExpr.setSourceLocation(sourceLoc);
+        paramExpr.getArguments().add(new MutableObject<>(nameExpr));
+        if (valueType.getTypeTag().isDerivedType()) {
+            // like a constant of a derived type, which is cast to an open type
+            return paramExpr;
+        }
+        // the compiled query is only reused for parameters of the same type
+        ScalarFunctionCallExpression castExpr =
+                new ScalarFunctionCallExpression(FunctionUtil.getFunctionInfo(BuiltinFunctions.CAST_TYPE));
+        castExpr.setSourceLocation(sourceLoc);
+        castExpr.getArguments().add(new MutableObject<>(paramExpr));
+        TypeCastUtils.setRequiredAndInputTypes(castExpr, valueType, BuiltinType.ANY);
+        return castExpr;
+    }
+
     private IAObject getExternalVariableValue(VarIdentifier varId, SourceLocation sourceLoc)
             throws CompilationException {
         IAObject value = externalVars.get(varId);
@@ -1076,7 +1133,7 @@ public class SqlppExpressionToPlanTranslator extends LangExpressionToPlanTransla
                 }
                 for (Expression itemExpr : itemExprs) {
                     boolean isConst = itemExpr.getKind() == Kind.LITERAL_EXPRESSION
-                            || (itemExpr.getKind() == Kind.VARIABLE_EXPRESSION
+                            || (itemExpr.getKind() == Kind.VARIABLE_EXPRESSION && !bindExternalVars
                                     && SqlppVariableUtil.isExternalVariableReference((VariableExpr) itemExpr));
                     if (!isConst) {
                         return false;
@@ -1085,7 +1142,8 @@ public class SqlppExpressionToPlanTranslator extends LangExpressionToPlanTransla
                 return true;
             case VARIABLE_EXPRESSION:
                 VarIdentifier inVarId = ((VariableExpr) inExpr).getVar();
-                if (!SqlppVariableUtil.isExternalVariableIdentifier(inVarId)) {
+                if (!SqlppVariableUtil.isExternalVariableIdentifier(inVarId) || bindExternalVars) {
+                    // the number of items of a bound list parameter is only known at runtime
                     return false;
                 }
                 IAObject inValue = externalVars.get(inVarId);
@@ -23,6 +23,7 @@ import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Supplier;
 
 import org.apache.asterix.app.result.ResultReader;
+import org.apache.asterix.common.api.ICompiledQueryCache;
 import org.apache.asterix.common.api.IConfigValidator;
 import org.apache.asterix.common.api.IConfigValidatorFactory;
 import org.apache.asterix.common.api.ICoordinationService;
@@ -59,6 +60,7 @@ import org.apache.asterix.runtime.job.listener.NodeJobTracker;
 import org.apache.asterix.runtime.transaction.ResourceIdManager;
 import org.apache.asterix.runtime.utils.BulkTxnIdFactory;
 import org.apache.asterix.runtime.utils.ClusterStateManager;
+import org.apache.asterix.runtime.utils.CompiledQueryCache;
 import org.apache.asterix.runtime.utils.NoOpCoordinationService;
 import org.apache.asterix.runtime.utils.RequestTracker;
 import org.apache.asterix.runtime.utils.RuntimeComponentsProvider;
@@ -109,6 +111,7 @@ public class CcApplicationContext implements ICcApplicationContext {
     private final ICompressionManager compressionManager;
     private final IReceptionist receptionist;
     private final IRequestTracker requestTracker;
+    private final ICompiledQueryCache compiledQueryCache;
     private final IConfigValidator configValidator;
     private final IAdapterFactoryService adapterFactoryService;
     private final ReentrantReadWriteLock compilationLock = new ReentrantReadWriteLock(true);
@@ -152,6 +155,7 @@ public class CcApplicationContext implements ICcApplicationContext {
         compressionManager = new CompressionManager(storageProperties);
         receptionist = receptionistFactory.create();
         requestTracker = new RequestTracker(this);
+        compiledQueryCache = new CompiledQueryCache(this);
         configValidator = configValidatorFactory.create();
         this.adapterFactoryService = adapterFactoryService;
     }
@@ -348,6 +352,11 @@ public class CcApplicationContext implements ICcApplicationContext {
         return requestTracker;
     }
 
+    @Override
+    public ICompiledQueryCache getCompiledQueryCache() {
+        return compiledQueryCache;
+    }
+
     @Override
     public IAdapterFactoryService getAdapterFactoryService() {
         return adapterFactoryService;
@@ -91,6 +91,7 @@ import org.apache.hyracks.api.result.IResultSet;
 import org.apache.hyracks.client.result.ResultSet;
 import org.apache.hyracks.control.common.controllers.NCConfig;
 import org.apache.hyracks.control.nc.NodeControllerService;
+import org.apache.hyracks.dataflow.std.join.JoinBuildTableCache;
 import org.apache.hyracks.ipc.impl.HyracksConnection;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIOOperationScheduler;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicyFactory;
@@ -157,6 +158,7 @@ public class NCAppRuntimeContext implements INcApplicationContext {
     private IReplicaManager replicaManager;
     private IReceptionist receptionist;
     private ICacheManager cacheManager;
+    private final JoinBuildTableCache joinBuildTableCache;
     private IConfigValidator configValidator;
     private IDiskWriteRateLimiterProvider diskWriteRateLimiterProvider;
 
@@ -178,6 +180,8 @@ public class NCAppRuntimeContext implements INcApplicationContext {
         resourceIdFactory = new GlobalResourceIdFactoryProvider(ncServiceContext).createResourceIdFactory();
         persistedResourceRegistry = ncServiceContext.getPersistedResourceRegistry();
         cacheManager = new CacheManager();
+        long joinBuildCacheSize = storageProperties.getJoinBuildCacheSize();
+        joinBuildTableCache = joinBuildCacheSize > 0 ? new JoinBuildTableCache(joinBuildCacheSize) : null;
     }
 
     @Override
@@ -603,6 +607,11 @@ public class NCAppRuntimeContext implements INcApplicationContext {
         return cacheManager;
     }
 
+    @Override
+    public JoinBuildTableCache getJoinBuildTableCache() {
+        return joinBuildTableCache;
+    }
+
     @Override
     public IConfigValidator getConfigValidator() {
         return configValidator;
@@ -28,6 +28,7 @@ import java.io.FileInputStream;
 import java.io.InputStream;
 import java.rmi.RemoteException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
@@ -67,10 +68,14 @@ import org.apache.asterix.app.result.fields.ResultsPrinter;
 import org.apache.asterix.app.result.fields.StatusPrinter;
 import org.apache.asterix.common.api.IApplicationContext;
 import org.apache.asterix.common.api.IClientRequest;
+import org.apache.asterix.common.api.ICompiledQueryCache;
+import org.apache.asterix.common.api.ICompiledQueryCache.ICompiledQuery;
 import org.apache.asterix.common.api.IMetadataLockManager;
+import org.apache.asterix.common.api.IRequestReference;
 import org.apache.asterix.common.api.IRequestTracker;
 import org.apache.asterix.common.api.IResponsePrinter;
 import org.apache.asterix.common.cluster.IClusterStateManager;
+import org.apache.asterix.common.config.CompilerProperties;
 import org.apache.asterix.common.config.DatasetConfig.DatasetType;
 import org.apache.asterix.common.config.DatasetConfig.ExternalFilePendingOp;
 import org.apache.asterix.common.config.DatasetConfig.IndexType;
@@ -90,6 +95,7 @@ import org.apache.asterix.common.functions.ExternalFunctionLanguage;
 import org.apache.asterix.common.functions.FunctionSignature;
 import org.apache.asterix.common.metadata.DatasetFullyQualifiedName;
 import org.apache.asterix.common.metadata.DataverseName;
+import org.apache.asterix.common.metadata.IMetadataLock;
 import org.apache.asterix.common.metadata.IMetadataLockUtil;
 import org.apache.asterix.common.utils.JobUtils;
 import org.apache.asterix.common.utils.JobUtils.ProgressState;
@@ -211,6 +217,7 @@ import org.apache.asterix.runtime.fulltext.AbstractFullTextFilterDescriptor;
 import org.apache.asterix.runtime.fulltext.FullTextConfigDescriptor;
 import org.apache.asterix.runtime.fulltext.IFullTextFilterDescriptor;
 import org.apache.asterix.runtime.fulltext.StopwordsFullTextFilterDescriptor;
+import org.apache.asterix.runtime.job.listener.JobEventListenerFactory;
 import org.apache.asterix.runtime.operators.StreamStats;
 import org.apache.asterix.transaction.management.service.transaction.DatasetIdFactory;
 import org.apache.asterix.translator.AbstractLangTranslator;
@@ -227,6 +234,7 @@ import org.apache.asterix.translator.IStatementExecutor;
 import org.apache.asterix.translator.SchedulableClientRequest;
 import org.apache.asterix.translator.SessionConfig;
 import org.apache.asterix.translator.SessionOutput;
+import org.apache.asterix.translator.SqlppExpressionToPlanTranslator;
 import org.apache.asterix.translator.TypeTranslator;
 import org.apache.asterix.translator.util.ValidateUtil;
 import org.apache.asterix.utils.DataverseUtil;
@@ -246,6 +254,7 @@ import org.apache.hyracks.algebricks.core.algebra.util.OperatorPropertiesUtil;
 import org.apache.hyracks.algebricks.data.IAWriterFactory;
 import org.apache.hyracks.api.client.IClusterInfoCollector;
 import org.apache.hyracks.api.client.IHyracksClientConnection;
+import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.exceptions.IWarningCollector;
 import org.apache.hyracks.api.exceptions.SourceLocation;
@@ -260,6 +269,8 @@ import org.apache.hyracks.api.result.IResultSet;
 import org.apache.hyracks.api.result.ResultSetId;
 import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.common.controllers.CCConfig;
+import org.apache.hyracks.dataflow.std.join.InMemoryHashJoinOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.join.OptimizedHybridHashJoinOperatorDescriptor;
 import org.apache.hyracks.storage.am.common.dataflow.IndexDropOperatorDescriptor.DropOption;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMMergePolicyFactory;
 import org.apache.hyracks.storage.am.lsm.invertedindex.fulltext.TokenizerCategory;
@@ -360,6 +371,10 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 rewriteStatement(stmt, stmtRewriter, metadataProvider); // Rewrite the statement's AST.
                 Statement.Kind kind = stmt.getKind();
                 statementProperties.setKind(kind);
+                final boolean invalidatesCompiledQueries = invalidatesCompiledQueries(stmt);
+                if (invalidatesCompiledQueries) {
+                    appCtx.getCompiledQueryCache().invalidate();
+                }
                 switch (kind) {
                     case SET:
                         handleSetStatement(stmt, config);
@@ -518,6 +533,11 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                         throw new CompilationException(ErrorCode.COMPILATION_ILLEGAL_STATE, stmt.getSourceLocation(),
                                 "Unexpected statement: " + kind);
                 }
+                if (invalidatesCompiledQueries) {
+                    // queries compiled while the statement was running might have been compiled against the old
+                    // metadata
+                    appCtx.getCompiledQueryCache().invalidate();
+                }
             }
         } finally {
             // async queries are completed after their job completes
@@ -3690,6 +3710,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         metadataProvider.validateDatabaseObjectName(stmtInsertUpsert.getDataverseName(), datasetName,
                 stmtInsertUpsert.getSourceLocation());
         DataverseName dataverseName = getActiveDataverseName(stmtInsertUpsert.getDataverseName());
+        metadataProvider.enableJoinBuildTablePinning();
         final IMetadataLocker locker = new IMetadataLocker() {
             @Override
             public void lock() throws AlgebricksException {
@@ -3699,6 +3720,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
             @Override
             public void unlock() {
+                metadataProvider.releaseJoinBuildTables();
                 metadataProvider.getLocks().unlock();
                 compilationLock.readLock().unlock();
             }
@@ -3751,6 +3773,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
         MetadataTransactionContext mdTxnCtx = MetadataManager.INSTANCE.beginTransaction();
         boolean bActiveTxn = true;
         metadataProvider.setMetadataTxnContext(mdTxnCtx);
+        metadataProvider.enableJoinBuildTablePinning();
         lockUtil.insertDeleteUpsertBegin(lockManager, metadataProvider.getLocks(), dataverseName, datasetName);
         try {
             metadataProvider.setWriteTransaction(true);
@@ -3774,6 +3797,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             }
             throw e;
         } finally {
+            metadataProvider.releaseJoinBuildTables();
             metadataProvider.getLocks().unlock();
         }
     }
@@ -4525,12 +4549,21 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
     private interface IStatementCompiler {
         JobSpecification compile() throws AlgebricksException, RemoteException, ACIDException;
+
+        default JobId run(IHyracksClientConnection hcc, JobSpecification jobSpec, EnumSet<JobFlag> jobFlags)
+                throws Exception {
+            return JobUtils.runJob(hcc, jobSpec, jobFlags, false);
+        }
+
+        default void runFailed() {
+        }
     }
 
     protected void handleQuery(MetadataProvider metadataProvider, Query query, IHyracksClientConnection hcc,
             IResultSet resultSet, ResultDelivery resultDelivery, ResultMetadata outMetadata, Stats stats,
             IRequestParameters requestParameters, Map<String, IAObject> stmtParams, IStatementRewriter stmtRewriter)
             throws Exception {
+        metadataProvider.enableJoinBuildTablePinning();
         final IMetadataLocker locker = new IMetadataLocker() {
             @Override
             public void lock() {
@@ -4539,6 +4572,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
 
             @Override
             public void unlock() {
+                metadataProvider.releaseJoinBuildTables();
                 metadataProvider.getLocks().unlock();
                 // release external datasets' locks acquired during compilation of the query
                 ExternalDatasetsRegistry.INSTANCE.releaseAcquiredLocks(metadataProvider);
@@ -4566,8 +4600,175 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 throw e;
             }
         };
-        deliverResult(hcc, resultSet, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats,
-                requestParameters, true);
+        final ICompiledQueryCache compiledQueryCache = appCtx.getCompiledQueryCache();
+        if (!isCacheableQuery(metadataProvider, query, requestParameters)) {
+            deliverResult(hcc, resultSet, compiler, metadataProvider, locker, resultDelivery, outMetadata, stats,
+                    requestParameters, true);
+            return;
+        }
+        final Object key = getCompiledQueryKey(metadataProvider, query, requestParameters, stmtParams);
+        final MutableObject<ICompiledQuery> compiledQuery = new MutableObject<>();
+        final IMetadataLocker cachingLocker = new IMetadataLocker() {
+            @Override
+            public void lock() throws AlgebricksException {
+                locker.lock();
+            }
+
+            @Override
+            public void unlock() throws AlgebricksException {
+                try {
+                    if (compiledQuery.getValue() != null) {
+                        compiledQueryCache.release(compiledQuery.getValue());
+                        compiledQuery.setValue(null);
+                    }
+                } finally {
+                    locker.unlock();
+                }
+            }
+        };
+        final IStatementCompiler cachingCompiler = new IStatementCompiler() {
+            @Override
+            public JobSpecification compile() throws AlgebricksException, RemoteException, ACIDException {
+                ICompiledQuery cached = compiledQueryCache.acquire(key);
+                if (cached != null) {
+                    if (lockCompiledQuery(metadataProvider, compiledQueryCache, cached)) {
+                        compiledQuery.setValue(cached);
+                        return cached.getJobSpecification();
+                    }
+                    compiledQueryCache.release(cached);
+                }
+                final long version = compiledQueryCache.getVersion();
+                // the plan is reused for other values of the statement parameters, so it must not depend on them
+                metadataProvider.setProperty(SqlppExpressionToPlanTranslator.BIND_STATEMENT_PARAMETERS_OPTION,
+                        Boolean.TRUE.toString());
+                metadataProvider.setProperty(CompilerProperties.COMPILER_POINT_LOOKUP_ROUTING_KEY,
+                        Boolean.FALSE.toString());
+                final JobSpecification jobSpec = compiler.compile();
+                if (jobSpec == null) {
+                    return null;
+                }
+                if (warningCollector.getTotalWarningsCount() == 0 && metadataProvider.getExternalDataLocks() == null
+                        && !usesJoinBuildCache(jobSpec)) {
+                    try {
+                        compiledQuery.setValue(compiledQueryCache.put(key, version, jobSpec,
+                                metadataProvider.getLocks().getAcquired()));
+                    } catch (HyracksDataException e) {
+                        LOGGER.warn("failed to cache compiled query", e);
+                    }
+                }
+                if (compiledQuery.getValue() == null && stmtParams != null && !stmtParams.isEmpty()) {
+                    // only a deployed job can be started with the values of the statement parameters
+                    try {
+                        compiledQuery.setValue(
+                                compiledQueryCache.deploy(jobSpec, metadataProvider.getLocks().getAcquired()));
+                    } catch (HyracksDataException e) {
+                        throw new AlgebricksException(e);
+                    }
+                }
+                return jobSpec;
+            }
+
+            @Override
+            public JobId run(IHyracksClientConnection hcc, JobSpecification jobSpec, EnumSet<JobFlag> jobFlags)
+                    throws Exception {
+                ICompiledQuery cached = compiledQuery.getValue();
+                if (cached == null) {
+                    return IStatementCompiler.super.run(hcc, jobSpec, jobFlags);
+                }
+                // the deployed job gets the values of the statement parameters and a transaction id of its own for
+                // every run
+                Map<byte[], byte[]> jobParameters =
+                        SqlppExpressionToPlanTranslator.getJobParameters(createExternalVariables(query, stmtParams));
+                jobParameters.put(JobEventListenerFactory.TRANSACTION_ID_PARAMETER_NAME,
+                        String.valueOf(appCtx.getTxnIdFactory().create().getId()).getBytes());
+                return hcc.startJob(cached.getDeployedJobSpecId(), jobParameters);
+            }
+
+            @Override
+            public void runFailed() {
+                if (compiledQuery.getValue() != null) {
+                    compiledQueryCache.remove(key, compiledQuery.getValue());
+                }
+            }
+        };
+        deliverResult(hcc, resultSet, cachingCompiler, metadataProvider, cachingLocker, resultDelivery, outMetadata,
+                stats, requestParameters, true);
+    }
+
+    private boolean isCacheableQuery(MetadataProvider metadataProvider, Query query,
+            IRequestParameters requestParameters) {
+        // the output record type is resolved in the metadata transaction of the compilation
+        return appCtx.getCompiledQueryCache().isEnabled() && !query.isExplain() && !isCompileOnly()
+                && metadataProvider.getProperty("output-record-type") == null && jobFlags.isEmpty()
+                && sessionConfig.isExecuteQuery() && requestParameters.getStatement() != null
+                && !requestParameters.isPrintSignature() && !sessionConfig.is(SessionConfig.OOB_HYRACKS_JOB)
+                && !sessionConfig.is(SessionConfig.OOB_EXPR_TREE)
+                && !sessionConfig.is(SessionConfig.OOB_REWRITTEN_EXPR_TREE)
+                && !sessionConfig.is(SessionConfig.OOB_LOGICAL_PLAN)
+                && !sessionConfig.is(SessionConfig.OOB_OPTIMIZED_LOGICAL_PLAN);
+    }
+
+    /**
+     * The types of the statement parameters are part of the key, their values are bound as job parameters
+     */
+    private Object getCompiledQueryKey(MetadataProvider metadataProvider, Query query,
+            IRequestParameters requestParameters, Map<String, IAObject> stmtParams) {
+        Map<String, String> params = new HashMap<>();
+        if (stmtParams != null) {
+            for (Map.Entry<String, IAObject> param : stmtParams.entrySet()) {
+                IAObject value = param.getValue();
+                params.put(param.getKey(), value.getType().getTypeTag().toString());
+            }
+        }
+        SourceLocation sourceLoc = query.getSourceLocation();
+        IRequestReference requestReference = requestParameters.getRequestReference();
+        return Arrays.asList(requestParameters.getStatement(), sourceLoc != null ? sourceLoc.getLine() : -1,
+                sourceLoc != null ? sourceLoc.getColumn() : -1, metadataProvider.getDefaultDataverseName(),
+                new HashMap<>(metadataProvider.getConfig()), params, metadataProvider.getResultSetId(),
+                metadataProvider.getResultAsyncMode(), metadataProvider.getMaxResultReads(), sessionConfig.fmt(),
+                sessionConfig.is(SessionConfig.FORMAT_CSV_HEADER), sessionConfig.is(SessionConfig.FORMAT_QUOTE_RECORD),
+                requestParameters.isSkipAdmissionPolicy(),
+                requestReference != null ? requestReference.getUserAgent() : null);
+    }
+
+    /**
+     * The keys of cached join build tables hold the data versions of the datasets at compile time, so a job that uses
+     * them must be compiled again for every run
+     */
+    private static boolean usesJoinBuildCache(JobSpecification jobSpec) {
+        for (IOperatorDescriptor opDesc : jobSpec.getOperatorMap().values()) {
+            if (opDesc instanceof InMemoryHashJoinOperatorDescriptor
+                    && ((InMemoryHashJoinOperatorDescriptor) opDesc).getBuildCacheKey() != null) {
+                return true;
+            }
+            if (opDesc instanceof OptimizedHybridHashJoinOperatorDescriptor
+                    && ((OptimizedHybridHashJoinOperatorDescriptor) opDesc).getBuildCacheKey() != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Acquires the metadata locks the cached query was compiled under
+     *
+     * @return true if the metadata has not changed since the query was compiled, false otherwise
+     */
+    private static boolean lockCompiledQuery(MetadataProvider metadataProvider, ICompiledQueryCache compiledQueryCache,
+            ICompiledQuery compiledQuery) throws AlgebricksException {
+        List<org.apache.commons.lang3.tuple.Pair<IMetadataLock, IMetadataLock.Mode>> locks = compiledQuery.getLocks();
+        for (org.apache.commons.lang3.tuple.Pair<IMetadataLock, IMetadataLock.Mode> lock : locks) {
+            metadataProvider.getLocks().add(lock.getRight(), lock.getLeft());
+        }
+        if (compiledQuery.getVersion() == compiledQueryCache.getVersion()) {
+            return true;
+        }
+        metadataProvider.getLocks().reset();
+        return false;
+    }
+
+    private static boolean invalidatesCompiledQueries(Statement stmt) {
+        return stmt.getCategory() == Statement.Category.DDL || stmt.getCategory() == Statement.Category.PROCEDURE;
     }
 
     private void deliverResult(IHyracksClientConnection hcc, IResultSet resultSet, IStatementCompiler compiler,
@@ -4704,7 +4905,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
             final SchedulableClientRequest schedulableRequest =
                     SchedulableClientRequest.of(clientRequest, requestParameters, metadataProvider, jobSpec);
             appCtx.getReceptionist().ensureSchedulable(schedulableRequest);
-            final JobId jobId = JobUtils.runJob(hcc, jobSpec, jobFlags, false);
+            final JobId jobId = compiler.run(hcc, jobSpec, jobFlags);
             clientRequest.setJobId(jobId);
             if (jId != null) {
                 jId.setValue(jobId);
@@ -4722,6 +4923,7 @@ public class QueryTranslator extends AbstractLangTranslator implements IStatemen
                 Thread.currentThread().interrupt();
                 throw new RuntimeDataException(ErrorCode.REQUEST_CANCELLED, clientRequest.getId());
             }
+            compiler.runFailed();
             throw e;
         } finally {
             // complete async jobs after their job completes
@@ -144,6 +144,7 @@ public class RebalanceUtil {
         }
 
         if (targetNcNames.isEmpty()) {
+            metadataProvider.getApplicationContext().getCompiledQueryCache().invalidate();
             // Nothing else to do since the dataset was dropped.
             return;
         }
@@ -159,6 +160,8 @@ public class RebalanceUtil {
             // It detaches the source dataset and attaches the target dataset to metadata's point of view.
             runMetadataTransaction(metadataProvider,
                     () -> rebalanceSwitch(sourceDataset, targetDataset, metadataProvider));
+            // cached queries would still read the dataset from its source nodes
+            metadataProvider.getApplicationContext().getCompiledQueryCache().invalidate();
             // Executes the 3rd Metadata transaction to drop the source dataset files and the node group for
             // the source dataset.
             runMetadataTransaction(metadataProvider, () -> dropSourceDataset(sourceDataset, metadataProvider, hcc));
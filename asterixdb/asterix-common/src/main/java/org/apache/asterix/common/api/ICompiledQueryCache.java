@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.common.api;
+
+import java.util.List;
+
+import org.apache.asterix.common.metadata.IMetadataLock;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
+import org.apache.hyracks.api.job.JobSpecification;
+
+/**
+ * A cache of compiled queries whose jobs are kept deployed, so that repeated requests with the same statement and
+ * parameter types only need to start the deployed job with the values of the parameters.
+ */
+public interface ICompiledQueryCache {
+
+    interface ICompiledQuery {
+
+        /**
+         * @return the job specification the query was compiled to
+         */
+        JobSpecification getJobSpecification();
+
+        /**
+         * @return the id under which the job specification is deployed
+         */
+        DeployedJobSpecId getDeployedJobSpecId();
+
+        /**
+         * @return the metadata locks acquired while compiling the query, in the order they were acquired
+         */
+        List<Pair<IMetadataLock, IMetadataLock.Mode>> getLocks();
+
+        /**
+         * @return the metadata version the query was compiled at
+         */
+        long getVersion();
+    }
+
+    /**
+     * @return true if compiled queries are cached, false otherwise
+     */
+    boolean isEnabled();
+
+    /**
+     * Gets the metadata version of the cache. The version changes whenever the cache is invalidated.
+     *
+     * @return the current metadata version
+     */
+    long getVersion();
+
+    /**
+     * Gets the compiled query cached for {@code key} and marks it as in use until it is released.
+     *
+     * @param key
+     * @return the compiled query if found. Otherwise null.
+     */
+    ICompiledQuery acquire(Object key);
+
+    /**
+     * Deploys the job of a query compiled at {@code version} and caches it for {@code key}. The returned compiled
+     * query is in use until it is released.
+     *
+     * @param key
+     * @param version
+     *            the metadata version at the start of the compilation
+     * @param jobSpec
+     * @param locks
+     *            the metadata locks acquired while compiling the query
+     * @return the cached compiled query, or null if the metadata has changed since {@code version}
+     * @throws HyracksDataException
+     */
+    ICompiledQuery put(Object key, long version, JobSpecification jobSpec,
+            List<Pair<IMetadataLock, IMetadataLock.Mode>> locks) throws HyracksDataException;
+
+    /**
+     * Deploys the job of a query that is not cached, so that it can be started with job parameters. The returned
+     * compiled query is in use until it is released, and its job is undeployed then.
+     *
+     * @param jobSpec
+     * @param locks
+     *            the metadata locks acquired while compiling the query
+     * @return the compiled query
+     * @throws HyracksDataException
+     */
+    ICompiledQuery deploy(JobSpecification jobSpec, List<Pair<IMetadataLock, IMetadataLock.Mode>> locks)
+            throws HyracksDataException;
+
+    /**
+     * Releases a compiled query acquired from this cache. Its job is undeployed once it is no longer cached and no
+     * longer in use.
+     *
+     * @param query
+     */
+    void release(ICompiledQuery query);
+
+    /**
+     * Removes {@code query} from the cache if it is still cached for {@code key}
+     *
+     * @param key
+     * @param query
+     */
+    void remove(Object key, ICompiledQuery query);
+
+    /**
+     * Removes all compiled queries and changes the metadata version
+     */
+    void invalidate();
+}
@@ -508,4 +508,16 @@ public interface IMetadataLockManager {
      */
     void downgradeDatasetLockToExclusiveModify(LockList locks, DataverseName dataverseName, String datasetName)
             throws AlgebricksException;
+
+    /**
+     * Get a version of the data of a dataset. Inserts, upserts, deletes and loads from any node hold a modification
+     * lock on the dataset, so the version changes whenever one of them starts or ends.
+     *
+     * @param dataverseName
+     *            the dataverse name
+     * @param datasetName
+     *            the name of the dataset in the given dataverse
+     * @return the version, or null while the dataset is being modified
+     */
+    String getDatasetDataVersion(DataverseName dataverseName, String datasetName);
 }
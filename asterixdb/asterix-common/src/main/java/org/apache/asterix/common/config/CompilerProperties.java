@@ -107,7 +107,76 @@ public class CompilerProperties extends AbstractProperties {
         COMPILER_BATCH_LOOKUP(
                 BOOLEAN,
                 AlgebricksConfig.BATCH_LOOKUP_DEFAULT,
-                "Enable/disable batch point-lookups when running queries with secondary indexes");
+                "Enable/disable batch point-lookups when running queries with secondary indexes"),
+        COMPILER_SPATIAL_JOIN_PARTITIONED(
+                BOOLEAN,
+                AlgebricksConfig.SPATIAL_JOIN_PARTITIONED_DEFAULT,
+                "Enable/disable the partition based spatial merge join that spills grid partitions to disk"),
+        COMPILER_INTERVAL_JOIN_PARTITIONED(
+                BOOLEAN,
+                AlgebricksConfig.INTERVAL_JOIN_PARTITIONED_DEFAULT,
+                "Enable/disable the overlapping interval partitioning join that spills granule partitions to disk"),
+        COMPILER_JOIN_BUILD_CACHE(
+                BOOLEAN,
+                AlgebricksConfig.JOIN_BUILD_CACHE_DEFAULT,
+                "Enable caching of broadcast hash join build tables on the node controllers (shared between queries until the dataset changes)"),
+        COMPILER_GROUPBY_COMBINER_BYPASS(
+                BOOLEAN,
+                AlgebricksConfig.GROUPBY_COMBINER_BYPASS_DEFAULT,
+                "Enable a local (combiner) hash group-by to stop aggregating and pass its input through when it observes that its first input frames hardly reduce (default: true)"),
+        COMPILER_GROUPBY_HEAVY_HITTERS(
+                BOOLEAN,
+                AlgebricksConfig.GROUPBY_HEAVY_HITTERS_DEFAULT,
+                "Enable a global hash group-by whose groups are counted for an ORDER BY on the count with a LIMIT to only aggregate the groups that may be among the heaviest ones (default: true)"),
+        COMPILER_GROUPBY_PRIMITIVE_STATES(
+                BOOLEAN,
+                AlgebricksConfig.GROUPBY_PRIMITIVE_STATES_DEFAULT,
+                "Enable a hash group-by whose aggregates are SQL counts, sums or averages over fixed-width numeric values to keep its aggregate states in primitive arrays (default: true)"),
+        COMPILER_WINDOW_SEGMENT_TREE(
+                BOOLEAN,
+                AlgebricksConfig.WINDOW_SEGMENT_TREE_DEFAULT,
+                "Enable segment tree evaluation of decomposable aggregates over sliding window frames (default: true)"),
+        COMPILER_WINDOW_PARALLELISM(
+                POSITIVE_INTEGER,
+                AlgebricksConfig.WINDOW_PARALLELISM_DEFAULT,
+                "Maximum number of threads that a window operator running in a single partition can use to "
+                        + "evaluate the frames of a large partition held in memory, bounded by the cores the job "
+                        + "reserves on a node, 1 disables parallel evaluation (default: 4)"),
+        COMPILER_SORT_RADIX(
+                BOOLEAN,
+                AlgebricksConfig.SORT_RADIX_DEFAULT,
+                "Enable the radix sort of tuples on their normalized keys in sort operators (default: true)"),
+        COMPILER_SORT_PARALLELISM(
+                POSITIVE_INTEGER,
+                AlgebricksConfig.SORT_PARALLELISM_DEFAULT,
+                "Maximum number of threads that a sort running in a single partition can use to sort the "
+                        + "tuples held in memory, bounded by the cores the job reserves on a node, 1 disables "
+                        + "parallel sorting (default: 4)"),
+        COMPILER_SORT_TOPK_SHARED_THRESHOLD(
+                BOOLEAN,
+                AlgebricksConfig.SORT_TOPK_SHARED_THRESHOLD_DEFAULT,
+                "Enable sharing the k-th smallest key between the partitions of a top-K sort on the same node, to drop "
+                        + "tuples that cannot qualify early (default: true)"),
+        COMPILER_PIPELINE_FUSION(
+                BOOLEAN,
+                AlgebricksConfig.PIPELINE_FUSION_DEFAULT,
+                "Enable running chains of assign, select, and project operators as one fused runtime that "
+                        + "materializes each output tuple only once (default: true)"),
+        COMPILER_EXPRESSION_SPECIALIZATION(
+                BOOLEAN,
+                AlgebricksConfig.EXPRESSION_SPECIALIZATION_DEFAULT,
+                "Enable evaluating integer arithmetic and comparisons over integer fields and constants on primitive "
+                        + "values (default: true)"),
+        COMPILER_POINT_LOOKUP_ROUTING(
+                BOOLEAN,
+                AlgebricksConfig.POINT_LOOKUP_ROUTING_DEFAULT,
+                "Enable (true) or disable (false) running primary-key point lookups with constant keys only on "
+                        + "the partition that owns the keys"),
+        COMPILER_QUERY_PLAN_CACHE_SIZE(
+                INTEGER,
+                0,
+                "The maximum number of compiled query jobs kept deployed for repeated requests with the same "
+                        + "statement and parameter types (0 disables the cache)");
 
         private final IOptionType type;
         private final Object defaultValue;
@@ -179,6 +248,35 @@ public class CompilerProperties extends AbstractProperties {
 
     public static final String COMPILER_BATCHED_LOOKUP_KEY = Option.COMPILER_BATCH_LOOKUP.ini();
 
+    public static final String COMPILER_SPATIAL_JOIN_PARTITIONED_KEY = Option.COMPILER_SPATIAL_JOIN_PARTITIONED.ini();
+
+    public static final String COMPILER_INTERVAL_JOIN_PARTITIONED_KEY = Option.COMPILER_INTERVAL_JOIN_PARTITIONED.ini();
+
+    public static final String COMPILER_JOIN_BUILD_CACHE_KEY = Option.COMPILER_JOIN_BUILD_CACHE.ini();
+
+    public static final String COMPILER_GROUPBY_COMBINER_BYPASS_KEY = Option.COMPILER_GROUPBY_COMBINER_BYPASS.ini();
+
+    public static final String COMPILER_GROUPBY_HEAVY_HITTERS_KEY = Option.COMPILER_GROUPBY_HEAVY_HITTERS.ini();
+
+    public static final String COMPILER_GROUPBY_PRIMITIVE_STATES_KEY = Option.COMPILER_GROUPBY_PRIMITIVE_STATES.ini();
+
+    public static final String COMPILER_WINDOW_SEGMENT_TREE_KEY = Option.COMPILER_WINDOW_SEGMENT_TREE.ini();
+
+    public static final String COMPILER_WINDOW_PARALLELISM_KEY = Option.COMPILER_WINDOW_PARALLELISM.ini();
+
+    public static final String COMPILER_SORT_RADIX_KEY = Option.COMPILER_SORT_RADIX.ini();
+
+    public static final String COMPILER_SORT_PARALLELISM_KEY = Option.COMPILER_SORT_PARALLELISM.ini();
+
+    public static final String COMPILER_PIPELINE_FUSION_KEY = Option.COMPILER_PIPELINE_FUSION.ini();
+
+    public static final String COMPILER_EXPRESSION_SPECIALIZATION_KEY = Option.COMPILER_EXPRESSION_SPECIALIZATION.ini();
+
+    public static final String COMPILER_POINT_LOOKUP_ROUTING_KEY = Option.COMPILER_POINT_LOOKUP_ROUTING.ini();
+
+    public static final String COMPILER_SORT_TOPK_SHARED_THRESHOLD_KEY =
+            Option.COMPILER_SORT_TOPK_SHARED_THRESHOLD.ini();
+
     public static final int COMPILER_PARALLELISM_AS_STORAGE = 0;
 
     public CompilerProperties(PropertiesAccessor accessor) {
@@ -256,4 +354,64 @@ public class CompilerProperties extends AbstractProperties {
     public boolean isBatchLookup() {
         return accessor.getBoolean(Option.COMPILER_BATCH_LOOKUP);
     }
+
+    public boolean isSpatialJoinPartitioned() {
+        return accessor.getBoolean(Option.COMPILER_SPATIAL_JOIN_PARTITIONED);
+    }
+
+    public boolean isIntervalJoinPartitioned() {
+        return accessor.getBoolean(Option.COMPILER_INTERVAL_JOIN_PARTITIONED);
+    }
+
+    public boolean isJoinBuildCacheEnabled() {
+        return accessor.getBoolean(Option.COMPILER_JOIN_BUILD_CACHE);
+    }
+
+    public boolean isGroupByCombinerBypass() {
+        return accessor.getBoolean(Option.COMPILER_GROUPBY_COMBINER_BYPASS);
+    }
+
+    public boolean isGroupByHeavyHitters() {
+        return accessor.getBoolean(Option.COMPILER_GROUPBY_HEAVY_HITTERS);
+    }
+
+    public boolean isGroupByPrimitiveStates() {
+        return accessor.getBoolean(Option.COMPILER_GROUPBY_PRIMITIVE_STATES);
+    }
+
+    public boolean isWindowSegmentTree() {
+        return accessor.getBoolean(Option.COMPILER_WINDOW_SEGMENT_TREE);
+    }
+
+    public int getWindowParallelism() {
+        return accessor.getInt(Option.COMPILER_WINDOW_PARALLELISM);
+    }
+
+    public boolean isSortRadix() {
+        return accessor.getBoolean(Option.COMPILER_SORT_RADIX);
+    }
+
+    public int getSortParallelism() {
+        return accessor.getInt(Option.COMPILER_SORT_PARALLELISM);
+    }
+
+    public boolean isSortTopKSharedThreshold() {
+        return accessor.getBoolean(Option.COMPILER_SORT_TOPK_SHARED_THRESHOLD);
+    }
+
+    public boolean isPipelineFusionEnabled() {
+        return accessor.getBoolean(Option.COMPILER_PIPELINE_FUSION);
+    }
+
+    public boolean isExpressionSpecializationEnabled() {
+        return accessor.getBoolean(Option.COMPILER_EXPRESSION_SPECIALIZATION);
+    }
+
+    public boolean isPointLookupRoutingEnabled() {
+        return accessor.getBoolean(Option.COMPILER_POINT_LOOKUP_ROUTING);
+    }
+
+    public int getQueryPlanCacheSize() {
+        return accessor.getInt(Option.COMPILER_QUERY_PLAN_CACHE_SIZE);
+    }
 }
@@ -79,6 +79,37 @@ public class OptimizationConfUtil {
                 compilerProperties.getExternalScanMemorySize(), sourceLoc);
         boolean batchLookup = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_BATCHED_LOOKUP_KEY,
                 compilerProperties.isBatchLookup());
+        boolean spatialJoinPartitioned =
+                getBoolean(querySpecificConfig, CompilerProperties.COMPILER_SPATIAL_JOIN_PARTITIONED_KEY,
+                        compilerProperties.isSpatialJoinPartitioned());
+        boolean intervalJoinPartitioned =
+                getBoolean(querySpecificConfig, CompilerProperties.COMPILER_INTERVAL_JOIN_PARTITIONED_KEY,
+                        compilerProperties.isIntervalJoinPartitioned());
+        boolean joinBuildCacheEnabled = getBoolean(querySpecificConfig,
+                CompilerProperties.COMPILER_JOIN_BUILD_CACHE_KEY, compilerProperties.isJoinBuildCacheEnabled());
+        boolean groupByCombinerBypassEnabled = getBoolean(querySpecificConfig,
+                CompilerProperties.COMPILER_GROUPBY_COMBINER_BYPASS_KEY, compilerProperties.isGroupByCombinerBypass());
+        boolean groupByHeavyHittersEnabled = getBoolean(querySpecificConfig,
+                CompilerProperties.COMPILER_GROUPBY_HEAVY_HITTERS_KEY, compilerProperties.isGroupByHeavyHitters());
+        boolean groupByPrimitiveStatesEnabled =
+                getBoolean(querySpecificConfig, CompilerProperties.COMPILER_GROUPBY_PRIMITIVE_STATES_KEY,
+                        compilerProperties.isGroupByPrimitiveStates());
+        boolean windowSegmentTreeEnabled = getBoolean(querySpecificConfig,
+                CompilerProperties.COMPILER_WINDOW_SEGMENT_TREE_KEY, compilerProperties.isWindowSegmentTree());
+        int windowParallelism = getWindowParallelism(compilerProperties, querySpecificConfig, sourceLoc);
+        boolean sortRadixEnabled = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_SORT_RADIX_KEY,
+                compilerProperties.isSortRadix());
+        int sortParallelism = getSortParallelism(compilerProperties, querySpecificConfig, sourceLoc);
+        boolean sortTopKSharedThreshold =
+                getBoolean(querySpecificConfig, CompilerProperties.COMPILER_SORT_TOPK_SHARED_THRESHOLD_KEY,
+                        compilerProperties.isSortTopKSharedThreshold());
+        boolean pipelineFusionEnabled = getBoolean(querySpecificConfig, CompilerProperties.COMPILER_PIPELINE_FUSION_KEY,
+                compilerProperties.isPipelineFusionEnabled());
+        boolean expressionSpecializationEnabled =
+                getBoolean(querySpecificConfig, CompilerProperties.COMPILER_EXPRESSION_SPECIALIZATION_KEY,
+                        compilerProperties.isExpressionSpecializationEnabled());
+        boolean pointLookupRoutingEnabled = getBoolean(querySpecificConfig,
+                CompilerProperties.COMPILER_POINT_LOOKUP_ROUTING_KEY, compilerProperties.isPointLookupRoutingEnabled());
 
         PhysicalOptimizationConfig physOptConf = new PhysicalOptimizationConfig();
         physOptConf.setFrameSize(frameSize);
@@ -98,6 +129,20 @@ public class OptimizationConfUtil {
         physOptConf.setArrayIndexEnabled(arrayIndex);
         physOptConf.setExternalScanBufferSize(externalScanBufferSize);
         physOptConf.setBatchLookup(batchLookup);
+        physOptConf.setSpatialJoinPartitioned(spatialJoinPartitioned);
+        physOptConf.setIntervalJoinPartitioned(intervalJoinPartitioned);
+        physOptConf.setJoinBuildCacheEnabled(joinBuildCacheEnabled);
+        physOptConf.setGroupByCombinerBypassEnabled(groupByCombinerBypassEnabled);
+        physOptConf.setGroupByHeavyHittersEnabled(groupByHeavyHittersEnabled);
+        physOptConf.setGroupByPrimitiveStatesEnabled(groupByPrimitiveStatesEnabled);
+        physOptConf.setWindowSegmentTreeEnabled(windowSegmentTreeEnabled);
+        physOptConf.setWindowParallelism(windowParallelism);
+        physOptConf.setSortRadixEnabled(sortRadixEnabled);
+        physOptConf.setSortParallelism(sortParallelism);
+        physOptConf.setSortTopKSharedThreshold(sortTopKSharedThreshold);
+        physOptConf.setPipelineFusionEnabled(pipelineFusionEnabled);
+        physOptConf.setExpressionSpecializationEnabled(expressionSpecializationEnabled);
+        physOptConf.setPointLookupRoutingEnabled(pointLookupRoutingEnabled);
         return physOptConf;
     }
 
@@ -168,6 +213,32 @@ public class OptimizationConfUtil {
         }
     }
 
+    @SuppressWarnings("squid:S1166") // Either log or rethrow this exception
+    private static int getWindowParallelism(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig, SourceLocation sourceLoc) throws AsterixException {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_WINDOW_PARALLELISM_KEY);
+        try {
+            return valueInQuery == null ? compilerProperties.getWindowParallelism()
+                    : OptionTypes.POSITIVE_INTEGER.parse(valueInQuery);
+        } catch (IllegalArgumentException e) {
+            throw AsterixException.create(ErrorCode.COMPILATION_BAD_QUERY_PARAMETER_VALUE, sourceLoc,
+                    CompilerProperties.COMPILER_WINDOW_PARALLELISM_KEY, 1, "threads");
+        }
+    }
+
+    @SuppressWarnings("squid:S1166") // Either log or rethrow this exception
+    private static int getSortParallelism(CompilerProperties compilerProperties,
+            Map<String, Object> querySpecificConfig, SourceLocation sourceLoc) throws AsterixException {
+        String valueInQuery = (String) querySpecificConfig.get(CompilerProperties.COMPILER_SORT_PARALLELISM_KEY);
+        try {
+            return valueInQuery == null ? compilerProperties.getSortParallelism()
+                    : OptionTypes.POSITIVE_INTEGER.parse(valueInQuery);
+        } catch (IllegalArgumentException e) {
+            throw AsterixException.create(ErrorCode.COMPILATION_BAD_QUERY_PARAMETER_VALUE, sourceLoc,
+                    CompilerProperties.COMPILER_SORT_PARALLELISM_KEY, 1, "threads");
+        }
+    }
+
     private static boolean getBoolean(Map<String, Object> queryConfig, String queryConfigKey, boolean defaultValue) {
         String valueInQuery = (String) queryConfig.get(queryConfigKey);
         if (valueInQuery != null) {
@@ -61,7 +61,8 @@ public class StorageProperties extends AbstractProperties {
         STORAGE_MAX_SCHEDULED_MERGES_PER_PARTITION(NONNEGATIVE_INTEGER, 8),
         STORAGE_MAX_CONCURRENT_MERGES_PER_PARTITION(NONNEGATIVE_INTEGER, 2),
         STORAGE_GLOBAL_CLEANUP(BOOLEAN, true),
-        STORAGE_GLOBAL_CLEANUP_TIMEOUT(POSITIVE_INTEGER, (int) TimeUnit.MINUTES.toSeconds(10));
+        STORAGE_GLOBAL_CLEANUP_TIMEOUT(POSITIVE_INTEGER, (int) TimeUnit.MINUTES.toSeconds(10)),
+        STORAGE_JOIN_BUILD_CACHE_SIZE(LONG_BYTE_UNIT, 0L);
 
         private final IOptionType interpreter;
         private final Object defaultValue;
@@ -129,6 +130,9 @@ public class StorageProperties extends AbstractProperties {
                     return "Indicates whether or not global storage cleanup is performed";
                 case STORAGE_GLOBAL_CLEANUP_TIMEOUT:
                     return "The maximum time to wait for nodes to respond to global storage cleanup requests";
+                case STORAGE_JOIN_BUILD_CACHE_SIZE:
+                    return "The memory budget of the cache that shares hash join build tables between queries "
+                            + "(disabled if the provided value <= 0)";
                 default:
                     throw new IllegalStateException("NYI: " + this);
             }
@@ -208,12 +212,14 @@ public class StorageProperties extends AbstractProperties {
     }
 
     public long getJobExecutionMemoryBudget() {
-        final long jobExecutionMemory = MAX_HEAP_BYTES - getBufferCacheSize() - getMemoryComponentGlobalBudget();
+        final long jobExecutionMemory =
+                MAX_HEAP_BYTES - getBufferCacheSize() - getMemoryComponentGlobalBudget() - getJoinBuildCacheSize();
         if (jobExecutionMemory <= 0) {
             final String msg = String.format(
                     "Invalid node memory configuration, more memory budgeted than available in JVM. Runtime max memory:"
-                            + " (%d), Buffer cache memory (%d), memory component global budget (%d)",
-                    MAX_HEAP_BYTES, getBufferCacheSize(), getMemoryComponentGlobalBudget());
+                            + " (%d), Buffer cache memory (%d), memory component global budget (%d),"
+                            + " join build cache (%d)",
+                    MAX_HEAP_BYTES, getBufferCacheSize(), getMemoryComponentGlobalBudget(), getJoinBuildCacheSize());
             throw new IllegalStateException(msg);
         }
         return jobExecutionMemory;
@@ -262,6 +268,10 @@ public class StorageProperties extends AbstractProperties {
         return accessor.getLong(Option.STORAGE_WRITE_RATE_LIMIT);
     }
 
+    public long getJoinBuildCacheSize() {
+        return Math.max(0L, accessor.getLong(Option.STORAGE_JOIN_BUILD_CACHE_SIZE));
+    }
+
     public int getDiskForcePages() {
         return (int) (accessor.getLong(Option.STORAGE_DISK_FORCE_BYTES) / getBufferCachePageSize());
     }
@@ -21,6 +21,7 @@ package org.apache.asterix.common.dataflow;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import org.apache.asterix.common.api.IApplicationContext;
+import org.apache.asterix.common.api.ICompiledQueryCache;
 import org.apache.asterix.common.api.ICoordinationService;
 import org.apache.asterix.common.api.IMetadataLockManager;
 import org.apache.asterix.common.api.INodeJobTracker;
@@ -138,6 +139,13 @@ public interface ICcApplicationContext extends IApplicationContext {
      */
     IRequestTracker getRequestTracker();
 
+    /**
+     * Gets the compiled query cache.
+     *
+     * @return the compiled query cache.
+     */
+    ICompiledQueryCache getCompiledQueryCache();
+
     /**
      * Gets the coordination service
      *
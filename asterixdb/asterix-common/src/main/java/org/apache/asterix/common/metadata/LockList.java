@@ -27,6 +27,7 @@ import org.apache.asterix.common.exceptions.AsterixException;
 import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.common.metadata.IMetadataLock.Mode;
 import org.apache.commons.lang3.tuple.MutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
 
 /**
@@ -100,6 +101,17 @@ public class LockList {
         pair.setRight(mode);
     }
 
+    /**
+     * @return the acquired locks and their modes, in the order they were acquired
+     */
+    public List<Pair<IMetadataLock, Mode>> getAcquired() {
+        List<Pair<IMetadataLock, Mode>> acquired = new ArrayList<>(locks.size());
+        for (MutablePair<IMetadataLock, Mode> pair : locks) {
+            acquired.add(Pair.of(pair.getLeft(), pair.getRight()));
+        }
+        return acquired;
+    }
+
     /**
      * Once unlock() is called, no caller can call add(IMetadataLock.Mode mode, IMetadataLock lock),
      * except that reset() is called.
@@ -31,7 +31,11 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.asterix.active.IActiveEntityEventsListener;
+import org.apache.asterix.active.IActiveNotificationHandler;
 import org.apache.asterix.common.cluster.IClusterStateManager;
 import org.apache.asterix.common.config.DatasetConfig.DatasetType;
 import org.apache.asterix.common.config.DatasetConfig.ExternalFilePendingOp;
@@ -46,6 +50,7 @@ import org.apache.asterix.common.exceptions.ErrorCode;
 import org.apache.asterix.common.external.IDataSourceAdapter;
 import org.apache.asterix.common.functions.FunctionSignature;
 import org.apache.asterix.common.metadata.DataverseName;
+import org.apache.asterix.common.messaging.api.ICCMessageBroker;
 import org.apache.asterix.common.metadata.LockList;
 import org.apache.asterix.common.storage.ICompressionManager;
 import org.apache.asterix.common.transactions.ITxnIdFactory;
@@ -106,6 +111,8 @@ import org.apache.asterix.om.types.IAType;
 import org.apache.asterix.om.utils.NonTaggedFormatUtil;
 import org.apache.asterix.runtime.base.AsterixTupleFilterFactory;
 import org.apache.asterix.runtime.formats.FormatUtils;
+import org.apache.asterix.runtime.message.JoinBuildTablePinRequest;
+import org.apache.asterix.runtime.message.JoinBuildTableUnpinRequest;
 import org.apache.asterix.runtime.operators.LSMIndexBulkLoadOperatorDescriptor;
 import org.apache.asterix.runtime.operators.LSMIndexBulkLoadOperatorDescriptor.BulkLoadUsage;
 import org.apache.asterix.runtime.operators.LSMPrimaryInsertOperatorDescriptor;
@@ -158,6 +165,7 @@ import org.apache.hyracks.api.result.ResultSetId;
 import org.apache.hyracks.data.std.primitive.ShortPointable;
 import org.apache.hyracks.dataflow.common.data.marshalling.ShortSerializerDeserializer;
 import org.apache.hyracks.dataflow.std.file.IFileSplitProvider;
+import org.apache.hyracks.dataflow.std.join.JoinBuildCacheKey;
 import org.apache.hyracks.dataflow.std.result.ResultWriterOperatorDescriptor;
 import org.apache.hyracks.storage.am.btree.dataflow.BTreeSearchOperatorDescriptor;
 import org.apache.hyracks.storage.am.common.api.IModificationOperationCallbackFactory;
@@ -173,9 +181,14 @@ import org.apache.hyracks.storage.am.lsm.invertedindex.tokenizers.IBinaryTokeniz
 import org.apache.hyracks.storage.am.rtree.dataflow.RTreeSearchOperatorDescriptor;
 import org.apache.hyracks.storage.common.IStorageManager;
 import org.apache.hyracks.storage.common.projection.ITupleProjectorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
 public class MetadataProvider implements IMetadataProvider<DataSourceId, String> {
 
+    private static final Logger LOGGER = LogManager.getLogger();
+    private static final long JOIN_BUILD_TABLE_PIN_TIMEOUT_MS = TimeUnit.SECONDS.toMillis(5);
+
     private final ICcApplicationContext appCtx;
     private final IStorageComponentProvider storageComponentProvider;
     private final StorageProperties storageProperties;
@@ -194,6 +207,8 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
     private TxnId txnId;
     private Map<String, Integer> externalDataLocks;
     private boolean blockingOperatorDisabled = false;
+    private boolean joinBuildTablePinning = false;
+    private final List<String> joinBuildTablePins = new ArrayList<>();
 
     public static MetadataProvider create(ICcApplicationContext appCtx, Dataverse defaultDataverse) {
         java.util.function.Function<ICcApplicationContext, IMetadataProvider<?, ?>> factory =
@@ -240,6 +255,91 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
         return blockingOperatorDisabled;
     }
 
+    @Override
+    public String getDataVersion(IDataSource<DataSourceId> dataSource) {
+        if (((DataSource) dataSource).getDatasourceType() != DataSource.Type.INTERNAL_DATASET) {
+            return null;
+        }
+        Dataset dataset = ((DatasetDataSource) dataSource).getDataset();
+        if (dataset.getDatasetType() != DatasetType.INTERNAL
+                || MetadataConstants.METADATA_DATAVERSE_NAME.equals(dataset.getDataverseName())) {
+            // metadata datasets are modified without dataset modification locks
+            return null;
+        }
+        IActiveNotificationHandler activeHandler = (IActiveNotificationHandler) appCtx.getActiveNotificationHandler();
+        for (IActiveEntityEventsListener listener : activeHandler.getEventListeners()) {
+            if (listener.isEntityUsingDataset(dataset) && listener.isActive()) {
+                // feeds write to the dataset without dataset modification locks
+                return null;
+            }
+        }
+        String version = appCtx.getMetadataLockManager().getDatasetDataVersion(dataset.getDataverseName(),
+                dataset.getDatasetName());
+        return version != null ? "dataset:" + dataset.getDatasetId() + "@" + version : null;
+    }
+
+    /**
+     * Lets the jobs of the current statement probe the join build tables pinned on the nodes. The statement must run
+     * its jobs to completion and call {@link #releaseJoinBuildTables()} once they are done.
+     */
+    public void enableJoinBuildTablePinning() {
+        joinBuildTablePinning = true;
+    }
+
+    @Override
+    public String pinJoinBuildTable(JoinBuildCacheKey key) {
+        if (!joinBuildTablePinning) {
+            return null;
+        }
+        List<String> ncs = new ArrayList<>(appCtx.getClusterStateManager().getParticipantNodes());
+        if (ncs.isEmpty()) {
+            return null;
+        }
+        ICCMessageBroker broker = (ICCMessageBroker) appCtx.getServiceContext().getMessageBroker();
+        String pinId = UUID.randomUUID().toString();
+        long reqId = broker.newRequestId();
+        List<JoinBuildTablePinRequest> requests = new ArrayList<>();
+        for (int i = 0; i < ncs.size(); i++) {
+            requests.add(new JoinBuildTablePinRequest(reqId, pinId, key));
+        }
+        try {
+            if (Boolean.TRUE.equals(
+                    broker.sendSyncRequestToNCs(reqId, ncs, requests, JOIN_BUILD_TABLE_PIN_TIMEOUT_MS, false))) {
+                joinBuildTablePins.add(pinId);
+                return pinId;
+            }
+        } catch (Exception e) {
+            LOGGER.warn("failed to pin join build table {}", key, e);
+        }
+        // some nodes may have pinned the table
+        unpinJoinBuildTable(broker, pinId);
+        return null;
+    }
+
+    /**
+     * Unpins the join build tables pinned for the jobs of the current statement
+     */
+    public void releaseJoinBuildTables() {
+        if (joinBuildTablePins.isEmpty()) {
+            return;
+        }
+        ICCMessageBroker broker = (ICCMessageBroker) appCtx.getServiceContext().getMessageBroker();
+        for (String pinId : joinBuildTablePins) {
+            unpinJoinBuildTable(broker, pinId);
+        }
+        joinBuildTablePins.clear();
+    }
+
+    private void unpinJoinBuildTable(ICCMessageBroker broker, String pinId) {
+        for (String nc : appCtx.getClusterStateManager().getParticipantNodes()) {
+            try {
+                broker.sendApplicationMessageToNC(new JoinBuildTableUnpinRequest(pinId), nc);
+            } catch (Exception e) {
+                LOGGER.warn("failed to unpin join build table {} on {}", pinId, nc, e);
+            }
+        }
+    }
+
     @Override
     public Map<String, Object> getConfig() {
         return config;
@@ -549,6 +649,24 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
             int[] maxFilterFieldIndexes, ITupleFilterFactory tupleFilterFactory, long outputLimit,
             boolean isIndexOnlyPlan, boolean isPrimaryIndexPointSearch, ITupleProjectorFactory tupleProjectorFactory)
             throws AlgebricksException {
+        return buildBtreeRuntime(jobSpec, opSchema, typeEnv, context, retainInput, retainMissing, nonMatchWriterFactory,
+                dataset, indexName, lowKeyFields, highKeyFields, lowKeyInclusive, highKeyInclusive, propagateFilter,
+                nonFilterWriterFactory, minFilterFieldIndexes, maxFilterFieldIndexes, tupleFilterFactory, outputLimit,
+                isIndexOnlyPlan, isPrimaryIndexPointSearch, tupleProjectorFactory, -1);
+    }
+
+    /**
+     * @param searchPartition
+     *            the only partition of the index to search, or -1 to search all the partitions
+     */
+    public Pair<IOperatorDescriptor, AlgebricksPartitionConstraint> buildBtreeRuntime(JobSpecification jobSpec,
+            IOperatorSchema opSchema, IVariableTypeEnvironment typeEnv, JobGenContext context, boolean retainInput,
+            boolean retainMissing, IMissingWriterFactory nonMatchWriterFactory, Dataset dataset, String indexName,
+            int[] lowKeyFields, int[] highKeyFields, boolean lowKeyInclusive, boolean highKeyInclusive,
+            boolean propagateFilter, IMissingWriterFactory nonFilterWriterFactory, int[] minFilterFieldIndexes,
+            int[] maxFilterFieldIndexes, ITupleFilterFactory tupleFilterFactory, long outputLimit,
+            boolean isIndexOnlyPlan, boolean isPrimaryIndexPointSearch, ITupleProjectorFactory tupleProjectorFactory,
+            int searchPartition) throws AlgebricksException {
         boolean isSecondary = true;
         Index primaryIndex = MetadataManager.INSTANCE.getIndex(mdTxnCtx, dataset.getDataverseName(),
                 dataset.getDatasetName(), dataset.getDatasetName());
@@ -581,7 +699,8 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
         int numPrimaryKeys = dataset.getPrimaryKeys().size();
         RecordDescriptor outputRecDesc = JobGenHelper.mkRecordDescriptor(typeEnv, opSchema, context);
         Pair<IFileSplitProvider, AlgebricksPartitionConstraint> spPc =
-                getSplitProviderAndConstraints(dataset, theIndex.getIndexName());
+                searchPartition < 0 ? getSplitProviderAndConstraints(dataset, theIndex.getIndexName())
+                        : getSplitProviderAndConstraints(dataset, theIndex.getIndexName(), searchPartition);
         int[] primaryKeyFields = new int[numPrimaryKeys];
         for (int i = 0; i < numPrimaryKeys; i++) {
             primaryKeyFields[i] = i;
@@ -1833,6 +1952,12 @@ public class MetadataProvider implements IMetadataProvider<DataSourceId, String>
         return StoragePathUtil.splitProviderAndPartitionConstraints(splits);
     }
 
+    private Pair<IFileSplitProvider, AlgebricksPartitionConstraint> getSplitProviderAndConstraints(Dataset ds,
+            String indexName, int partition) throws AlgebricksException {
+        FileSplit[] splits = splitsForIndex(mdTxnCtx, ds, indexName);
+        return StoragePathUtil.splitProviderAndPartitionConstraints(new FileSplit[] { splits[partition] });
+    }
+
     public LockList getLocks() {
         return locks;
     }
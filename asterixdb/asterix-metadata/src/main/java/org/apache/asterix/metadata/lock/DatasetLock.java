@@ -41,6 +41,8 @@ public class DatasetLock implements IMetadataLock {
     // order of entry indexBuildCounter -> indexModifyCounter
     private final MutableInt indexBuildCounter;
     private final MutableInt dsModifyCounter;
+    // Bumped whenever a modification starts or ends, guarded by dsModifyCounter
+    private long modificationVersion;
 
     public DatasetLock(MetadataLockKey key) {
         this.key = key;
@@ -97,6 +99,7 @@ public class DatasetLock implements IMetadataLock {
                 }
                 synchronized (dsModifyCounter) {
                     dsModifyCounter.increment();
+                    modificationVersion++;
                 }
             }
         });
@@ -105,6 +108,7 @@ public class DatasetLock implements IMetadataLock {
     private void decrementModifyCounter() {
         synchronized (indexBuildCounter) {
             synchronized (dsModifyCounter) {
+                modificationVersion++;
                 if (dsModifyCounter.decrementAndGet() == 0) {
                     indexBuildCounter.notifyAll();
                 }
@@ -243,6 +247,16 @@ public class DatasetLock implements IMetadataLock {
         }
     }
 
+    /**
+     * @return a version of the dataset's data that changes whenever a modification starts or ends, or -1 while a
+     *         modification is in progress
+     */
+    public long getModificationVersion() {
+        synchronized (dsModifyCounter) {
+            return dsModifyCounter.getValue() > 0 ? -1 : modificationVersion;
+        }
+    }
+
     @Override
     public MetadataLockKey getKey() {
         return key;
@@ -34,9 +34,12 @@ public class MetadataLockManager implements IMetadataLockManager {
     private static final Function<MetadataLockKey, DatasetLock> DATASET_LOCK_FUNCTION = DatasetLock::new;
 
     private final ConcurrentMap<MetadataLockKey, IMetadataLock> mdlocks;
+    // distinguishes the data versions of this lock manager from those of an earlier one, e.g. before a CC restart
+    private final long incarnation;
 
     public MetadataLockManager() {
         mdlocks = new ConcurrentHashMap<>();
+        incarnation = System.currentTimeMillis();
     }
 
     @Override
@@ -93,6 +96,14 @@ public class MetadataLockManager implements IMetadataLockManager {
         locks.add(IMetadataLock.Mode.EXCLUSIVE_MODIFY, lock);
     }
 
+    @Override
+    public String getDatasetDataVersion(DataverseName dataverseName, String datasetName) {
+        MetadataLockKey key = MetadataLockKey.createDatasetLockKey(dataverseName, datasetName);
+        DatasetLock lock = (DatasetLock) mdlocks.computeIfAbsent(key, DATASET_LOCK_FUNCTION);
+        long version = lock.getModificationVersion();
+        return version < 0 ? null : incarnation + "." + version;
+    }
+
     @Override
     public void acquireFunctionReadLock(LockList locks, DataverseName dataverseName, String synonymName)
             throws AlgebricksException {
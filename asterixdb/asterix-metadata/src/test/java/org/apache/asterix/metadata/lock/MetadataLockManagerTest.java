@@ -314,4 +314,55 @@ public class MetadataLockManagerTest {
         mike.stop();
     }
 
+    @Test
+    public void testDatasetDataVersion() throws Exception {
+        MetadataLockManager lockManager = new MetadataLockManager();
+        DataverseName dataverseName = DataverseName.createSinglePartName("Dataverse");
+        String datasetName = "Dataset";
+        String otherDatasetName = "OtherDataset";
+        String version = lockManager.getDatasetDataVersion(dataverseName, datasetName);
+        String otherVersion = lockManager.getDatasetDataVersion(dataverseName, otherDatasetName);
+        Assert.assertNotNull(version);
+        // Till builds an index, which does not change the data
+        User till = new User("till", lockManager);
+        Request tReq = new Request(Request.Statement.INDEX, dataverseName, datasetName);
+        till.add(tReq);
+        till.step();
+        till.step();
+        tReq.await();
+        Assert.assertEquals(version, lockManager.getDatasetDataVersion(dataverseName, datasetName));
+        // Dmitry inserts through another node, which the cluster controller runs under the same dataset lock
+        User dmitry = new User("dmitry", lockManager);
+        Request dReq = new Request(Request.Statement.MODIFY, dataverseName, datasetName);
+        dmitry.add(dReq);
+        dmitry.step();
+        dReq.await(1);
+        // Ensure that there is no version while the dataset is being modified
+        Assert.assertNull(lockManager.getDatasetDataVersion(dataverseName, datasetName));
+        Assert.assertEquals(otherVersion, lockManager.getDatasetDataVersion(dataverseName, otherDatasetName));
+        dmitry.step();
+        dReq.await();
+        // Ensure that the version changed once the modification completed
+        String newVersion = lockManager.getDatasetDataVersion(dataverseName, datasetName);
+        Assert.assertNotNull(newVersion);
+        Assert.assertNotEquals(version, newVersion);
+        Assert.assertEquals(otherVersion, lockManager.getDatasetDataVersion(dataverseName, otherDatasetName));
+        // Mike loads the dataset under an exclusive modification lock
+        User mike = new User("mike", lockManager);
+        Request mReq = new Request(Request.Statement.EXCLUSIVE_MODIFY, dataverseName, datasetName);
+        mike.add(mReq);
+        mike.step();
+        mReq.await(1);
+        Assert.assertNull(lockManager.getDatasetDataVersion(dataverseName, datasetName));
+        mike.step();
+        mReq.await();
+        String loadedVersion = lockManager.getDatasetDataVersion(dataverseName, datasetName);
+        Assert.assertNotEquals(version, loadedVersion);
+        Assert.assertNotEquals(newVersion, loadedVersion);
+        // Stop users
+        till.stop();
+        dmitry.stop();
+        mike.stop();
+    }
+
 }
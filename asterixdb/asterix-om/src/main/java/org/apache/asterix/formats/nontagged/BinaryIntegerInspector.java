@@ -42,4 +42,9 @@ public class BinaryIntegerInspector implements IBinaryIntegerInspector {
     public int getIntegerValue(byte[] bytes, int offset, int length) throws HyracksDataException {
         return ATypeHierarchy.getIntegerValue("integer-inspector", 0, bytes, offset);
     }
+
+    @Override
+    public long getLongValue(byte[] bytes, int offset, int length) throws HyracksDataException {
+        return ATypeHierarchy.getLongValue("integer-inspector", 0, bytes, offset);
+    }
 }
@@ -952,6 +952,48 @@ public class BuiltinFunctions {
     public static final FunctionIdentifier SERIAL_LOCAL_SQL_KURTOSIS =
             new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "local-sql-kurtosis-serial", 1);
 
+    // approximate sql aggregate functions (sketch-based)
+    public static final FunctionIdentifier SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-sql-approx_count_distinct", 1);
+    public static final FunctionIdentifier LOCAL_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-local-sql-approx_count_distinct", 1);
+    public static final FunctionIdentifier INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "intermediate-agg-sql-approx_count_distinct", 1);
+    public static final FunctionIdentifier GLOBAL_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-global-sql-approx_count_distinct", 1);
+    public static final FunctionIdentifier SCALAR_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "sql-approx_count_distinct", 1);
+    public static final FunctionIdentifier SCALAR_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "approx_count_distinct", 1);
+    public static final FunctionIdentifier SERIAL_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "sql-approx_count_distinct-serial", 1);
+    public static final FunctionIdentifier SERIAL_LOCAL_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "local-sql-approx_count_distinct-serial", 1);
+    public static final FunctionIdentifier SERIAL_INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "intermediate-sql-approx_count_distinct-serial", 1);
+    public static final FunctionIdentifier SERIAL_GLOBAL_SQL_APPROX_COUNT_DISTINCT =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "global-sql-approx_count_distinct-serial", 1);
+    public static final FunctionIdentifier SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-sql-approx_median", 1);
+    public static final FunctionIdentifier LOCAL_SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-local-sql-approx_median", 1);
+    public static final FunctionIdentifier INTERMEDIATE_SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "intermediate-agg-sql-approx_median", 1);
+    public static final FunctionIdentifier GLOBAL_SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-global-sql-approx_median", 1);
+    public static final FunctionIdentifier SCALAR_SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "sql-approx_median", 1);
+    public static final FunctionIdentifier SCALAR_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "approx_median", 1);
+    public static final FunctionIdentifier SERIAL_SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "sql-approx_median-serial", 1);
+    public static final FunctionIdentifier SERIAL_LOCAL_SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "local-sql-approx_median-serial", 1);
+    public static final FunctionIdentifier SERIAL_INTERMEDIATE_SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "intermediate-sql-approx_median-serial", 1);
+    public static final FunctionIdentifier SERIAL_GLOBAL_SQL_APPROX_MEDIAN =
+            new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "global-sql-approx_median-serial", 1);
+
     // distinct sql aggregate functions
     public static final FunctionIdentifier SQL_COUNT_DISTINCT =
             new FunctionIdentifier(FunctionConstants.ASTERIX_NS, "agg-sql-count-distinct", 1);
@@ -2136,6 +2178,26 @@ public class BuiltinFunctions {
         addPrivateFunction(LOCAL_SQL_KURTOSIS, LocalSingleVarStatisticsTypeComputer.INSTANCE, true);
         addPrivateFunction(INTERMEDIATE_SQL_KURTOSIS, LocalSingleVarStatisticsTypeComputer.INSTANCE, true);
         addFunction(SCALAR_SQL_KURTOSIS, NullableDoubleTypeComputer.INSTANCE, true);
+        addFunction(SQL_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addPrivateFunction(LOCAL_SQL_APPROX_COUNT_DISTINCT, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(GLOBAL_SQL_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addFunction(SCALAR_SQL_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addFunction(SCALAR_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addPrivateFunction(SERIAL_SQL_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addPrivateFunction(SERIAL_LOCAL_SQL_APPROX_COUNT_DISTINCT, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(SERIAL_INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(SERIAL_GLOBAL_SQL_APPROX_COUNT_DISTINCT, AInt64TypeComputer.INSTANCE, true);
+        addFunction(SQL_APPROX_MEDIAN, NullableDoubleTypeComputer.INSTANCE, true);
+        addPrivateFunction(LOCAL_SQL_APPROX_MEDIAN, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(INTERMEDIATE_SQL_APPROX_MEDIAN, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(GLOBAL_SQL_APPROX_MEDIAN, NullableDoubleTypeComputer.INSTANCE, true);
+        addFunction(SCALAR_SQL_APPROX_MEDIAN, NullableDoubleTypeComputer.INSTANCE, true);
+        addFunction(SCALAR_APPROX_MEDIAN, NullableDoubleTypeComputer.INSTANCE, true);
+        addPrivateFunction(SERIAL_SQL_APPROX_MEDIAN, NullableDoubleTypeComputer.INSTANCE, true);
+        addPrivateFunction(SERIAL_LOCAL_SQL_APPROX_MEDIAN, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(SERIAL_INTERMEDIATE_SQL_APPROX_MEDIAN, ABinaryTypeComputer.INSTANCE, true);
+        addPrivateFunction(SERIAL_GLOBAL_SQL_APPROX_MEDIAN, NullableDoubleTypeComputer.INSTANCE, true);
         addFunction(SQL_UNION_MBR, ARectangleTypeComputer.INSTANCE, true);
         addPrivateFunction(LOCAL_SQL_UNION_MBR, ARectangleTypeComputer.INSTANCE, true);
         addPrivateFunction(INTERMEDIATE_SQL_UNION_MBR, ARectangleTypeComputer.INSTANCE, true);
@@ -3053,6 +3115,58 @@ public class BuiltinFunctions {
         addIntermediateAgg(SERIAL_GLOBAL_SQL_KURTOSIS, SERIAL_INTERMEDIATE_SQL_KURTOSIS);
         addGlobalAgg(SERIAL_SQL_KURTOSIS, SERIAL_GLOBAL_SQL_KURTOSIS);
 
+        // SQL APPROX_COUNT_DISTINCT
+
+        addAgg(SQL_APPROX_COUNT_DISTINCT);
+        addAgg(LOCAL_SQL_APPROX_COUNT_DISTINCT);
+        addAgg(GLOBAL_SQL_APPROX_COUNT_DISTINCT);
+        addLocalAgg(SQL_APPROX_COUNT_DISTINCT, LOCAL_SQL_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(SQL_APPROX_COUNT_DISTINCT, INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(LOCAL_SQL_APPROX_COUNT_DISTINCT, INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(GLOBAL_SQL_APPROX_COUNT_DISTINCT, INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT);
+        addGlobalAgg(SQL_APPROX_COUNT_DISTINCT, GLOBAL_SQL_APPROX_COUNT_DISTINCT);
+
+        addScalarAgg(SQL_APPROX_COUNT_DISTINCT, SCALAR_SQL_APPROX_COUNT_DISTINCT);
+        addScalarAgg(SQL_APPROX_COUNT_DISTINCT, SCALAR_APPROX_COUNT_DISTINCT);
+
+        addSerialAgg(SQL_APPROX_COUNT_DISTINCT, SERIAL_SQL_APPROX_COUNT_DISTINCT);
+        addSerialAgg(LOCAL_SQL_APPROX_COUNT_DISTINCT, SERIAL_LOCAL_SQL_APPROX_COUNT_DISTINCT);
+        addSerialAgg(GLOBAL_SQL_APPROX_COUNT_DISTINCT, SERIAL_GLOBAL_SQL_APPROX_COUNT_DISTINCT);
+        addAgg(SERIAL_SQL_APPROX_COUNT_DISTINCT);
+        addAgg(SERIAL_LOCAL_SQL_APPROX_COUNT_DISTINCT);
+        addAgg(SERIAL_GLOBAL_SQL_APPROX_COUNT_DISTINCT);
+        addLocalAgg(SERIAL_SQL_APPROX_COUNT_DISTINCT, SERIAL_LOCAL_SQL_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(SERIAL_SQL_APPROX_COUNT_DISTINCT, SERIAL_INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(SERIAL_LOCAL_SQL_APPROX_COUNT_DISTINCT, SERIAL_INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT);
+        addIntermediateAgg(SERIAL_GLOBAL_SQL_APPROX_COUNT_DISTINCT, SERIAL_INTERMEDIATE_SQL_APPROX_COUNT_DISTINCT);
+        addGlobalAgg(SERIAL_SQL_APPROX_COUNT_DISTINCT, SERIAL_GLOBAL_SQL_APPROX_COUNT_DISTINCT);
+
+        // SQL APPROX_MEDIAN
+
+        addAgg(SQL_APPROX_MEDIAN);
+        addAgg(LOCAL_SQL_APPROX_MEDIAN);
+        addAgg(GLOBAL_SQL_APPROX_MEDIAN);
+        addLocalAgg(SQL_APPROX_MEDIAN, LOCAL_SQL_APPROX_MEDIAN);
+        addIntermediateAgg(SQL_APPROX_MEDIAN, INTERMEDIATE_SQL_APPROX_MEDIAN);
+        addIntermediateAgg(LOCAL_SQL_APPROX_MEDIAN, INTERMEDIATE_SQL_APPROX_MEDIAN);
+        addIntermediateAgg(GLOBAL_SQL_APPROX_MEDIAN, INTERMEDIATE_SQL_APPROX_MEDIAN);
+        addGlobalAgg(SQL_APPROX_MEDIAN, GLOBAL_SQL_APPROX_MEDIAN);
+
+        addScalarAgg(SQL_APPROX_MEDIAN, SCALAR_SQL_APPROX_MEDIAN);
+        addScalarAgg(SQL_APPROX_MEDIAN, SCALAR_APPROX_MEDIAN);
+
+        addSerialAgg(SQL_APPROX_MEDIAN, SERIAL_SQL_APPROX_MEDIAN);
+        addSerialAgg(LOCAL_SQL_APPROX_MEDIAN, SERIAL_LOCAL_SQL_APPROX_MEDIAN);
+        addSerialAgg(GLOBAL_SQL_APPROX_MEDIAN, SERIAL_GLOBAL_SQL_APPROX_MEDIAN);
+        addAgg(SERIAL_SQL_APPROX_MEDIAN);
+        addAgg(SERIAL_LOCAL_SQL_APPROX_MEDIAN);
+        addAgg(SERIAL_GLOBAL_SQL_APPROX_MEDIAN);
+        addLocalAgg(SERIAL_SQL_APPROX_MEDIAN, SERIAL_LOCAL_SQL_APPROX_MEDIAN);
+        addIntermediateAgg(SERIAL_SQL_APPROX_MEDIAN, SERIAL_INTERMEDIATE_SQL_APPROX_MEDIAN);
+        addIntermediateAgg(SERIAL_LOCAL_SQL_APPROX_MEDIAN, SERIAL_INTERMEDIATE_SQL_APPROX_MEDIAN);
+        addIntermediateAgg(SERIAL_GLOBAL_SQL_APPROX_MEDIAN, SERIAL_INTERMEDIATE_SQL_APPROX_MEDIAN);
+        addGlobalAgg(SERIAL_SQL_APPROX_MEDIAN, SERIAL_GLOBAL_SQL_APPROX_MEDIAN);
+
         // SQL AVG DISTINCT
 
         addDistinctAgg(SQL_AVG_DISTINCT, SQL_AVG);
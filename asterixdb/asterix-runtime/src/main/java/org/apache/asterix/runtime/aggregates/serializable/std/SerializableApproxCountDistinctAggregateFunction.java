@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.serializable.std;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AMutableInt64;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.runtime.aggregates.utils.HyperLogLogSketch;
+import org.apache.asterix.runtime.aggregates.utils.SketchAggregatesUtil;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * Serializable version of APPROX_COUNT_DISTINCT; the state is the {@link HyperLogLogSketch} itself, updated in place.
+ */
+public class SerializableApproxCountDistinctAggregateFunction extends AbstractSerializableAggregateFunction {
+
+    private static final byte[] EMPTY_SKETCH = new byte[HyperLogLogSketch.SIZE];
+
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<AInt64> int64Serde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.AINT64);
+    private final AMutableInt64 result = new AMutableInt64(0);
+    private final IPointable inputVal = new VoidPointable();
+    private final IScalarEvaluator eval;
+    private final IBinaryHashFunction highHash;
+    private final IBinaryHashFunction lowHash;
+    private final FunctionIdentifier fid;
+    private final boolean sketchInput;
+    private final boolean sketchOutput;
+
+    public SerializableApproxCountDistinctAggregateFunction(IScalarEvaluatorFactory[] args, IEvaluatorContext context,
+            SourceLocation sourceLoc, FunctionIdentifier fid, boolean sketchInput, boolean sketchOutput)
+            throws HyracksDataException {
+        super(sourceLoc);
+        this.eval = args[0].createScalarEvaluator(context);
+        this.highHash = SketchAggregatesUtil.createHighHashFunction();
+        this.lowHash = SketchAggregatesUtil.createLowHashFunction();
+        this.fid = fid;
+        this.sketchInput = sketchInput;
+        this.sketchOutput = sketchOutput;
+    }
+
+    @Override
+    public void init(DataOutput state) throws HyracksDataException {
+        try {
+            state.write(EMPTY_SKETCH);
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    @Override
+    public void step(IFrameTupleReference tuple, byte[] state, int start, int len) throws HyracksDataException {
+        eval.evaluate(tuple, inputVal);
+        byte[] bytes = inputVal.getByteArray();
+        int offset = inputVal.getStartOffset();
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(bytes[offset]);
+        if (typeTag == ATypeTag.NULL || typeTag == ATypeTag.MISSING || typeTag == ATypeTag.SYSTEM_NULL) {
+            return;
+        }
+        if (sketchInput) {
+            int sketchOffset =
+                    SketchAggregatesUtil.getSketchOffset(bytes, offset, HyperLogLogSketch.SIZE, sourceLoc, fid);
+            HyperLogLogSketch.merge(state, start, bytes, sketchOffset);
+        } else {
+            HyperLogLogSketch.add(state, start,
+                    SketchAggregatesUtil.hash(highHash, lowHash, bytes, offset, inputVal.getLength()));
+        }
+    }
+
+    @Override
+    public void finish(byte[] state, int start, int len, DataOutput out) throws HyracksDataException {
+        if (sketchOutput) {
+            finishPartial(state, start, len, out);
+            return;
+        }
+        result.setValue(HyperLogLogSketch.estimate(state, start));
+        int64Serde.serialize(result, out);
+    }
+
+    @Override
+    public void finishPartial(byte[] state, int start, int len, DataOutput out) throws HyracksDataException {
+        SketchAggregatesUtil.writeSketch(state, start, HyperLogLogSketch.SIZE, out);
+    }
+}
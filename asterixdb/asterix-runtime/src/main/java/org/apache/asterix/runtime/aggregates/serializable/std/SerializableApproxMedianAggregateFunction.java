@@ -0,0 +1,125 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.serializable.std;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.ADouble;
+import org.apache.asterix.om.base.AMutableDouble;
+import org.apache.asterix.om.base.ANull;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.om.types.hierachy.ATypeHierarchy;
+import org.apache.asterix.runtime.aggregates.utils.QuantileSketch;
+import org.apache.asterix.runtime.aggregates.utils.SketchAggregatesUtil;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * Serializable version of APPROX_MEDIAN; the state is the {@link QuantileSketch} itself, updated in place.
+ */
+public class SerializableApproxMedianAggregateFunction extends AbstractSerializableAggregateFunction {
+
+    private static final double MEDIAN = 0.5;
+    private static final byte[] EMPTY_SKETCH = new byte[QuantileSketch.SIZE];
+
+    static {
+        QuantileSketch.reset(EMPTY_SKETCH, 0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<ADouble> doubleSerde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ADOUBLE);
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<ANull> nullSerde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ANULL);
+    private final AMutableDouble result = new AMutableDouble(0);
+    private final IPointable inputVal = new VoidPointable();
+    private final IScalarEvaluator eval;
+    private final FunctionIdentifier fid;
+    private final boolean sketchInput;
+    private final boolean sketchOutput;
+
+    public SerializableApproxMedianAggregateFunction(IScalarEvaluatorFactory[] args, IEvaluatorContext context,
+            SourceLocation sourceLoc, FunctionIdentifier fid, boolean sketchInput, boolean sketchOutput)
+            throws HyracksDataException {
+        super(sourceLoc);
+        this.eval = args[0].createScalarEvaluator(context);
+        this.fid = fid;
+        this.sketchInput = sketchInput;
+        this.sketchOutput = sketchOutput;
+    }
+
+    @Override
+    public void init(DataOutput state) throws HyracksDataException {
+        try {
+            state.write(EMPTY_SKETCH);
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    @Override
+    public void step(IFrameTupleReference tuple, byte[] state, int start, int len) throws HyracksDataException {
+        eval.evaluate(tuple, inputVal);
+        byte[] bytes = inputVal.getByteArray();
+        int offset = inputVal.getStartOffset();
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(bytes[offset]);
+        if (typeTag == ATypeTag.NULL || typeTag == ATypeTag.MISSING || typeTag == ATypeTag.SYSTEM_NULL) {
+            return;
+        }
+        if (sketchInput) {
+            int sketchOffset = SketchAggregatesUtil.getSketchOffset(bytes, offset, QuantileSketch.SIZE, sourceLoc, fid);
+            QuantileSketch.merge(state, start, bytes, sketchOffset);
+        } else {
+            QuantileSketch.add(state, start, ATypeHierarchy.getDoubleValue(fid.getName(), 0, bytes, offset));
+        }
+    }
+
+    @Override
+    public void finish(byte[] state, int start, int len, DataOutput out) throws HyracksDataException {
+        if (sketchOutput) {
+            finishPartial(state, start, len, out);
+            return;
+        }
+        double median = QuantileSketch.quantile(state, start, MEDIAN);
+        if (Double.isNaN(median)) {
+            nullSerde.serialize(ANull.NULL, out);
+        } else {
+            result.setValue(median);
+            doubleSerde.serialize(result, out);
+        }
+    }
+
+    @Override
+    public void finishPartial(byte[] state, int start, int len, DataOutput out) throws HyracksDataException {
+        SketchAggregatesUtil.writeSketch(state, start, QuantileSketch.SIZE, out);
+    }
+}
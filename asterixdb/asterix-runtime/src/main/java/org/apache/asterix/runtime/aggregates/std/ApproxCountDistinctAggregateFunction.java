@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.std;
+
+import java.io.IOException;
+
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AMutableInt64;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.runtime.aggregates.utils.HyperLogLogSketch;
+import org.apache.asterix.runtime.aggregates.utils.SketchAggregatesUtil;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * APPROX_COUNT_DISTINCT estimates the number of distinct non-null items with a {@link HyperLogLogSketch}.
+ * Depending on the step it implements, it either consumes items or sketches and either produces the estimate or
+ * the sketch itself (partial results are always sketches).
+ */
+public class ApproxCountDistinctAggregateFunction extends AbstractAggregateFunction {
+
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<AInt64> int64Serde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.AINT64);
+    private final AMutableInt64 result = new AMutableInt64(0);
+    private final ArrayBackedValueStorage resultStorage = new ArrayBackedValueStorage();
+    private final IPointable inputVal = new VoidPointable();
+    private final byte[] sketch = new byte[HyperLogLogSketch.SIZE];
+    private final IScalarEvaluator eval;
+    private final IBinaryHashFunction highHash;
+    private final IBinaryHashFunction lowHash;
+    private final FunctionIdentifier fid;
+    private final boolean sketchInput;
+    private final boolean sketchOutput;
+
+    public ApproxCountDistinctAggregateFunction(IScalarEvaluatorFactory[] args, IEvaluatorContext context,
+            SourceLocation sourceLoc, FunctionIdentifier fid, boolean sketchInput, boolean sketchOutput)
+            throws HyracksDataException {
+        super(sourceLoc);
+        this.eval = args[0].createScalarEvaluator(context);
+        this.highHash = SketchAggregatesUtil.createHighHashFunction();
+        this.lowHash = SketchAggregatesUtil.createLowHashFunction();
+        this.fid = fid;
+        this.sketchInput = sketchInput;
+        this.sketchOutput = sketchOutput;
+    }
+
+    @Override
+    public void init() throws HyracksDataException {
+        HyperLogLogSketch.reset(sketch, 0);
+    }
+
+    @Override
+    public void step(IFrameTupleReference tuple) throws HyracksDataException {
+        eval.evaluate(tuple, inputVal);
+        byte[] bytes = inputVal.getByteArray();
+        int offset = inputVal.getStartOffset();
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(bytes[offset]);
+        if (typeTag == ATypeTag.NULL || typeTag == ATypeTag.MISSING || typeTag == ATypeTag.SYSTEM_NULL) {
+            return;
+        }
+        if (sketchInput) {
+            int sketchOffset =
+                    SketchAggregatesUtil.getSketchOffset(bytes, offset, HyperLogLogSketch.SIZE, sourceLoc, fid);
+            HyperLogLogSketch.merge(sketch, 0, bytes, sketchOffset);
+        } else {
+            HyperLogLogSketch.add(sketch, 0,
+                    SketchAggregatesUtil.hash(highHash, lowHash, bytes, offset, inputVal.getLength()));
+        }
+    }
+
+    @Override
+    public void finish(IPointable resultPointable) throws HyracksDataException {
+        if (sketchOutput) {
+            finishPartial(resultPointable);
+            return;
+        }
+        resultStorage.reset();
+        try {
+            result.setValue(HyperLogLogSketch.estimate(sketch, 0));
+            int64Serde.serialize(result, resultStorage.getDataOutput());
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+        resultPointable.set(resultStorage);
+    }
+
+    @Override
+    public void finishPartial(IPointable resultPointable) throws HyracksDataException {
+        resultStorage.reset();
+        SketchAggregatesUtil.writeSketch(sketch, 0, HyperLogLogSketch.SIZE, resultStorage.getDataOutput());
+        resultPointable.set(resultStorage);
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.std;
+
+import java.io.IOException;
+
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.ADouble;
+import org.apache.asterix.om.base.AMutableDouble;
+import org.apache.asterix.om.base.ANull;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.asterix.om.types.hierachy.ATypeHierarchy;
+import org.apache.asterix.runtime.aggregates.utils.QuantileSketch;
+import org.apache.asterix.runtime.aggregates.utils.SketchAggregatesUtil;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * APPROX_MEDIAN computes the median of the non-null numeric items within the relative accuracy of a
+ * {@link QuantileSketch}. It returns NULL if there are no such items. Depending on the step it implements, it either
+ * consumes items or sketches and either produces the median or the sketch itself (partial results are always
+ * sketches).
+ */
+public class ApproxMedianAggregateFunction extends AbstractAggregateFunction {
+
+    private static final double MEDIAN = 0.5;
+
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<ADouble> doubleSerde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ADOUBLE);
+    @SuppressWarnings("unchecked")
+    private final ISerializerDeserializer<ANull> nullSerde =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ANULL);
+    private final AMutableDouble result = new AMutableDouble(0);
+    private final ArrayBackedValueStorage resultStorage = new ArrayBackedValueStorage();
+    private final IPointable inputVal = new VoidPointable();
+    private final byte[] sketch = new byte[QuantileSketch.SIZE];
+    private final IScalarEvaluator eval;
+    private final FunctionIdentifier fid;
+    private final boolean sketchInput;
+    private final boolean sketchOutput;
+
+    public ApproxMedianAggregateFunction(IScalarEvaluatorFactory[] args, IEvaluatorContext context,
+            SourceLocation sourceLoc, FunctionIdentifier fid, boolean sketchInput, boolean sketchOutput)
+            throws HyracksDataException {
+        super(sourceLoc);
+        this.eval = args[0].createScalarEvaluator(context);
+        this.fid = fid;
+        this.sketchInput = sketchInput;
+        this.sketchOutput = sketchOutput;
+    }
+
+    @Override
+    public void init() throws HyracksDataException {
+        QuantileSketch.reset(sketch, 0);
+    }
+
+    @Override
+    public void step(IFrameTupleReference tuple) throws HyracksDataException {
+        eval.evaluate(tuple, inputVal);
+        byte[] bytes = inputVal.getByteArray();
+        int offset = inputVal.getStartOffset();
+        ATypeTag typeTag = EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(bytes[offset]);
+        if (typeTag == ATypeTag.NULL || typeTag == ATypeTag.MISSING || typeTag == ATypeTag.SYSTEM_NULL) {
+            return;
+        }
+        if (sketchInput) {
+            int sketchOffset = SketchAggregatesUtil.getSketchOffset(bytes, offset, QuantileSketch.SIZE, sourceLoc, fid);
+            QuantileSketch.merge(sketch, 0, bytes, sketchOffset);
+        } else {
+            QuantileSketch.add(sketch, 0, ATypeHierarchy.getDoubleValue(fid.getName(), 0, bytes, offset));
+        }
+    }
+
+    @Override
+    public void finish(IPointable resultPointable) throws HyracksDataException {
+        if (sketchOutput) {
+            finishPartial(resultPointable);
+            return;
+        }
+        resultStorage.reset();
+        try {
+            double median = QuantileSketch.quantile(sketch, 0, MEDIAN);
+            if (Double.isNaN(median)) {
+                nullSerde.serialize(ANull.NULL, resultStorage.getDataOutput());
+            } else {
+                result.setValue(median);
+                doubleSerde.serialize(result, resultStorage.getDataOutput());
+            }
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+        resultPointable.set(resultStorage);
+    }
+
+    @Override
+    public void finishPartial(IPointable resultPointable) throws HyracksDataException {
+        resultStorage.reset();
+        SketchAggregatesUtil.writeSketch(sketch, 0, QuantileSketch.SIZE, resultStorage.getDataOutput());
+        resultPointable.set(resultStorage);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.utils;
+
+import java.util.Arrays;
+
+/**
+ * A HyperLogLog sketch (Flajolet et al., 2007) stored as a fixed-length byte region so that it can live both in a
+ * plain byte array and in a serialized aggregate state. The sketch uses {@link #NUM_REGISTERS} one-byte registers,
+ * giving a standard error of about 2.3%, and two sketches are merged by taking the register-wise maximum.
+ */
+public final class HyperLogLogSketch {
+
+    public static final int PRECISION = 11;
+    public static final int NUM_REGISTERS = 1 << PRECISION;
+    public static final int SIZE = NUM_REGISTERS;
+
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / NUM_REGISTERS);
+
+    private HyperLogLogSketch() {
+    }
+
+    public static void reset(byte[] sketch, int offset) {
+        Arrays.fill(sketch, offset, offset + SIZE, (byte) 0);
+    }
+
+    /**
+     * Adds a 64-bit hash value to the sketch.
+     */
+    public static void add(byte[] sketch, int offset, long hash) {
+        int register = (int) (hash >>> (Long.SIZE - PRECISION));
+        // the sentinel bit bounds the rank when the remaining bits are all zeros
+        byte rank = (byte) (Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1);
+        if (sketch[offset + register] < rank) {
+            sketch[offset + register] = rank;
+        }
+    }
+
+    public static void merge(byte[] sketch, int offset, byte[] other, int otherOffset) {
+        for (int i = 0; i < NUM_REGISTERS; i++) {
+            if (sketch[offset + i] < other[otherOffset + i]) {
+                sketch[offset + i] = other[otherOffset + i];
+            }
+        }
+    }
+
+    public static long estimate(byte[] sketch, int offset) {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < NUM_REGISTERS; i++) {
+            byte rank = sketch[offset + i];
+            sum += 1.0 / (1L << rank);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * NUM_REGISTERS * NUM_REGISTERS / sum;
+        if (estimate <= 2.5 * NUM_REGISTERS && zeros > 0) {
+            // small range correction: linear counting
+            estimate = NUM_REGISTERS * Math.log((double) NUM_REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
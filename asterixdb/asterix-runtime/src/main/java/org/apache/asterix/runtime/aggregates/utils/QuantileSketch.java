@@ -0,0 +1,252 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.utils;
+
+import java.util.Arrays;
+
+import org.apache.asterix.runtime.aggregates.serializable.std.BufferSerDeUtil;
+
+/**
+ * A mergeable quantile sketch with relative value accuracy (in the spirit of DDSketch, Masson et al., 2019) stored as
+ * a fixed-length byte region. A positive value v is counted in the bucket i such that gamma^(i-1) < v <= gamma^i,
+ * so any quantile is reported within {@link #RELATIVE_ACCURACY} of a value of the right rank. Negative values are
+ * counted by magnitude in a second store and zeros in a separate counter.
+ * <p>
+ * Each store keeps a window of {@link #NUM_BUCKETS} consecutive bucket counts, which spans about four orders of
+ * magnitude. A value that falls outside of the window either makes the window slide towards it, collapsing the
+ * buckets it leaves into its new edge bucket, or is counted in the edge bucket on its side, whichever moves fewer
+ * values. Either way, values keep their order relative to the values inside of the window, so the window follows the
+ * bulk of the values and only the accuracy of the extreme quantiles degrades on inputs that span a wider range. Two
+ * sketches are merged by adding bucket counts.
+ * <p>
+ * Layout: zero count (long), then for the positive and the negative store: the index of the first bucket of the
+ * window (int, {@link #EMPTY_STORE} if the store is empty) followed by the bucket counts (longs).
+ */
+public final class QuantileSketch {
+
+    public static final double RELATIVE_ACCURACY = 0.02;
+    public static final int NUM_BUCKETS = 256;
+
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final int EMPTY_STORE = Integer.MIN_VALUE;
+    private static final int ZERO_COUNT_OFFSET = 0;
+    private static final int STORE_SIZE = Integer.BYTES + NUM_BUCKETS * Long.BYTES;
+    private static final int POSITIVE_STORE_OFFSET = ZERO_COUNT_OFFSET + Long.BYTES;
+    private static final int NEGATIVE_STORE_OFFSET = POSITIVE_STORE_OFFSET + STORE_SIZE;
+
+    public static final int SIZE = NEGATIVE_STORE_OFFSET + STORE_SIZE;
+
+    private QuantileSketch() {
+    }
+
+    public static void reset(byte[] sketch, int offset) {
+        Arrays.fill(sketch, offset, offset + SIZE, (byte) 0);
+        BufferSerDeUtil.writeInt(EMPTY_STORE, sketch, offset + POSITIVE_STORE_OFFSET);
+        BufferSerDeUtil.writeInt(EMPTY_STORE, sketch, offset + NEGATIVE_STORE_OFFSET);
+    }
+
+    /**
+     * Adds a value to the sketch. NaN and infinite values are ignored.
+     */
+    public static void add(byte[] sketch, int offset, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        double magnitude = Math.abs(value);
+        if (magnitude < Double.MIN_NORMAL) {
+            addZeros(sketch, offset, 1);
+        } else if (value > 0) {
+            addToStore(sketch, offset + POSITIVE_STORE_OFFSET, index(magnitude), 1);
+        } else {
+            addToStore(sketch, offset + NEGATIVE_STORE_OFFSET, index(magnitude), 1);
+        }
+    }
+
+    public static void merge(byte[] sketch, int offset, byte[] other, int otherOffset) {
+        addZeros(sketch, offset, BufferSerDeUtil.getLong(other, otherOffset + ZERO_COUNT_OFFSET));
+        mergeStore(sketch, offset + POSITIVE_STORE_OFFSET, other, otherOffset + POSITIVE_STORE_OFFSET);
+        mergeStore(sketch, offset + NEGATIVE_STORE_OFFSET, other, otherOffset + NEGATIVE_STORE_OFFSET);
+    }
+
+    /**
+     * @return the approximate value at the given rank (0 <= q <= 1), or NaN if no value has been added
+     */
+    public static double quantile(byte[] sketch, int offset, double q) {
+        int positiveStore = offset + POSITIVE_STORE_OFFSET;
+        int negativeStore = offset + NEGATIVE_STORE_OFFSET;
+        long zeroCount = BufferSerDeUtil.getLong(sketch, offset + ZERO_COUNT_OFFSET);
+        long negativeCount = storeCount(sketch, negativeStore);
+        long total = negativeCount + zeroCount + storeCount(sketch, positiveStore);
+        if (total == 0) {
+            return Double.NaN;
+        }
+        long rank = (long) (q * (total - 1));
+        if (rank < negativeCount) {
+            // the most negative values come first, i.e. the negative buckets are scanned from the top
+            long seen = 0;
+            int base = BufferSerDeUtil.getInt(sketch, negativeStore);
+            for (int i = NUM_BUCKETS - 1; i >= 0; i--) {
+                seen += getBucket(sketch, negativeStore, i);
+                if (seen > rank) {
+                    return -value(base + i);
+                }
+            }
+        }
+        if (rank < negativeCount + zeroCount) {
+            return 0;
+        }
+        long seen = negativeCount + zeroCount;
+        int base = BufferSerDeUtil.getInt(sketch, positiveStore);
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += getBucket(sketch, positiveStore, i);
+            if (seen > rank) {
+                return value(base + i);
+            }
+        }
+        // not reachable as long as the counts are consistent
+        return value(base + NUM_BUCKETS - 1);
+    }
+
+    private static int index(double magnitude) {
+        return (int) Math.ceil(Math.log(magnitude) / LOG_GAMMA);
+    }
+
+    private static double value(int index) {
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+
+    private static void addZeros(byte[] sketch, int offset, long count) {
+        int zeroCountOffset = offset + ZERO_COUNT_OFFSET;
+        BufferSerDeUtil.writeLong(BufferSerDeUtil.getLong(sketch, zeroCountOffset) + count, sketch, zeroCountOffset);
+    }
+
+    private static void mergeStore(byte[] sketch, int store, byte[] other, int otherStore) {
+        int otherBase = BufferSerDeUtil.getInt(other, otherStore);
+        if (otherBase == EMPTY_STORE) {
+            return;
+        }
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            long count = getBucket(other, otherStore, i);
+            if (count > 0) {
+                addToStore(sketch, store, otherBase + i, count);
+            }
+        }
+    }
+
+    private static void addToStore(byte[] sketch, int store, int index, long count) {
+        int base = BufferSerDeUtil.getInt(sketch, store);
+        if (base == EMPTY_STORE) {
+            // center the window on the first value so that it can grow both ways
+            base = index - NUM_BUCKETS / 2;
+            BufferSerDeUtil.writeInt(base, sketch, store);
+        } else if (index >= base + NUM_BUCKETS) {
+            int shift = index - base - NUM_BUCKETS + 1;
+            // the edge bucket on the side of the value is not collapsed when the window slides a long way
+            if (massBelow(sketch, store, Math.min(shift, NUM_BUCKETS - 1)) <= getBucket(sketch, store, NUM_BUCKETS - 1)
+                    + count) {
+                base = slide(sketch, store, base, shift);
+            }
+        } else if (index < base) {
+            int shift = base - index;
+            if (massAbove(sketch, store, Math.min(shift, NUM_BUCKETS - 1)) <= getBucket(sketch, store, 0) + count) {
+                base = slide(sketch, store, base, -shift);
+            }
+        }
+        int bucket = Math.min(Math.max(index - base, 0), NUM_BUCKETS - 1);
+        setBucket(sketch, store, bucket, getBucket(sketch, store, bucket) + count);
+    }
+
+    /**
+     * @return the number of values in the lowest n buckets of a store
+     */
+    private static long massBelow(byte[] sketch, int store, int n) {
+        long mass = 0;
+        for (int i = 0; i < n; i++) {
+            mass += getBucket(sketch, store, i);
+        }
+        return mass;
+    }
+
+    /**
+     * @return the number of values in the highest n buckets of a store
+     */
+    private static long massAbove(byte[] sketch, int store, int n) {
+        long mass = 0;
+        for (int i = NUM_BUCKETS - n; i < NUM_BUCKETS; i++) {
+            mass += getBucket(sketch, store, i);
+        }
+        return mass;
+    }
+
+    /**
+     * Moves the window of a store by shift buckets (up if positive, down if negative) and collapses the buckets that
+     * fall out of it into its edge bucket on their side.
+     *
+     * @return the new base of the window
+     */
+    private static int slide(byte[] sketch, int store, int base, int shift) {
+        int bucketsStart = store + Integer.BYTES;
+        int bucketsEnd = bucketsStart + NUM_BUCKETS * Long.BYTES;
+        int distance = Math.abs(shift);
+        if (distance >= NUM_BUCKETS) {
+            // the edge bucket on the side of the move holds values beyond the old window, it stays on that edge
+            int edge = shift > 0 ? NUM_BUCKETS - 1 : 0;
+            long edgeCount = getBucket(sketch, store, edge);
+            long collapsed = storeCount(sketch, store) - edgeCount;
+            Arrays.fill(sketch, bucketsStart, bucketsEnd, (byte) 0);
+            setBucket(sketch, store, NUM_BUCKETS - 1 - edge, collapsed);
+            setBucket(sketch, store, edge, edgeCount);
+        } else if (shift > 0) {
+            long collapsed = massBelow(sketch, store, distance + 1);
+            System.arraycopy(sketch, bucketsStart + distance * Long.BYTES, sketch, bucketsStart,
+                    (NUM_BUCKETS - distance) * Long.BYTES);
+            Arrays.fill(sketch, bucketsEnd - distance * Long.BYTES, bucketsEnd, (byte) 0);
+            setBucket(sketch, store, 0, collapsed);
+        } else {
+            long collapsed = massAbove(sketch, store, distance + 1);
+            System.arraycopy(sketch, bucketsStart, sketch, bucketsStart + distance * Long.BYTES,
+                    (NUM_BUCKETS - distance) * Long.BYTES);
+            Arrays.fill(sketch, bucketsStart, bucketsStart + distance * Long.BYTES, (byte) 0);
+            setBucket(sketch, store, NUM_BUCKETS - 1, collapsed);
+        }
+        int newBase = base + shift;
+        BufferSerDeUtil.writeInt(newBase, sketch, store);
+        return newBase;
+    }
+
+    private static long storeCount(byte[] sketch, int store) {
+        if (BufferSerDeUtil.getInt(sketch, store) == EMPTY_STORE) {
+            return 0;
+        }
+        long count = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            count += getBucket(sketch, store, i);
+        }
+        return count;
+    }
+
+    private static long getBucket(byte[] sketch, int store, int bucket) {
+        return BufferSerDeUtil.getLong(sketch, store + Integer.BYTES + bucket * Long.BYTES);
+    }
+
+    private static void setBucket(byte[] sketch, int store, int bucket, long count) {
+        BufferSerDeUtil.writeLong(count, sketch, store + Integer.BYTES + bucket * Long.BYTES);
+    }
+}
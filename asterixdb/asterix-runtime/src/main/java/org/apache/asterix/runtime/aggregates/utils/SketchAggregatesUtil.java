@@ -0,0 +1,85 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.utils;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.asterix.dataflow.data.nontagged.hash.AMurmurHash3BinaryHashFunctionFamily;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.runtime.exceptions.UnsupportedItemTypeException;
+import org.apache.hyracks.algebricks.core.algebra.functions.FunctionIdentifier;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.primitive.ByteArrayPointable;
+import org.apache.hyracks.dataflow.common.data.marshalling.ByteArraySerializerDeserializer;
+
+/**
+ * Helpers shared by the sketch-based approximate aggregates. Their partial results are sketches passed between the
+ * local, intermediate and global steps as BINARY values.
+ */
+public final class SketchAggregatesUtil {
+
+    private static final int HIGH_HASH_SEED = 0x2f1e5b3d;
+    private static final int LOW_HASH_SEED = 0x6a09e667;
+
+    private SketchAggregatesUtil() {
+    }
+
+    public static IBinaryHashFunction createHighHashFunction() {
+        return AMurmurHash3BinaryHashFunctionFamily.createBinaryHashFunction(BuiltinType.ANY, HIGH_HASH_SEED);
+    }
+
+    public static IBinaryHashFunction createLowHashFunction() {
+        return AMurmurHash3BinaryHashFunctionFamily.createBinaryHashFunction(BuiltinType.ANY, LOW_HASH_SEED);
+    }
+
+    /**
+     * Builds a 64-bit hash out of two independently seeded 32-bit hashes of a tagged value. Numeric values of
+     * different types that are equal get the same hash.
+     */
+    public static long hash(IBinaryHashFunction high, IBinaryHashFunction low, byte[] bytes, int offset, int length)
+            throws HyracksDataException {
+        return ((long) high.hash(bytes, offset, length) << Integer.SIZE)
+                | (low.hash(bytes, offset, length) & 0xffffffffL);
+    }
+
+    public static void writeSketch(byte[] sketch, int offset, int length, DataOutput out) throws HyracksDataException {
+        try {
+            out.writeByte(ATypeTag.SERIALIZED_BINARY_TYPE_TAG);
+            ByteArraySerializerDeserializer.serialize(sketch, offset, length, out);
+        } catch (IOException e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    /**
+     * @return the offset of the sketch content in a tagged BINARY partial result
+     */
+    public static int getSketchOffset(byte[] bytes, int offset, int sketchSize, SourceLocation sourceLoc,
+            FunctionIdentifier fid) throws HyracksDataException {
+        if (bytes[offset] != ATypeTag.SERIALIZED_BINARY_TYPE_TAG
+                || ByteArrayPointable.getContentLength(bytes, offset + 1) != sketchSize) {
+            throw new UnsupportedItemTypeException(sourceLoc, fid, bytes[offset]);
+        }
+        return offset + 1 + ByteArrayPointable.getNumberBytesToStoreMeta(sketchSize);
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.evaluators.staticcodegen;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt16SerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt32SerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt64SerializerDeserializer;
+import org.apache.asterix.dataflow.data.nontagged.serde.AInt8SerializerDeserializer;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.EnumDeserializer;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.evaluators.ColumnAccessEvalFactory;
+import org.apache.hyracks.algebricks.runtime.evaluators.ConstantEvalFactory;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * A scalar expression tree over integer values that is evaluated on primitive longs instead of serialized values.
+ * The leaves are evaluators of integer inputs, e.g. fields or constants, and the inner nodes are integer arithmetic
+ * operations, comparisons and conjunctions of comparisons. The evaluation of the tree gives up as soon as a leaf is
+ * not an integer or an operation does not produce an integer of the type of its operands, so that the caller can
+ * fall back to the interpreted evaluators, which produce the MISSING, NULL, warning or error for these cases.
+ */
+public class IntegerExpression implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Operator {
+        ADD,
+        SUBTRACT,
+        MULTIPLY,
+        EQ,
+        NEQ,
+        LT,
+        LE,
+        GT,
+        GE,
+        AND;
+
+        public boolean isComparison() {
+            return ordinal() >= EQ.ordinal() && this != AND;
+        }
+    }
+
+    private final IScalarEvaluatorFactory leaf;
+    private final Operator operator;
+    private final IntegerExpression left;
+    private final IntegerExpression right;
+
+    private IntegerExpression(IScalarEvaluatorFactory leaf, Operator operator, IntegerExpression left,
+            IntegerExpression right) {
+        this.leaf = leaf;
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+    }
+
+    /**
+     * @param leaf
+     *            the factory of the evaluator of an input of the expression, which must be free of side effects
+     */
+    public static IntegerExpression leaf(IScalarEvaluatorFactory leaf) {
+        return new IntegerExpression(leaf, null, null, null);
+    }
+
+    /**
+     * @param operator
+     *            the operation of the node
+     * @param left
+     *            the left operand, which must be a boolean expression for AND and an integer expression otherwise
+     * @param right
+     *            the right operand, which must be a boolean expression for AND and an integer expression otherwise
+     */
+    public static IntegerExpression operation(Operator operator, IntegerExpression left, IntegerExpression right) {
+        boolean isAnd = operator == Operator.AND;
+        if (left.isBoolean() != isAnd || right.isBoolean() != isAnd) {
+            throw new IllegalArgumentException(
+                    "The operands of " + operator + " must be " + (isAnd ? "boolean" : "integer") + " expressions");
+        }
+        return new IntegerExpression(null, operator, left, right);
+    }
+
+    /**
+     * @return true if the expression is a comparison or a conjunction, whose value is a boolean
+     */
+    public boolean isBoolean() {
+        return operator != null && (operator.isComparison() || operator == Operator.AND);
+    }
+
+    Evaluator createEvaluator(IEvaluatorContext ctx) throws HyracksDataException {
+        return leaf != null ? new LeafEvaluator(leaf, ctx)
+                : new OperationEvaluator(operator, left.createEvaluator(ctx), right.createEvaluator(ctx));
+    }
+
+    @Override
+    public String toString() {
+        return leaf != null ? leaf.toString() : operator + "(" + left + ", " + right + ")";
+    }
+
+    abstract static class Evaluator {
+
+        /** the value of the last evaluation, 0 or 1 for comparisons */
+        long value;
+        /** the type of the value of the last evaluation, BOOLEAN for comparisons */
+        ATypeTag type;
+
+        /** the values, types and null mask of the last evaluation on a frame */
+        long[] values = new long[0];
+        ATypeTag[] types = new ATypeTag[0];
+        boolean[] nullMask = new boolean[0];
+
+        /**
+         * @return false if the expression cannot be evaluated on primitive values for the given tuple
+         */
+        abstract boolean evaluate(IFrameTupleReference tuple) throws HyracksDataException;
+
+        /**
+         * Evaluates the expression on the first n tuples of the frame of the given accessor. The null mask is set for
+         * the tuples the expression cannot be evaluated on primitive values for.
+         */
+        abstract void evaluate(IFrameTupleAccessor accessor, int n) throws HyracksDataException;
+
+        protected void ensureCapacity(int n) {
+            if (values.length < n) {
+                values = new long[n];
+                types = new ATypeTag[n];
+                nullMask = new boolean[n];
+            }
+        }
+    }
+
+    private static class LeafEvaluator extends Evaluator {
+
+        private final IScalarEvaluator eval;
+        private final IPointable arg = VoidPointable.FACTORY.createPointable();
+        private final FrameTupleReference tRef = new FrameTupleReference();
+        // the input field of a column access, read directly from the frame in batches
+        private final int fieldIndex;
+        // the value of a constant, computed once
+        private final boolean isConstant;
+        private final boolean isIntegerConstant;
+        private final long constantValue;
+        private final ATypeTag constantType;
+
+        LeafEvaluator(IScalarEvaluatorFactory factory, IEvaluatorContext ctx) throws HyracksDataException {
+            eval = factory.createScalarEvaluator(ctx);
+            boolean isColumn = factory instanceof ColumnAccessEvalFactory;
+            fieldIndex = isColumn ? ((ColumnAccessEvalFactory) factory).getFieldIndex() : -1;
+            isConstant = factory instanceof ConstantEvalFactory;
+            isIntegerConstant = isConstant && read(((ConstantEvalFactory) factory).getValue(), 0);
+            constantValue = value;
+            constantType = type;
+        }
+
+        @Override
+        boolean evaluate(IFrameTupleReference tuple) throws HyracksDataException {
+            if (isConstant) {
+                value = constantValue;
+                type = constantType;
+                return isIntegerConstant;
+            }
+            eval.evaluate(tuple, arg);
+            return read(arg.getByteArray(), arg.getStartOffset());
+        }
+
+        @Override
+        void evaluate(IFrameTupleAccessor accessor, int n) throws HyracksDataException {
+            ensureCapacity(n);
+            if (isConstant) {
+                Arrays.fill(values, 0, n, constantValue);
+                Arrays.fill(types, 0, n, constantType);
+                Arrays.fill(nullMask, 0, n, !isIntegerConstant);
+            } else if (fieldIndex >= 0) {
+                byte[] bytes = accessor.getBuffer().array();
+                for (int t = 0; t < n; t++) {
+                    nullMask[t] = !read(bytes, accessor.getAbsoluteFieldStartOffset(t, fieldIndex));
+                    values[t] = value;
+                    types[t] = type;
+                }
+            } else {
+                for (int t = 0; t < n; t++) {
+                    tRef.reset(accessor, t);
+                    nullMask[t] = !evaluate(tRef);
+                    values[t] = value;
+                    types[t] = type;
+                }
+            }
+        }
+
+        private boolean read(byte[] bytes, int offset) {
+            switch (EnumDeserializer.ATYPETAGDESERIALIZER.deserialize(bytes[offset])) {
+                case TINYINT:
+                    value = AInt8SerializerDeserializer.getByte(bytes, offset + 1);
+                    type = ATypeTag.TINYINT;
+                    return true;
+                case SMALLINT:
+                    value = AInt16SerializerDeserializer.getShort(bytes, offset + 1);
+                    type = ATypeTag.SMALLINT;
+                    return true;
+                case INTEGER:
+                    value = AInt32SerializerDeserializer.getInt(bytes, offset + 1);
+                    type = ATypeTag.INTEGER;
+                    return true;
+                case BIGINT:
+                    value = AInt64SerializerDeserializer.getLong(bytes, offset + 1);
+                    type = ATypeTag.BIGINT;
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    private static class OperationEvaluator extends Evaluator {
+
+        private final Operator operator;
+        private final Evaluator left;
+        private final Evaluator right;
+
+        OperationEvaluator(Operator operator, Evaluator left, Evaluator right) {
+            this.operator = operator;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        boolean evaluate(IFrameTupleReference tuple) throws HyracksDataException {
+            if (operator == Operator.AND) {
+                // like the interpreted AND, the right operand is only evaluated if the left one is true
+                if (!left.evaluate(tuple)) {
+                    return false;
+                }
+                if (left.value == 0) {
+                    value = 0;
+                } else if (right.evaluate(tuple)) {
+                    value = right.value;
+                } else {
+                    return false;
+                }
+                type = ATypeTag.BOOLEAN;
+                return true;
+            }
+            if (!left.evaluate(tuple) || !right.evaluate(tuple)) {
+                return false;
+            }
+            if (operator.isComparison()) {
+                value = compare(left.value, right.value) ? 1 : 0;
+                type = ATypeTag.BOOLEAN;
+                return true;
+            }
+            return apply(left.value, left.type, right.value, right.type);
+        }
+
+        @Override
+        void evaluate(IFrameTupleAccessor accessor, int n) throws HyracksDataException {
+            left.evaluate(accessor, n);
+            right.evaluate(accessor, n);
+            ensureCapacity(n);
+            long[] lhs = left.values;
+            long[] rhs = right.values;
+            if (operator == Operator.AND) {
+                // a false left operand decides the conjunction whatever the right one is, see evaluate(tuple)
+                for (int t = 0; t < n; t++) {
+                    nullMask[t] = left.nullMask[t] || (lhs[t] != 0 && right.nullMask[t]);
+                    values[t] = lhs[t] & rhs[t];
+                }
+                Arrays.fill(types, 0, n, ATypeTag.BOOLEAN);
+                return;
+            }
+            for (int t = 0; t < n; t++) {
+                nullMask[t] = left.nullMask[t] || right.nullMask[t];
+            }
+            // one loop per operator, so that the loops are free of branches on the operator
+            switch (operator) {
+                case EQ:
+                    for (int t = 0; t < n; t++) {
+                        values[t] = lhs[t] == rhs[t] ? 1 : 0;
+                    }
+                    break;
+                case NEQ:
+                    for (int t = 0; t < n; t++) {
+                        values[t] = lhs[t] != rhs[t] ? 1 : 0;
+                    }
+                    break;
+                case LT:
+                    for (int t = 0; t < n; t++) {
+                        values[t] = lhs[t] < rhs[t] ? 1 : 0;
+                    }
+                    break;
+                case LE:
+                    for (int t = 0; t < n; t++) {
+                        values[t] = lhs[t] <= rhs[t] ? 1 : 0;
+                    }
+                    break;
+                case GT:
+                    for (int t = 0; t < n; t++) {
+                        values[t] = lhs[t] > rhs[t] ? 1 : 0;
+                    }
+                    break;
+                case GE:
+                    for (int t = 0; t < n; t++) {
+                        values[t] = lhs[t] >= rhs[t] ? 1 : 0;
+                    }
+                    break;
+                default:
+                    for (int t = 0; t < n; t++) {
+                        if (!nullMask[t] && apply(lhs[t], left.types[t], rhs[t], right.types[t])) {
+                            values[t] = value;
+                            types[t] = type;
+                        } else {
+                            nullMask[t] = true;
+                        }
+                    }
+                    return;
+            }
+            Arrays.fill(types, 0, n, ATypeTag.BOOLEAN);
+        }
+
+        private boolean compare(long lhs, long rhs) {
+            switch (operator) {
+                case EQ:
+                    return lhs == rhs;
+                case NEQ:
+                    return lhs != rhs;
+                case LT:
+                    return lhs < rhs;
+                case LE:
+                    return lhs <= rhs;
+                case GT:
+                    return lhs > rhs;
+                default:
+                    return lhs >= rhs;
+            }
+        }
+
+        private boolean apply(long lhs, ATypeTag lhsType, long rhs, ATypeTag rhsType) {
+            // like the interpreted arithmetic, the result has the widest type of the operands
+            ATypeTag resultType = lhsType.ordinal() >= rhsType.ordinal() ? lhsType : rhsType;
+            long result;
+            try {
+                switch (operator) {
+                    case ADD:
+                        result = Math.addExact(lhs, rhs);
+                        break;
+                    case SUBTRACT:
+                        result = Math.subtractExact(lhs, rhs);
+                        break;
+                    default:
+                        result = Math.multiplyExact(lhs, rhs);
+                        break;
+                }
+            } catch (ArithmeticException e) {
+                return false;
+            }
+            if (!fits(result, resultType)) {
+                return false;
+            }
+            value = result;
+            type = resultType;
+            return true;
+        }
+
+        private static boolean fits(long value, ATypeTag type) {
+            switch (type) {
+                case TINYINT:
+                    return value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE;
+                case SMALLINT:
+                    return value >= Short.MIN_VALUE && value <= Short.MAX_VALUE;
+                case INTEGER:
+                    return value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+                default:
+                    return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.evaluators.staticcodegen;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.hyracks.algebricks.runtime.base.IBatchScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IBatchScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.ScalarVector;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * Evaluates an integer expression tree on primitive values and serializes only its result. The tuples for which the
+ * tree cannot be evaluated on primitive values, e.g. because an input is MISSING or NULL or an operation overflows,
+ * are evaluated by the interpreted evaluator of the same expression. The evaluators also evaluate the tree on whole
+ * frames, see {@link IBatchScalarEvaluator}.
+ */
+public class SpecializedIntegerEvaluatorFactory implements IBatchScalarEvaluatorFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final byte[] TRUE_BYTES = new byte[] { ATypeTag.SERIALIZED_BOOLEAN_TYPE_TAG, 1 };
+    private static final byte[] FALSE_BYTES = new byte[] { ATypeTag.SERIALIZED_BOOLEAN_TYPE_TAG, 0 };
+
+    private final IntegerExpression expression;
+    private final IScalarEvaluatorFactory fallbackFactory;
+
+    /**
+     * @param expression
+     *            the integer expression tree
+     * @param fallbackFactory
+     *            the factory of the interpreted evaluator of the same expression
+     */
+    public SpecializedIntegerEvaluatorFactory(IntegerExpression expression, IScalarEvaluatorFactory fallbackFactory) {
+        this.expression = expression;
+        this.fallbackFactory = fallbackFactory;
+    }
+
+    @Override
+    public IBatchScalarEvaluator createScalarEvaluator(IEvaluatorContext ctx) throws HyracksDataException {
+        IntegerExpression.Evaluator eval = expression.createEvaluator(ctx);
+        IScalarEvaluator fallback = fallbackFactory.createScalarEvaluator(ctx);
+        return new IBatchScalarEvaluator() {
+            private final ArrayBackedValueStorage resultStorage = new ArrayBackedValueStorage();
+            private final DataOutput out = resultStorage.getDataOutput();
+
+            @Override
+            public void evaluate(IFrameTupleReference tuple, IPointable result) throws HyracksDataException {
+                if (!eval.evaluate(tuple)) {
+                    fallback.evaluate(tuple, result);
+                    return;
+                }
+                if (eval.type == ATypeTag.BOOLEAN) {
+                    result.set(eval.value != 0 ? TRUE_BYTES : FALSE_BYTES, 0, 2);
+                    return;
+                }
+                resultStorage.reset();
+                try {
+                    out.writeByte(eval.type.serialize());
+                    switch (eval.type) {
+                        case TINYINT:
+                            out.writeByte((int) eval.value);
+                            break;
+                        case SMALLINT:
+                            out.writeShort((int) eval.value);
+                            break;
+                        case INTEGER:
+                            out.writeInt((int) eval.value);
+                            break;
+                        default:
+                            out.writeLong(eval.value);
+                            break;
+                    }
+                } catch (IOException e) {
+                    throw HyracksDataException.create(e);
+                }
+                result.set(resultStorage);
+            }
+
+            @Override
+            public void evaluate(IFrameTupleAccessor accessor, ScalarVector result) throws HyracksDataException {
+                int n = accessor.getTupleCount();
+                eval.evaluate(accessor, n);
+                result.reset(n, expression.isBoolean());
+                System.arraycopy(eval.values, 0, result.getValues(), 0, n);
+                System.arraycopy(eval.nullMask, 0, result.getNullMask(), 0, n);
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "specialized " + expression;
+    }
+}
@@ -31,6 +31,8 @@ import org.apache.asterix.runtime.aggregates.collections.LastElementAggregateDes
 import org.apache.asterix.runtime.aggregates.collections.ListifyAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.collections.LocalFirstElementAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.collections.NullWriterAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.scalar.ScalarApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.scalar.ScalarApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarArrayAggAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarArrayAggDistinctAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarAvgAggregateDescriptor;
@@ -46,6 +48,8 @@ import org.apache.asterix.runtime.aggregates.scalar.ScalarMinAggregateDescriptor
 import org.apache.asterix.runtime.aggregates.scalar.ScalarMinDistinctAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSkewnessAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSkewnessDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlAvgDistinctAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.scalar.ScalarSqlCountAggregateDescriptor;
@@ -85,6 +89,8 @@ import org.apache.asterix.runtime.aggregates.serializable.std.SerializableCountA
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobalAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobalKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobalSkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobalSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobalSqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobalSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobalSqlKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobalSqlSkewnessAggregateDescriptor;
@@ -101,6 +107,8 @@ import org.apache.asterix.runtime.aggregates.serializable.std.SerializableGlobal
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableIntermediateAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableIntermediateKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableIntermediateSkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.serializable.std.SerializableIntermediateSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.serializable.std.SerializableIntermediateSqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableIntermediateSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableIntermediateSqlKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableIntermediateSqlSkewnessAggregateDescriptor;
@@ -118,6 +126,8 @@ import org.apache.asterix.runtime.aggregates.serializable.std.SerializableKurtos
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalSkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalSqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalSqlKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalSqlSkewnessAggregateDescriptor;
@@ -132,6 +142,8 @@ import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalS
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalVarAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableLocalVarPopAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableSkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.serializable.std.SerializableSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.serializable.std.SerializableSqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableSqlCountAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.serializable.std.SerializableSqlKurtosisAggregateDescriptor;
@@ -153,6 +165,8 @@ import org.apache.asterix.runtime.aggregates.std.GlobalKurtosisAggregateDescript
 import org.apache.asterix.runtime.aggregates.std.GlobalMaxAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalMinAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalSkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.GlobalSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.GlobalSqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalSqlKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.GlobalSqlMaxAggregateDescriptor;
@@ -175,6 +189,8 @@ import org.apache.asterix.runtime.aggregates.std.IntermediateKurtosisAggregateDe
 import org.apache.asterix.runtime.aggregates.std.IntermediateMaxAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateMinAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateSkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.IntermediateSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.IntermediateSqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateSqlKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.IntermediateSqlMaxAggregateDescriptor;
@@ -199,6 +215,8 @@ import org.apache.asterix.runtime.aggregates.std.LocalMaxAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalMinAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalSamplingAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalSkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.LocalSqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.LocalSqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalSqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalSqlKurtosisAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.LocalSqlMaxAggregateDescriptor;
@@ -220,6 +238,8 @@ import org.apache.asterix.runtime.aggregates.std.MaxAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.MinAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.RangeMapAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.SkewnessAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.SqlApproxCountDistinctAggregateDescriptor;
+import org.apache.asterix.runtime.aggregates.std.SqlApproxMedianAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.SqlAvgAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.SqlCountAggregateDescriptor;
 import org.apache.asterix.runtime.aggregates.std.SqlKurtosisAggregateDescriptor;
@@ -834,6 +854,14 @@ public final class FunctionCollection implements IFunctionCollection {
         fc.add(LocalSqlKurtosisAggregateDescriptor.FACTORY);
         fc.add(IntermediateSqlKurtosisAggregateDescriptor.FACTORY);
         fc.add(GlobalSqlKurtosisAggregateDescriptor.FACTORY);
+        fc.add(SqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(LocalSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(IntermediateSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(GlobalSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(SqlApproxMedianAggregateDescriptor.FACTORY);
+        fc.add(LocalSqlApproxMedianAggregateDescriptor.FACTORY);
+        fc.add(IntermediateSqlApproxMedianAggregateDescriptor.FACTORY);
+        fc.add(GlobalSqlApproxMedianAggregateDescriptor.FACTORY);
         fc.add(SqlSkewnessAggregateDescriptor.FACTORY);
         fc.add(LocalSqlSkewnessAggregateDescriptor.FACTORY);
         fc.add(IntermediateSqlSkewnessAggregateDescriptor.FACTORY);
@@ -877,6 +905,14 @@ public final class FunctionCollection implements IFunctionCollection {
         fc.add(SerializableLocalSqlSkewnessAggregateDescriptor.FACTORY);
         fc.add(SerializableIntermediateSqlSkewnessAggregateDescriptor.FACTORY);
         fc.add(SerializableGlobalSqlSkewnessAggregateDescriptor.FACTORY);
+        fc.add(SerializableSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(SerializableLocalSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(SerializableIntermediateSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(SerializableGlobalSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(SerializableSqlApproxMedianAggregateDescriptor.FACTORY);
+        fc.add(SerializableLocalSqlApproxMedianAggregateDescriptor.FACTORY);
+        fc.add(SerializableIntermediateSqlApproxMedianAggregateDescriptor.FACTORY);
+        fc.add(SerializableGlobalSqlApproxMedianAggregateDescriptor.FACTORY);
 
         // SQL scalar aggregates
         fc.add(ScalarSqlCountAggregateDescriptor.FACTORY);
@@ -901,6 +937,10 @@ public final class FunctionCollection implements IFunctionCollection {
         fc.add(ScalarSqlKurtosisDistinctAggregateDescriptor.FACTORY);
         fc.add(ScalarSqlSkewnessAggregateDescriptor.FACTORY);
         fc.add(ScalarSqlSkewnessDistinctAggregateDescriptor.FACTORY);
+        fc.add(ScalarSqlApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(ScalarApproxCountDistinctAggregateDescriptor.FACTORY);
+        fc.add(ScalarSqlApproxMedianAggregateDescriptor.FACTORY);
+        fc.add(ScalarApproxMedianAggregateDescriptor.FACTORY);
         fc.add(ScalarSqlUnionMbrAggregateDescriptor.FACTORY);
 
         // window functions
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.message;
+
+import org.apache.asterix.common.api.INcApplicationContext;
+import org.apache.asterix.common.messaging.CcIdentifiedMessage;
+import org.apache.asterix.common.messaging.api.INCMessageBroker;
+import org.apache.asterix.common.messaging.api.INcAddressedMessage;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.join.JoinBuildCacheKey;
+import org.apache.hyracks.dataflow.std.join.JoinBuildTableCache;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Asks a node to pin the join build table it caches for a key, so a job can probe it instead of building it
+ */
+public class JoinBuildTablePinRequest extends CcIdentifiedMessage implements INcAddressedMessage {
+
+    private static final long serialVersionUID = 1L;
+    private static final Logger LOGGER = LogManager.getLogger();
+    private final long reqId;
+    private final String pinId;
+    private final JoinBuildCacheKey key;
+
+    public JoinBuildTablePinRequest(long reqId, String pinId, JoinBuildCacheKey key) {
+        this.reqId = reqId;
+        this.pinId = pinId;
+        this.key = key;
+    }
+
+    @Override
+    public void handle(INcApplicationContext appCtx) throws HyracksDataException, InterruptedException {
+        JoinBuildTableCache cache = appCtx.getJoinBuildTableCache();
+        boolean pinned = cache != null && cache.pin(pinId, key);
+        try {
+            INCMessageBroker broker = (INCMessageBroker) appCtx.getServiceContext().getMessageBroker();
+            broker.sendMessageToPrimaryCC(new JoinBuildTablePinResponse(reqId, pinned));
+        } catch (Exception e) {
+            LOGGER.warn("failed to respond to the pin request of join build table {}", key, e);
+            if (pinned) {
+                cache.unpin(pinId);
+            }
+        }
+    }
+
+    @Override
+    public boolean isWhispered() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return JoinBuildTablePinRequest.class.getSimpleName();
+    }
+}
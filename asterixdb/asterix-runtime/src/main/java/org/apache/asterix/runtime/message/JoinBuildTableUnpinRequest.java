@@ -0,0 +1,55 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.message;
+
+import org.apache.asterix.common.api.INcApplicationContext;
+import org.apache.asterix.common.messaging.CcIdentifiedMessage;
+import org.apache.asterix.common.messaging.api.INcAddressedMessage;
+import org.apache.hyracks.dataflow.std.join.JoinBuildTableCache;
+
+/**
+ * Asks a node to unpin a join build table once the statement that pinned it completes
+ */
+public class JoinBuildTableUnpinRequest extends CcIdentifiedMessage implements INcAddressedMessage {
+
+    private static final long serialVersionUID = 1L;
+    private final String pinId;
+
+    public JoinBuildTableUnpinRequest(String pinId) {
+        this.pinId = pinId;
+    }
+
+    @Override
+    public void handle(INcApplicationContext appCtx) {
+        JoinBuildTableCache cache = appCtx.getJoinBuildTableCache();
+        if (cache != null) {
+            cache.unpin(pinId);
+        }
+    }
+
+    @Override
+    public boolean isWhispered() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return JoinBuildTableUnpinRequest.class.getSimpleName();
+    }
+}
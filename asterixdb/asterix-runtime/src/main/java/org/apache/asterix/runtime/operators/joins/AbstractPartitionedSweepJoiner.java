@@ -0,0 +1,586 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.util.CleanupUtils;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+import org.apache.hyracks.dataflow.std.buffermanager.IPartitionedTupleBufferManager;
+import org.apache.hyracks.dataflow.std.buffermanager.VPartitionTupleBufferManager;
+import org.apache.hyracks.dataflow.std.structures.TuplePointer;
+
+/**
+ * Base of the partitioned sweep joins, which join two unsorted inputs whose partitioning function (given by the
+ * subclass) sends tuples that may match to partitions that are joined with each other.
+ * The build partitions stay in memory as long as they fit, and only the largest ones are spilled to run files when the
+ * memory is full. The sweep entries of the build tuples in memory are sorted once the build input is consumed, and
+ * every probe frame is swept against them right away, so an input that fits in memory never touches the disk. Probe
+ * tuples are only written to run files for the spilled build partitions they have to meet. Once the probe input is
+ * consumed, every spilled build partition is loaded one memory-full block at a time, and its probe run files are
+ * streamed frame by frame against each block.
+ * The memory covers the partition frames, the sweep entries of the build tuples in memory and a few frames to read the
+ * runs, to sweep a probe frame and to write the result.
+ */
+public abstract class AbstractPartitionedSweepJoiner {
+    // One frame to read build runs, one frame to read probe runs, one frame for the sweep entries of a probe frame and
+    // one frame for the result.
+    private static final int RESERVED_FRAMES = 4;
+    private static final int MAX_PARTITIONS = 64;
+
+    protected final IHyracksTaskContext ctx;
+    protected final int numPartitions;
+    private final long memoryBudget;
+    private final int entrySize;
+    private final String buildRefName;
+    private final String probeRefName;
+
+    private final IPartitionedTupleBufferManager bufferManager;
+    private IPartitionedTupleBufferManager probeBufferManager;
+    private final TuplePointer tempPtr = new TuplePointer();
+    private final RunFileWriter[] buildRFWriters;
+    private final RunFileWriter[] probeRFWriters;
+    private final boolean[] residentBuildPartitions;
+    // Whether the probe partition is joined with a build partition in memory or a spilled one.
+    private final boolean[] probeJoinsResidentBuild;
+    private final boolean[] probeJoinsSpilledBuild;
+    private boolean hasResidentBuild;
+    private long residentMemory;
+
+    protected final FrameTupleAccessor buildAccessor;
+    protected final FrameTupleAccessor probeAccessor;
+    protected final IFrame buildFrame;
+    private final IFrame probeFrame;
+    private int buildTupleIndex;
+    private int buildTupleCount;
+
+    // The frames of the build tuples that are swept, in the order of the frame indexes of their sweep entries.
+    private final List<ByteBuffer> blockFrames = new ArrayList<>();
+    private final FrameTupleAccessor blockAccessor;
+    private final IFrameWriter blockCollector;
+
+    private final FrameTupleAppender resultAppender;
+    private FrameTupleAppender bigFrameAppender;
+
+    /**
+     * @param memorySize
+     *            the number of frames of the join
+     * @param numPartitions
+     *            the number of partitions, at most {@link #getMaxPartitions(int, String)}
+     * @param entrySize
+     *            the number of bytes of the sweep entry of a build tuple
+     * @param refName
+     *            the prefix of the names of the run files
+     */
+    protected AbstractPartitionedSweepJoiner(IHyracksTaskContext ctx, int memorySize, int numPartitions, int entrySize,
+            RecordDescriptor buildRd, RecordDescriptor probeRd, String refName) throws HyracksDataException {
+        this.ctx = ctx;
+        this.numPartitions = numPartitions;
+        this.memoryBudget = (long) (memorySize - RESERVED_FRAMES) * ctx.getInitialFrameSize();
+        this.entrySize = entrySize;
+        this.buildRefName = refName + "-build";
+        this.probeRefName = refName + "-probe";
+        this.bufferManager = new VPartitionTupleBufferManager(ctx, VPartitionTupleBufferManager.NO_CONSTRAIN,
+                numPartitions, memoryBudget);
+        this.buildRFWriters = new RunFileWriter[numPartitions];
+        this.probeRFWriters = new RunFileWriter[numPartitions];
+        this.residentBuildPartitions = new boolean[numPartitions];
+        this.probeJoinsResidentBuild = new boolean[numPartitions];
+        this.probeJoinsSpilledBuild = new boolean[numPartitions];
+
+        this.buildAccessor = new FrameTupleAccessor(buildRd);
+        this.probeAccessor = new FrameTupleAccessor(probeRd);
+        this.blockAccessor = new FrameTupleAccessor(buildRd);
+        this.buildFrame = new VSizeFrame(ctx);
+        this.probeFrame = new VSizeFrame(ctx);
+        this.resultAppender = new FrameTupleAppender(new VSizeFrame(ctx));
+        this.blockCollector = new BlockCollector();
+    }
+
+    /**
+     * @return the largest number of partitions that lets every partition keep at least two frames in memory
+     */
+    protected static int getMaxPartitions(int memorySize, String joinName) throws HyracksDataException {
+        if (memorySize <= RESERVED_FRAMES + 1) {
+            throw new HyracksDataException(joinName + " does not have enough memory (needs > " + (RESERVED_FRAMES + 1)
+                    + ", got " + memorySize + ").");
+        }
+        return Math.max(1, Math.min(MAX_PARTITIONS, (memorySize - RESERVED_FRAMES) / 2));
+    }
+
+    protected abstract int getBuildPartition(IFrameTupleAccessor accessor, int tupleId);
+
+    protected abstract int getProbePartition(IFrameTupleAccessor accessor, int tupleId);
+
+    /**
+     * @return whether the build partition is joined with the probe partition
+     */
+    protected abstract boolean joinsPartitions(int buildPid, int probePid);
+
+    /**
+     * Resets the sweep entries of the build tuples for the given number of tuples.
+     */
+    protected abstract void resetBlock(int capacity);
+
+    protected abstract void addBlockEntry(IFrameTupleAccessor accessor, int tupleId, int frameIndex)
+            throws HyracksDataException;
+
+    protected abstract int getBlockSize();
+
+    protected abstract void sortBlock();
+
+    /**
+     * Resets the sweep entries of the probe tuples for the given number of tuples.
+     */
+    protected abstract void resetProbe(int capacity);
+
+    protected abstract void addProbeEntry(IFrameTupleAccessor accessor, int tupleId) throws HyracksDataException;
+
+    protected abstract int getProbeSize();
+
+    protected abstract void sortProbe();
+
+    /**
+     * Sweeps the sorted probe entries of {@link #probeAccessor} against the sorted block entries and calls
+     * {@link #addToResultIfMatches(int, int, int, IFrameWriter)} for every candidate pair.
+     */
+    protected abstract void sweep(IFrameWriter writer) throws HyracksDataException;
+
+    protected abstract boolean matches(IFrameTupleAccessor buildTupleAccessor, int buildTupleId,
+            IFrameTupleAccessor probeTupleAccessor, int probeTupleId) throws HyracksDataException;
+
+    public void processBuildFrame(ByteBuffer buffer) throws HyracksDataException {
+        buildAccessor.reset(buffer);
+        int tupleCount = buildAccessor.getTupleCount();
+        for (int x = 0; x < tupleCount; x++) {
+            partitionBuildTuple(getBuildPartition(buildAccessor, x), buildAccessor, x);
+        }
+    }
+
+    protected void partitionBuildTuple(int pid, IFrameTupleAccessor accessor, int tupleId) throws HyracksDataException {
+        partitionTuple(bufferManager, pid, accessor, tupleId, buildRFWriters, buildRefName);
+    }
+
+    /**
+     * Keeps a build tuple in memory without ever spilling, as long as the (estimated) memory of the build tuples in
+     * memory and their sweep entries fits.
+     *
+     * @return true if the tuple was inserted
+     */
+    protected boolean insertBuildTupleIfFits(int pid, IFrameTupleAccessor accessor, int tupleId)
+            throws HyracksDataException {
+        long memory = residentMemory + accessor.getTupleLength(tupleId) + entrySize;
+        if (memory > memoryBudget || !bufferManager.insertTuple(pid, accessor, tupleId, tempPtr)) {
+            return false;
+        }
+        residentMemory = memory;
+        return true;
+    }
+
+    /**
+     * Moves the build tuples of a partition that were inserted with
+     * {@link #insertBuildTupleIfFits(int, IFrameTupleAccessor, int)} to the given writer.
+     */
+    protected void moveBuildPartition(int pid, IFrameWriter writer) throws HyracksDataException {
+        bufferManager.flushPartition(pid, writer);
+        bufferManager.clearPartition(pid);
+        residentMemory = 0;
+    }
+
+    /**
+     * Spills the build partitions that were partially spilled and, if needed, further ones (the largest first) so
+     * that the partitions kept in memory and their sweep entries leave at least one frame to partition the probe
+     * tuples of the spilled ones. The sweep entries of the partitions kept in memory are then built and sorted.
+     */
+    public void processBuildClose() throws HyracksDataException {
+        try {
+            for (int pid = 0; pid < numPartitions; pid++) {
+                if (buildRFWriters[pid] != null && bufferManager.getNumTuples(pid) > 0) {
+                    spillPartition(bufferManager, pid, buildRFWriters, buildRefName);
+                }
+            }
+            while (!fitsInMemory()) {
+                int victim = findLargestPartition(bufferManager);
+                if (victim < 0) {
+                    break;
+                }
+                spillPartition(bufferManager, victim, buildRFWriters, buildRefName);
+            }
+        } finally {
+            closeRunFileWriters(buildRFWriters);
+        }
+        int residentTuples = 0;
+        for (int pid = 0; pid < numPartitions; pid++) {
+            residentBuildPartitions[pid] = buildRFWriters[pid] == null && bufferManager.getNumTuples(pid) > 0;
+            if (residentBuildPartitions[pid]) {
+                hasResidentBuild = true;
+                residentTuples += bufferManager.getNumTuples(pid);
+            }
+        }
+        resetBlock(residentTuples);
+        for (int pid = 0; pid < numPartitions; pid++) {
+            if (residentBuildPartitions[pid]) {
+                bufferManager.flushPartition(pid, blockCollector);
+            }
+        }
+        if (hasResidentBuild) {
+            sortBlock();
+        }
+        for (int probePid = 0; probePid < numPartitions; probePid++) {
+            for (int buildPid = 0; buildPid < numPartitions; buildPid++) {
+                if (joinsPartitions(buildPid, probePid)) {
+                    probeJoinsResidentBuild[probePid] |= residentBuildPartitions[buildPid];
+                    probeJoinsSpilledBuild[probePid] |= buildRFWriters[buildPid] != null;
+                }
+            }
+        }
+        if (hasSpilledBuild()) {
+            probeBufferManager = new VPartitionTupleBufferManager(ctx, VPartitionTupleBufferManager.NO_CONSTRAIN,
+                    numPartitions, memoryBudget - getResidentMemory());
+        }
+    }
+
+    /**
+     * @return whether the build partitions that are not spilled fit in memory together with their sweep entries and,
+     *         if a partition is spilled, one frame to partition the probe input
+     */
+    protected boolean fitsInMemory() {
+        long reserved = hasSpilledBuild() ? ctx.getInitialFrameSize() : 0;
+        return getResidentMemory() + reserved <= memoryBudget;
+    }
+
+    private long getResidentMemory() {
+        long memory = 0;
+        for (int pid = 0; pid < numPartitions; pid++) {
+            if (buildRFWriters[pid] == null) {
+                memory += bufferManager.getPhysicalSize(pid) + (long) bufferManager.getNumTuples(pid) * entrySize;
+            }
+        }
+        return memory;
+    }
+
+    private boolean hasSpilledBuild() {
+        for (RunFileWriter writer : buildRFWriters) {
+            if (writer != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sweeps the probe tuples that may match build tuples in memory right away and partitions the ones that may match
+     * build tuples of spilled partitions.
+     */
+    public void processProbeFrame(ByteBuffer buffer, IFrameWriter writer) throws HyracksDataException {
+        probeAccessor.reset(buffer);
+        int tupleCount = probeAccessor.getTupleCount();
+        resetProbe(tupleCount);
+        for (int x = 0; x < tupleCount; x++) {
+            int pid = getProbePartition(probeAccessor, x);
+            if (probeJoinsResidentBuild[pid]) {
+                addProbeEntry(probeAccessor, x);
+            }
+            if (probeJoinsSpilledBuild[pid]) {
+                partitionTuple(probeBufferManager, pid, probeAccessor, x, probeRFWriters, probeRefName);
+            }
+        }
+        if (getProbeSize() > 0) {
+            sortProbe();
+            sweep(writer);
+        }
+    }
+
+    public void processProbeClose(IFrameWriter writer) throws HyracksDataException {
+        try {
+            if (probeBufferManager != null) {
+                try {
+                    for (int pid = 0; pid < numPartitions; pid++) {
+                        if (probeBufferManager.getNumTuples(pid) > 0) {
+                            spillPartition(probeBufferManager, pid, probeRFWriters, probeRefName);
+                        }
+                    }
+                } finally {
+                    closeRunFileWriters(probeRFWriters);
+                    probeBufferManager.close();
+                    probeBufferManager = null;
+                }
+            }
+            // The memory of the build partitions that were kept in memory is used to join the spilled ones.
+            blockFrames.clear();
+            for (int pid = 0; pid < numPartitions; pid++) {
+                if (residentBuildPartitions[pid]) {
+                    bufferManager.clearPartition(pid);
+                }
+            }
+            for (int pid = 0; pid < numPartitions; pid++) {
+                if (buildRFWriters[pid] != null && hasProbeRuns(pid)) {
+                    joinSpilledPartition(pid, writer);
+                }
+            }
+            resultAppender.write(writer, true);
+        } finally {
+            clearTempFiles(buildRFWriters);
+            clearTempFiles(probeRFWriters);
+            bufferManager.close();
+        }
+    }
+
+    public void fail() throws HyracksDataException {
+        failRunFileWriters(buildRFWriters);
+        failRunFileWriters(probeRFWriters);
+    }
+
+    private boolean hasProbeRuns(int buildPid) {
+        for (int probePid = 0; probePid < numPartitions; probePid++) {
+            if (probeRFWriters[probePid] != null && joinsPartitions(buildPid, probePid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void partitionTuple(IPartitionedTupleBufferManager manager, int pid, IFrameTupleAccessor accessor,
+            int tupleId, RunFileWriter[] runFileWriters, String refName) throws HyracksDataException {
+        while (!manager.insertTuple(pid, accessor, tupleId, tempPtr)) {
+            int victim = findLargestPartition(manager);
+            if (victim < 0) {
+                // The tuple does not fit into the memory at all.
+                flushBigObjectToDisk(pid, accessor, tupleId, runFileWriters, refName);
+                return;
+            }
+            spillPartition(manager, victim, runFileWriters, refName);
+        }
+    }
+
+    private int findLargestPartition(IPartitionedTupleBufferManager manager) {
+        int victim = -1;
+        int maxSize = 0;
+        for (int pid = 0; pid < numPartitions; pid++) {
+            int size = manager.getPhysicalSize(pid);
+            if (manager.getNumTuples(pid) > 0 && size > maxSize) {
+                maxSize = size;
+                victim = pid;
+            }
+        }
+        return victim;
+    }
+
+    private void spillPartition(IPartitionedTupleBufferManager manager, int pid, RunFileWriter[] runFileWriters,
+            String refName) throws HyracksDataException {
+        RunFileWriter writer = getSpillWriterOrCreateNewOneIfNotExist(runFileWriters, refName, pid);
+        manager.flushPartition(pid, writer);
+        manager.clearPartition(pid);
+    }
+
+    private void flushBigObjectToDisk(int pid, IFrameTupleAccessor accessor, int tupleId,
+            RunFileWriter[] runFileWriters, String refName) throws HyracksDataException {
+        if (bigFrameAppender == null) {
+            bigFrameAppender = new FrameTupleAppender(new VSizeFrame(ctx));
+        }
+        RunFileWriter runFileWriter = getSpillWriterOrCreateNewOneIfNotExist(runFileWriters, refName, pid);
+        if (!bigFrameAppender.append(accessor, tupleId)) {
+            throw new HyracksDataException("The given tuple is too big");
+        }
+        bigFrameAppender.write(runFileWriter, true);
+    }
+
+    private RunFileWriter getSpillWriterOrCreateNewOneIfNotExist(RunFileWriter[] runFileWriters, String refName,
+            int pid) throws HyracksDataException {
+        RunFileWriter writer = runFileWriters[pid];
+        if (writer == null) {
+            FileReference file = ctx.getJobletContext().createManagedWorkspaceFile(refName);
+            writer = new RunFileWriter(file, ctx.getIoManager());
+            writer.open();
+            runFileWriters[pid] = writer;
+        }
+        return writer;
+    }
+
+    private static void closeRunFileWriters(RunFileWriter[] runFileWriters) throws HyracksDataException {
+        for (RunFileWriter runFileWriter : runFileWriters) {
+            if (runFileWriter != null) {
+                runFileWriter.close();
+            }
+        }
+    }
+
+    private static void failRunFileWriters(RunFileWriter[] runFileWriters) {
+        for (RunFileWriter runFileWriter : runFileWriters) {
+            if (runFileWriter != null) {
+                CleanupUtils.fail(runFileWriter, null);
+            }
+        }
+    }
+
+    private static void clearTempFiles(RunFileWriter[] runFileWriters) {
+        for (int pid = 0; pid < runFileWriters.length; pid++) {
+            if (runFileWriters[pid] != null) {
+                runFileWriters[pid].eraseClosed();
+                runFileWriters[pid] = null;
+            }
+        }
+    }
+
+    /**
+     * Joins a spilled build partition with all its probe partitions. The build partition is read once; each probe
+     * partition is read once per build block.
+     */
+    private void joinSpilledPartition(int pid, IFrameWriter writer) throws HyracksDataException {
+        RunFileReader buildReader = buildRFWriters[pid].createReader();
+        buildReader.open();
+        buildTupleIndex = 0;
+        buildTupleCount = 0;
+        try {
+            boolean hasMoreBuildTuples = true;
+            while (hasMoreBuildTuples) {
+                hasMoreBuildTuples = loadBuildBlock(pid, buildReader);
+                if (getBlockSize() > 0) {
+                    sortBlock();
+                    for (int probePid = 0; probePid < numPartitions; probePid++) {
+                        if (probeRFWriters[probePid] != null && joinsPartitions(pid, probePid)) {
+                            sweepProbePartition(probePid, writer);
+                        }
+                    }
+                }
+                blockFrames.clear();
+                bufferManager.clearPartition(pid);
+            }
+        } finally {
+            buildReader.close();
+        }
+    }
+
+    /**
+     * Loads build tuples of the partition into memory until the tuples and their sweep entries fill the memory.
+     *
+     * @return true if the partition has more build tuples that did not fit into this block
+     */
+    private boolean loadBuildBlock(int pid, RunFileReader buildReader) throws HyracksDataException {
+        long blockMemory = 0;
+        boolean hasMoreBuildTuples = true;
+        while (true) {
+            if (buildTupleIndex >= buildTupleCount) {
+                if (!buildReader.nextFrame(buildFrame)) {
+                    hasMoreBuildTuples = false;
+                    break;
+                }
+                buildAccessor.reset(buildFrame.getBuffer());
+                buildTupleIndex = 0;
+                buildTupleCount = buildAccessor.getTupleCount();
+                continue;
+            }
+            blockMemory += buildAccessor.getTupleLength(buildTupleIndex) + entrySize;
+            boolean blockIsEmpty = bufferManager.getNumTuples(pid) == 0;
+            if ((blockMemory > memoryBudget && !blockIsEmpty)
+                    || !bufferManager.insertTuple(pid, buildAccessor, buildTupleIndex, tempPtr)) {
+                if (blockIsEmpty) {
+                    throw new HyracksDataException("The given tuple is too big");
+                }
+                break;
+            }
+            buildTupleIndex++;
+        }
+        resetBlock(bufferManager.getNumTuples(pid));
+        bufferManager.flushPartition(pid, blockCollector);
+        return hasMoreBuildTuples;
+    }
+
+    private void sweepProbePartition(int pid, IFrameWriter writer) throws HyracksDataException {
+        RunFileReader probeReader = probeRFWriters[pid].createReader();
+        probeReader.open();
+        try {
+            while (probeReader.nextFrame(probeFrame)) {
+                probeAccessor.reset(probeFrame.getBuffer());
+                int tupleCount = probeAccessor.getTupleCount();
+                resetProbe(tupleCount);
+                for (int x = 0; x < tupleCount; x++) {
+                    addProbeEntry(probeAccessor, x);
+                }
+                sortProbe();
+                sweep(writer);
+            }
+        } finally {
+            probeReader.close();
+        }
+    }
+
+    /**
+     * Appends the concatenation of a build tuple that is swept and the probe tuple of {@link #probeAccessor} to the
+     * result if they match.
+     *
+     * @param frameIndex
+     *            the frame index of the sweep entry of the build tuple
+     * @param tupleIndex
+     *            the tuple index of the sweep entry of the build tuple
+     */
+    protected void addToResultIfMatches(int frameIndex, int tupleIndex, int probeTupleId, IFrameWriter writer)
+            throws HyracksDataException {
+        blockAccessor.reset(blockFrames.get(frameIndex));
+        if (matches(blockAccessor, tupleIndex, probeAccessor, probeTupleId)) {
+            FrameUtils.appendConcatToWriter(writer, resultAppender, blockAccessor, tupleIndex, probeAccessor,
+                    probeTupleId);
+        }
+    }
+
+    /**
+     * Receives the in-memory frames of a build partition and adds the sweep entries of their tuples.
+     */
+    private class BlockCollector implements IFrameWriter {
+        @Override
+        public void open() throws HyracksDataException {
+            // nothing to open
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            int frameIndex = blockFrames.size();
+            blockFrames.add(buffer);
+            blockAccessor.reset(buffer);
+            int tupleCount = blockAccessor.getTupleCount();
+            for (int x = 0; x < tupleCount; x++) {
+                addBlockEntry(blockAccessor, x, frameIndex);
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+            // nothing to fail
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+            // nothing to close
+        }
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins.interval;
+
+import org.apache.asterix.runtime.operators.joins.AbstractPartitionedSweepJoinOperatorDescriptor;
+import org.apache.asterix.runtime.operators.joins.AbstractPartitionedSweepJoiner;
+import org.apache.asterix.runtime.operators.joins.interval.utils.IIntervalJoinUtil;
+import org.apache.asterix.runtime.operators.joins.interval.utils.IIntervalJoinUtilFactory;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+
+/**
+ * Overlapping interval partitioning join operator. Both inputs are partitioned into granule partitions, and every pair
+ * of overlapping partitions is joined with a memory-budgeted sweep (see {@link PartitionedIntervalJoiner}). The inputs
+ * do not need to be sorted.
+ */
+public class PartitionedIntervalJoinOperatorDescriptor extends AbstractPartitionedSweepJoinOperatorDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    private final int buildKey;
+    private final int probeKey;
+    private final IIntervalJoinUtilFactory imjcf;
+
+    public PartitionedIntervalJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int memoryForJoin,
+            int[] buildKeys, int[] probeKeys, RecordDescriptor recordDescriptor, IIntervalJoinUtilFactory imjcf) {
+        super(spec, memoryForJoin, recordDescriptor);
+        this.buildKey = buildKeys[0];
+        this.probeKey = probeKeys[0];
+        this.imjcf = imjcf;
+    }
+
+    @Override
+    protected AbstractPartitionedSweepJoiner createJoiner(IHyracksTaskContext ctx, RecordDescriptor buildRd,
+            RecordDescriptor probeRd, int nPartitions) throws HyracksDataException {
+        IIntervalJoinUtil imjc = imjcf.createIntervalMergeJoinUtil(buildKey, probeKey, ctx, nPartitions);
+        return new PartitionedIntervalJoiner(ctx, memoryForJoin, imjc, buildKey, probeKey, buildRd, probeRd);
+    }
+}
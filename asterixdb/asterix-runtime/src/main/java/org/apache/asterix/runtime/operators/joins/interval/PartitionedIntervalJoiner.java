@@ -0,0 +1,296 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins.interval;
+
+import java.nio.ByteBuffer;
+
+import org.apache.asterix.runtime.operators.joins.AbstractPartitionedSweepJoiner;
+import org.apache.asterix.runtime.operators.joins.interval.utils.IIntervalJoinUtil;
+import org.apache.asterix.runtime.operators.joins.interval.utils.memory.IntervalJoinUtil;
+import org.apache.asterix.runtime.operators.joins.interval.utils.memory.IntervalSweepBuffer;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.util.CleanupUtils;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
+import org.apache.hyracks.dataflow.common.io.RunFileWriter;
+
+/**
+ * Overlapping interval partitioning (OIP) join.
+ * The time domain of the build input is divided into a number of granules, and every interval is assigned to the
+ * partition of its (start granule, end granule) pair, so that long intervals do not have to be replicated and short
+ * intervals do not meet long ones unless their granules overlap. Each build partition is joined with every probe
+ * partition whose granules overlap it, using a sweep over entries sorted by start point.
+ * The granules are not known before the whole build input is seen, so the build input is kept in memory while it fits;
+ * it is then joined without partitioning at all. A larger build input is staged in a run file while the time domain
+ * is computed, and partitioned when it is consumed.
+ * The join predicate must only match intervals that intersect (e.g. overlapping, overlaps, covers). Unlike
+ * {@link IntervalMergeJoiner}, the inputs do not have to be sorted.
+ */
+public class PartitionedIntervalJoiner extends AbstractPartitionedSweepJoiner {
+    private static final int STAGE_PARTITION = 0;
+
+    private final IIntervalJoinUtil mjc;
+    private final int buildKey;
+    private final int probeKey;
+    private final int numGranules;
+    private final int[] startGranules;
+    private final int[] endGranules;
+
+    private RunFileWriter buildStageWriter;
+    // Whether the build input stayed in memory, in which case all tuples belong to the stage partition.
+    private boolean buildInMemory;
+    private long domainStart = Long.MAX_VALUE;
+    private long domainEnd = Long.MIN_VALUE;
+
+    private final IntervalSweepBuffer blockEntries = new IntervalSweepBuffer();
+    private final IntervalSweepBuffer probeEntries = new IntervalSweepBuffer();
+
+    public PartitionedIntervalJoiner(IHyracksTaskContext ctx, int memorySize, IIntervalJoinUtil mjc, int buildKey,
+            int probeKey, RecordDescriptor buildRd, RecordDescriptor probeRd) throws HyracksDataException {
+        this(ctx, memorySize, mjc, buildKey, probeKey, buildRd, probeRd,
+                getNumGranules(getMaxPartitions(memorySize, "PartitionedIntervalJoiner")));
+    }
+
+    private PartitionedIntervalJoiner(IHyracksTaskContext ctx, int memorySize, IIntervalJoinUtil mjc, int buildKey,
+            int probeKey, RecordDescriptor buildRd, RecordDescriptor probeRd, int numGranules)
+            throws HyracksDataException {
+        super(ctx, memorySize, numGranules * (numGranules + 1) / 2, IntervalSweepBuffer.ENTRY_SIZE, buildRd, probeRd,
+                "imj-oip");
+        this.mjc = mjc;
+        this.buildKey = buildKey;
+        this.probeKey = probeKey;
+        this.numGranules = numGranules;
+        this.startGranules = new int[numPartitions];
+        this.endGranules = new int[numPartitions];
+        for (int start = 0; start < numGranules; start++) {
+            for (int end = start; end < numGranules; end++) {
+                int pid = getPartition(start, end);
+                startGranules[pid] = start;
+                endGranules[pid] = end;
+            }
+        }
+    }
+
+    /**
+     * @return the number of granules, so that there is one partition for every (start granule, end granule) pair
+     *         with start <= end
+     */
+    private static int getNumGranules(int maxPartitions) {
+        int granules = 1;
+        while ((granules + 1) * (granules + 2) / 2 <= maxPartitions) {
+            granules++;
+        }
+        return granules;
+    }
+
+    @Override
+    public void processBuildFrame(ByteBuffer buffer) throws HyracksDataException {
+        buildAccessor.reset(buffer);
+        int tupleCount = buildAccessor.getTupleCount();
+        for (int x = 0; x < tupleCount; x++) {
+            domainStart = Math.min(domainStart, IntervalJoinUtil.getIntervalStart(buildAccessor, x, buildKey));
+            domainEnd = Math.max(domainEnd, IntervalJoinUtil.getIntervalEnd(buildAccessor, x, buildKey));
+        }
+        if (buildStageWriter != null) {
+            buildStageWriter.nextFrame(buffer);
+            return;
+        }
+        for (int x = 0; x < tupleCount; x++) {
+            if (!insertBuildTupleIfFits(STAGE_PARTITION, buildAccessor, x)) {
+                // The memory is full: the tuples in memory and the rest of the frame go to the stage run file.
+                FileReference file = ctx.getJobletContext().createManagedWorkspaceFile("imj-oip-build-stage");
+                buildStageWriter = new RunFileWriter(file, ctx.getIoManager());
+                buildStageWriter.open();
+                moveBuildPartition(STAGE_PARTITION, buildStageWriter);
+                // The build frame is only used to read runs after the build input is consumed.
+                FrameTupleAppender stageAppender = new FrameTupleAppender(buildFrame, true);
+                for (int y = x; y < tupleCount; y++) {
+                    FrameUtils.appendToWriter(buildStageWriter, stageAppender, buildAccessor, y);
+                }
+                stageAppender.write(buildStageWriter, true);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void processBuildClose() throws HyracksDataException {
+        if (buildStageWriter == null) {
+            buildInMemory = true;
+            super.processBuildClose();
+            return;
+        }
+        buildStageWriter.close();
+        RunFileReader stageReader = buildStageWriter.createDeleteOnCloseReader();
+        buildStageWriter = null;
+        stageReader.open();
+        try {
+            while (stageReader.nextFrame(buildFrame)) {
+                buildAccessor.reset(buildFrame.getBuffer());
+                for (int x = 0; x < buildAccessor.getTupleCount(); x++) {
+                    partitionBuildTuple(getPartition(buildAccessor, x, buildKey), buildAccessor, x);
+                }
+            }
+        } finally {
+            stageReader.close();
+        }
+        super.processBuildClose();
+    }
+
+    @Override
+    public void fail() throws HyracksDataException {
+        if (buildStageWriter != null) {
+            CleanupUtils.fail(buildStageWriter, null);
+        }
+        super.fail();
+    }
+
+    @Override
+    protected int getBuildPartition(IFrameTupleAccessor accessor, int tupleId) {
+        return getPartition(accessor, tupleId, buildKey);
+    }
+
+    @Override
+    protected int getProbePartition(IFrameTupleAccessor accessor, int tupleId) {
+        return buildInMemory ? STAGE_PARTITION : getPartition(accessor, tupleId, probeKey);
+    }
+
+    @Override
+    protected boolean joinsPartitions(int buildPid, int probePid) {
+        if (buildInMemory) {
+            return buildPid == STAGE_PARTITION && probePid == STAGE_PARTITION;
+        }
+        return startGranules[buildPid] <= endGranules[probePid] && startGranules[probePid] <= endGranules[buildPid];
+    }
+
+    private int getPartition(int startGranule, int endGranule) {
+        return startGranule * numGranules - startGranule * (startGranule - 1) / 2 + (endGranule - startGranule);
+    }
+
+    private int getPartition(IFrameTupleAccessor accessor, int tupleId, int key) {
+        int startGranule = getGranule(IntervalJoinUtil.getIntervalStart(accessor, tupleId, key));
+        int endGranule = getGranule(IntervalJoinUtil.getIntervalEnd(accessor, tupleId, key));
+        return getPartition(startGranule, endGranule);
+    }
+
+    /**
+     * Maps a point to its granule. Points outside of the build domain are mapped to the first or the last granule.
+     * The mapping is monotonic, so two intervals that intersect always have overlapping granule ranges.
+     */
+    private int getGranule(long point) {
+        if (point <= domainStart) {
+            return 0;
+        }
+        if (point >= domainEnd) {
+            return numGranules - 1;
+        }
+        int granule = (int) (((double) point - domainStart) / ((double) domainEnd - domainStart) * numGranules);
+        return Math.min(granule, numGranules - 1);
+    }
+
+    @Override
+    protected void resetBlock(int capacity) {
+        blockEntries.reset(capacity);
+    }
+
+    @Override
+    protected void addBlockEntry(IFrameTupleAccessor accessor, int tupleId, int frameIndex) {
+        blockEntries.add(IntervalJoinUtil.getIntervalStart(accessor, tupleId, buildKey),
+                IntervalJoinUtil.getIntervalEnd(accessor, tupleId, buildKey), frameIndex, tupleId);
+    }
+
+    @Override
+    protected int getBlockSize() {
+        return blockEntries.size();
+    }
+
+    @Override
+    protected void sortBlock() {
+        blockEntries.sort();
+    }
+
+    @Override
+    protected void resetProbe(int capacity) {
+        probeEntries.reset(capacity);
+    }
+
+    @Override
+    protected void addProbeEntry(IFrameTupleAccessor accessor, int tupleId) {
+        probeEntries.add(IntervalJoinUtil.getIntervalStart(accessor, tupleId, probeKey),
+                IntervalJoinUtil.getIntervalEnd(accessor, tupleId, probeKey), 0, tupleId);
+    }
+
+    @Override
+    protected int getProbeSize() {
+        return probeEntries.size();
+    }
+
+    @Override
+    protected void sortProbe() {
+        probeEntries.sort();
+    }
+
+    /**
+     * Forward scan sweep over two lists that are sorted by start point. The interval that starts first is checked
+     * against the intervals of the other list that start before it ends, so every intersecting pair is visited
+     * exactly once.
+     */
+    @Override
+    protected void sweep(IFrameWriter writer) throws HyracksDataException {
+        int i = 0;
+        int j = 0;
+        while (i < blockEntries.size() && j < probeEntries.size()) {
+            int buildEntry = blockEntries.get(i);
+            int probeEntry = probeEntries.get(j);
+            if (blockEntries.getStart(buildEntry) <= probeEntries.getStart(probeEntry)) {
+                for (int k = j; k < probeEntries.size(); k++) {
+                    int candidate = probeEntries.get(k);
+                    if (probeEntries.getStart(candidate) > blockEntries.getEnd(buildEntry)) {
+                        break;
+                    }
+                    addToResultIfMatches(blockEntries.getFrameIndex(buildEntry), blockEntries.getTupleIndex(buildEntry),
+                            probeEntries.getTupleIndex(candidate), writer);
+                }
+                i++;
+            } else {
+                for (int k = i; k < blockEntries.size(); k++) {
+                    int candidate = blockEntries.get(k);
+                    if (blockEntries.getStart(candidate) > probeEntries.getEnd(probeEntry)) {
+                        break;
+                    }
+                    addToResultIfMatches(blockEntries.getFrameIndex(candidate), blockEntries.getTupleIndex(candidate),
+                            probeEntries.getTupleIndex(probeEntry), writer);
+                }
+                j++;
+            }
+        }
+    }
+
+    @Override
+    protected boolean matches(IFrameTupleAccessor buildTupleAccessor, int buildTupleId,
+            IFrameTupleAccessor probeTupleAccessor, int probeTupleId) throws HyracksDataException {
+        return mjc.checkToSaveInResult(buildTupleAccessor, buildTupleId, probeTupleAccessor, probeTupleId);
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins.interval.utils.memory;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the start and end points of a set of intervals in primitive arrays, together with the location of the
+ * tuples, so that an interval sweep can sort and scan them without re-reading the serialized intervals.
+ * The location is a (frame index, tuple index) pair. Entries are sorted by start point.
+ */
+public class IntervalSweepBuffer {
+    /**
+     * The number of bytes of the arrays per entry.
+     */
+    public static final int ENTRY_SIZE = 28;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private int size;
+    private long[] starts;
+    private long[] ends;
+    private int[] frameIndexes;
+    private int[] tupleIndexes;
+    private int[] order;
+
+    public IntervalSweepBuffer() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Resets the buffer and sizes its arrays for exactly the given number of entries, so that the memory of the
+     * entries is known in advance.
+     */
+    public void reset(int capacity) {
+        size = 0;
+        if (capacity > starts.length || capacity < starts.length / 2) {
+            allocate(Math.max(capacity, 1));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(long start, long end, int frameIndex, int tupleIndex) {
+        if (size == starts.length) {
+            grow();
+        }
+        starts[size] = start;
+        ends[size] = end;
+        frameIndexes[size] = frameIndex;
+        tupleIndexes[size] = tupleIndex;
+        order[size] = size;
+        size++;
+    }
+
+    /**
+     * @param position
+     *            the position in the sorted order
+     * @return the entry at the given position of the sorted order
+     */
+    public int get(int position) {
+        return order[position];
+    }
+
+    public long getStart(int entry) {
+        return starts[entry];
+    }
+
+    public long getEnd(int entry) {
+        return ends[entry];
+    }
+
+    public int getFrameIndex(int entry) {
+        return frameIndexes[entry];
+    }
+
+    public int getTupleIndex(int entry) {
+        return tupleIndexes[entry];
+    }
+
+    public void sort() {
+        sort(0, size - 1);
+    }
+
+    private void sort(int low, int high) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            long pivot = starts[order[(low + high) >>> 1]];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (starts[order[i]] < pivot) {
+                    i++;
+                }
+                while (starts[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller half to bound the stack depth.
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && starts[order[j - 1]] > starts[order[j]]; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+
+    private void allocate(int capacity) {
+        starts = new long[capacity];
+        ends = new long[capacity];
+        frameIndexes = new int[capacity];
+        tupleIndexes = new int[capacity];
+        order = new int[capacity];
+    }
+
+    private void grow() {
+        int capacity = starts.length * 2;
+        starts = Arrays.copyOf(starts, capacity);
+        ends = Arrays.copyOf(ends, capacity);
+        frameIndexes = Arrays.copyOf(frameIndexes, capacity);
+        tupleIndexes = Arrays.copyOf(tupleIndexes, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
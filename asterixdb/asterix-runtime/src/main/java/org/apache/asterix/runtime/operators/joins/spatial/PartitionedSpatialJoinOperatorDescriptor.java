@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins.spatial;
+
+import org.apache.asterix.runtime.operators.joins.AbstractPartitionedSweepJoinOperatorDescriptor;
+import org.apache.asterix.runtime.operators.joins.AbstractPartitionedSweepJoiner;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.ISpatialJoinUtil;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.ISpatialJoinUtilFactory;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.SpatialJoinGrid;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
+
+/**
+ * Partition based spatial merge join operator. Both inputs are partitioned by their tile IDs, and every partition pair
+ * is joined with a memory-budgeted plane sweep (see {@link PartitionedSpatialJoiner}). The inputs do not need to be
+ * sorted.
+ */
+public class PartitionedSpatialJoinOperatorDescriptor extends AbstractPartitionedSweepJoinOperatorDescriptor {
+    private static final long serialVersionUID = 1L;
+
+    private final int[] buildKeys;
+    private final int[] probeKeys;
+    private final ISpatialJoinUtilFactory imjcf;
+    private final SpatialJoinGrid grid;
+
+    public PartitionedSpatialJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int memoryForJoin,
+            int[] buildKeys, int[] probeKeys, RecordDescriptor recordDescriptor, ISpatialJoinUtilFactory imjcf,
+            SpatialJoinGrid grid) {
+        super(spec, memoryForJoin, recordDescriptor);
+        this.buildKeys = buildKeys;
+        this.probeKeys = probeKeys;
+        this.imjcf = imjcf;
+        this.grid = grid;
+    }
+
+    @Override
+    protected AbstractPartitionedSweepJoiner createJoiner(IHyracksTaskContext ctx, RecordDescriptor buildRd,
+            RecordDescriptor probeRd, int nPartitions) throws HyracksDataException {
+        ISpatialJoinUtil imjc = imjcf.createSpatialJoinUtil(buildKeys, probeKeys, ctx, nPartitions);
+        return new PartitionedSpatialJoiner(ctx, memoryForJoin, imjc, buildKeys, probeKeys, buildRd, probeRd, grid);
+    }
+}
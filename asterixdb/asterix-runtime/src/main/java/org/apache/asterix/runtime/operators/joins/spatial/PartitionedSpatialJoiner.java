@@ -0,0 +1,178 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins.spatial;
+
+import org.apache.asterix.runtime.operators.joins.AbstractPartitionedSweepJoiner;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.ISpatialJoinUtil;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.SpatialJoinGrid;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.memory.SpatialJoinUtil;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.memory.SpatialSweepBuffer;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * Partition based spatial merge join (PBSM).
+ * Both inputs are grid partitioned (the tile IDs are assigned upstream by spatial_tile), and each build partition is
+ * only joined with the probe partition of the same tiles, using a plane sweep over entries sorted by (tile ID, xmin).
+ * Duplicate results that are caused by objects replicated to several tiles are eliminated with the reference point
+ * method when the grid is known.
+ * Unlike {@link SpatialJoiner}, the inputs do not have to be sorted.
+ */
+public class PartitionedSpatialJoiner extends AbstractPartitionedSweepJoiner {
+    private final ISpatialJoinUtil mjc;
+    private final SpatialJoinGrid grid;
+    private final int[] buildKeys;
+    private final int[] probeKeys;
+
+    private final SpatialSweepBuffer blockEntries = new SpatialSweepBuffer();
+    private final SpatialSweepBuffer probeEntries = new SpatialSweepBuffer();
+
+    public PartitionedSpatialJoiner(IHyracksTaskContext ctx, int memorySize, ISpatialJoinUtil mjc, int[] buildKeys,
+            int[] probeKeys, RecordDescriptor buildRd, RecordDescriptor probeRd, SpatialJoinGrid grid)
+            throws HyracksDataException {
+        super(ctx, memorySize, getMaxPartitions(memorySize, "PartitionedSpatialJoiner"), SpatialSweepBuffer.ENTRY_SIZE,
+                buildRd, probeRd, "sj-pbsm");
+        this.mjc = mjc;
+        this.grid = grid;
+        this.buildKeys = buildKeys;
+        this.probeKeys = probeKeys;
+    }
+
+    @Override
+    protected int getBuildPartition(IFrameTupleAccessor accessor, int tupleId) {
+        return getPartition(accessor, tupleId, buildKeys);
+    }
+
+    @Override
+    protected int getProbePartition(IFrameTupleAccessor accessor, int tupleId) {
+        return getPartition(accessor, tupleId, probeKeys);
+    }
+
+    private int getPartition(IFrameTupleAccessor accessor, int tupleId, int[] keys) {
+        return Math.floorMod(SpatialJoinUtil.getTileId(accessor, tupleId, keys[0]), numPartitions);
+    }
+
+    @Override
+    protected boolean joinsPartitions(int buildPid, int probePid) {
+        return buildPid == probePid;
+    }
+
+    @Override
+    protected void resetBlock(int capacity) {
+        blockEntries.reset(capacity);
+    }
+
+    @Override
+    protected void addBlockEntry(IFrameTupleAccessor accessor, int tupleId, int frameIndex)
+            throws HyracksDataException {
+        blockEntries.add(SpatialJoinUtil.getTileId(accessor, tupleId, buildKeys[0]),
+                SpatialJoinUtil.getRectangleXmin(accessor, tupleId, buildKeys[1]),
+                SpatialJoinUtil.getRectangleXmax(accessor, tupleId, buildKeys[1]),
+                SpatialJoinUtil.getRectangleYmin(accessor, tupleId, buildKeys[1]), frameIndex, tupleId);
+    }
+
+    @Override
+    protected int getBlockSize() {
+        return blockEntries.size();
+    }
+
+    @Override
+    protected void sortBlock() {
+        blockEntries.sort();
+    }
+
+    @Override
+    protected void resetProbe(int capacity) {
+        probeEntries.reset(capacity);
+    }
+
+    @Override
+    protected void addProbeEntry(IFrameTupleAccessor accessor, int tupleId) throws HyracksDataException {
+        probeEntries.add(SpatialJoinUtil.getTileId(accessor, tupleId, probeKeys[0]),
+                SpatialJoinUtil.getRectangleXmin(accessor, tupleId, probeKeys[1]),
+                SpatialJoinUtil.getRectangleXmax(accessor, tupleId, probeKeys[1]),
+                SpatialJoinUtil.getRectangleYmin(accessor, tupleId, probeKeys[1]), 0, tupleId);
+    }
+
+    @Override
+    protected int getProbeSize() {
+        return probeEntries.size();
+    }
+
+    @Override
+    protected void sortProbe() {
+        probeEntries.sort();
+    }
+
+    /**
+     * Forward scan plane sweep over two lists that are sorted by (tile ID, xmin). The entry with the smaller xmin is
+     * checked against the entries of the other list that start before it ends, so every candidate pair is visited
+     * exactly once.
+     */
+    @Override
+    protected void sweep(IFrameWriter writer) throws HyracksDataException {
+        int i = 0;
+        int j = 0;
+        while (i < blockEntries.size() && j < probeEntries.size()) {
+            int buildEntry = blockEntries.get(i);
+            int probeEntry = probeEntries.get(j);
+            if (SpatialSweepBuffer.compare(blockEntries, buildEntry, probeEntries, probeEntry) <= 0) {
+                for (int k = j; k < probeEntries.size(); k++) {
+                    int candidate = probeEntries.get(k);
+                    if (probeEntries.getTileId(candidate) != blockEntries.getTileId(buildEntry)
+                            || probeEntries.getXmin(candidate) > blockEntries.getXmax(buildEntry)) {
+                        break;
+                    }
+                    checkAndAddToResult(buildEntry, candidate, writer);
+                }
+                i++;
+            } else {
+                for (int k = i; k < blockEntries.size(); k++) {
+                    int candidate = blockEntries.get(k);
+                    if (blockEntries.getTileId(candidate) != probeEntries.getTileId(probeEntry)
+                            || blockEntries.getXmin(candidate) > probeEntries.getXmax(probeEntry)) {
+                        break;
+                    }
+                    checkAndAddToResult(candidate, probeEntry, writer);
+                }
+                j++;
+            }
+        }
+    }
+
+    private void checkAndAddToResult(int buildEntry, int probeEntry, IFrameWriter writer) throws HyracksDataException {
+        if (grid != null && grid.getReferenceTileId(blockEntries.getXmin(buildEntry), blockEntries.getYmin(buildEntry),
+                probeEntries.getXmin(probeEntry),
+                probeEntries.getYmin(probeEntry)) != blockEntries.getTileId(buildEntry)) {
+            // The pair is reported by another tile.
+            return;
+        }
+        addToResultIfMatches(blockEntries.getFrameIndex(buildEntry), blockEntries.getTupleIndex(buildEntry),
+                probeEntries.getTupleIndex(probeEntry), writer);
+    }
+
+    @Override
+    protected boolean matches(IFrameTupleAccessor buildTupleAccessor, int buildTupleId,
+            IFrameTupleAccessor probeTupleAccessor, int probeTupleId) throws HyracksDataException {
+        return mjc.checkToSaveInResult(buildTupleAccessor, buildTupleId, probeTupleAccessor, probeTupleId);
+    }
+}
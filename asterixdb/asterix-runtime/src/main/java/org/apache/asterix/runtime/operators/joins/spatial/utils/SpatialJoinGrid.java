@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins.spatial.utils;
+
+import java.io.Serializable;
+
+/**
+ * The uniform grid used to assign tile IDs to the inputs of a spatial join. It is used by the partitioned
+ * spatial join to eliminate duplicate results with the reference point method: a pair of rectangles is only
+ * reported by the tile that contains the bottom-left corner of their intersection.
+ * The tile computation mirrors {@link org.apache.asterix.runtime.evaluators.functions.ReferenceTileDescriptor}.
+ */
+public class SpatialJoinGrid implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final double minX;
+    private final double minY;
+    private final double maxX;
+    private final double maxY;
+    private final int rows;
+    private final int columns;
+
+    public SpatialJoinGrid(double minX, double minY, double maxX, double maxY, int rows, int columns) {
+        this.minX = minX;
+        this.minY = minY;
+        this.maxX = maxX;
+        this.maxY = maxY;
+        this.rows = rows;
+        this.columns = columns;
+    }
+
+    public int getReferenceTileId(double buildXmin, double buildYmin, double probeXmin, double probeYmin) {
+        // Compute the reference point
+        double x = Math.max(buildXmin, probeXmin);
+        double y = Math.max(buildYmin, probeYmin);
+
+        // Compute the tile ID of the reference point
+        int row = (int) Math.ceil((y - minY) * rows / (maxY - minY));
+        int col = (int) Math.ceil((x - minX) * columns / (maxX - minX));
+
+        row = Math.min(Math.max(1, row), rows * columns);
+        col = Math.min(Math.max(1, col), rows * columns);
+
+        return (row - 1) * columns + col;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + minX + ", " + minY + ", " + maxX + ", " + maxY + "] " + rows + "x" + columns;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins.spatial.utils.memory;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the sweep keys (tile ID and MBR) of a set of tuples in primitive arrays, together with the location of the
+ * tuples, so that a plane sweep can sort and scan them without re-reading the serialized rectangles.
+ * The location is a (frame index, tuple index) pair. Entries are sorted by (tile ID, xmin).
+ */
+public class SpatialSweepBuffer {
+    /**
+     * The number of bytes of the arrays per entry.
+     */
+    public static final int ENTRY_SIZE = 40;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private int size;
+    private int[] tileIds;
+    private double[] xmins;
+    private double[] xmaxs;
+    private double[] ymins;
+    private int[] frameIndexes;
+    private int[] tupleIndexes;
+    private int[] order;
+
+    public SpatialSweepBuffer() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    public void reset() {
+        size = 0;
+    }
+
+    /**
+     * Resets the buffer and sizes its arrays for exactly the given number of entries, so that the memory of the
+     * entries is known in advance.
+     */
+    public void reset(int capacity) {
+        size = 0;
+        if (capacity > tileIds.length || capacity < tileIds.length / 2) {
+            allocate(Math.max(capacity, 1));
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(int tileId, double xmin, double xmax, double ymin, int frameIndex, int tupleIndex) {
+        if (size == tileIds.length) {
+            grow();
+        }
+        tileIds[size] = tileId;
+        xmins[size] = xmin;
+        xmaxs[size] = xmax;
+        ymins[size] = ymin;
+        frameIndexes[size] = frameIndex;
+        tupleIndexes[size] = tupleIndex;
+        order[size] = size;
+        size++;
+    }
+
+    /**
+     * @param position
+     *            the position in the sorted order
+     * @return the entry at the given position of the sorted order
+     */
+    public int get(int position) {
+        return order[position];
+    }
+
+    public int getTileId(int entry) {
+        return tileIds[entry];
+    }
+
+    public double getXmin(int entry) {
+        return xmins[entry];
+    }
+
+    public double getXmax(int entry) {
+        return xmaxs[entry];
+    }
+
+    public double getYmin(int entry) {
+        return ymins[entry];
+    }
+
+    public int getFrameIndex(int entry) {
+        return frameIndexes[entry];
+    }
+
+    public int getTupleIndex(int entry) {
+        return tupleIndexes[entry];
+    }
+
+    /**
+     * Compares two entries, possibly of different buffers, by (tile ID, xmin).
+     */
+    public static int compare(SpatialSweepBuffer buffer1, int entry1, SpatialSweepBuffer buffer2, int entry2) {
+        int c = Integer.compare(buffer1.tileIds[entry1], buffer2.tileIds[entry2]);
+        return c != 0 ? c : Double.compare(buffer1.xmins[entry1], buffer2.xmins[entry2]);
+    }
+
+    public void sort() {
+        sort(0, size - 1);
+    }
+
+    private void sort(int low, int high) {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            int pivot = order[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(this, order[i], this, pivot) < 0) {
+                    i++;
+                }
+                while (compare(this, order[j], this, pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller half to bound the stack depth.
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(this, order[j - 1], this, order[j]) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
+
+    private void swap(int i, int j) {
+        int tmp = order[i];
+        order[i] = order[j];
+        order[j] = tmp;
+    }
+
+    private void allocate(int capacity) {
+        tileIds = new int[capacity];
+        xmins = new double[capacity];
+        xmaxs = new double[capacity];
+        ymins = new double[capacity];
+        frameIndexes = new int[capacity];
+        tupleIndexes = new int[capacity];
+        order = new int[capacity];
+    }
+
+    private void grow() {
+        int capacity = tileIds.length * 2;
+        tileIds = Arrays.copyOf(tileIds, capacity);
+        xmins = Arrays.copyOf(xmins, capacity);
+        xmaxs = Arrays.copyOf(xmaxs, capacity);
+        ymins = Arrays.copyOf(ymins, capacity);
+        frameIndexes = Arrays.copyOf(frameIndexes, capacity);
+        tupleIndexes = Arrays.copyOf(tupleIndexes, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.utils;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.asterix.common.api.ICompiledQueryCache;
+import org.apache.asterix.common.dataflow.ICcApplicationContext;
+import org.apache.asterix.common.metadata.IMetadataLock;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+public class CompiledQueryCache implements ICompiledQueryCache {
+
+    private static final Logger LOGGER = LogManager.getLogger();
+    private final ICcApplicationContext ccAppCtx;
+    private final int capacity;
+    // in access order, so that the least recently used query is evicted first
+    private final Map<Object, CompiledQuery> queries = new LinkedHashMap<>(16, 0.75f, true);
+    private long version;
+
+    public CompiledQueryCache(ICcApplicationContext ccAppCtx) {
+        this.ccAppCtx = ccAppCtx;
+        capacity = ccAppCtx.getCompilerProperties().getQueryPlanCacheSize();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    @Override
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    @Override
+    public synchronized ICompiledQuery acquire(Object key) {
+        CompiledQuery query = queries.get(key);
+        if (query != null) {
+            query.users++;
+        }
+        return query;
+    }
+
+    @Override
+    public ICompiledQuery put(Object key, long version, JobSpecification jobSpec,
+            List<Pair<IMetadataLock, IMetadataLock.Mode>> locks) throws HyracksDataException {
+        if (!isEnabled() || getVersion() != version) {
+            return null;
+        }
+        CompiledQuery query = new CompiledQuery(jobSpec, deployJobSpec(jobSpec), locks, version);
+        List<CompiledQuery> undeployable = new ArrayList<>();
+        boolean cached;
+        synchronized (this) {
+            cached = this.version == version;
+            if (cached) {
+                query.users = 1;
+                CompiledQuery replaced = queries.put(key, query);
+                if (replaced != null) {
+                    discard(replaced, undeployable);
+                }
+                Iterator<CompiledQuery> eldest = queries.values().iterator();
+                while (queries.size() > capacity) {
+                    discard(eldest.next(), undeployable);
+                    eldest.remove();
+                }
+            } else {
+                discard(query, undeployable);
+            }
+        }
+        undeploy(undeployable);
+        return cached ? query : null;
+    }
+
+    @Override
+    public ICompiledQuery deploy(JobSpecification jobSpec, List<Pair<IMetadataLock, IMetadataLock.Mode>> locks)
+            throws HyracksDataException {
+        CompiledQuery query = new CompiledQuery(jobSpec, deployJobSpec(jobSpec), locks, getVersion());
+        synchronized (this) {
+            query.users = 1;
+            query.removed = true;
+        }
+        return query;
+    }
+
+    @Override
+    public void release(ICompiledQuery query) {
+        CompiledQuery compiledQuery = (CompiledQuery) query;
+        synchronized (this) {
+            compiledQuery.users--;
+            if (!compiledQuery.removed || compiledQuery.users > 0) {
+                return;
+            }
+        }
+        undeploy(compiledQuery);
+    }
+
+    @Override
+    public void remove(Object key, ICompiledQuery query) {
+        List<CompiledQuery> undeployable = new ArrayList<>();
+        synchronized (this) {
+            if (queries.remove(key, query)) {
+                discard((CompiledQuery) query, undeployable);
+            }
+        }
+        undeploy(undeployable);
+    }
+
+    @Override
+    public void invalidate() {
+        List<CompiledQuery> undeployable = new ArrayList<>();
+        synchronized (this) {
+            version++;
+            for (CompiledQuery query : queries.values()) {
+                discard(query, undeployable);
+            }
+            queries.clear();
+        }
+        undeploy(undeployable);
+    }
+
+    private DeployedJobSpecId deployJobSpec(JobSpecification jobSpec) throws HyracksDataException {
+        try {
+            return ccAppCtx.getHcc().deployJobSpec(jobSpec);
+        } catch (Exception e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    private static void discard(CompiledQuery query, List<CompiledQuery> undeployable) {
+        query.removed = true;
+        if (query.users == 0) {
+            undeployable.add(query);
+        }
+    }
+
+    private void undeploy(List<CompiledQuery> undeployable) {
+        for (CompiledQuery query : undeployable) {
+            undeploy(query);
+        }
+    }
+
+    private void undeploy(CompiledQuery query) {
+        try {
+            ccAppCtx.getHcc().undeployJobSpec(query.deployedJobSpecId);
+        } catch (Exception e) {
+            LOGGER.warn("failed to undeploy cached query job {}", query.deployedJobSpecId, e);
+        }
+    }
+
+    private static class CompiledQuery implements ICompiledQuery {
+        private final JobSpecification jobSpec;
+        private final DeployedJobSpecId deployedJobSpecId;
+        private final List<Pair<IMetadataLock, IMetadataLock.Mode>> locks;
+        private final long version;
+        // guarded by the cache
+        private int users;
+        private boolean removed;
+
+        CompiledQuery(JobSpecification jobSpec, DeployedJobSpecId deployedJobSpecId,
+                List<Pair<IMetadataLock, IMetadataLock.Mode>> locks, long version) {
+            this.jobSpec = jobSpec;
+            this.deployedJobSpecId = deployedJobSpecId;
+            this.locks = locks;
+            this.version = version;
+        }
+
+        @Override
+        public JobSpecification getJobSpecification() {
+            return jobSpec;
+        }
+
+        @Override
+        public DeployedJobSpecId getDeployedJobSpecId() {
+            return deployedJobSpecId;
+        }
+
+        @Override
+        public List<Pair<IMetadataLock, IMetadataLock.Mode>> getLocks() {
+            return locks;
+        }
+
+        @Override
+        public long getVersion() {
+            return version;
+        }
+    }
+}
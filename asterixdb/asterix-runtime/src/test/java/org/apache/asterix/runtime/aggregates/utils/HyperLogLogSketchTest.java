@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.utils;
+
+import java.util.Random;
+
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.LongPointable;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HyperLogLogSketchTest {
+
+    // three times the standard error of 2048 registers
+    private static final double MAX_RELATIVE_ERROR = 3 * 1.04 / Math.sqrt(HyperLogLogSketch.NUM_REGISTERS);
+
+    private final IBinaryHashFunction highHash = SketchAggregatesUtil.createHighHashFunction();
+    private final IBinaryHashFunction lowHash = SketchAggregatesUtil.createLowHashFunction();
+    private final byte[] item = new byte[1 + Long.BYTES];
+
+    @Test
+    public void testEstimateAcrossCardinalities() throws HyracksDataException {
+        Random random = new Random(17);
+        for (int cardinality : new int[] { 100, 1000, 5000, 10000, 100000, 1000000 }) {
+            byte[] sketch = new byte[HyperLogLogSketch.SIZE];
+            HyperLogLogSketch.reset(sketch, 0);
+            // integers are hashed as doubles, so they must be exactly representable to be distinct
+            long first = random.nextInt(Integer.MAX_VALUE);
+            for (int i = 0; i < cardinality; i++) {
+                // every item is added twice, duplicates must not change the estimate
+                add(sketch, first + i);
+                add(sketch, first + i);
+            }
+            assertEstimate(cardinality, HyperLogLogSketch.estimate(sketch, 0));
+        }
+    }
+
+    @Test
+    public void testMergedEstimateEqualsSingleSketch() throws HyracksDataException {
+        int cardinality = 500000;
+        int numPartitions = 8;
+        byte[] single = new byte[HyperLogLogSketch.SIZE];
+        byte[] partials = new byte[numPartitions * HyperLogLogSketch.SIZE];
+        HyperLogLogSketch.reset(single, 0);
+        for (int p = 0; p < numPartitions; p++) {
+            HyperLogLogSketch.reset(partials, p * HyperLogLogSketch.SIZE);
+        }
+        Random random = new Random(23);
+        for (int i = 0; i < cardinality; i++) {
+            long value = i * 31L;
+            add(single, value);
+            // the same value may end up in several partitions
+            add(partials, random.nextInt(numPartitions) * HyperLogLogSketch.SIZE, value);
+            add(partials, random.nextInt(numPartitions) * HyperLogLogSketch.SIZE, value);
+        }
+        byte[] merged = new byte[HyperLogLogSketch.SIZE];
+        HyperLogLogSketch.reset(merged, 0);
+        for (int p = 0; p < numPartitions; p++) {
+            HyperLogLogSketch.merge(merged, 0, partials, p * HyperLogLogSketch.SIZE);
+        }
+        Assert.assertEquals(HyperLogLogSketch.estimate(single, 0), HyperLogLogSketch.estimate(merged, 0));
+        assertEstimate(cardinality, HyperLogLogSketch.estimate(merged, 0));
+    }
+
+    private void add(byte[] sketch, long value) throws HyracksDataException {
+        add(sketch, 0, value);
+    }
+
+    private void add(byte[] sketch, int offset, long value) throws HyracksDataException {
+        item[0] = ATypeTag.SERIALIZED_INT64_TYPE_TAG;
+        LongPointable.setLong(item, 1, value);
+        HyperLogLogSketch.add(sketch, offset, SketchAggregatesUtil.hash(highHash, lowHash, item, 0, item.length));
+    }
+
+    private static void assertEstimate(long expected, long estimate) {
+        double error = Math.abs(estimate - expected) / (double) expected;
+        Assert.assertTrue("estimated " + estimate + " for " + expected + " distinct items",
+                error <= MAX_RELATIVE_ERROR);
+    }
+}
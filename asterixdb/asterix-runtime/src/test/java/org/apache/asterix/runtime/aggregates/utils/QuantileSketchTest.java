@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.aggregates.utils;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QuantileSketchTest {
+
+    private static final int NUM_VALUES = 1000000;
+
+    @Test
+    public void testUniformMedian() {
+        Random random = new Random(3);
+        double[] values = new double[NUM_VALUES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = 1 + random.nextDouble() * 1e6;
+        }
+        assertMedian(values);
+    }
+
+    @Test
+    public void testLogNormalMedian() {
+        // spans more orders of magnitude than the window of a store
+        Random random = new Random(5);
+        double[] values = new double[NUM_VALUES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(2 * random.nextGaussian());
+        }
+        assertMedian(values);
+    }
+
+    @Test
+    public void testMixedSignMedian() {
+        Random random = new Random(7);
+        double[] values = new double[NUM_VALUES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 100 == 0 ? 0 : -50 + 200 * random.nextGaussian();
+        }
+        assertMedian(values);
+    }
+
+    @Test
+    public void testLateOutliersKeepMedian() {
+        // the outliers arrive after the bulk of the values, far above the window
+        Random random = new Random(11);
+        double[] values = new double[NUM_VALUES];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i < NUM_VALUES - 10000 ? 100 + 100 * random.nextDouble() : 1e12 * (1 + random.nextDouble());
+        }
+        assertMedian(values);
+        // and the same with the outliers first, far below the window
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i < 10000 ? 1e-9 * (1 + random.nextDouble()) : 100 + 100 * random.nextDouble();
+        }
+        assertMedian(values);
+    }
+
+    @Test
+    public void testMergedMedian() {
+        int numPartitions = 8;
+        Random random = new Random(13);
+        double[] values = new double[NUM_VALUES];
+        byte[] partials = new byte[numPartitions * QuantileSketch.SIZE];
+        for (int p = 0; p < numPartitions; p++) {
+            QuantileSketch.reset(partials, p * QuantileSketch.SIZE);
+        }
+        for (int i = 0; i < values.length; i++) {
+            // every partition sees a differently scaled part of the values
+            int p = random.nextInt(numPartitions);
+            values[i] = Math.exp(p + random.nextGaussian());
+            QuantileSketch.add(partials, p * QuantileSketch.SIZE, values[i]);
+        }
+        byte[] merged = new byte[QuantileSketch.SIZE];
+        QuantileSketch.reset(merged, 0);
+        for (int p = 0; p < numPartitions; p++) {
+            QuantileSketch.merge(merged, 0, partials, p * QuantileSketch.SIZE);
+        }
+        assertQuantile(values, merged, 0.5);
+    }
+
+    @Test
+    public void testEmptySketch() {
+        byte[] sketch = new byte[QuantileSketch.SIZE];
+        QuantileSketch.reset(sketch, 0);
+        Assert.assertTrue(Double.isNaN(QuantileSketch.quantile(sketch, 0, 0.5)));
+    }
+
+    private static void assertMedian(double[] values) {
+        byte[] sketch = new byte[QuantileSketch.SIZE];
+        QuantileSketch.reset(sketch, 0);
+        for (double value : values) {
+            QuantileSketch.add(sketch, 0, value);
+        }
+        assertQuantile(values, sketch, 0.5);
+    }
+
+    private static void assertQuantile(double[] values, byte[] sketch, double q) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double expected = sorted[(int) (q * (sorted.length - 1))];
+        double estimate = QuantileSketch.quantile(sketch, 0, q);
+        Assert.assertEquals(expected, estimate, Math.abs(expected) * QuantileSketch.RELATIVE_ACCURACY);
+    }
+}
@@ -0,0 +1,384 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.evaluators.staticcodegen;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.asterix.dataflow.data.nontagged.MissingWriterFactory;
+import org.apache.asterix.dataflow.data.nontagged.serde.AObjectSerializerDeserializer;
+import org.apache.asterix.formats.nontagged.BinaryBooleanInspector;
+import org.apache.asterix.om.base.ABoolean;
+import org.apache.asterix.om.base.ADouble;
+import org.apache.asterix.om.base.AInt16;
+import org.apache.asterix.om.base.AInt32;
+import org.apache.asterix.om.base.AInt64;
+import org.apache.asterix.om.base.AInt8;
+import org.apache.asterix.om.base.AMissing;
+import org.apache.asterix.om.base.ANull;
+import org.apache.asterix.om.base.IAObject;
+import org.apache.asterix.om.functions.IFunctionDescriptor;
+import org.apache.asterix.om.functions.IFunctionDescriptorFactory;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.runtime.evaluators.comparisons.EqualsDescriptor;
+import org.apache.asterix.runtime.evaluators.comparisons.GreaterThanDescriptor;
+import org.apache.asterix.runtime.evaluators.comparisons.GreaterThanOrEqualsDescriptor;
+import org.apache.asterix.runtime.evaluators.comparisons.LessThanDescriptor;
+import org.apache.asterix.runtime.evaluators.comparisons.LessThanOrEqualsDescriptor;
+import org.apache.asterix.runtime.evaluators.comparisons.NotEqualsDescriptor;
+import org.apache.asterix.runtime.evaluators.functions.AndDescriptor;
+import org.apache.asterix.runtime.evaluators.functions.NumericAddDescriptor;
+import org.apache.asterix.runtime.evaluators.functions.NumericMultiplyDescriptor;
+import org.apache.asterix.runtime.evaluators.functions.NumericSubDescriptor;
+import org.apache.asterix.runtime.evaluators.staticcodegen.IntegerExpression.Operator;
+import org.apache.hyracks.algebricks.runtime.base.IBatchScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.ScalarVector;
+import org.apache.hyracks.algebricks.runtime.evaluators.ColumnAccessEvalFactory;
+import org.apache.hyracks.algebricks.runtime.evaluators.ConstantEvalFactory;
+import org.apache.hyracks.algebricks.runtime.evaluators.EvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputOneFramePushRuntime;
+import org.apache.hyracks.algebricks.runtime.operators.std.StreamSelectRuntimeFactory;
+import org.apache.hyracks.api.comm.FixedSizeFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks that the specialized integer expressions produce the results of the interpreted evaluators of the same
+ * expressions, one tuple at a time and a frame at a time.
+ */
+public class SpecializedIntegerEvaluatorFactoryTest {
+
+    private static final int FRAME_SIZE = 32768;
+    private static final RecordDescriptor RECORD_DESC = new RecordDescriptor(new ISerializerDeserializer[] {
+            AObjectSerializerDeserializer.INSTANCE, AObjectSerializerDeserializer.INSTANCE });
+
+    /** pairs of values of all integer types, that overflow, and that are not integers */
+    private static final IAObject[][] ROWS = new IAObject[][] {
+            // widening
+            { new AInt8((byte) 3), new AInt8((byte) 4) }, { new AInt8((byte) -7), new AInt16((short) 300) },
+            { new AInt16((short) 1000), new AInt32(70000) }, { new AInt32(5), new AInt64(1L << 40) },
+            { new AInt64(-2), new AInt8((byte) 9) }, { new AInt32(10), new AInt32(10) },
+            // overflow of the type of the operands
+            { new AInt8((byte) 127), new AInt8((byte) 1) }, { new AInt8((byte) -128), new AInt8((byte) -1) },
+            { new AInt16((short) 200), new AInt16((short) 200) }, { new AInt32(Integer.MAX_VALUE), new AInt32(1) },
+            { new AInt64(Long.MAX_VALUE), new AInt8((byte) 1) },
+            // not integers
+            { ANull.NULL, new AInt32(1) }, { new AInt32(1), AMissing.MISSING }, { AMissing.MISSING, ANull.NULL },
+            { new ADouble(1.5), new AInt32(2) } };
+
+    private final IHyracksTaskContext taskCtx = TestUtils.create(FRAME_SIZE);
+    private final IEvaluatorContext ctx = new EvaluatorContext(taskCtx);
+
+    @Test
+    public void testTupleAtATime() throws Exception {
+        FrameTupleAccessor accessor = createFrame(ROWS);
+        FrameTupleReference tuple = new FrameTupleReference();
+        for (TestExpression expr : createExpressions()) {
+            IScalarEvaluator specialized = expr.createSpecializedFactory().createScalarEvaluator(ctx);
+            IScalarEvaluator interpreted = expr.interpreted.createScalarEvaluator(ctx);
+            for (int t = 0; t < accessor.getTupleCount(); t++) {
+                tuple.reset(accessor, t);
+                Assert.assertEquals(expr + " of " + Arrays.toString(ROWS[t]), evaluate(interpreted, tuple),
+                        evaluate(specialized, tuple));
+            }
+        }
+    }
+
+    @Test
+    public void testWidening() throws Exception {
+        FrameTupleAccessor accessor = createFrame(ROWS);
+        FrameTupleReference tuple = new FrameTupleReference();
+        TestExpression add = operation(Operator.ADD, NumericAddDescriptor.FACTORY, column(0), column(1));
+        IScalarEvaluator eval = add.createSpecializedFactory().createScalarEvaluator(ctx);
+        ATypeTag[] expectedTypes =
+                { ATypeTag.TINYINT, ATypeTag.SMALLINT, ATypeTag.INTEGER, ATypeTag.BIGINT, ATypeTag.BIGINT };
+        long[] expectedValues = { 7, 293, 71000, 5 + (1L << 40), 7 };
+        for (int t = 0; t < expectedTypes.length; t++) {
+            tuple.reset(accessor, t);
+            Assert.assertEquals(expectedTypes[t] + ":" + expectedValues[t], evaluate(eval, tuple));
+        }
+    }
+
+    @Test
+    public void testFrameAtATime() throws Exception {
+        FrameTupleAccessor accessor = createFrame(ROWS);
+        FrameTupleReference tuple = new FrameTupleReference();
+        ScalarVector vector = new ScalarVector();
+        for (TestExpression expr : createExpressions()) {
+            IBatchScalarEvaluator specialized =
+                    (IBatchScalarEvaluator) expr.createSpecializedFactory().createScalarEvaluator(ctx);
+            IScalarEvaluator interpreted = expr.interpreted.createScalarEvaluator(ctx);
+            specialized.evaluate(accessor, vector);
+            Assert.assertEquals(accessor.getTupleCount(), vector.getSize());
+            Assert.assertEquals(expr.integer.isBoolean(), vector.hasBooleanValues());
+            int masked = 0;
+            for (int t = 0; t < vector.getSize(); t++) {
+                if (vector.getNullMask()[t]) {
+                    masked++;
+                    continue;
+                }
+                // the tuples that are not masked must not need the interpreted evaluator
+                tuple.reset(accessor, t);
+                IAObject expected = deserialize(evaluate(interpreted, tuple, new VoidPointable()));
+                long value = vector.getValues()[t];
+                Object actual = vector.hasBooleanValues() ? ABoolean.valueOf(value != 0) : value;
+                Object expectedValue = vector.hasBooleanValues() ? expected : toLong(expected);
+                Assert.assertEquals(expr + " of " + Arrays.toString(ROWS[t]), expectedValue, actual);
+            }
+            Assert.assertTrue(expr + " should mask the tuples that are not integers", masked > 0);
+            Assert.assertTrue(expr + " should not mask all tuples", masked < vector.getSize());
+        }
+    }
+
+    @Test
+    public void testSelect() throws Exception {
+        // the first operand of the conjunction is false for the tuple whose second operand overflows
+        TestExpression cond = operation(Operator.AND, AndDescriptor.FACTORY,
+                operation(Operator.GE, GreaterThanOrEqualsDescriptor.FACTORY, column(0), constant(new AInt8((byte) 0))),
+                operation(Operator.LT, LessThanDescriptor.FACTORY,
+                        operation(Operator.ADD, NumericAddDescriptor.FACTORY, column(0), column(1)),
+                        constant(new AInt64(100))));
+        IAObject[][] rows = new IAObject[][] { { new AInt8((byte) 3), new AInt8((byte) 4) },
+                { new AInt8((byte) -128), new AInt8((byte) -1) }, { new AInt32(70), new AInt32(30) },
+                { new AInt64(50), new AInt16((short) 49) }, { ANull.NULL, new AInt32(1) },
+                { new AInt32(-1), AMissing.MISSING }, { new AInt32(1), AMissing.MISSING },
+                { new ADouble(1.5), new AInt32(2) }, { new AInt16((short) 99), new AInt8((byte) 0) } };
+        FrameTupleAccessor accessor = createFrame(rows);
+
+        ScalarVector vector = new ScalarVector();
+        ((IBatchScalarEvaluator) cond.createSpecializedFactory().createScalarEvaluator(ctx)).evaluate(accessor, vector);
+        boolean[] nullMask = Arrays.copyOf(vector.getNullMask(), rows.length);
+        Assert.assertArrayEquals(new boolean[] { false, false, false, false, true, false, true, true, false },
+                nullMask);
+
+        List<String> expected = select(cond.interpreted, accessor);
+        Assert.assertEquals(Arrays.asList("3, 4", "50, 49", "1.5, 2", "99, 0"), expected);
+        Assert.assertEquals(expected, select(cond.createSpecializedFactory(), accessor));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testConjunctionOfIntegers() {
+        IntegerExpression.operation(Operator.AND, column(0).integer, column(1).integer);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testArithmeticOfComparisons() {
+        IntegerExpression.operation(Operator.ADD,
+                IntegerExpression.operation(Operator.LT, column(0).integer, column(1).integer), column(1).integer);
+    }
+
+    private static List<TestExpression> createExpressions() throws HyracksDataException {
+        List<TestExpression> exprs = new ArrayList<>();
+        exprs.add(operation(Operator.ADD, NumericAddDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(operation(Operator.SUBTRACT, NumericSubDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(operation(Operator.MULTIPLY, NumericMultiplyDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(
+                operation(
+                        Operator.ADD, NumericAddDescriptor.FACTORY, operation(Operator.MULTIPLY,
+                                NumericMultiplyDescriptor.FACTORY, column(0), constant(new AInt16((short) 5))),
+                        column(1)));
+        exprs.add(operation(Operator.EQ, EqualsDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(operation(Operator.NEQ, NotEqualsDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(operation(Operator.LT, LessThanDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(operation(Operator.LE, LessThanOrEqualsDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(operation(Operator.GT, GreaterThanDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(operation(Operator.GE, GreaterThanOrEqualsDescriptor.FACTORY, column(0), column(1)));
+        exprs.add(operation(Operator.LT, LessThanDescriptor.FACTORY,
+                operation(Operator.ADD, NumericAddDescriptor.FACTORY, column(0), column(1)), constant(new AInt64(3))));
+        exprs.add(operation(Operator.AND, AndDescriptor.FACTORY,
+                operation(Operator.GT, GreaterThanDescriptor.FACTORY, column(0), constant(new AInt16((short) 2))),
+                operation(Operator.LE, LessThanOrEqualsDescriptor.FACTORY, column(1), constant(new AInt64(300))),
+                operation(Operator.NEQ, NotEqualsDescriptor.FACTORY,
+                        operation(Operator.SUBTRACT, NumericSubDescriptor.FACTORY, column(0), column(1)),
+                        constant(new AInt8((byte) 0)))));
+        return exprs;
+    }
+
+    private List<String> select(IScalarEvaluatorFactory cond, FrameTupleAccessor accessor) throws Exception {
+        StreamSelectRuntimeFactory factory = new StreamSelectRuntimeFactory(cond, new int[] { 0, 1 },
+                BinaryBooleanInspector.FACTORY, false, -1, MissingWriterFactory.INSTANCE);
+        AbstractOneInputOneOutputOneFramePushRuntime runtime = factory.createOneOutputPushRuntime(taskCtx);
+        List<String> selected = new ArrayList<>();
+        runtime.setInputRecordDescriptor(0, RECORD_DESC);
+        runtime.setOutputFrameWriter(0, new IFrameWriter() {
+            private final FrameTupleAccessor outAccessor = new FrameTupleAccessor(RECORD_DESC);
+
+            @Override
+            public void open() {
+                // nothing to open
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                outAccessor.reset(buffer);
+                for (int t = 0; t < outAccessor.getTupleCount(); t++) {
+                    selected.add(deserialize(outAccessor, t, 0) + ", " + deserialize(outAccessor, t, 1));
+                }
+            }
+
+            @Override
+            public void fail() {
+                // nothing to fail
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        }, RECORD_DESC);
+        runtime.open();
+        runtime.nextFrame(accessor.getBuffer());
+        runtime.close();
+        return selected;
+    }
+
+    /**
+     * @return the type and value of the result, or the class and message of the error of the evaluation
+     */
+    private static String evaluate(IScalarEvaluator eval, FrameTupleReference tuple) {
+        try {
+            IAObject result = deserialize(evaluate(eval, tuple, new VoidPointable()));
+            return result.getType().getTypeTag() + ":" + result;
+        } catch (HyracksDataException e) {
+            return e.getClass().getSimpleName() + ":" + e.getMessage();
+        }
+    }
+
+    private static IPointable evaluate(IScalarEvaluator eval, FrameTupleReference tuple, IPointable result)
+            throws HyracksDataException {
+        eval.evaluate(tuple, result);
+        return result;
+    }
+
+    private static IAObject deserialize(IPointable value) throws HyracksDataException {
+        return AObjectSerializerDeserializer.INSTANCE.deserialize(new DataInputStream(
+                new ByteArrayInputStream(value.getByteArray(), value.getStartOffset(), value.getLength())));
+    }
+
+    private static IAObject deserialize(FrameTupleAccessor accessor, int tuple, int field) throws HyracksDataException {
+        return AObjectSerializerDeserializer.INSTANCE
+                .deserialize(new DataInputStream(new ByteArrayInputStream(accessor.getBuffer().array(),
+                        accessor.getAbsoluteFieldStartOffset(tuple, field), accessor.getFieldLength(tuple, field))));
+    }
+
+    private static long toLong(IAObject value) {
+        switch (value.getType().getTypeTag()) {
+            case TINYINT:
+                return ((AInt8) value).getByteValue();
+            case SMALLINT:
+                return ((AInt16) value).getShortValue();
+            case INTEGER:
+                return ((AInt32) value).getIntegerValue();
+            case BIGINT:
+                return ((AInt64) value).getLongValue();
+            default:
+                throw new IllegalStateException(value.toString());
+        }
+    }
+
+    private static FrameTupleAccessor createFrame(IAObject[][] rows) throws HyracksDataException {
+        ByteBuffer buffer = ByteBuffer.allocate(FRAME_SIZE);
+        FrameTupleAppender appender = new FrameTupleAppender(new FixedSizeFrame(buffer), true);
+        ArrayTupleBuilder builder = new ArrayTupleBuilder(RECORD_DESC.getFieldCount());
+        for (IAObject[] row : rows) {
+            builder.reset();
+            for (IAObject field : row) {
+                builder.addField(AObjectSerializerDeserializer.INSTANCE, field);
+            }
+            Assert.assertTrue(
+                    appender.append(builder.getFieldEndOffsets(), builder.getByteArray(), 0, builder.getSize()));
+        }
+        FrameTupleAccessor accessor = new FrameTupleAccessor(RECORD_DESC);
+        accessor.reset(buffer);
+        return accessor;
+    }
+
+    private static TestExpression column(int fieldIndex) {
+        ColumnAccessEvalFactory factory = new ColumnAccessEvalFactory(fieldIndex);
+        return new TestExpression(IntegerExpression.leaf(factory), factory);
+    }
+
+    private static TestExpression constant(IAObject value) throws HyracksDataException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        AObjectSerializerDeserializer.INSTANCE.serialize(value, new DataOutputStream(bytes));
+        ConstantEvalFactory factory = new ConstantEvalFactory(bytes.toByteArray());
+        return new TestExpression(IntegerExpression.leaf(factory), factory);
+    }
+
+    /**
+     * @return the expression applying the operator to the operands, from left to right for more than two operands
+     */
+    private static TestExpression operation(Operator operator, IFunctionDescriptorFactory descriptorFactory,
+            TestExpression... operands) throws HyracksDataException {
+        IFunctionDescriptor descriptor = descriptorFactory.createFunctionDescriptor();
+        descriptor.setImmutableStates(BuiltinType.ANY, BuiltinType.ANY);
+        IntegerExpression integer = operands[0].integer;
+        IScalarEvaluatorFactory[] args = new IScalarEvaluatorFactory[operands.length];
+        for (int i = 0; i < operands.length; i++) {
+            integer = i == 0 ? integer : IntegerExpression.operation(operator, integer, operands[i].integer);
+            args[i] = operands[i].interpreted;
+        }
+        try {
+            return new TestExpression(integer, descriptor.createEvaluatorFactory(args));
+        } catch (Exception e) {
+            throw HyracksDataException.create(e);
+        }
+    }
+
+    private static class TestExpression {
+        private final IntegerExpression integer;
+        private final IScalarEvaluatorFactory interpreted;
+
+        TestExpression(IntegerExpression integer, IScalarEvaluatorFactory interpreted) {
+            this.integer = integer;
+            this.interpreted = interpreted;
+        }
+
+        SpecializedIntegerEvaluatorFactory createSpecializedFactory() {
+            return new SpecializedIntegerEvaluatorFactory(integer, interpreted);
+        }
+
+        @Override
+        public String toString() {
+            return integer.toString();
+        }
+    }
+}
@@ -0,0 +1,324 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.operators.joins;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.asterix.formats.nontagged.SerializerDeserializerProvider;
+import org.apache.asterix.om.base.AInt32;
+import org.apache.asterix.om.base.AInterval;
+import org.apache.asterix.om.base.APoint;
+import org.apache.asterix.om.base.ARectangle;
+import org.apache.asterix.om.types.ATypeTag;
+import org.apache.asterix.om.types.BuiltinType;
+import org.apache.asterix.runtime.operators.joins.interval.PartitionedIntervalJoiner;
+import org.apache.asterix.runtime.operators.joins.interval.utils.IIntervalJoinUtil;
+import org.apache.asterix.runtime.operators.joins.interval.utils.OverlappingIntervalJoinUtil;
+import org.apache.asterix.runtime.operators.joins.spatial.PartitionedSpatialJoiner;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.ISpatialJoinUtil;
+import org.apache.asterix.runtime.operators.joins.spatial.utils.IntersectSpatialJoinUtil;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the partitioned spatial and interval joins against a nested loop join, with inputs that fit in memory, inputs
+ * that have to be spilled and skewed inputs whose partitions do not fit in memory by themselves.
+ */
+public class PartitionedSweepJoinerTest {
+
+    private static final int FRAME_SIZE = 256;
+    private static final int LARGE_MEMORY = 4096;
+    private static final int SMALL_MEMORY = 12;
+    private static final int NUM_TUPLES = 1500;
+    private static final int NUM_TILES = 16;
+
+    @SuppressWarnings("rawtypes")
+    private static final ISerializerDeserializer INT_SERDE =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.AINT32);
+    @SuppressWarnings("rawtypes")
+    private static final ISerializerDeserializer RECTANGLE_SERDE =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.ARECTANGLE);
+    @SuppressWarnings("rawtypes")
+    private static final ISerializerDeserializer INTERVAL_SERDE =
+            SerializerDeserializerProvider.INSTANCE.getSerializerDeserializer(BuiltinType.AINTERVAL);
+
+    // (tile ID, rectangle, ID)
+    private static final RecordDescriptor SPATIAL_RD =
+            new RecordDescriptor(new ISerializerDeserializer[] { INT_SERDE, RECTANGLE_SERDE, INT_SERDE });
+    // (interval, ID)
+    private static final RecordDescriptor INTERVAL_RD =
+            new RecordDescriptor(new ISerializerDeserializer[] { INTERVAL_SERDE, INT_SERDE });
+
+    @Test
+    public void spatialJoinInMemory() throws Exception {
+        runSpatialJoin(LARGE_MEMORY, 0.0);
+    }
+
+    @Test
+    public void spatialJoinWithSpilling() throws Exception {
+        runSpatialJoin(SMALL_MEMORY, 0.0);
+    }
+
+    @Test
+    public void spatialJoinWithSkew() throws Exception {
+        runSpatialJoin(SMALL_MEMORY, 0.9);
+    }
+
+    @Test
+    public void intervalJoinInMemory() throws Exception {
+        runIntervalJoin(LARGE_MEMORY, 0.0);
+    }
+
+    @Test
+    public void intervalJoinWithSpilling() throws Exception {
+        runIntervalJoin(SMALL_MEMORY, 0.0);
+    }
+
+    @Test
+    public void intervalJoinWithSkew() throws Exception {
+        runIntervalJoin(SMALL_MEMORY, 0.9);
+    }
+
+    @Test
+    public void joinWithEmptyBuild() throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        List<ByteBuffer> probe = createIntervalFrames(ctx, new Random(1), 0.0);
+        IIntervalJoinUtil mjc = new OverlappingIntervalJoinUtil(0, 0, Long.MIN_VALUE);
+        AbstractPartitionedSweepJoiner joiner =
+                new PartitionedIntervalJoiner(ctx, SMALL_MEMORY, mjc, 0, 0, INTERVAL_RD, INTERVAL_RD);
+        Assert.assertTrue(join(joiner, Collections.emptyList(), probe, INTERVAL_RD, 1).isEmpty());
+    }
+
+    private void runSpatialJoin(int memorySize, double skew) throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        List<ByteBuffer> build = createSpatialFrames(ctx, new Random(1), skew);
+        List<ByteBuffer> probe = createSpatialFrames(ctx, new Random(2), skew);
+        int[] keys = new int[] { 0, 1 };
+        ISpatialJoinUtil mjc = new IntersectSpatialJoinUtil(keys, keys);
+        AbstractPartitionedSweepJoiner joiner =
+                new PartitionedSpatialJoiner(ctx, memorySize, mjc, keys, keys, SPATIAL_RD, SPATIAL_RD, null);
+        List<String> expected = nestedLoopJoin(build, probe, SPATIAL_RD, 2, mjc::checkToSaveInResult);
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, join(joiner, build, probe, SPATIAL_RD, 2));
+    }
+
+    private void runIntervalJoin(int memorySize, double skew) throws Exception {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        List<ByteBuffer> build = createIntervalFrames(ctx, new Random(1), skew);
+        List<ByteBuffer> probe = createIntervalFrames(ctx, new Random(2), skew);
+        IIntervalJoinUtil mjc = new OverlappingIntervalJoinUtil(0, 0, Long.MIN_VALUE);
+        AbstractPartitionedSweepJoiner joiner =
+                new PartitionedIntervalJoiner(ctx, memorySize, mjc, 0, 0, INTERVAL_RD, INTERVAL_RD);
+        List<String> expected = nestedLoopJoin(build, probe, INTERVAL_RD, 1, mjc::checkToSaveInResult);
+        Assert.assertFalse(expected.isEmpty());
+        Assert.assertEquals(expected, join(joiner, build, probe, INTERVAL_RD, 1));
+    }
+
+    /**
+     * Rectangles in a 100 x 100 space, assigned to the tile of their lower left corner. A skewed input puts the given
+     * fraction of the rectangles into the first tile.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<ByteBuffer> createSpatialFrames(IHyracksTaskContext ctx, Random random, double skew)
+            throws HyracksDataException {
+        int tilesPerRow = (int) Math.sqrt(NUM_TILES);
+        double tileWidth = 100.0 / tilesPerRow;
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(SPATIAL_RD.getFieldCount());
+        FrameWriter frames = new FrameWriter(ctx);
+        for (int i = 0; i < NUM_TUPLES; i++) {
+            boolean skewed = random.nextDouble() < skew;
+            double x = random.nextDouble() * (skewed ? tileWidth : 100.0);
+            double y = random.nextDouble() * (skewed ? tileWidth : 100.0);
+            double size = random.nextDouble() * 5.0;
+            int tileId = (int) (y / tileWidth) * tilesPerRow + (int) (x / tileWidth);
+            tb.reset();
+            tb.addField(INT_SERDE, new AInt32(tileId));
+            tb.addField(RECTANGLE_SERDE, new ARectangle(new APoint(x, y), new APoint(x + size, y + size)));
+            tb.addField(INT_SERDE, new AInt32(i));
+            frames.append(tb);
+        }
+        return frames.close();
+    }
+
+    /**
+     * Short intervals in [0, 10000) and a few intervals that span most of the domain. A skewed input puts the given
+     * fraction of the short intervals into [0, 100).
+     */
+    @SuppressWarnings("unchecked")
+    private static List<ByteBuffer> createIntervalFrames(IHyracksTaskContext ctx, Random random, double skew)
+            throws HyracksDataException {
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(INTERVAL_RD.getFieldCount());
+        FrameWriter frames = new FrameWriter(ctx);
+        for (int i = 0; i < NUM_TUPLES; i++) {
+            long start;
+            long length;
+            if (i % 100 == 0) {
+                start = random.nextInt(1000);
+                length = 8000 + random.nextInt(1000);
+            } else {
+                start = random.nextInt(random.nextDouble() < skew ? 100 : 10000);
+                length = 1 + random.nextInt(20);
+            }
+            tb.reset();
+            tb.addField(INTERVAL_SERDE, new AInterval(start, start + length, ATypeTag.DATETIME.serialize()));
+            tb.addField(INT_SERDE, new AInt32(i));
+            frames.append(tb);
+        }
+        return frames.close();
+    }
+
+    private static List<String> join(AbstractPartitionedSweepJoiner joiner, List<ByteBuffer> build,
+            List<ByteBuffer> probe, RecordDescriptor rd, int idField) throws HyracksDataException {
+        int fieldCount = rd.getFieldCount();
+        ISerializerDeserializer[] resultFields = new ISerializerDeserializer[fieldCount * 2];
+        System.arraycopy(rd.getFields(), 0, resultFields, 0, fieldCount);
+        System.arraycopy(rd.getFields(), 0, resultFields, fieldCount, fieldCount);
+        RecordDescriptor resultRd = new RecordDescriptor(resultFields);
+        List<String> result = new ArrayList<>();
+        IFrameWriter resultWriter = new IFrameWriter() {
+            private final FrameTupleAccessor accessor = new FrameTupleAccessor(resultRd);
+
+            @Override
+            public void open() {
+                // nothing to open
+            }
+
+            @Override
+            public void nextFrame(ByteBuffer buffer) {
+                accessor.reset(buffer);
+                for (int x = 0; x < accessor.getTupleCount(); x++) {
+                    result.add(getId(accessor, x, idField) + ":" + getId(accessor, x, fieldCount + idField));
+                }
+            }
+
+            @Override
+            public void fail() {
+                // nothing to fail
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+        try {
+            for (ByteBuffer buffer : build) {
+                joiner.processBuildFrame(buffer);
+            }
+            joiner.processBuildClose();
+            for (ByteBuffer buffer : probe) {
+                joiner.processProbeFrame(buffer, resultWriter);
+            }
+            joiner.processProbeClose(resultWriter);
+        } catch (Exception e) {
+            joiner.fail();
+            throw e;
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static List<String> nestedLoopJoin(List<ByteBuffer> build, List<ByteBuffer> probe, RecordDescriptor rd,
+            int idField, JoinCondition condition) throws HyracksDataException {
+        List<String> result = new ArrayList<>();
+        FrameTupleAccessor buildAccessor = new FrameTupleAccessor(rd);
+        FrameTupleAccessor probeAccessor = new FrameTupleAccessor(rd);
+        for (ByteBuffer buildBuffer : build) {
+            buildAccessor.reset(buildBuffer);
+            for (ByteBuffer probeBuffer : probe) {
+                probeAccessor.reset(probeBuffer);
+                for (int b = 0; b < buildAccessor.getTupleCount(); b++) {
+                    for (int p = 0; p < probeAccessor.getTupleCount(); p++) {
+                        if (condition.matches(buildAccessor, b, probeAccessor, p)) {
+                            result.add(getId(buildAccessor, b, idField) + ":" + getId(probeAccessor, p, idField));
+                        }
+                    }
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
+    private static int getId(FrameTupleAccessor accessor, int tupleId, int fieldId) {
+        // Skip the type tag.
+        int offset = accessor.getTupleStartOffset(tupleId) + accessor.getFieldSlotsLength()
+                + accessor.getFieldStartOffset(tupleId, fieldId) + 1;
+        return IntegerPointable.getInteger(accessor.getBuffer().array(), offset);
+    }
+
+    @FunctionalInterface
+    private interface JoinCondition {
+        boolean matches(FrameTupleAccessor buildAccessor, int buildTupleId, FrameTupleAccessor probeAccessor,
+                int probeTupleId) throws HyracksDataException;
+    }
+
+    /**
+     * Collects the tuples into copies of full frames.
+     */
+    private static class FrameWriter {
+        private final IFrame frame;
+        private final FrameTupleAppender appender;
+        private final List<ByteBuffer> frames = new ArrayList<>();
+
+        FrameWriter(IHyracksTaskContext ctx) throws HyracksDataException {
+            frame = new VSizeFrame(ctx);
+            appender = new FrameTupleAppender(frame);
+        }
+
+        void append(ArrayTupleBuilder tb) throws HyracksDataException {
+            if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                flush();
+                appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize());
+            }
+        }
+
+        List<ByteBuffer> close() throws HyracksDataException {
+            if (appender.getTupleCount() > 0) {
+                flush();
+            }
+            return frames;
+        }
+
+        private void flush() throws HyracksDataException {
+            ByteBuffer buffer = appender.getBuffer();
+            ByteBuffer copy = ByteBuffer.allocate(buffer.capacity());
+            copy.put(buffer.array(), 0, buffer.capacity());
+            copy.flip();
+            frames.add(copy);
+            appender.reset(frame, true);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.asterix.runtime.utils;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.apache.asterix.common.api.ICompiledQueryCache.ICompiledQuery;
+import org.apache.asterix.common.config.CompilerProperties;
+import org.apache.asterix.common.dataflow.ICcApplicationContext;
+import org.apache.hyracks.api.client.IHyracksClientConnection;
+import org.apache.hyracks.api.job.DeployedJobSpecId;
+import org.apache.hyracks.api.job.JobSpecification;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledQueryCacheTest {
+
+    private IHyracksClientConnection hcc;
+    private CompiledQueryCache cache;
+    private long deployedIds;
+
+    @Before
+    public void setUp() throws Exception {
+        hcc = mock(IHyracksClientConnection.class);
+        when(hcc.deployJobSpec(any())).thenAnswer(invocation -> new DeployedJobSpecId(deployedIds++));
+        CompilerProperties compilerProperties = mock(CompilerProperties.class);
+        when(compilerProperties.getQueryPlanCacheSize()).thenReturn(1);
+        ICcApplicationContext appCtx = mock(ICcApplicationContext.class);
+        when(appCtx.getCompilerProperties()).thenReturn(compilerProperties);
+        when(appCtx.getHcc()).thenReturn(hcc);
+        cache = new CompiledQueryCache(appCtx);
+    }
+
+    @Test
+    public void testCachedQueryIsReused() throws Exception {
+        ICompiledQuery query = put("q1", cache.getVersion());
+        Assert.assertNotNull(query);
+        cache.release(query);
+        ICompiledQuery cached = cache.acquire("q1");
+        Assert.assertSame(query, cached);
+        cache.release(cached);
+        verify(hcc, never()).undeployJobSpec(any());
+    }
+
+    @Test
+    public void testQueryCompiledBeforeInvalidationIsNotCached() throws Exception {
+        long version = cache.getVersion();
+        cache.invalidate();
+        Assert.assertNull(put("q1", version));
+        Assert.assertNull(cache.acquire("q1"));
+        verify(hcc, never()).deployJobSpec(any());
+    }
+
+    @Test
+    public void testInvalidatedQueryIsUndeployedWhenReleased() throws Exception {
+        ICompiledQuery query = put("q1", cache.getVersion());
+        cache.invalidate();
+        Assert.assertNull(cache.acquire("q1"));
+        verify(hcc, never()).undeployJobSpec(any());
+        cache.release(query);
+        verify(hcc).undeployJobSpec(query.getDeployedJobSpecId());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedQueryIsEvicted() throws Exception {
+        cache.release(put("q1", cache.getVersion()));
+        ICompiledQuery query = put("q2", cache.getVersion());
+        Assert.assertNull(cache.acquire("q1"));
+        verify(hcc).undeployJobSpec(new DeployedJobSpecId(0));
+        cache.release(query);
+        verify(hcc, never()).undeployJobSpec(query.getDeployedJobSpecId());
+    }
+
+    @Test
+    public void testDeployedQueryIsNotCached() throws Exception {
+        ICompiledQuery query = cache.deploy(new JobSpecification(), Collections.emptyList());
+        Assert.assertNotNull(query.getDeployedJobSpecId());
+        cache.release(put("q1", cache.getVersion()));
+        verify(hcc, never()).undeployJobSpec(any());
+        cache.release(query);
+        verify(hcc).undeployJobSpec(query.getDeployedJobSpecId());
+        Assert.assertNotNull(cache.acquire("q1"));
+    }
+
+    private ICompiledQuery put(String key, long version) throws Exception {
+        return cache.put(key, version, new JobSpecification(), Collections.emptyList());
+    }
+}
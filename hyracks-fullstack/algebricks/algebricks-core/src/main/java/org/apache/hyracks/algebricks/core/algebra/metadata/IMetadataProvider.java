@@ -40,6 +40,7 @@ import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.job.JobSpecification;
 import org.apache.hyracks.api.result.IResultMetadata;
+import org.apache.hyracks.dataflow.std.join.JoinBuildCacheKey;
 import org.apache.hyracks.storage.am.common.api.ITupleFilterFactory;
 
 public interface IMetadataProvider<S, I> {
@@ -234,4 +235,23 @@ public interface IMetadataProvider<S, I> {
 
     public boolean isBlockingOperatorDisabled();
 
+    /**
+     * @return a version of the data of the given source that changes whenever the source is modified from any node,
+     *         or null if such changes are not tracked, in which case nothing computed from the source may be cached
+     *         across jobs
+     */
+    public default String getDataVersion(IDataSource<S> dataSource) throws AlgebricksException {
+        return null;
+    }
+
+    /**
+     * Pins the join build table cached for the given key on every node until the current statement completes, so a
+     * job of the statement may skip the build input of the join and probe the pinned tables instead.
+     *
+     * @return the id the table is pinned under, or null if it is not cached on every node or pinning is not supported
+     */
+    public default String pinJoinBuildTable(JoinBuildCacheKey key) throws AlgebricksException {
+        return null;
+    }
+
 }
@@ -42,11 +42,16 @@ import org.apache.hyracks.algebricks.core.algebra.properties.RandomPartitioningP
 import org.apache.hyracks.algebricks.core.algebra.properties.StructuralPropertiesVector;
 import org.apache.hyracks.algebricks.core.algebra.properties.UnorderedPartitionedProperty;
 import org.apache.hyracks.algebricks.core.algebra.util.OperatorPropertiesUtil;
+import org.apache.hyracks.dataflow.std.join.JoinBuildCacheKey;
 
 public abstract class AbstractHashJoinPOperator extends AbstractJoinPOperator {
 
     protected List<LogicalVariable> keysLeftBranch;
     protected List<LogicalVariable> keysRightBranch;
+    // When set, the build table is looked up in (and published to) the join build table cache of each node.
+    protected JoinBuildCacheKey buildCacheKey;
+    // When set, the table of the build cache key is pinned on every node for the job, so the build input is skipped.
+    protected String buildTablePin;
 
     public AbstractHashJoinPOperator(JoinKind kind, JoinPartitioningType partitioningType,
             List<LogicalVariable> sideLeftOfEqualities, List<LogicalVariable> sideRightOfEqualities) {
@@ -63,6 +68,28 @@ public abstract class AbstractHashJoinPOperator extends AbstractJoinPOperator {
         return keysRightBranch;
     }
 
+    public JoinBuildCacheKey getBuildCacheKey() {
+        return buildCacheKey;
+    }
+
+    public void setBuildCacheKey(JoinBuildCacheKey buildCacheKey) {
+        this.buildCacheKey = buildCacheKey;
+    }
+
+    public String getBuildTablePin() {
+        return buildTablePin;
+    }
+
+    public void setBuildTablePin(String buildTablePin) {
+        this.buildTablePin = buildTablePin;
+    }
+
+    @Override
+    public String toString() {
+        return getOperatorTag().toString() + " " + keysLeftBranch + keysRightBranch
+                + (buildTablePin != null ? " [cached build]" : "");
+    }
+
     @Override
     public void computeDeliveredProperties(ILogicalOperator iop, IOptimizationContext context)
             throws AlgebricksException {
@@ -19,9 +19,11 @@
 package org.apache.hyracks.algebricks.core.algebra.operators.physical;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.hyracks.algebricks.common.constraints.AlgebricksAbsolutePartitionConstraint;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksCountPartitionConstraint;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksPartitionConstraint;
 import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
@@ -35,6 +37,7 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogi
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator.ExecutionMode;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractOperatorWithNestedPlans;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSchema;
+import org.apache.hyracks.algebricks.core.algebra.properties.IPartitioningProperty;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPartitioningRequirementsCoordinator;
 import org.apache.hyracks.algebricks.core.algebra.properties.IPhysicalPropertiesVector;
 import org.apache.hyracks.algebricks.core.algebra.properties.LocalMemoryRequirements;
@@ -134,6 +137,38 @@ public abstract class AbstractPhysicalOperator implements IPhysicalOperator {
         builder.contributeHyracksOperator(op, opDesc);
     }
 
+    /**
+     * Returns the number of threads that a task of the given operator can use without exceeding the cores that the
+     * job reserves on a node, which is one core for each partition of the job on that node. Partitioned tasks
+     * already take all of them, so only the single task of an operator that runs in one partition (either
+     * unpartitioned or local to an unpartitioned input) can use more than one thread.
+     *
+     * @param maxParallelism configured upper bound of the number of threads
+     */
+    protected static int getTaskParallelism(ILogicalOperator op, JobGenContext context, int maxParallelism) {
+        AlgebricksAbsolutePartitionConstraint locations = context.getClusterLocations();
+        if (maxParallelism <= 1 || !isSinglePartition(op) || locations == null) {
+            return 1;
+        }
+        // the unpartitioned task can be scheduled on any node of the job
+        Map<String, Integer> nodePartitions = new HashMap<>();
+        for (String location : locations.getLocations()) {
+            nodePartitions.merge(location, 1, Integer::sum);
+        }
+        int reservedCores = nodePartitions.values().stream().mapToInt(Integer::intValue).min().orElse(1);
+        return Math.max(1, Math.min(maxParallelism, reservedCores));
+    }
+
+    private static boolean isSinglePartition(ILogicalOperator op) {
+        if (op.getExecutionMode() == ExecutionMode.UNPARTITIONED) {
+            return true;
+        }
+        IPhysicalPropertiesVector properties = op.getDeliveredPhysicalProperties();
+        IPartitioningProperty partitioning = properties != null ? properties.getPartitioningProperty() : null;
+        return op.getExecutionMode() == ExecutionMode.LOCAL && partitioning != null
+                && partitioning.getPartitioningType() == IPartitioningProperty.PartitioningType.UNPARTITIONED;
+    }
+
     protected AlgebricksPipeline[] compileSubplans(IOperatorSchema outerPlanSchema,
             AbstractOperatorWithNestedPlans npOp, IOperatorSchema opSchema, JobGenContext context)
             throws AlgebricksException {
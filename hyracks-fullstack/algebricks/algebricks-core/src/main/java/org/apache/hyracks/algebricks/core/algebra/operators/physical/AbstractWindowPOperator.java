@@ -237,7 +237,7 @@ public abstract class AbstractWindowPOperator extends AbstractPhysicalOperator {
             IScalarEvaluatorFactory frameExcludeUnaryExprEval, IScalarEvaluatorFactory frameOffsetExprEval,
             int[] projectionColumnsExcludingSubplans, int[] runningAggOutColumns,
             IRunningAggregateEvaluatorFactory[] runningAggFactories, int nestedAggOutSchemaSize,
-            WindowAggregatorDescriptorFactory nestedAggFactory, JobGenContext context);
+            WindowAggregatorDescriptorFactory nestedAggFactory, JobGenContext context) throws AlgebricksException;
 
     @Override
     public boolean isMicroOperator() {
@@ -32,12 +32,14 @@ import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalPlan;
 import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalExpressionTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
 import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.expressions.AggregateFunctionCallExpression;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IExpressionRuntimeProvider;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IPartialAggregationTypeComputer;
 import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
+import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator.ExecutionMode;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.AggregateOperator;
@@ -54,6 +56,7 @@ import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
 import org.apache.hyracks.algebricks.core.jobgen.impl.OperatorSchemaImpl;
 import org.apache.hyracks.algebricks.runtime.base.ISerializedAggregateEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.operators.aggreg.IntegerFieldWeightReaderFactory;
 import org.apache.hyracks.algebricks.runtime.operators.aggreg.SerializableAggregatorDescriptorFactory;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
@@ -62,14 +65,48 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 import org.apache.hyracks.dataflow.std.group.AbstractAggregatorDescriptorFactory;
 import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveStateAggregatorFactory;
 import org.apache.hyracks.dataflow.std.group.external.ExternalGroupOperatorDescriptor;
 
 public class ExternalGroupByPOperator extends AbstractGroupByPOperator {
 
+    // only the groups with the heavyHittersTopK largest sums of heavyHittersWeightVar are needed, 0 if all are needed
+    private int heavyHittersTopK;
+    private LogicalVariable heavyHittersWeightVar;
+    // the fixed-width aggregates that compute the aggregate functions in primitive states, null if there are none
+    private PrimitiveFieldAggregate[] primitiveAggregates;
+
     public ExternalGroupByPOperator(List<LogicalVariable> columnList) {
         super(columnList);
     }
 
+    /**
+     * Lets a global group-by skip aggregating the groups that cannot be among the {@code topK} groups with the largest
+     * sums of {@code weightVar}, the partial counts of its local group-by.
+     */
+    public void setHeavyHitters(int topK, LogicalVariable weightVar) {
+        this.heavyHittersTopK = topK;
+        this.heavyHittersWeightVar = weightVar;
+    }
+
+    public int getHeavyHittersTopK() {
+        return heavyHittersTopK;
+    }
+
+    /**
+     * Lets the group-by keep its aggregate states in primitive arrays. The i-th aggregate computes the i-th aggregate
+     * function of the group-by over the argument of that function. Its field is set at job generation to the column of
+     * the argument variable, or to -1 if the argument is a constant, which only COUNT may have.
+     */
+    public void setPrimitiveAggregates(PrimitiveFieldAggregate[] aggregates) {
+        this.primitiveAggregates = aggregates;
+    }
+
+    public PrimitiveFieldAggregate[] getPrimitiveAggregates() {
+        return primitiveAggregates;
+    }
+
     @Override
     public PhysicalOperatorTag getOperatorTag() {
         return PhysicalOperatorTag.EXTERNAL_GROUP_BY;
@@ -206,9 +243,22 @@ public class ExternalGroupByPOperator extends AbstractGroupByPOperator {
             merges[i] = expressionRuntimeProvider.createSerializableAggregateFunctionFactory(mergeFun, aggOpInputEnv,
                     localInputSchemas, context);
         }
-        AbstractAggregatorDescriptorFactory aggregatorFactory = new SerializableAggregatorDescriptorFactory(aff);
+        AbstractAggregatorDescriptorFactory aggregatorFactory;
+        AbstractAggregatorDescriptorFactory mergeFactory;
+        PrimitiveFieldAggregate[] fieldAggregates = getPrimitiveFieldAggregates(aggOp, aggOpInputSchema);
+        if (fieldAggregates != null) {
+            // the partial results follow the keys and the decor fields
+            PrimitiveFieldAggregate[] mergeAggregates = new PrimitiveFieldAggregate[n];
+            for (i = 0; i < n; i++) {
+                mergeAggregates[i] = fieldAggregates[i].withField(keyAndDecVariables.size() + i);
+            }
+            aggregatorFactory = new PrimitiveStateAggregatorFactory(fieldAggregates, false);
+            mergeFactory = new PrimitiveStateAggregatorFactory(mergeAggregates, true);
+        } else {
+            aggregatorFactory = new SerializableAggregatorDescriptorFactory(aff);
+            mergeFactory = new SerializableAggregatorDescriptorFactory(merges);
+        }
         aggregatorFactory.setSourceLocation(gby.getSourceLocation());
-        AbstractAggregatorDescriptorFactory mergeFactory = new SerializableAggregatorDescriptorFactory(merges);
         mergeFactory.setSourceLocation(gby.getSourceLocation());
 
         INormalizedKeyComputerFactory normalizedKeyFactory =
@@ -223,19 +273,77 @@ public class ExternalGroupByPOperator extends AbstractGroupByPOperator {
 
         int framesLimit = localMemoryRequirements.getMemoryBudgetInFrames();
         long inputSize = framesLimit * (long) frameSize;
-        ExternalGroupOperatorDescriptor gbyOpDesc = new ExternalGroupOperatorDescriptor(spec, hashTableSize, inputSize,
-                gbyColumns, fdColumns, framesLimit, comparatorFactories, normalizedKeyFactory, aggregatorFactory,
-                mergeFactory, recordDescriptor, recordDescriptor, new HashSpillableTableFactory(hashFunctionFactories));
+        // partitions are destaged dynamically since the input size estimate is only based on the memory budget
+        ExternalGroupOperatorDescriptor gbyOpDesc =
+                new ExternalGroupOperatorDescriptor(spec, hashTableSize, inputSize, gbyColumns, fdColumns, framesLimit,
+                        comparatorFactories, normalizedKeyFactory, aggregatorFactory, mergeFactory, recordDescriptor,
+                        recordDescriptor, new HashSpillableTableFactory(hashFunctionFactories, true));
         gbyOpDesc.setSourceLocation(gby.getSourceLocation());
+        // a local group-by only pre-aggregates for the global one, so it may stop doing so when it hardly reduces
+        if (!gby.isGlobal() && context.getPhysicalOptimizationConfig().isGroupByCombinerBypassEnabled()) {
+            gbyOpDesc.setPreAggregationBypass(ExternalGroupOperatorDescriptor.DEFAULT_BYPASS_SAMPLE_FRAMES,
+                    ExternalGroupOperatorDescriptor.DEFAULT_BYPASS_MAX_GROUP_RATIO);
+        }
+        // a global group-by whose output is only needed for its heaviest groups may skip aggregating the others
+        if (heavyHittersTopK > 0) {
+            int weightColumn = inputSchemas[0].findVariable(heavyHittersWeightVar);
+            if (weightColumn >= 0) {
+                gbyOpDesc.setHeavyHitters(heavyHittersTopK,
+                        ExternalGroupOperatorDescriptor.getHeavyHittersNumCounters(heavyHittersTopK),
+                        hashFunctionFactories,
+                        new IntegerFieldWeightReaderFactory(weightColumn, context.getBinaryIntegerInspectorFactory()));
+            }
+        }
         contributeOpDesc(builder, gby, gbyOpDesc);
         ILogicalOperator src = op.getInputs().get(0).getValue();
         builder.contributeGraphEdge(src, 0, op, 0);
     }
 
+    /**
+     * @return the primitive aggregates over the columns of their arguments, or null if the group-by has none or the
+     *         argument of one of them is neither a variable of the input nor a constant
+     */
+    private PrimitiveFieldAggregate[] getPrimitiveFieldAggregates(AggregateOperator aggOp,
+            IOperatorSchema inputSchema) {
+        List<Mutable<ILogicalExpression>> aggExprs = aggOp.getExpressions();
+        if (primitiveAggregates == null || primitiveAggregates.length != aggExprs.size()) {
+            return null;
+        }
+        PrimitiveFieldAggregate[] fieldAggregates = new PrimitiveFieldAggregate[aggExprs.size()];
+        for (int i = 0; i < fieldAggregates.length; i++) {
+            AggregateFunctionCallExpression aggFun = (AggregateFunctionCallExpression) aggExprs.get(i).getValue();
+            if (aggFun.getArguments().size() != 1) {
+                return null;
+            }
+            ILogicalExpression arg = aggFun.getArguments().get(0).getValue();
+            int field = -1;
+            if (arg.getExpressionTag() == LogicalExpressionTag.VARIABLE) {
+                field = inputSchema.findVariable(((VariableReferenceExpression) arg).getVariableReference());
+                if (field < 0) {
+                    return null;
+                }
+            } else if (arg.getExpressionTag() != LogicalExpressionTag.CONSTANT
+                    || primitiveAggregates[i].getFunction() != PrimitiveFieldAggregate.Function.COUNT) {
+                return null;
+            }
+            fieldAggregates[i] = primitiveAggregates[i].withField(field);
+        }
+        return fieldAggregates;
+    }
+
     @Override
     public Pair<int[], int[]> getInputOutputDependencyLabels(ILogicalOperator op) {
         int[] inputDependencyLabels = new int[] { 0 };
         int[] outputDependencyLabels = new int[] { 1 };
         return new Pair<int[], int[]>(inputDependencyLabels, outputDependencyLabels);
     }
+
+    @Override
+    public String toString() {
+        String str = super.toString();
+        if (heavyHittersTopK > 0) {
+            str += " [heavyHitters: " + heavyHittersTopK + "]";
+        }
+        return primitiveAggregates != null ? str + " [primitive states]" : str;
+    }
 }
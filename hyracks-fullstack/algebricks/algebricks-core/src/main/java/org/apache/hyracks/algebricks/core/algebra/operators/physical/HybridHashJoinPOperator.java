@@ -44,7 +44,6 @@ import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.evaluators.TuplePairEvaluatorFactory;
-import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.IPredicateEvaluatorFactory;
@@ -100,11 +99,6 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
         return fudgeFactor;
     }
 
-    @Override
-    public String toString() {
-        return getOperatorTag().toString() + " " + keysLeftBranch + keysRightBranch;
-    }
-
     @Override
     public void contributeRuntimeOperator(IHyracksJobBuilder builder, JobGenContext context, ILogicalOperator op,
             IOperatorSchema propagatedSchema, IOperatorSchema[] inputSchemas, IOperatorSchema outerPlanSchema)
@@ -137,11 +131,13 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
         ITuplePairComparatorFactory reverseComparatorFactory =
                 new TuplePairEvaluatorFactory(cond, true, context.getBinaryBooleanInspectorFactory());
         IOperatorDescriptorRegistry spec = builder.getJobSpec();
-        IOperatorDescriptor opDesc;
+        OptimizedHybridHashJoinOperatorDescriptor opDesc;
 
         opDesc = generateOptimizedHashJoinRuntime(context, joinOp, inputSchemas, keysLeft, keysRight,
                 leftHashFunFamilies, rightHashFunFamilies, comparatorFactory, reverseComparatorFactory,
                 leftPredEvalFactory, rightPredEvalFactory, recDescriptor, spec);
+        opDesc.setBuildCacheKey(buildCacheKey);
+        opDesc.setBuildTablePin(buildTablePin);
         opDesc.setSourceLocation(op.getSourceLocation());
         contributeOpDesc(builder, (AbstractLogicalOperator) op, opDesc);
 
@@ -151,7 +147,7 @@ public class HybridHashJoinPOperator extends AbstractHashJoinPOperator {
         builder.contributeGraphEdge(src2, 0, op, 1);
     }
 
-    private IOperatorDescriptor generateOptimizedHashJoinRuntime(JobGenContext context,
+    private OptimizedHybridHashJoinOperatorDescriptor generateOptimizedHashJoinRuntime(JobGenContext context,
             AbstractBinaryJoinOperator joinOp, IOperatorSchema[] inputSchemas, int[] keysLeft, int[] keysRight,
             IBinaryHashFunctionFamily[] leftHashFunFamilies, IBinaryHashFunctionFamily[] rightHashFunFamilies,
             ITuplePairComparatorFactory comparatorFactory, ITuplePairComparatorFactory reverseComparatorFactory,
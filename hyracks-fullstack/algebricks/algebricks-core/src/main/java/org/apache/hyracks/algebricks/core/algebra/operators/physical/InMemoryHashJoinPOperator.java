@@ -41,7 +41,6 @@ import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenHelper;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.evaluators.TuplePairEvaluatorFactory;
-import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFactory;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.ITuplePairComparatorFactory;
@@ -68,9 +67,8 @@ public class InMemoryHashJoinPOperator extends AbstractHashJoinPOperator {
         return PhysicalOperatorTag.IN_MEMORY_HASH_JOIN;
     }
 
-    @Override
-    public String toString() {
-        return getOperatorTag().toString() + " " + keysLeftBranch + keysRightBranch;
+    public int getTableSize() {
+        return tableSize;
     }
 
     @Override
@@ -102,7 +100,7 @@ public class InMemoryHashJoinPOperator extends AbstractHashJoinPOperator {
         ITuplePairComparatorFactory comparatorFactory =
                 new TuplePairEvaluatorFactory(cond, false, context.getBinaryBooleanInspectorFactory());
         IOperatorDescriptorRegistry spec = builder.getJobSpec();
-        IOperatorDescriptor opDesc;
+        InMemoryHashJoinOperatorDescriptor opDesc;
 
         int memSizeInFrames = localMemoryRequirements.getMemoryBudgetInFrames();
 
@@ -122,6 +120,8 @@ public class InMemoryHashJoinPOperator extends AbstractHashJoinPOperator {
                 throw new NotImplementedException();
         }
 
+        opDesc.setBuildCacheKey(buildCacheKey);
+        opDesc.setBuildTablePin(buildTablePin);
         opDesc.setSourceLocation(op.getSourceLocation());
         contributeOpDesc(builder, (AbstractLogicalOperator) op, opDesc);
 
@@ -62,6 +62,7 @@ import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 import org.apache.hyracks.dataflow.std.group.AbstractAggregatorDescriptorFactory;
 import org.apache.hyracks.dataflow.std.group.sort.SortGroupByOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.sort.Algorithm;
 
 public class SortGroupByPOperator extends AbstractGroupByPOperator {
 
@@ -241,6 +242,9 @@ public class SortGroupByPOperator extends AbstractGroupByPOperator {
         SortGroupByOperatorDescriptor gbyOpDesc = new SortGroupByOperatorDescriptor(spec, framesLimit, keys,
                 keyAndDecFields, normalizedKeyFactory, compFactories, aggregatorFactory, mergeFactory,
                 partialAggRecordDescriptor, recordDescriptor, false);
+        if (context.getPhysicalOptimizationConfig().isSortRadixEnabled()) {
+            gbyOpDesc.setAlgorithm(Algorithm.RADIX_SORT);
+        }
         gbyOpDesc.setSourceLocation(gby.getSourceLocation());
 
         contributeOpDesc(builder, gby, gbyOpDesc);
@@ -38,6 +38,7 @@ import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.job.IOperatorDescriptorRegistry;
 import org.apache.hyracks.dataflow.std.sort.AbstractSorterOperatorDescriptor;
+import org.apache.hyracks.dataflow.std.sort.Algorithm;
 import org.apache.hyracks.dataflow.std.sort.ExternalSortOperatorDescriptor;
 import org.apache.hyracks.dataflow.std.sort.TopKSorterOperatorDescriptor;
 
@@ -101,13 +102,22 @@ public class StableSortPOperator extends AbstractStableSortPOperator {
         AbstractSorterOperatorDescriptor sortOpDesc;
         // topK == -1 means that a topK value is not provided.
         if (topK == -1) {
-            sortOpDesc =
-                    new ExternalSortOperatorDescriptor(spec, maxNumberOfFrames, sortFields, nkcf, comps, recDescriptor);
+            Algorithm alg = context.getPhysicalOptimizationConfig().isSortRadixEnabled() ? Algorithm.RADIX_SORT
+                    : Algorithm.MERGE_SORT;
+            ExternalSortOperatorDescriptor externalSortOpDesc = new ExternalSortOperatorDescriptor(spec,
+                    maxNumberOfFrames, sortFields, nkcf != null ? new INormalizedKeyComputerFactory[] { nkcf } : null,
+                    comps, recDescriptor, alg);
+            externalSortOpDesc.setSortParallelism(
+                    getTaskParallelism(op, context, context.getPhysicalOptimizationConfig().getSortParallelism()));
+            sortOpDesc = externalSortOpDesc;
         } else {
             // Since topK value is provided, topK optimization is possible.
             // We call topKSorter instead of calling ExternalSortOperator.
-            sortOpDesc = new TopKSorterOperatorDescriptor(spec, maxNumberOfFrames, topK, sortFields, nkcf, comps,
-                    recDescriptor);
+            TopKSorterOperatorDescriptor topKSortOpDesc = new TopKSorterOperatorDescriptor(spec, maxNumberOfFrames,
+                    topK, sortFields, nkcf, comps, recDescriptor);
+            topKSortOpDesc
+                    .setShareThreshold(context.getPhysicalOptimizationConfig().isSortTopKSharedThresholdEnabled());
+            sortOpDesc = topKSortOpDesc;
         }
         sortOpDesc.setSourceLocation(op.getSourceLocation());
         contributeOpDesc(builder, (AbstractLogicalOperator) op, sortOpDesc);
@@ -19,15 +19,34 @@
 
 package org.apache.hyracks.algebricks.core.algebra.operators.physical;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.commons.lang3.mutable.MutableObject;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.common.utils.Pair;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
 import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalPlan;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
 import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
 import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AggregateFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IExpressionRuntimeProvider;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IPartialAggregationTypeComputer;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
+import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AggregateOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.IOperatorSchema;
 import org.apache.hyracks.algebricks.core.algebra.operators.logical.WindowOperator;
 import org.apache.hyracks.algebricks.core.algebra.properties.LocalMemoryRequirements;
 import org.apache.hyracks.algebricks.core.algebra.properties.OrderColumn;
+import org.apache.hyracks.algebricks.core.algebra.typing.NonPropagatingTypeEnvironment;
 import org.apache.hyracks.algebricks.core.jobgen.impl.JobGenContext;
+import org.apache.hyracks.algebricks.core.jobgen.impl.OperatorSchemaImpl;
+import org.apache.hyracks.algebricks.runtime.base.IAggregateEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.base.IRunningAggregateEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.AbstractWindowRuntimeFactory;
@@ -35,8 +54,10 @@ import org.apache.hyracks.algebricks.runtime.operators.win.WindowAggregatorDescr
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowMaterializingRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowNestedPlansRunningRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowNestedPlansRuntimeFactory;
+import org.apache.hyracks.algebricks.runtime.operators.win.WindowNestedPlansSlidingRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.win.WindowNestedPlansUnboundedRuntimeFactory;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.exceptions.SourceLocation;
 
 public final class WindowPOperator extends AbstractWindowPOperator {
 
@@ -79,7 +100,7 @@ public final class WindowPOperator extends AbstractWindowPOperator {
             IScalarEvaluatorFactory frameExcludeUnaryExprEval, IScalarEvaluatorFactory frameOffsetExprEval,
             int[] projectionColumnsExcludingSubplans, int[] runningAggOutColumns,
             IRunningAggregateEvaluatorFactory[] runningAggFactories, int nestedAggOutSchemaSize,
-            WindowAggregatorDescriptorFactory nestedAggFactory, JobGenContext context) {
+            WindowAggregatorDescriptorFactory nestedAggFactory, JobGenContext context) throws AlgebricksException {
 
         int memSizeInFrames = localMemoryRequirements.getMemoryBudgetInFrames();
 
@@ -115,6 +136,27 @@ public final class WindowPOperator extends AbstractWindowPOperator {
             }
         }
 
+        if (hasFrameStart && hasFrameEnd && !hasFrameExclude && !hasFrameExcludeUnary && !hasFrameOffset
+                && frameStartIsMonotonic && frameEndIsMonotonic && nestedTrivialAggregates
+                && winOp.getFrameMaxObjects() == WindowOperator.FRAME_MAX_OBJECTS_UNLIMITED
+                && context.getPhysicalOptimizationConfig().isWindowSegmentTreeEnabled()) {
+            // special case #3: sliding frame, no exclusions, no offset,
+            //                  trivial aggregate subplans ( aggregate + nts ) with decomposable aggregates
+            Pair<IAggregateEvaluatorFactory[], IAggregateEvaluatorFactory[]> slidingAggFactories =
+                    createSlidingAggregateFactories(winOp, context);
+            if (slidingAggFactories != null) {
+                return new WindowNestedPlansSlidingRuntimeFactory(partitionColumnsList, partitionComparatorFactories,
+                        orderComparatorFactories, frameValueExprEvals, frameValueComparatorFactories,
+                        frameStartExprEvals, frameStartValidationExprEvals, frameEndExprEvals,
+                        frameEndValidationExprEvals, context.getBinaryBooleanInspectorFactory(),
+                        slidingAggFactories.first, slidingAggFactories.second,
+                        getTaskParallelism(winOp, context,
+                                context.getPhysicalOptimizationConfig().getWindowParallelism()),
+                        projectionColumnsExcludingSubplans, runningAggOutColumns, runningAggFactories,
+                        nestedAggOutSchemaSize, nestedAggFactory, memSizeInFrames);
+            }
+        }
+
         // default case
         return new WindowNestedPlansRuntimeFactory(partitionColumnsList, partitionComparatorFactories,
                 orderComparatorFactories, frameValueExprEvals, frameValueComparatorFactories, frameStartExprEvals,
@@ -125,4 +167,75 @@ public final class WindowPOperator extends AbstractWindowPOperator {
                 projectionColumnsExcludingSubplans, runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize,
                 nestedAggFactory, memSizeInFrames);
     }
+
+    /**
+     * Creates evaluators for step one (partial) and step two (merge) aggregate functions of nested aggregates.
+     * Merge aggregates consume partial states from tuples whose fields are in the order of the nested aggregates.
+     *
+     * @return {@code null} if one of the nested aggregates cannot be computed in two steps
+     */
+    private static Pair<IAggregateEvaluatorFactory[], IAggregateEvaluatorFactory[]> createSlidingAggregateFactories(
+            WindowOperator winOp, JobGenContext context) throws AlgebricksException {
+        List<AggregateOperator> aggOps = new ArrayList<>();
+        int aggCount = 0;
+        for (ILogicalPlan nestedPlan : winOp.getNestedPlans()) {
+            for (Mutable<ILogicalOperator> rootRef : nestedPlan.getRoots()) {
+                ILogicalOperator rootOp = rootRef.getValue();
+                if (rootOp.getOperatorTag() != LogicalOperatorTag.AGGREGATE || rootOp.getInputs().get(0).getValue()
+                        .getOperatorTag() != LogicalOperatorTag.NESTEDTUPLESOURCE) {
+                    return null;
+                }
+                AggregateOperator aggOp = (AggregateOperator) rootOp;
+                for (Mutable<ILogicalExpression> exprRef : aggOp.getExpressions()) {
+                    if (!((AggregateFunctionCallExpression) exprRef.getValue()).isTwoStep()) {
+                        return null;
+                    }
+                }
+                aggOps.add(aggOp);
+                aggCount += aggOp.getExpressions().size();
+            }
+        }
+
+        ILogicalOperator inputOp = winOp.getInputs().get(0).getValue();
+        IOperatorSchema[] inputSchemas = new IOperatorSchema[] { context.getSchema(inputOp) };
+        IOperatorSchema[] partialSchemas = new IOperatorSchema[] { new OperatorSchemaImpl() };
+        IExpressionRuntimeProvider exprRuntimeProvider = context.getExpressionRuntimeProvider();
+        IPartialAggregationTypeComputer partialAggTypeComputer = context.getPartialAggregationTypeComputer();
+        IAggregateEvaluatorFactory[] partialAggFactories = new IAggregateEvaluatorFactory[aggCount];
+        IAggregateEvaluatorFactory[] mergeAggFactories = new IAggregateEvaluatorFactory[aggCount];
+        // the partial states are typed in a private environment since that of the nested plan is shared
+        IVariableTypeEnvironment partialEnv =
+                new NonPropagatingTypeEnvironment(context.getExpressionTypeComputer(), context.getMetadataProvider());
+        int aggIdx = 0;
+        for (AggregateOperator aggOp : aggOps) {
+            IVariableTypeEnvironment aggOpInputEnv = context.getTypeEnvironment(aggOp.getInputs().get(0).getValue());
+            List<LogicalVariable> aggVars = aggOp.getVariables();
+            List<Mutable<ILogicalExpression>> aggExprs = aggOp.getExpressions();
+            for (int i = 0, n = aggExprs.size(); i < n; i++, aggIdx++) {
+                AggregateFunctionCallExpression aggExpr = (AggregateFunctionCallExpression) aggExprs.get(i).getValue();
+                SourceLocation sourceLoc = aggExpr.getSourceLocation();
+                AggregateFunctionCallExpression partialExpr = new AggregateFunctionCallExpression(
+                        aggExpr.getStepOneAggregate(), false, aggExpr.getArguments());
+                partialExpr.setSourceLocation(sourceLoc);
+                partialAggFactories[aggIdx] = exprRuntimeProvider.createAggregateFunctionFactory(partialExpr,
+                        aggOpInputEnv, inputSchemas, context);
+
+                // the output variable of the nested aggregate refers to its partial state in merge aggregates
+                LogicalVariable partialVar = aggVars.get(i);
+                partialEnv.setVarType(partialVar,
+                        partialAggTypeComputer.getType(partialExpr, aggOpInputEnv, context.getMetadataProvider()));
+                partialSchemas[0].addVariable(partialVar);
+                VariableReferenceExpression partialVarRef = new VariableReferenceExpression(partialVar);
+                partialVarRef.setSourceLocation(sourceLoc);
+                List<Mutable<ILogicalExpression>> mergeArgs =
+                        new ArrayList<>(Collections.singletonList(new MutableObject<>(partialVarRef)));
+                AggregateFunctionCallExpression mergeExpr =
+                        new AggregateFunctionCallExpression(aggExpr.getStepTwoAggregate(), false, mergeArgs);
+                mergeExpr.setSourceLocation(sourceLoc);
+                mergeAggFactories[aggIdx] = exprRuntimeProvider.createAggregateFunctionFactory(mergeExpr, partialEnv,
+                        partialSchemas, context);
+            }
+        }
+        return new Pair<>(partialAggFactories, mergeAggFactories);
+    }
 }
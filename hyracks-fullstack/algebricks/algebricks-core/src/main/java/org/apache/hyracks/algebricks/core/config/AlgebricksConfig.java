@@ -38,4 +38,18 @@ public class AlgebricksConfig {
     public static final int EXTERNAL_SCAN_BUFFER_SIZE =
             StorageUtil.getIntSizeInBytes(8, StorageUtil.StorageUnit.KILOBYTE);
     public static final boolean BATCH_LOOKUP_DEFAULT = false;
+    public static final boolean SPATIAL_JOIN_PARTITIONED_DEFAULT = false;
+    public static final boolean INTERVAL_JOIN_PARTITIONED_DEFAULT = false;
+    public static final boolean JOIN_BUILD_CACHE_DEFAULT = false;
+    public static final boolean GROUPBY_COMBINER_BYPASS_DEFAULT = true;
+    public static final boolean GROUPBY_HEAVY_HITTERS_DEFAULT = true;
+    public static final boolean GROUPBY_PRIMITIVE_STATES_DEFAULT = true;
+    public static final boolean WINDOW_SEGMENT_TREE_DEFAULT = true;
+    public static final int WINDOW_PARALLELISM_DEFAULT = 4;
+    public static final boolean SORT_RADIX_DEFAULT = true;
+    public static final int SORT_PARALLELISM_DEFAULT = 4;
+    public static final boolean SORT_TOPK_SHARED_THRESHOLD_DEFAULT = true;
+    public static final boolean PIPELINE_FUSION_DEFAULT = true;
+    public static final boolean EXPRESSION_SPECIALIZATION_DEFAULT = true;
+    public static final boolean POINT_LOOKUP_ROUTING_DEFAULT = true;
 }
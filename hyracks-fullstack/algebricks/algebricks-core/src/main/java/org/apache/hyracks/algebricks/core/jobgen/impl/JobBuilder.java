@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.hyracks.algebricks.common.constraints.AlgebricksAbsolutePartitionConstraint;
@@ -40,7 +41,9 @@ import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogi
 import org.apache.hyracks.algebricks.core.algebra.util.OperatorManipulationUtil;
 import org.apache.hyracks.algebricks.runtime.base.AlgebricksPipeline;
 import org.apache.hyracks.algebricks.runtime.base.IPushRuntimeFactory;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.meta.AlgebricksMetaOperatorDescriptor;
+import org.apache.hyracks.algebricks.runtime.operators.meta.FusedPipelineRuntimeFactory;
 import org.apache.hyracks.api.dataflow.ConnectorDescriptorId;
 import org.apache.hyracks.api.dataflow.IConnectorDescriptor;
 import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
@@ -70,6 +73,7 @@ public class JobBuilder implements IHyracksJobBuilder {
     private final Map<IOperatorDescriptor, AlgebricksPartitionConstraint> partitionConstraintMap = new HashMap<>();
 
     private int aodCounter = 0;
+    private boolean pipelineFusion = false;
 
     public JobBuilder(JobSpecification jobSpec, AlgebricksAbsolutePartitionConstraint clusterLocations) {
         this.jobSpec = jobSpec;
@@ -93,6 +97,14 @@ public class JobBuilder implements IHyracksJobBuilder {
                 new String[] { clusterLocations.getLocations()[Math.abs(jobSpec.hashCode() % nPartitions)] });
     }
 
+    /**
+     * @param pipelineFusion
+     *            whether chains of fusible micro-operators in a meta-operator are replaced by a single fused one
+     */
+    public void setPipelineFusion(boolean pipelineFusion) {
+        this.pipelineFusion = pipelineFusion;
+    }
+
     @Override
     public void contributeMicroOperator(ILogicalOperator op, IPushRuntimeFactory runtime, RecordDescriptor recDesc) {
         contributeMicroOperator(op, runtime, recDesc, null);
@@ -331,15 +343,18 @@ public class JobBuilder implements IHyracksJobBuilder {
 
     private AlgebricksMetaOperatorDescriptor buildMetaAsterixOpDesc(
             List<Pair<IPushRuntimeFactory, RecordDescriptor>> opContents) {
-        int n = opContents.size();
+        ILogicalOperator firstLogicalOp = revMicroOpMap.get(opContents.get(0).first);
+        ILogicalOperator lastLogicalOp = revMicroOpMap.get(opContents.get(opContents.size() - 1).first);
+        List<Pair<IPushRuntimeFactory, RecordDescriptor>> pipelineContents =
+                pipelineFusion ? fuseMicroOps(opContents) : opContents;
+        int n = pipelineContents.size();
         IPushRuntimeFactory[] runtimeFactories = new IPushRuntimeFactory[n];
         RecordDescriptor[] internalRecordDescriptors = new RecordDescriptor[n];
-        for (int i = 0, ln = opContents.size(); i < ln; i++) {
-            Pair<IPushRuntimeFactory, RecordDescriptor> p = opContents.get(i);
+        for (int i = 0; i < n; i++) {
+            Pair<IPushRuntimeFactory, RecordDescriptor> p = pipelineContents.get(i);
             runtimeFactories[i] = p.first;
             internalRecordDescriptors[i] = p.second;
         }
-        ILogicalOperator lastLogicalOp = revMicroOpMap.get(runtimeFactories[n - 1]);
         ArrayList<ILogicalOperator> outOps = outEdges.get(lastLogicalOp);
         int outArity = outOps == null ? 0 : outOps.size();
         int[] outPositions = new int[outArity];
@@ -353,13 +368,70 @@ public class JobBuilder implements IHyracksJobBuilder {
             }
         }
 
-        ILogicalOperator firstLogicalOp = revMicroOpMap.get(runtimeFactories[0]);
         ArrayList<ILogicalOperator> inOps = inEdges.get(firstLogicalOp);
         int inArity = (inOps == null) ? 0 : inOps.size();
         return new AlgebricksMetaOperatorDescriptor(jobSpec, inArity, outArity, runtimeFactories,
                 internalRecordDescriptors, outRuntimeFactories, outPositions);
     }
 
+    /**
+     * Replaces every chain of two or more consecutive fusible micro-operators by a single fused micro-operator that
+     * produces the output of the last micro-operator of the chain. A micro-operator that must be evaluated on the
+     * tuples of its input frame starts a new chain, see {@link FusedPipelineRuntimeFactory#startsChain}.
+     */
+    private List<Pair<IPushRuntimeFactory, RecordDescriptor>> fuseMicroOps(
+            List<Pair<IPushRuntimeFactory, RecordDescriptor>> opContents) {
+        List<Pair<IPushRuntimeFactory, RecordDescriptor>> fused = new ArrayList<>(opContents.size());
+        List<Pair<IPushRuntimeFactory, RecordDescriptor>> chain = new ArrayList<>();
+        for (Pair<IPushRuntimeFactory, RecordDescriptor> p : opContents) {
+            if (isFusible(p.first)) {
+                if (FusedPipelineRuntimeFactory.startsChain(p.first)) {
+                    addChain(fused, chain);
+                }
+                chain.add(p);
+            } else {
+                addChain(fused, chain);
+                fused.add(p);
+            }
+        }
+        addChain(fused, chain);
+        return fused;
+    }
+
+    private static void addChain(List<Pair<IPushRuntimeFactory, RecordDescriptor>> fused,
+            List<Pair<IPushRuntimeFactory, RecordDescriptor>> chain) {
+        if (chain.size() == 1) {
+            fused.add(chain.get(0));
+        } else if (chain.size() > 1) {
+            AbstractOneInputOneOutputRuntimeFactory[] stages =
+                    new AbstractOneInputOneOutputRuntimeFactory[chain.size()];
+            for (int i = 0; i < stages.length; i++) {
+                stages[i] = (AbstractOneInputOneOutputRuntimeFactory) chain.get(i).first;
+            }
+            fused.add(new Pair<>(new FusedPipelineRuntimeFactory(stages), chain.get(chain.size() - 1).second));
+        }
+        chain.clear();
+    }
+
+    private boolean isFusible(IPushRuntimeFactory runtimeFactory) {
+        if (!FusedPipelineRuntimeFactory.isFusible(runtimeFactory)) {
+            return false;
+        }
+        // micro-operators fed directly by a micro-operator of another meta-operator are looked up when the pipelines
+        // of the meta-operators are linked, so they must stay in their pipeline as they are
+        ILogicalOperator op = revMicroOpMap.get(runtimeFactory);
+        ArrayList<ILogicalOperator> inOps = inEdges.get(op);
+        if (inOps != null) {
+            Integer k = algebraicOpBelongingToMetaAsterixOp.get(op);
+            for (ILogicalOperator inOp : inOps) {
+                if (microOps.containsKey(inOp) && !Objects.equals(algebraicOpBelongingToMetaAsterixOp.get(inOp), k)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
     private void addMicroOpToMetaRuntimeOp(ILogicalOperator aop) {
         Integer k = algebraicOpBelongingToMetaAsterixOp.get(aop);
         if (k == null) {
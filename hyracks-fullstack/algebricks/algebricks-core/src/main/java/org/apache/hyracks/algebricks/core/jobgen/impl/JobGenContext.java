@@ -209,6 +209,10 @@ public class JobGenContext {
         return var;
     }
 
+    public IExpressionTypeComputer getExpressionTypeComputer() {
+        return expressionTypeComputer;
+    }
+
     public Object getType(ILogicalExpression expr, IVariableTypeEnvironment env) throws AlgebricksException {
         return expressionTypeComputer.getType(expr, typingContext.getMetadataProvider(), env);
     }
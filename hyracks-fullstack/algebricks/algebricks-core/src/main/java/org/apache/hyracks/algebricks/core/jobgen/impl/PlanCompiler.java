@@ -66,6 +66,7 @@ public class PlanCompiler {
         }
         List<ILogicalOperator> rootOps = new ArrayList<>();
         JobBuilder builder = new JobBuilder(spec, context.getClusterLocations());
+        builder.setPipelineFusion(context.getPhysicalOptimizationConfig().isPipelineFusionEnabled());
         for (Mutable<ILogicalOperator> opRef : plan.getRoots()) {
             compileOpRef(opRef, spec, builder, outerPlanSchema);
             rootOps.add(opRef.getValue());
@@ -48,6 +48,20 @@ public class PhysicalOptimizationConfig {
     private static final String ARRAY_INDEX = "ARRAY_INDEX";
     private static final String EXTERNAL_SCAN_BUFFER_SIZE = "EXTERNAL_SCAN_BUFFER_SIZE";
     private static final String BATCH_LOOKUP = "BATCH_LOOKUP";
+    private static final String SPATIAL_JOIN_PARTITIONED = "SPATIAL_JOIN_PARTITIONED";
+    private static final String INTERVAL_JOIN_PARTITIONED = "INTERVAL_JOIN_PARTITIONED";
+    private static final String JOIN_BUILD_CACHE = "JOIN_BUILD_CACHE";
+    private static final String GROUPBY_COMBINER_BYPASS = "GROUPBY_COMBINER_BYPASS";
+    private static final String GROUPBY_HEAVY_HITTERS = "GROUPBY_HEAVY_HITTERS";
+    private static final String GROUPBY_PRIMITIVE_STATES = "GROUPBY_PRIMITIVE_STATES";
+    private static final String WINDOW_SEGMENT_TREE = "WINDOW_SEGMENT_TREE";
+    private static final String WINDOW_PARALLELISM = "WINDOW_PARALLELISM";
+    private static final String SORT_RADIX = "SORT_RADIX";
+    private static final String SORT_PARALLELISM = "SORT_PARALLELISM";
+    private static final String SORT_TOPK_SHARED_THRESHOLD = "SORT_TOPK_SHARED_THRESHOLD";
+    private static final String PIPELINE_FUSION = "PIPELINE_FUSION";
+    private static final String EXPRESSION_SPECIALIZATION = "EXPRESSION_SPECIALIZATION";
+    private static final String POINT_LOOKUP_ROUTING = "POINT_LOOKUP_ROUTING";
 
     private final Properties properties = new Properties();
 
@@ -255,6 +269,118 @@ public class PhysicalOptimizationConfig {
         setInt(EXTERNAL_SCAN_BUFFER_SIZE, bufferSize);
     }
 
+    public boolean isSpatialJoinPartitioned() {
+        return getBoolean(SPATIAL_JOIN_PARTITIONED, AlgebricksConfig.SPATIAL_JOIN_PARTITIONED_DEFAULT);
+    }
+
+    public void setSpatialJoinPartitioned(boolean value) {
+        setBoolean(SPATIAL_JOIN_PARTITIONED, value);
+    }
+
+    public boolean isIntervalJoinPartitioned() {
+        return getBoolean(INTERVAL_JOIN_PARTITIONED, AlgebricksConfig.INTERVAL_JOIN_PARTITIONED_DEFAULT);
+    }
+
+    public void setIntervalJoinPartitioned(boolean value) {
+        setBoolean(INTERVAL_JOIN_PARTITIONED, value);
+    }
+
+    public boolean isJoinBuildCacheEnabled() {
+        return getBoolean(JOIN_BUILD_CACHE, AlgebricksConfig.JOIN_BUILD_CACHE_DEFAULT);
+    }
+
+    public void setJoinBuildCacheEnabled(boolean value) {
+        setBoolean(JOIN_BUILD_CACHE, value);
+    }
+
+    public boolean isGroupByCombinerBypassEnabled() {
+        return getBoolean(GROUPBY_COMBINER_BYPASS, AlgebricksConfig.GROUPBY_COMBINER_BYPASS_DEFAULT);
+    }
+
+    public void setGroupByCombinerBypassEnabled(boolean value) {
+        setBoolean(GROUPBY_COMBINER_BYPASS, value);
+    }
+
+    public boolean isGroupByHeavyHittersEnabled() {
+        return getBoolean(GROUPBY_HEAVY_HITTERS, AlgebricksConfig.GROUPBY_HEAVY_HITTERS_DEFAULT);
+    }
+
+    public void setGroupByHeavyHittersEnabled(boolean value) {
+        setBoolean(GROUPBY_HEAVY_HITTERS, value);
+    }
+
+    public boolean isGroupByPrimitiveStatesEnabled() {
+        return getBoolean(GROUPBY_PRIMITIVE_STATES, AlgebricksConfig.GROUPBY_PRIMITIVE_STATES_DEFAULT);
+    }
+
+    public void setGroupByPrimitiveStatesEnabled(boolean value) {
+        setBoolean(GROUPBY_PRIMITIVE_STATES, value);
+    }
+
+    public boolean isWindowSegmentTreeEnabled() {
+        return getBoolean(WINDOW_SEGMENT_TREE, AlgebricksConfig.WINDOW_SEGMENT_TREE_DEFAULT);
+    }
+
+    public void setWindowSegmentTreeEnabled(boolean value) {
+        setBoolean(WINDOW_SEGMENT_TREE, value);
+    }
+
+    public int getWindowParallelism() {
+        return getInt(WINDOW_PARALLELISM, AlgebricksConfig.WINDOW_PARALLELISM_DEFAULT);
+    }
+
+    public void setWindowParallelism(int value) {
+        setInt(WINDOW_PARALLELISM, value);
+    }
+
+    public boolean isSortRadixEnabled() {
+        return getBoolean(SORT_RADIX, AlgebricksConfig.SORT_RADIX_DEFAULT);
+    }
+
+    public void setSortRadixEnabled(boolean value) {
+        setBoolean(SORT_RADIX, value);
+    }
+
+    public int getSortParallelism() {
+        return getInt(SORT_PARALLELISM, AlgebricksConfig.SORT_PARALLELISM_DEFAULT);
+    }
+
+    public void setSortParallelism(int value) {
+        setInt(SORT_PARALLELISM, value);
+    }
+
+    public boolean isSortTopKSharedThresholdEnabled() {
+        return getBoolean(SORT_TOPK_SHARED_THRESHOLD, AlgebricksConfig.SORT_TOPK_SHARED_THRESHOLD_DEFAULT);
+    }
+
+    public void setSortTopKSharedThreshold(boolean value) {
+        setBoolean(SORT_TOPK_SHARED_THRESHOLD, value);
+    }
+
+    public boolean isPipelineFusionEnabled() {
+        return getBoolean(PIPELINE_FUSION, AlgebricksConfig.PIPELINE_FUSION_DEFAULT);
+    }
+
+    public void setPipelineFusionEnabled(boolean value) {
+        setBoolean(PIPELINE_FUSION, value);
+    }
+
+    public boolean isExpressionSpecializationEnabled() {
+        return getBoolean(EXPRESSION_SPECIALIZATION, AlgebricksConfig.EXPRESSION_SPECIALIZATION_DEFAULT);
+    }
+
+    public void setExpressionSpecializationEnabled(boolean value) {
+        setBoolean(EXPRESSION_SPECIALIZATION, value);
+    }
+
+    public boolean isPointLookupRoutingEnabled() {
+        return getBoolean(POINT_LOOKUP_ROUTING, AlgebricksConfig.POINT_LOOKUP_ROUTING_DEFAULT);
+    }
+
+    public void setPointLookupRoutingEnabled(boolean value) {
+        setBoolean(POINT_LOOKUP_ROUTING, value);
+    }
+
     private void setInt(String property, int value) {
         properties.setProperty(property, Integer.toString(value));
     }
@@ -23,4 +23,11 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 @FunctionalInterface
 public interface IBinaryIntegerInspector {
     int getIntegerValue(byte[] bytes, int offset, int length) throws HyracksDataException;
+
+    /**
+     * Reads an integer that may not fit in an int, e.g. a count. By default, the value is read as an int.
+     */
+    default long getLongValue(byte[] bytes, int offset, int length) throws HyracksDataException {
+        return getIntegerValue(bytes, offset, length);
+    }
 }
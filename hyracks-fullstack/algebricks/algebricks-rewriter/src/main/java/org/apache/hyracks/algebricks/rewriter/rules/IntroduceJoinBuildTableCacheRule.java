@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.rewriter.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang3.mutable.Mutable;
+import org.apache.hyracks.algebricks.common.exceptions.AlgebricksException;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalExpression;
+import org.apache.hyracks.algebricks.core.algebra.base.ILogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.IOptimizationContext;
+import org.apache.hyracks.algebricks.core.algebra.base.IPhysicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.base.LogicalVariable;
+import org.apache.hyracks.algebricks.core.algebra.base.PhysicalOperatorTag;
+import org.apache.hyracks.algebricks.core.algebra.expressions.AbstractFunctionCallExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.ConstantExpression;
+import org.apache.hyracks.algebricks.core.algebra.expressions.IVariableTypeEnvironment;
+import org.apache.hyracks.algebricks.core.algebra.expressions.VariableReferenceExpression;
+import org.apache.hyracks.algebricks.core.algebra.metadata.IMetadataProvider;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AbstractLogicalOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.AssignOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.DataSourceScanOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.ProjectOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.logical.SelectOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.AbstractHashJoinPOperator;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.AbstractJoinPOperator.JoinPartitioningType;
+import org.apache.hyracks.algebricks.core.algebra.operators.physical.InMemoryHashJoinPOperator;
+import org.apache.hyracks.algebricks.core.rewriter.base.IAlgebraicRewriteRule;
+import org.apache.hyracks.dataflow.std.join.JoinBuildCacheKey;
+
+/**
+ * Every partition of a broadcast hash join builds the same table, so the table can be shared by the partitions of a
+ * node and, as long as the datasets it is built from do not change, by later jobs. This rule gives such a join a key
+ * in the join build table cache of the nodes if its build input only reads datasets through scans, selections,
+ * assignments and projections with functional expressions. The key describes the build input independently of the
+ * variable ids of the plan, so the same build input of two queries gets the same key, and carries the data versions
+ * of the scanned datasets.
+ * <p>
+ * If the table of the key is cached on every node, it is pinned for the job: the scans of the build input then return
+ * nothing and the join probes the pinned tables instead.
+ * =================
+ * matching pattern:
+ * join (hybrid or in-memory hash, broadcast) <- probe input
+ * __________________________________________ <- exchange/select/assign/project ... <- data-scan <- empty-tuple-source
+ * =
+ * producing pattern:
+ * the same plan where the physical operator of the join has a build cache key, and, if the table is pinned, its pin
+ * and scans limited to 0 tuples
+ * =
+ * Must run after the physical operators and the exchanges are set, as the last rule before job generation.
+ */
+public class IntroduceJoinBuildTableCacheRule implements IAlgebraicRewriteRule {
+
+    @Override
+    public boolean rewritePost(Mutable<ILogicalOperator> opRef, IOptimizationContext context)
+            throws AlgebricksException {
+        AbstractLogicalOperator op = (AbstractLogicalOperator) opRef.getValue();
+        if ((op.getOperatorTag() != LogicalOperatorTag.INNERJOIN
+                && op.getOperatorTag() != LogicalOperatorTag.LEFTOUTERJOIN)
+                || !context.getPhysicalOptimizationConfig().isJoinBuildCacheEnabled()) {
+            return false;
+        }
+        IPhysicalOperator pOp = op.getPhysicalOperator();
+        if (pOp == null || (pOp.getOperatorTag() != PhysicalOperatorTag.HYBRID_HASH_JOIN
+                && pOp.getOperatorTag() != PhysicalOperatorTag.IN_MEMORY_HASH_JOIN)) {
+            return false;
+        }
+        AbstractHashJoinPOperator joinPOp = (AbstractHashJoinPOperator) pOp;
+        if (joinPOp.getPartitioningType() != JoinPartitioningType.BROADCAST || joinPOp.getBuildCacheKey() != null) {
+            return false;
+        }
+        BuildSignature signature = new BuildSignature(context);
+        signature.builder.append(pOp.getOperatorTag()).append(' ').append(joinPOp.getKind());
+        if (pOp.getOperatorTag() == PhysicalOperatorTag.IN_MEMORY_HASH_JOIN) {
+            signature.builder.append(' ').append(((InMemoryHashJoinPOperator) pOp).getTableSize());
+        }
+        signature.appendVariables(joinPOp.getKeysRightBranch());
+        if (!signature.appendBuildInput(op.getInputs().get(1).getValue())) {
+            return false;
+        }
+        JoinBuildCacheKey key =
+                new JoinBuildCacheKey(signature.builder.toString(), signature.tags.toArray(new String[0]));
+        joinPOp.setBuildCacheKey(key);
+        String pinId = context.getMetadataProvider().pinJoinBuildTable(key);
+        if (pinId != null) {
+            joinPOp.setBuildTablePin(pinId);
+            for (DataSourceScanOperator scan : signature.scans) {
+                scan.setOutputLimit(0);
+            }
+        }
+        return true;
+    }
+
+    private static class BuildSignature {
+        private final IOptimizationContext context;
+        private final StringBuilder builder = new StringBuilder();
+        // the canonical number of each variable, in the order the variables are first seen
+        private final Map<LogicalVariable, Integer> variables = new HashMap<>();
+        private final List<String> tags = new ArrayList<>();
+        private final List<DataSourceScanOperator> scans = new ArrayList<>();
+
+        private BuildSignature(IOptimizationContext context) {
+            this.context = context;
+        }
+
+        private boolean appendBuildInput(ILogicalOperator op) throws AlgebricksException {
+            builder.append(" <- ").append(op.getOperatorTag());
+            switch (op.getOperatorTag()) {
+                case EXCHANGE:
+                    builder.append(' ').append(((AbstractLogicalOperator) op).getPhysicalOperator().getOperatorTag());
+                    break;
+                case SELECT:
+                    if (!appendExpression(((SelectOperator) op).getCondition().getValue())) {
+                        return false;
+                    }
+                    break;
+                case ASSIGN:
+                    if (!appendAssign((AssignOperator) op)) {
+                        return false;
+                    }
+                    break;
+                case PROJECT:
+                    appendVariables(((ProjectOperator) op).getVariables());
+                    break;
+                case DATASOURCESCAN:
+                    return appendScan((DataSourceScanOperator) op);
+                default:
+                    return false;
+            }
+            return appendBuildInput(op.getInputs().get(0).getValue());
+        }
+
+        private boolean appendAssign(AssignOperator assign) throws AlgebricksException {
+            // the types of the assigned values are part of the table, e.g. an int32 or an int64 constant
+            IVariableTypeEnvironment env = context.getOutputTypeEnvironment(assign);
+            if (env == null) {
+                return false;
+            }
+            for (int i = 0; i < assign.getVariables().size(); i++) {
+                LogicalVariable var = assign.getVariables().get(i);
+                appendVariable(var);
+                builder.append(':').append(env.getVarType(var)).append(" := ");
+                if (!appendExpression(assign.getExpressions().get(i).getValue())) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean appendScan(DataSourceScanOperator scan) throws AlgebricksException {
+            @SuppressWarnings("unchecked")
+            String tag = ((IMetadataProvider) context.getMetadataProvider()).getDataVersion(scan.getDataSource());
+            if (tag == null || scan.getMinFilterVars() != null || scan.getMaxFilterVars() != null
+                    || (scan.getAdditionalFilteringExpressions() != null
+                            && !scan.getAdditionalFilteringExpressions().isEmpty())) {
+                return false;
+            }
+            tags.add(tag);
+            scans.add(scan);
+            builder.append(' ').append(scan.getDataSource().getId());
+            appendVariables(scan.getVariables());
+            appendVariables(scan.getProjectVariables());
+            if (scan.getSelectCondition() != null && !appendExpression(scan.getSelectCondition().getValue())) {
+                return false;
+            }
+            builder.append(' ').append(scan.getOutputLimit()).append(' ').append(scan.getProjectionInfo());
+            // the scan must only read the dataset, not the tuples of another input
+            ILogicalOperator input = scan.getInputs().get(0).getValue();
+            while (input.getOperatorTag() == LogicalOperatorTag.EXCHANGE) {
+                input = input.getInputs().get(0).getValue();
+            }
+            return input.getOperatorTag() == LogicalOperatorTag.EMPTYTUPLESOURCE;
+        }
+
+        private boolean appendExpression(ILogicalExpression expr) {
+            if (!expr.isFunctional()) {
+                return false;
+            }
+            switch (expr.getExpressionTag()) {
+                case CONSTANT:
+                    builder.append(((ConstantExpression) expr).getValue());
+                    return true;
+                case VARIABLE:
+                    appendVariable(((VariableReferenceExpression) expr).getVariableReference());
+                    return true;
+                case FUNCTION_CALL:
+                    AbstractFunctionCallExpression call = (AbstractFunctionCallExpression) expr;
+                    builder.append(call.getKind()).append(' ').append(call.getFunctionIdentifier());
+                    if (call.getOpaqueParameters() != null) {
+                        builder.append(Arrays.toString(call.getOpaqueParameters()));
+                    }
+                    builder.append('(');
+                    for (Mutable<ILogicalExpression> arg : call.getArguments()) {
+                        if (!appendExpression(arg.getValue())) {
+                            return false;
+                        }
+                        builder.append(", ");
+                    }
+                    builder.append(')');
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        private void appendVariables(List<LogicalVariable> vars) {
+            builder.append(" [");
+            for (LogicalVariable var : vars) {
+                appendVariable(var);
+                builder.append(' ');
+            }
+            builder.append(']');
+        }
+
+        private void appendVariable(LogicalVariable var) {
+            Integer id = variables.get(var);
+            if (id == null) {
+                id = variables.size();
+                variables.put(var, id);
+            }
+            builder.append('$').append(id);
+        }
+    }
+
+    @Override
+    public boolean rewritePre(Mutable<ILogicalOperator> opRef, IOptimizationContext context) {
+        return false;
+    }
+}
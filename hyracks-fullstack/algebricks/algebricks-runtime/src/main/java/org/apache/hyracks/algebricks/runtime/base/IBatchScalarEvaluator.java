@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.base;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A scalar evaluator that can also evaluate its expression on all the tuples of a frame at once, into a vector of
+ * primitive values. The tuples whose bit is set in the null mask of the vector must be evaluated one by one with
+ * {@link #evaluate(org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference,
+ * org.apache.hyracks.data.std.api.IPointable)}.
+ */
+public interface IBatchScalarEvaluator extends IScalarEvaluator {
+
+    /**
+     * Evaluates the expression on all the tuples of the frame of the given accessor.
+     *
+     * @param accessor
+     *            the accessor of the frame
+     * @param result
+     *            the vector the values of the tuples are written into
+     */
+    void evaluate(IFrameTupleAccessor accessor, ScalarVector result) throws HyracksDataException;
+}
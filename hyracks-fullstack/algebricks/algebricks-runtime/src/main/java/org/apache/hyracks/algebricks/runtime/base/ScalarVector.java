@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.base;
+
+/**
+ * The values of a scalar expression for the tuples of a frame, as produced by an {@link IBatchScalarEvaluator}. The
+ * value of a tuple is a primitive long, which is 0 or 1 if the expression is a boolean one, unless the bit of the
+ * tuple in the null mask is set. A set bit means that the evaluator could not produce a primitive value for the tuple,
+ * e.g. because the value is MISSING or NULL, and that the tuple has to be evaluated on its own.
+ */
+public class ScalarVector {
+
+    private long[] values = new long[0];
+    private boolean[] nullMask = new boolean[0];
+    private int size;
+    private boolean booleanValues;
+
+    /**
+     * Prepares the vector for the given number of tuples. The content of the vector is undefined after a reset.
+     *
+     * @param size
+     *            the number of tuples
+     * @param booleanValues
+     *            true if the values are booleans
+     */
+    public void reset(int size, boolean booleanValues) {
+        if (values.length < size) {
+            values = new long[size];
+            nullMask = new boolean[size];
+        }
+        this.size = size;
+        this.booleanValues = booleanValues;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean hasBooleanValues() {
+        return booleanValues;
+    }
+
+    /**
+     * @return the values of the tuples; only the first {@link #getSize()} entries are meaningful
+     */
+    public long[] getValues() {
+        return values;
+    }
+
+    /**
+     * @return the null mask of the tuples; only the first {@link #getSize()} entries are meaningful
+     */
+    public boolean[] getNullMask() {
+        return nullMask;
+    }
+}
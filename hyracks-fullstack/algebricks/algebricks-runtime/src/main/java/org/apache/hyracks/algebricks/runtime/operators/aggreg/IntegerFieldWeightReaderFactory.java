@@ -0,0 +1,50 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.operators.aggreg;
+
+import org.apache.hyracks.algebricks.data.IBinaryIntegerInspector;
+import org.apache.hyracks.algebricks.data.IBinaryIntegerInspectorFactory;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.dataflow.std.group.ITupleWeightReader;
+import org.apache.hyracks.dataflow.std.group.ITupleWeightReaderFactory;
+
+/**
+ * Reads the weight of a tuple from one of its integer fields, e.g. the partial count computed by a local group-by.
+ */
+public class IntegerFieldWeightReaderFactory implements ITupleWeightReaderFactory {
+    private static final long serialVersionUID = 1L;
+    private final int field;
+    private final IBinaryIntegerInspectorFactory integerInspectorFactory;
+
+    public IntegerFieldWeightReaderFactory(int field, IBinaryIntegerInspectorFactory integerInspectorFactory) {
+        this.field = field;
+        this.integerInspectorFactory = integerInspectorFactory;
+    }
+
+    @Override
+    public ITupleWeightReader createTupleWeightReader(IHyracksTaskContext ctx) {
+        IBinaryIntegerInspector inspector = integerInspectorFactory.createBinaryIntegerInspector(ctx);
+        return (IFrameTupleAccessor accessor, int tIndex) -> {
+            int start = accessor.getAbsoluteFieldStartOffset(tIndex, field);
+            int length = accessor.getFieldLength(tIndex, field);
+            return inspector.getLongValue(accessor.getBuffer().array(), start, length);
+        };
+    }
+}
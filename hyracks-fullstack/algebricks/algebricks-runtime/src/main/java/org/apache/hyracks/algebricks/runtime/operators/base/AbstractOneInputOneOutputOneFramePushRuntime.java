@@ -18,6 +18,8 @@
  */
 package org.apache.hyracks.algebricks.runtime.operators.base;
 
+import java.nio.ByteBuffer;
+
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameAppender;
 import org.apache.hyracks.api.comm.IFrameTupleAccessor;
@@ -83,6 +85,35 @@ public abstract class AbstractOneInputOneOutputOneFramePushRuntime extends Abstr
         return (FrameTupleAppender) appender;
     }
 
+    /**
+     * Pushes the input frame to the writer as it is, after the tuples appended so far. Used instead of copying the
+     * tuples of the frame when all of them are output unchanged.
+     */
+    protected void pushInputFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (appender.getTupleCount() > 0) {
+            flushAndReset();
+        }
+        writer.nextFrame(buffer);
+    }
+
+    /**
+     * @return true if the given projection list outputs all the fields of the input in order
+     */
+    protected boolean isIdentityProjection(int[] projectionList) {
+        if (projectionList == null) {
+            return true;
+        }
+        if (projectionList.length != inputRecordDesc.getFieldCount()) {
+            return false;
+        }
+        for (int i = 0; i < projectionList.length; i++) {
+            if (projectionList[i] != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     protected void appendToFrameFromTupleBuilder(ArrayTupleBuilder tb) throws HyracksDataException {
         appendToFrameFromTupleBuilder(tb, false);
     }
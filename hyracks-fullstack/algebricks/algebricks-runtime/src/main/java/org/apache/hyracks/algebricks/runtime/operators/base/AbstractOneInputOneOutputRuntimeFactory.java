@@ -37,6 +37,10 @@ public abstract class AbstractOneInputOneOutputRuntimeFactory extends AbstractPu
         return new IPushRuntime[] { createOneOutputPushRuntime(ctx) };
     }
 
+    public int[] getProjectionList() {
+        return projectionList;
+    }
+
     public abstract AbstractOneInputOneOutputPushRuntime createOneOutputPushRuntime(IHyracksTaskContext ctx)
             throws HyracksDataException;
 
@@ -32,4 +32,8 @@ public abstract class AbstractPushRuntimeFactory implements IPushRuntimeFactory
     public void setSourceLocation(SourceLocation sourceLoc) {
         this.sourceLoc = sourceLoc;
     }
+
+    public SourceLocation getSourceLocation() {
+        return sourceLoc;
+    }
 }
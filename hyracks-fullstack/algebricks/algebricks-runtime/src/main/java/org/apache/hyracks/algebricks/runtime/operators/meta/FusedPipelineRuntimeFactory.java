@@ -0,0 +1,497 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.operators.meta;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.algebricks.data.IBinaryBooleanInspector;
+import org.apache.hyracks.algebricks.runtime.base.IBatchScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IBatchScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IPushRuntimeFactory;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.ScalarVector;
+import org.apache.hyracks.algebricks.runtime.evaluators.EvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputOneFieldFramePushRuntime;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputPushRuntime;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputRuntimeFactory;
+import org.apache.hyracks.algebricks.runtime.operators.std.AssignRuntimeFactory;
+import org.apache.hyracks.algebricks.runtime.operators.std.StreamProjectRuntimeFactory;
+import org.apache.hyracks.algebricks.runtime.operators.std.StreamSelectRuntimeFactory;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.data.std.util.ArrayBackedValueStorage;
+import org.apache.hyracks.dataflow.common.comm.io.FrameFixedFieldTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * Runs a chain of assign, select and project micro-operators as a single push runtime. The stages of the chain pass
+ * references to the fields of the current tuple to each other instead of writing every intermediate tuple into a
+ * frame, so a tuple is only copied once, into the output frame, and only if it passes all the selects of the chain.
+ * <p>
+ * The selects and identity projects at the head of the chain read the tuples of the input frame itself, so they are
+ * evaluated a frame at a time like unfused selects: their conditions are evaluated into a selection vector, on the
+ * whole frame if their evaluators support it, and the input frame is output as it is if the chain only consists of
+ * such stages and every tuple satisfies their conditions.
+ */
+public class FusedPipelineRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final AbstractOneInputOneOutputRuntimeFactory[] stages;
+
+    /**
+     * @param stages
+     *            the fusible micro-operators of the chain, in the order in which the tuples flow through them
+     * @see #isFusible(IPushRuntimeFactory)
+     */
+    public FusedPipelineRuntimeFactory(AbstractOneInputOneOutputRuntimeFactory[] stages) {
+        super(null);
+        this.stages = stages;
+    }
+
+    /**
+     * @return true if the given runtime factory can be a stage of a fused pipeline. Runtimes that flush their frames
+     *         rapidly or that retain the tuples that do not satisfy their condition are not fusible.
+     */
+    public static boolean isFusible(IPushRuntimeFactory factory) {
+        if (factory.getClass() == AssignRuntimeFactory.class) {
+            return !((AssignRuntimeFactory) factory).isFlushFramesRapidly();
+        } else if (factory.getClass() == StreamSelectRuntimeFactory.class) {
+            return !((StreamSelectRuntimeFactory) factory).isRetainMissing();
+        } else if (factory.getClass() == StreamProjectRuntimeFactory.class) {
+            return !((StreamProjectRuntimeFactory) factory).isFlushFramesRapidly();
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the given fusible runtime factory must be the first stage of a chain. This is the case of the
+     *         selects whose condition can be evaluated on whole frames, since only the stages at the head of a chain
+     *         read the tuples of the input frame.
+     */
+    public static boolean startsChain(IPushRuntimeFactory factory) {
+        return factory.getClass() == StreamSelectRuntimeFactory.class
+                && ((StreamSelectRuntimeFactory) factory).getCond() instanceof IBatchScalarEvaluatorFactory;
+    }
+
+    public AbstractOneInputOneOutputRuntimeFactory[] getStages() {
+        return stages;
+    }
+
+    @Override
+    public String toString() {
+        return "fused " + Arrays.toString(stages);
+    }
+
+    @Override
+    public AbstractOneInputOneOutputPushRuntime createOneOutputPushRuntime(IHyracksTaskContext ctx)
+            throws HyracksDataException {
+        return new FusedPipelineRuntime(ctx);
+    }
+
+    private class FusedPipelineRuntime extends AbstractOneInputOneOutputOneFieldFramePushRuntime {
+
+        private final IHyracksTaskContext ctx;
+        private final Stage[] runtimeStages = new Stage[stages.length];
+        // the number of stages at the head of the chain that are evaluated on the tuples of the input frame
+        private int headStageCount;
+        private boolean passThrough;
+        // the indexes of the tuples of the current frame that satisfy the conditions of the head stages
+        private int[] selection = new int[0];
+        private FieldReferences inputRef;
+        private FieldReferences outputRef;
+
+        FusedPipelineRuntime(IHyracksTaskContext ctx) {
+            this.ctx = ctx;
+        }
+
+        @Override
+        public void open() throws HyracksDataException {
+            if (tAccess == null) {
+                tAccess = new FrameTupleAccessor(inputRecordDesc);
+                int fieldCount = inputRecordDesc.getFieldCount();
+                int maxFieldCount = fieldCount;
+                headStageCount = 0;
+                while (headStageCount < stages.length && isHeadStage(stages[headStageCount], fieldCount)) {
+                    headStageCount++;
+                }
+                passThrough = headStageCount == stages.length;
+                for (int i = 0; i < stages.length; i++) {
+                    runtimeStages[i] = createStage(stages[i]);
+                    int[] projectionList = stages[i].getProjectionList();
+                    fieldCount = projectionList != null ? projectionList.length : fieldCount;
+                    maxFieldCount = Math.max(maxFieldCount, fieldCount);
+                }
+                inputRef = new FieldReferences(maxFieldCount);
+                outputRef = new FieldReferences(maxFieldCount);
+                frame = new VSizeFrame(ctx);
+                appender = new FrameFixedFieldTupleAppender(fieldCount);
+                appender.reset(frame, true);
+            }
+            super.open();
+        }
+
+        /**
+         * @return true if the given stage outputs the tuples of its input unchanged, if at all, so that the stages
+         *         after it still read the tuples of the input frame
+         */
+        private boolean isHeadStage(AbstractOneInputOneOutputRuntimeFactory factory, int fieldCount) {
+            if (!(factory instanceof StreamSelectRuntimeFactory) && !(factory instanceof StreamProjectRuntimeFactory)) {
+                return false;
+            }
+            int[] projectionList = factory.getProjectionList();
+            if (projectionList == null) {
+                return true;
+            }
+            if (projectionList.length != fieldCount) {
+                return false;
+            }
+            for (int i = 0; i < projectionList.length; i++) {
+                if (projectionList[i] != i) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private Stage createStage(AbstractOneInputOneOutputRuntimeFactory factory) throws HyracksDataException {
+            if (factory instanceof AssignRuntimeFactory) {
+                return new AssignStage((AssignRuntimeFactory) factory, new EvaluatorContext(ctx));
+            } else if (factory instanceof StreamSelectRuntimeFactory) {
+                return new SelectStage((StreamSelectRuntimeFactory) factory,
+                        new EvaluatorContext(ctx, ctx.getWarningCollector()), ctx);
+            }
+            return new ProjectStage(factory.getProjectionList());
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            tAccess.reset(buffer);
+            int nTuple = tAccess.getTupleCount();
+            if (nTuple == 0) {
+                appender.flush(writer);
+                return;
+            }
+            int nSelected = selectHead(nTuple);
+            if (passThrough && nSelected == nTuple) {
+                // every tuple is output unchanged, so the frame itself is output
+                pushInputFrame(buffer);
+                return;
+            }
+            for (int s = 0; s < nSelected; s++) {
+                FieldReferences result = process(selection[s]);
+                if (result != null) {
+                    for (int f = 0; f < result.fieldCount; f++) {
+                        appendField(result.data[f], result.start[f], result.length[f]);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Evaluates the conditions of the head stages on the tuples of the current frame and stores the indexes of the
+         * tuples that satisfy all of them in the selection vector.
+         *
+         * @return the number of tuples that satisfy the conditions
+         */
+        private int selectHead(int nTuple) throws HyracksDataException {
+            if (selection.length < nTuple) {
+                selection = new int[nTuple];
+            }
+            for (int t = 0; t < nTuple; t++) {
+                selection[t] = t;
+            }
+            int nSelected = nTuple;
+            for (int i = 0; i < headStageCount && nSelected > 0; i++) {
+                if (runtimeStages[i] instanceof SelectStage) {
+                    nSelected = ((SelectStage) runtimeStages[i]).select(tAccess, inputRef, selection, nSelected);
+                }
+            }
+            return nSelected;
+        }
+
+        /**
+         * Pushes the given tuple of the current frame through the stages of the chain that follow the head stages.
+         *
+         * @return the references to the fields of the output tuple, or null if a stage dropped the tuple
+         */
+        private FieldReferences process(int tIndex) throws HyracksDataException {
+            FieldReferences current = inputRef;
+            FieldReferences next = outputRef;
+            current.reset(tAccess, tIndex);
+            for (int i = headStageCount; i < runtimeStages.length; i++) {
+                if (!runtimeStages[i].process(current, next)) {
+                    return null;
+                }
+                FieldReferences tmp = current;
+                current = next;
+                next = tmp;
+            }
+            return current;
+        }
+
+        @Override
+        public void flush() throws HyracksDataException {
+            appender.flush(writer);
+        }
+    }
+
+    private abstract static class Stage {
+
+        /**
+         * Computes the output tuple of this stage from the given input tuple.
+         *
+         * @return false if the input tuple does not produce an output tuple
+         */
+        abstract boolean process(FieldReferences in, FieldReferences out) throws HyracksDataException;
+    }
+
+    private static class AssignStage extends Stage {
+
+        private final int[] projectionList;
+        private final int[] projectionToOutColumns;
+        private final IScalarEvaluator[] eval;
+        private final ArrayBackedValueStorage[] values;
+        private final IPointable result = VoidPointable.FACTORY.createPointable();
+        private final SourceLocation sourceLoc;
+
+        AssignStage(AssignRuntimeFactory factory, IEvaluatorContext evalCtx) throws HyracksDataException {
+            int[] outColumns = factory.getOutColumns();
+            IScalarEvaluatorFactory[] evalFactories = factory.getEvalFactories();
+            projectionList = factory.getProjectionList();
+            projectionToOutColumns = new int[projectionList.length];
+            for (int j = 0; j < projectionList.length; j++) {
+                projectionToOutColumns[j] = Arrays.binarySearch(outColumns, projectionList[j]);
+            }
+            eval = new IScalarEvaluator[evalFactories.length];
+            values = new ArrayBackedValueStorage[evalFactories.length];
+            for (int i = 0; i < evalFactories.length; i++) {
+                eval[i] = evalFactories[i].createScalarEvaluator(evalCtx);
+                values[i] = new ArrayBackedValueStorage();
+            }
+            sourceLoc = factory.getSourceLocation();
+        }
+
+        @Override
+        boolean process(FieldReferences in, FieldReferences out) throws HyracksDataException {
+            try {
+                out.reset(in, projectionList.length);
+                for (int f = 0; f < projectionList.length; f++) {
+                    int k = projectionToOutColumns[f];
+                    if (k >= 0) {
+                        // the result is copied since the evaluators of the next stages may overwrite its storage
+                        eval[k].evaluate(in, result);
+                        values[k].assign(result);
+                        out.set(f, values[k].getByteArray(), values[k].getStartOffset(), values[k].getLength());
+                    } else {
+                        out.set(f, in, projectionList[f]);
+                    }
+                }
+                return true;
+            } catch (HyracksDataException e) {
+                throw HyracksDataException.create(ErrorCode.ERROR_PROCESSING_TUPLE, e, sourceLoc, in.tIndex);
+            }
+        }
+    }
+
+    private static class SelectStage extends Stage {
+
+        private final IScalarEvaluator eval;
+        // set if the condition can be evaluated on all the tuples of a frame at once
+        private final IBatchScalarEvaluator batchEval;
+        private final ScalarVector conditionValues = new ScalarVector();
+        private final IBinaryBooleanInspector bbi;
+        private final IPointable p = VoidPointable.FACTORY.createPointable();
+        private final int[] projectionList;
+
+        SelectStage(StreamSelectRuntimeFactory factory, IEvaluatorContext evalCtx, IHyracksTaskContext ctx)
+                throws HyracksDataException {
+            eval = factory.getCond().createScalarEvaluator(evalCtx);
+            batchEval = eval instanceof IBatchScalarEvaluator ? (IBatchScalarEvaluator) eval : null;
+            bbi = factory.getBinaryBooleanInspectorFactory().createBinaryBooleanInspector(ctx);
+            projectionList = factory.getProjectionList();
+        }
+
+        /**
+         * Keeps the tuples of the given selection of the frame of the given accessor that satisfy the condition. Only
+         * valid for a head stage, whose input tuples are the tuples of the frame.
+         *
+         * @return the number of tuples that are kept at the beginning of the selection
+         */
+        int select(IFrameTupleAccessor accessor, FieldReferences tuple, int[] selection, int nSelected)
+                throws HyracksDataException {
+            long[] values = null;
+            boolean[] nullMask = null;
+            if (batchEval != null) {
+                batchEval.evaluate(accessor, conditionValues);
+                if (conditionValues.hasBooleanValues()) {
+                    values = conditionValues.getValues();
+                    nullMask = conditionValues.getNullMask();
+                }
+            }
+            int nKept = 0;
+            for (int s = 0; s < nSelected; s++) {
+                int t = selection[s];
+                boolean satisfied;
+                if (values != null && !nullMask[t]) {
+                    satisfied = values[t] != 0;
+                } else {
+                    tuple.reset(accessor, t);
+                    satisfied = isSatisfied(tuple);
+                }
+                if (satisfied) {
+                    selection[nKept++] = t;
+                }
+            }
+            return nKept;
+        }
+
+        private boolean isSatisfied(IFrameTupleReference tuple) throws HyracksDataException {
+            eval.evaluate(tuple, p);
+            return bbi.getBooleanValue(p.getByteArray(), p.getStartOffset(), p.getLength());
+        }
+
+        @Override
+        boolean process(FieldReferences in, FieldReferences out) throws HyracksDataException {
+            if (!isSatisfied(in)) {
+                return false;
+            }
+            out.project(in, projectionList);
+            return true;
+        }
+    }
+
+    private static class ProjectStage extends Stage {
+
+        private final int[] projectionList;
+
+        ProjectStage(int[] projectionList) {
+            this.projectionList = projectionList;
+        }
+
+        @Override
+        boolean process(FieldReferences in, FieldReferences out) {
+            out.project(in, projectionList);
+            return true;
+        }
+    }
+
+    /**
+     * A tuple whose fields reference either the fields of a tuple of the input frame or values computed by the
+     * stages. The frame tuple accessor and the tuple index are the ones of the input tuple the tuple is derived from.
+     */
+    private static class FieldReferences implements IFrameTupleReference {
+
+        private final byte[][] data;
+        private final int[] start;
+        private final int[] length;
+        private int fieldCount;
+        private IFrameTupleAccessor accessor;
+        private int tIndex;
+
+        FieldReferences(int maxFieldCount) {
+            data = new byte[maxFieldCount][];
+            start = new int[maxFieldCount];
+            length = new int[maxFieldCount];
+        }
+
+        void reset(IFrameTupleAccessor accessor, int tIndex) {
+            this.accessor = accessor;
+            this.tIndex = tIndex;
+            fieldCount = accessor.getFieldCount();
+            byte[] array = accessor.getBuffer().array();
+            for (int f = 0; f < fieldCount; f++) {
+                data[f] = array;
+                start[f] = accessor.getAbsoluteFieldStartOffset(tIndex, f);
+                length[f] = accessor.getFieldLength(tIndex, f);
+            }
+        }
+
+        void reset(FieldReferences source, int fieldCount) {
+            this.accessor = source.accessor;
+            this.tIndex = source.tIndex;
+            this.fieldCount = fieldCount;
+        }
+
+        void set(int f, byte[] array, int fieldStart, int fieldLength) {
+            data[f] = array;
+            start[f] = fieldStart;
+            length[f] = fieldLength;
+        }
+
+        void set(int f, FieldReferences source, int sourceField) {
+            set(f, source.data[sourceField], source.start[sourceField], source.length[sourceField]);
+        }
+
+        void project(FieldReferences source, int[] projectionList) {
+            if (projectionList == null) {
+                reset(source, source.fieldCount);
+                for (int f = 0; f < fieldCount; f++) {
+                    set(f, source, f);
+                }
+            } else {
+                reset(source, projectionList.length);
+                for (int f = 0; f < fieldCount; f++) {
+                    set(f, source, projectionList[f]);
+                }
+            }
+        }
+
+        @Override
+        public IFrameTupleAccessor getFrameTupleAccessor() {
+            return accessor;
+        }
+
+        @Override
+        public int getTupleIndex() {
+            return tIndex;
+        }
+
+        @Override
+        public int getFieldCount() {
+            return fieldCount;
+        }
+
+        @Override
+        public byte[] getFieldData(int fIdx) {
+            return data[fIdx];
+        }
+
+        @Override
+        public int getFieldStart(int fIdx) {
+            return start[fIdx];
+        }
+
+        @Override
+        public int getFieldLength(int fIdx) {
+            return length[fIdx];
+        }
+    }
+}
@@ -85,6 +85,18 @@ public class AssignRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactor
         return sb.toString();
     }
 
+    public int[] getOutColumns() {
+        return outColumns;
+    }
+
+    public IScalarEvaluatorFactory[] getEvalFactories() {
+        return evalFactories;
+    }
+
+    public boolean isFlushFramesRapidly() {
+        return flushFramesRapidly;
+    }
+
     @Override
     public AbstractOneInputOneOutputOneFramePushRuntime createOneOutputPushRuntime(final IHyracksTaskContext ctx)
             throws HyracksDataException {
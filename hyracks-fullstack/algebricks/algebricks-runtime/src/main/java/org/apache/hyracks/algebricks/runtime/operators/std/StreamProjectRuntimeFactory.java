@@ -45,11 +45,16 @@ public class StreamProjectRuntimeFactory extends AbstractOneInputOneOutputRuntim
         return "stream-project " + Arrays.toString(projectionList);
     }
 
+    public boolean isFlushFramesRapidly() {
+        return flushFramesRapidly;
+    }
+
     @Override
     public AbstractOneInputOneOutputOneFramePushRuntime createOneOutputPushRuntime(final IHyracksTaskContext ctx)
             throws HyracksDataException {
         return new AbstractOneInputOneOutputOneFramePushRuntime() {
             private boolean first = true;
+            private boolean passThrough;
 
             @Override
             public void open() throws HyracksDataException {
@@ -57,6 +62,7 @@ public class StreamProjectRuntimeFactory extends AbstractOneInputOneOutputRuntim
                 if (first) {
                     first = false;
                     initAccessAppend(ctx);
+                    passThrough = isIdentityProjection(projectionList);
                 }
             }
 
@@ -67,6 +73,9 @@ public class StreamProjectRuntimeFactory extends AbstractOneInputOneOutputRuntim
                 int nTuple = tAccess.getTupleCount();
                 if (nTuple == 0) {
                     appender.flush(writer);
+                } else if (passThrough) {
+                    // the projection outputs the tuples unchanged, so the frame itself is output
+                    pushInputFrame(buffer);
                 } else {
                     int t = 0;
                     if (nTuple > 1) {
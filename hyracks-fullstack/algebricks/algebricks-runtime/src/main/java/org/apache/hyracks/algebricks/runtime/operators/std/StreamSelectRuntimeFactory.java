@@ -23,9 +23,11 @@ import java.nio.ByteBuffer;
 
 import org.apache.hyracks.algebricks.data.IBinaryBooleanInspector;
 import org.apache.hyracks.algebricks.data.IBinaryBooleanInspectorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IBatchScalarEvaluator;
 import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
 import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.ScalarVector;
 import org.apache.hyracks.algebricks.runtime.evaluators.EvaluatorContext;
 import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputOneFieldFramePushRuntime;
 import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputOneFramePushRuntime;
@@ -97,18 +99,20 @@ public class StreamSelectRuntimeFactory extends AbstractOneInputOneOutputRuntime
         return missingPlaceholderVariableIndex;
     }
 
-    public int[] getProjectionList() {
-        return projectionList;
-    }
-
     public class StreamSelectRuntime extends AbstractOneInputOneOutputOneFieldFramePushRuntime {
 
         protected final IPointable p = VoidPointable.FACTORY.createPointable();
         protected final IEvaluatorContext ctx;
         protected final IBinaryBooleanInspector bbi;
         protected IScalarEvaluator eval;
+        // set if the condition can be evaluated on all the tuples of a frame at once
+        protected IBatchScalarEvaluator batchEval;
+        protected final ScalarVector conditionValues = new ScalarVector();
         protected IMissingWriter missingWriter;
         protected ArrayTupleBuilder missingTupleBuilder;
+        // the indexes of the tuples of the current frame that satisfy the condition
+        protected int[] selection = new int[0];
+        protected boolean passThrough;
 
         public StreamSelectRuntime(IHyracksTaskContext ctx, IBinaryBooleanInspector bbi) {
             this.ctx = new EvaluatorContext(ctx, initWarningCollector(ctx));
@@ -120,6 +124,8 @@ public class StreamSelectRuntimeFactory extends AbstractOneInputOneOutputRuntime
             if (eval == null) {
                 initAccessAppendFieldRef(ctx.getTaskContext());
                 eval = cond.createScalarEvaluator(ctx);
+                batchEval = eval instanceof IBatchScalarEvaluator ? (IBatchScalarEvaluator) eval : null;
+                passThrough = isIdentityProjection(projectionList);
             }
             super.open();
             if (retainMissing && missingWriter == null) {
@@ -135,21 +141,69 @@ public class StreamSelectRuntimeFactory extends AbstractOneInputOneOutputRuntime
         public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
             tAccess.reset(buffer);
             int nTuple = tAccess.getTupleCount();
+            int nSelected = select(nTuple);
+            if (passThrough && nSelected == nTuple && nTuple > 0) {
+                // every tuple is output unchanged, so the frame itself is output
+                pushInputFrame(buffer);
+                return;
+            }
+            int s = 0;
             for (int t = 0; t < nTuple; t++) {
-                tRef.reset(tAccess, t);
-                eval.evaluate(tRef, p);
-                if (bbi.getBooleanValue(p.getByteArray(), p.getStartOffset(), p.getLength())) {
+                if (s < nSelected && selection[s] == t) {
+                    s++;
                     if (projectionList != null) {
                         appendProjectionToFrame(t, projectionList);
                     } else {
                         appendTupleToFrame(t);
                     }
-                } else {
-                    if (retainMissing) {
-                        retainMissingTuple(t);
-                    }
+                } else if (retainMissing) {
+                    tRef.reset(tAccess, t);
+                    retainMissingTuple(t);
+                }
+            }
+        }
+
+        /**
+         * Evaluates the condition on the tuples of the current frame and stores the indexes of the tuples that
+         * satisfy it in the selection vector.
+         *
+         * @return the number of tuples that satisfy the condition
+         */
+        protected int select(int nTuple) throws HyracksDataException {
+            if (selection.length < nTuple) {
+                selection = new int[nTuple];
+            }
+            if (batchEval != null) {
+                batchEval.evaluate(tAccess, conditionValues);
+                if (conditionValues.hasBooleanValues()) {
+                    return selectFromConditionValues(nTuple);
                 }
             }
+            int nSelected = 0;
+            for (int t = 0; t < nTuple; t++) {
+                if (evaluateCondition(t)) {
+                    selection[nSelected++] = t;
+                }
+            }
+            return nSelected;
+        }
+
+        private int selectFromConditionValues(int nTuple) throws HyracksDataException {
+            long[] values = conditionValues.getValues();
+            boolean[] nullMask = conditionValues.getNullMask();
+            int nSelected = 0;
+            for (int t = 0; t < nTuple; t++) {
+                if (nullMask[t] ? evaluateCondition(t) : values[t] != 0) {
+                    selection[nSelected++] = t;
+                }
+            }
+            return nSelected;
+        }
+
+        private boolean evaluateCondition(int t) throws HyracksDataException {
+            tRef.reset(tAccess, t);
+            eval.evaluate(tRef, p);
+            return bbi.getBooleanValue(p.getByteArray(), p.getStartOffset(), p.getLength());
         }
 
         @Override
@@ -122,6 +122,18 @@ class WindowMaterializingPushRuntime extends AbstractWindowPushRuntime {
         return chunkEndIdx.get(chunkIdx);
     }
 
+    final boolean isPartitionInMemory() {
+        return partitionWriter.isInMemory();
+    }
+
+    final IFrame getPartitionChunkFrame(int chunkIdx) {
+        return partitionWriter.getInMemoryFrame(chunkIdx);
+    }
+
+    final long getPartitionLength() {
+        return partitionLength;
+    }
+
     int getPartitionReaderSlotCount() {
         return -1; // forward only reader by default
     }
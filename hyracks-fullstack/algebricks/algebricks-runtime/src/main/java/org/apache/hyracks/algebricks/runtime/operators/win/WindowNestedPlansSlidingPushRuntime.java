@@ -0,0 +1,1011 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.operators.win;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.hyracks.algebricks.data.IBinaryBooleanInspector;
+import org.apache.hyracks.algebricks.data.IBinaryBooleanInspectorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IAggregateEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IAggregateEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.IRunningAggregateEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.evaluators.EvaluatorContext;
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.exceptions.IWarningCollector;
+import org.apache.hyracks.api.exceptions.SourceLocation;
+import org.apache.hyracks.api.exceptions.Warning;
+import org.apache.hyracks.data.std.primitive.VoidPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.accessors.FrameTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.PointableTupleReference;
+import org.apache.hyracks.storage.common.MultiComparator;
+
+/**
+ * Optimized runtime for window operators that performs partition materialization and can evaluate running aggregates
+ * as well as decomposable regular aggregates (in nested plans) over sliding window frames
+ * (N preceding/following to M preceding/following, both boundaries moving forward).
+ * <p>
+ * When the first chunk of a partition is produced the partition is split into blocks of {@link #blockSize} tuples
+ * and the partial aggregate state of each block is computed with the step one (local) aggregates.
+ * These states are the leaves of a segment tree whose inner nodes merge the states of their children
+ * with the step two (global) aggregates. The result for each frame is then obtained by merging
+ * at most two partial states computed from the tuples of the first and the last blocks of the frame
+ * with the states of O(log(number of blocks)) tree nodes that cover the whole blocks in between.
+ * Frame boundaries are tracked with forward only cursors over the materialized partition.
+ * <p>
+ * Frame results of different tuples do not depend on each other, so if a large partition is kept in memory
+ * its tuples are split into up to {@link #parallelism} ranges whose frames are aggregated by separate threads.
+ * Each thread seeks its cursors directly to the beginning of its range and uses its own evaluator context.
+ * The results are kept in frames taken from the memory budget of the operator, and then appended to the output
+ * tuples in partition order, together with running aggregates which are always computed by the operator thread.
+ * If the results of a range do not fit in its share of these frames then the remaining tuples of that range
+ * are aggregated by the operator thread.
+ */
+final class WindowNestedPlansSlidingPushRuntime extends AbstractWindowNestedPlansPushRuntime {
+
+    private static final int PARTITION_POSITION_SLOT = 0;
+
+    // each cursor owns two reader slots: position of its current chunk and position of the chunk after it
+    private static final int FRAME_START_CURSOR_SLOT = 1;
+
+    private static final int FRAME_END_CURSOR_SLOT = 3;
+
+    private static final int FRAME_END_BLOCK_CURSOR_SLOT = 5;
+
+    private static final int TMP_CURSOR_SLOT = 7;
+
+    private static final int PARTITION_READER_SLOT_COUNT = TMP_CURSOR_SLOT + 2;
+
+    static final int MIN_BLOCK_SIZE = 16;
+
+    static final int MAX_BLOCK_COUNT = 1024;
+
+    static final long MIN_PARALLEL_PARTITION_LENGTH = 1 << 16;
+
+    // fraction of the memory budget that is reserved for the results of parallel evaluation
+    private static final int RANGE_RESULT_MEMORY_DIVISOR = 4;
+
+    private static final int MAX_BUFFERED_WARNINGS = 64;
+
+    private final IScalarEvaluatorFactory[] frameValueEvalFactories;
+
+    private final IBinaryComparatorFactory[] frameValueComparatorFactories;
+
+    private final IScalarEvaluatorFactory[] frameStartEvalFactories;
+
+    private final boolean frameStartValidationExists;
+
+    private final IScalarEvaluatorFactory[] frameStartValidationEvalFactories;
+
+    private final IScalarEvaluatorFactory[] frameEndEvalFactories;
+
+    private final boolean frameEndValidationExists;
+
+    private final IScalarEvaluatorFactory[] frameEndValidationEvalFactories;
+
+    private final IBinaryBooleanInspectorFactory booleanAccessorFactory;
+
+    private final IAggregateEvaluatorFactory[] partialAggFactories;
+
+    private final IAggregateEvaluatorFactory[] mergeAggFactories;
+
+    private final int parallelism;
+
+    private final int rangeResultFrameLimit;
+
+    private RecordDescriptor partialStateRecordDesc;
+
+    private FrameAggregator frameAggregator;
+
+    private TupleStore nodeStore;
+
+    private int[] nodeFrameIdx;
+
+    private int[] nodeTupleIdx;
+
+    private int leafCapacity;
+
+    private long partitionLength;
+
+    private int blockSize;
+
+    private PartitionCursor loadedCursor;
+
+    // parallel evaluation
+
+    private boolean parallelPartition;
+
+    private long[] chunkPositions;
+
+    private FrameAggregator[] rangeAggregators;
+
+    private BufferedWarningCollector[] rangeWarningCollectors;
+
+    private TupleStore[] rangeResults;
+
+    private long[] rangeResultEnds;
+
+    private long rangeLength;
+
+    private ArrayTupleBuilder emptyFrameResult;
+
+    private FrameTupleAccessor rangeResultAccess;
+
+    private long rowPosition;
+
+    private int rangeResultIdx;
+
+    private int rangeResultFrameIdx;
+
+    private int rangeResultTupleIdx;
+
+    WindowNestedPlansSlidingPushRuntime(int[] partitionColumns, IBinaryComparatorFactory[] partitionComparatorFactories,
+            IBinaryComparatorFactory[] orderComparatorFactories, IScalarEvaluatorFactory[] frameValueEvalFactories,
+            IBinaryComparatorFactory[] frameValueComparatorFactories, IScalarEvaluatorFactory[] frameStartEvalFactories,
+            IScalarEvaluatorFactory[] frameStartValidationEvalFactories,
+            IScalarEvaluatorFactory[] frameEndEvalFactories, IScalarEvaluatorFactory[] frameEndValidationEvalFactories,
+            IBinaryBooleanInspectorFactory booleanAccessorFactory, IAggregateEvaluatorFactory[] partialAggFactories,
+            IAggregateEvaluatorFactory[] mergeAggFactories, int parallelism, int[] projectionColumns,
+            int[] runningAggOutColumns, IRunningAggregateEvaluatorFactory[] runningAggFactories,
+            int nestedAggOutSchemaSize, WindowAggregatorDescriptorFactory nestedAggFactory, IHyracksTaskContext ctx,
+            int memSizeInFrames, SourceLocation sourceLoc) {
+        super(partitionColumns, partitionComparatorFactories, orderComparatorFactories, projectionColumns,
+                runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize, nestedAggFactory, ctx,
+                memSizeInFrames, sourceLoc);
+        this.frameValueEvalFactories = frameValueEvalFactories;
+        this.frameValueComparatorFactories = frameValueComparatorFactories;
+        this.frameStartEvalFactories = frameStartEvalFactories;
+        this.frameStartValidationEvalFactories = frameStartValidationEvalFactories;
+        this.frameStartValidationExists =
+                frameStartValidationEvalFactories != null && frameStartValidationEvalFactories.length > 0;
+        this.frameEndEvalFactories = frameEndEvalFactories;
+        this.frameEndValidationEvalFactories = frameEndValidationEvalFactories;
+        this.frameEndValidationExists =
+                frameEndValidationEvalFactories != null && frameEndValidationEvalFactories.length > 0;
+        this.booleanAccessorFactory = booleanAccessorFactory;
+        this.partialAggFactories = partialAggFactories;
+        this.mergeAggFactories = mergeAggFactories;
+        int rangeResultFrames = parallelism > 1 ? memSizeInFrames / RANGE_RESULT_MEMORY_DIVISOR : 0;
+        this.rangeResultFrameLimit = rangeResultFrames / parallelism;
+        this.parallelism = rangeResultFrameLimit > 0 ? parallelism : 1;
+    }
+
+    @Override
+    int getReservedFrameCount() {
+        return super.getReservedFrameCount() + (parallelism > 1 ? parallelism * rangeResultFrameLimit : 0);
+    }
+
+    @Override
+    protected void init() throws HyracksDataException {
+        super.init();
+        partialStateRecordDesc = new RecordDescriptor(new ISerializerDeserializer[partialAggFactories.length]);
+        frameAggregator = new FrameAggregator(ctx);
+        nodeStore = new TupleStore(ctx.getTaskContext(), Integer.MAX_VALUE);
+        nodeFrameIdx = new int[0];
+        nodeTupleIdx = new int[0];
+        if (parallelism > 1) {
+            chunkPositions = new long[0];
+            rangeAggregators = new FrameAggregator[parallelism];
+            rangeAggregators[0] = frameAggregator;
+            rangeWarningCollectors = new BufferedWarningCollector[parallelism];
+            rangeResults = new TupleStore[parallelism];
+            rangeResultEnds = new long[parallelism];
+            rangeResultAccess =
+                    new FrameTupleAccessor(new RecordDescriptor(new ISerializerDeserializer[nestedAggOutSchemaSize]));
+            // nested aggregates over an empty frame do not depend on the current tuple,
+            // so the threads copy this result instead of sharing the nested aggregator of the operator
+            emptyFrameResult = new ArrayTupleBuilder(nestedAggOutSchemaSize);
+            nestedAggInit();
+            nestedAggOutputFinalResult(emptyFrameResult);
+        }
+    }
+
+    @Override
+    protected void producePartitionTuples(int chunkIdx, IFrame chunkFrame) throws HyracksDataException {
+        partitionReader.savePosition(PARTITION_POSITION_SLOT);
+
+        if (chunkIdx == 0) {
+            partitionLength = getPartitionLength();
+            buildSegmentTree();
+            parallelPartition =
+                    parallelism > 1 && partitionLength >= MIN_PARALLEL_PARTITION_LENGTH && isPartitionInMemory();
+            if (parallelPartition) {
+                aggregatePartitionInParallel();
+            } else {
+                frameAggregator.reset(isPartitionInMemory());
+            }
+        }
+
+        tAccess.reset(chunkFrame.getBuffer());
+        int tBeginIdx = getTupleBeginIdx(chunkIdx);
+        int tEndIdx = getTupleEndIdx(chunkIdx);
+
+        for (int tIdx = tBeginIdx; tIdx <= tEndIdx; tIdx++) {
+            tRef.reset(tAccess, tIdx);
+
+            // running aggregates
+            produceTuple(tupleBuilder, tAccess, tIdx, tRef);
+
+            // nested aggregates
+            if (parallelPartition) {
+                appendRangeResult(tRef);
+            } else {
+                frameAggregator.aggregate(tRef, tupleBuilder);
+            }
+
+            appendToFrameFromTupleBuilder(tupleBuilder);
+        }
+
+        partitionReader.restorePosition(PARTITION_POSITION_SLOT);
+    }
+
+    /**
+     * Computes the partial aggregate states of all blocks of the partition and of all segment tree nodes above them
+     */
+    private void buildSegmentTree() throws HyracksDataException {
+        blockSize = (int) Math.max(MIN_BLOCK_SIZE, (partitionLength + MAX_BLOCK_COUNT - 1) / MAX_BLOCK_COUNT);
+        int blockCount = (int) ((partitionLength + blockSize - 1) / blockSize);
+        leafCapacity = Integer.highestOneBit(Math.max(blockCount, 1));
+        if (leafCapacity < blockCount) {
+            leafCapacity <<= 1;
+        }
+        int nodeCount = 2 * leafCapacity;
+        if (nodeFrameIdx.length < nodeCount) {
+            nodeFrameIdx = new int[nodeCount];
+            nodeTupleIdx = new int[nodeCount];
+        }
+        Arrays.fill(nodeFrameIdx, 0, nodeCount, -1);
+        nodeStore.reset();
+
+        FrameAggregator agg = frameAggregator;
+        ArrayTupleBuilder partialStateBuilder = agg.partialStateBuilder;
+
+        // leaves
+        agg.tmpCursor.reset(isPartitionInMemory());
+        for (int blockIdx = 0; blockIdx < blockCount; blockIdx++) {
+            int blockLength = (int) Math.min(blockSize, partitionLength - (long) blockIdx * blockSize);
+            agg.computePartialState(agg.tmpCursor, blockLength);
+            storeNode(leafCapacity + blockIdx, partialStateBuilder);
+        }
+
+        // inner nodes
+        for (int nodeIdx = leafCapacity - 1; nodeIdx > 0; nodeIdx--) {
+            int leftIdx = 2 * nodeIdx, rightIdx = leftIdx + 1;
+            if (nodeFrameIdx[rightIdx] < 0) {
+                // at most one child, share its state
+                nodeFrameIdx[nodeIdx] = nodeFrameIdx[leftIdx];
+                nodeTupleIdx[nodeIdx] = nodeTupleIdx[leftIdx];
+            } else {
+                agg.mergeInit();
+                agg.mergeNode(leftIdx);
+                agg.mergeNode(rightIdx);
+                agg.mergeFinishPartial();
+                storeNode(nodeIdx, partialStateBuilder);
+            }
+        }
+    }
+
+    private void storeNode(int nodeIdx, ArrayTupleBuilder partialStateBuilder) throws HyracksDataException {
+        nodeStore.append(partialStateBuilder);
+        nodeFrameIdx[nodeIdx] = nodeStore.getLastFrameIdx();
+        nodeTupleIdx[nodeIdx] = nodeStore.getLastTupleIdx();
+    }
+
+    /**
+     * Aggregates frames of all tuples of the current partition in parallel and stores their results in
+     * {@link #rangeResults}. The partition must be kept in memory.
+     */
+    private void aggregatePartitionInParallel() throws HyracksDataException {
+        int chunkCount = getPartitionChunkCount();
+        if (chunkPositions.length < chunkCount) {
+            chunkPositions = new long[chunkCount];
+        }
+        long position = 0;
+        for (int chunkIdx = 0; chunkIdx < chunkCount; chunkIdx++) {
+            chunkPositions[chunkIdx] = position;
+            position += getTupleEndIdx(chunkIdx) - getTupleBeginIdx(chunkIdx) + 1;
+        }
+
+        rangeLength = (partitionLength + parallelism - 1) / parallelism;
+        int rangeCount = (int) ((partitionLength + rangeLength - 1) / rangeLength);
+        for (int i = 0; i < rangeCount; i++) {
+            if (rangeAggregators[i] == null) {
+                rangeWarningCollectors[i] = new BufferedWarningCollector();
+                rangeAggregators[i] =
+                        new FrameAggregator(new EvaluatorContext(ctx.getTaskContext(), rangeWarningCollectors[i]));
+            }
+            if (rangeResults[i] == null) {
+                rangeResults[i] = new TupleStore(ctx.getTaskContext(), rangeResultFrameLimit);
+            }
+        }
+
+        ExecutorService executor = ctx.getTaskContext().getExecutorService();
+        List<Future<Void>> tasks = new ArrayList<>(rangeCount - 1);
+        Throwable failure = null;
+        try {
+            for (int i = 1; i < rangeCount; i++) {
+                int rangeIdx = i;
+                tasks.add(executor.submit(() -> {
+                    aggregateRange(rangeIdx);
+                    return null;
+                }));
+            }
+            aggregateRange(0);
+            for (Future<Void> task : tasks) {
+                task.get();
+            }
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+        } catch (Throwable e) { // NOSONAR: Must catch all causes of failure
+            failure = e;
+        }
+        if (failure != null) {
+            for (Future<Void> task : tasks) {
+                task.cancel(true);
+            }
+            throw HyracksDataException.create(failure);
+        }
+        for (int i = 1; i < rangeCount; i++) {
+            rangeWarningCollectors[i].flush(ctx.getWarningCollector());
+        }
+
+        rowPosition = 0;
+        rangeResultIdx = -1;
+    }
+
+    /**
+     * Aggregates the frames of the tuples of a range until the results of the range fill its frames
+     */
+    private void aggregateRange(int rangeIdx) throws HyracksDataException {
+        FrameAggregator agg = rangeAggregators[rangeIdx];
+        TupleStore results = rangeResults[rangeIdx];
+        long rangeBegin = rangeIdx * rangeLength;
+        long rangeEnd = Math.min(rangeBegin + rangeLength, partitionLength);
+        agg.reset(true);
+        agg.seek(rangeBegin);
+        results.reset();
+        PartitionCursor rowCursor = agg.rowCursor;
+        rowCursor.reset(true);
+        rowCursor.seek(rangeBegin);
+        ArrayTupleBuilder resultBuilder = agg.resultBuilder;
+        long i = rangeBegin;
+        for (; i < rangeEnd; i++) {
+            resultBuilder.reset();
+            agg.aggregate(rowCursor.getTuple(), resultBuilder);
+            if (!results.append(resultBuilder)) {
+                break;
+            }
+            rowCursor.next();
+        }
+        rangeResultEnds[rangeIdx] = i;
+    }
+
+    /**
+     * Appends the nested aggregate results of the current tuple that were computed in parallel,
+     * or computes them if they did not fit in the frames of their range
+     */
+    private void appendRangeResult(IFrameTupleReference tupleRef) throws HyracksDataException {
+        int rangeIdx = (int) (rowPosition / rangeLength);
+        if (rangeIdx != rangeResultIdx) {
+            rangeResultIdx = rangeIdx;
+            rangeResultFrameIdx = 0;
+            rangeResultTupleIdx = 0;
+            rangeResultAccess.reset(rangeResults[rangeIdx].getFrame(0).getBuffer());
+        }
+        if (rowPosition < rangeResultEnds[rangeIdx]) {
+            if (rangeResultTupleIdx >= rangeResultAccess.getTupleCount()) {
+                rangeResultFrameIdx++;
+                rangeResultAccess.reset(rangeResults[rangeIdx].getFrame(rangeResultFrameIdx).getBuffer());
+                rangeResultTupleIdx = 0;
+            }
+            for (int i = 0; i < nestedAggOutSchemaSize; i++) {
+                tupleBuilder.addField(rangeResultAccess, rangeResultTupleIdx, i);
+            }
+            rangeResultTupleIdx++;
+        } else {
+            if (rowPosition == rangeResultEnds[rangeIdx]) {
+                frameAggregator.seek(rowPosition);
+            }
+            frameAggregator.aggregate(tupleRef, tupleBuilder);
+        }
+        rowPosition++;
+    }
+
+    private void appendEmptyFrameResult(ArrayTupleBuilder outTupleBuilder) throws HyracksDataException {
+        int[] fieldEndOffsets = emptyFrameResult.getFieldEndOffsets();
+        byte[] data = emptyFrameResult.getByteArray();
+        for (int i = 0, fieldStart = 0; i < nestedAggOutSchemaSize; i++) {
+            outTupleBuilder.addField(data, fieldStart, fieldEndOffsets[i] - fieldStart);
+            fieldStart = fieldEndOffsets[i];
+        }
+    }
+
+    @Override
+    protected int getPartitionReaderSlotCount() {
+        return PARTITION_READER_SLOT_COUNT;
+    }
+
+    /**
+     * Evaluates nested aggregates over frames of tuples of the current partition.
+     * Each thread that aggregates frames uses its own instance.
+     */
+    private final class FrameAggregator {
+
+        private final IScalarEvaluator[] frameValueEvals;
+
+        private final PointableTupleReference frameValuePointables;
+
+        private final MultiComparator frameValueComparators;
+
+        private final IScalarEvaluator[] frameStartEvals;
+
+        private final PointableTupleReference frameStartPointables;
+
+        private IScalarEvaluator[] frameStartValidationEvals;
+
+        private PointableTupleReference frameStartValidationPointables;
+
+        private final IScalarEvaluator[] frameEndEvals;
+
+        private final PointableTupleReference frameEndPointables;
+
+        private IScalarEvaluator[] frameEndValidationEvals;
+
+        private PointableTupleReference frameEndValidationPointables;
+
+        private IBinaryBooleanInspector booleanAccessor;
+
+        private final IAggregateEvaluator[] partialAggs;
+
+        private final IAggregateEvaluator[] mergeAggs;
+
+        private final VoidPointable aggResult;
+
+        private final ArrayTupleBuilder partialStateBuilder;
+
+        private final ArrayTupleBuilder resultBuilder;
+
+        private final FrameTupleAccessor partialStateAccess;
+
+        private final FrameTupleReference partialStateRef;
+
+        private final IFrame edgeFrame;
+
+        private final FrameTupleAppender edgeAppender;
+
+        private final PartitionCursor frameStartCursor;
+
+        private final PartitionCursor frameEndCursor;
+
+        private final PartitionCursor frameEndBlockCursor;
+
+        private final PartitionCursor tmpCursor;
+
+        private final PartitionCursor rowCursor;
+
+        // whether the frame cursors need to be moved to the frame of the next aggregated tuple
+        private boolean seekFrame;
+
+        private FrameAggregator(IEvaluatorContext evalCtx) throws HyracksDataException {
+            frameValueEvals = createEvaluators(frameValueEvalFactories, evalCtx);
+            frameValueComparators = MultiComparator.create(frameValueComparatorFactories);
+            frameValuePointables =
+                    PointableTupleReference.create(frameValueEvalFactories.length, VoidPointable.FACTORY);
+            frameStartEvals = createEvaluators(frameStartEvalFactories, evalCtx);
+            frameStartPointables =
+                    PointableTupleReference.create(frameStartEvalFactories.length, VoidPointable.FACTORY);
+            if (frameStartValidationExists) {
+                frameStartValidationEvals = createEvaluators(frameStartValidationEvalFactories, evalCtx);
+                frameStartValidationPointables =
+                        PointableTupleReference.create(frameStartValidationEvalFactories.length, VoidPointable.FACTORY);
+            }
+            frameEndEvals = createEvaluators(frameEndEvalFactories, evalCtx);
+            frameEndPointables = PointableTupleReference.create(frameEndEvalFactories.length, VoidPointable.FACTORY);
+            if (frameEndValidationExists) {
+                frameEndValidationEvals = createEvaluators(frameEndValidationEvalFactories, evalCtx);
+                frameEndValidationPointables =
+                        PointableTupleReference.create(frameEndValidationEvalFactories.length, VoidPointable.FACTORY);
+            }
+            if (frameStartValidationExists || frameEndValidationExists) {
+                booleanAccessor = booleanAccessorFactory.createBinaryBooleanInspector(ctx.getTaskContext());
+            }
+
+            int aggCount = partialAggFactories.length;
+            partialAggs = new IAggregateEvaluator[aggCount];
+            mergeAggs = new IAggregateEvaluator[aggCount];
+            for (int i = 0; i < aggCount; i++) {
+                partialAggs[i] = partialAggFactories[i].createAggregateEvaluator(evalCtx);
+                mergeAggs[i] = mergeAggFactories[i].createAggregateEvaluator(evalCtx);
+            }
+            aggResult = VoidPointable.FACTORY.createPointable();
+            partialStateBuilder = new ArrayTupleBuilder(aggCount);
+            resultBuilder = new ArrayTupleBuilder(nestedAggOutSchemaSize);
+            partialStateAccess = new FrameTupleAccessor(partialStateRecordDesc);
+            partialStateRef = new FrameTupleReference();
+            edgeFrame = new VSizeFrame(ctx.getTaskContext());
+            edgeAppender = new FrameTupleAppender();
+
+            frameStartCursor = new PartitionCursor(FRAME_START_CURSOR_SLOT);
+            frameEndCursor = new PartitionCursor(FRAME_END_CURSOR_SLOT);
+            frameEndBlockCursor = new PartitionCursor(FRAME_END_BLOCK_CURSOR_SLOT);
+            tmpCursor = new PartitionCursor(TMP_CURSOR_SLOT);
+            rowCursor = new PartitionCursor(-1);
+        }
+
+        /**
+         * Positions frame cursors at the beginning of the current partition
+         *
+         * @param inMemory whether frames of the partition should be accessed in memory instead of
+         *                 through the partition reader
+         */
+        private void reset(boolean inMemory) {
+            frameStartCursor.reset(inMemory);
+            frameEndCursor.reset(inMemory);
+            frameEndBlockCursor.reset(inMemory);
+            seekFrame = false;
+        }
+
+        /**
+         * Makes the next {@link #aggregate(IFrameTupleReference, ArrayTupleBuilder)} call position the frame cursors
+         * directly instead of moving them forward from their current position, which must be before the frame of the
+         * tuple. The partition must be kept in memory.
+         */
+        private void seek(long position) {
+            seekFrame = position > 0;
+        }
+
+        /**
+         * Aggregates the frame of a given tuple and appends final results to the output tuple
+         */
+        private void aggregate(IFrameTupleReference tupleRef, ArrayTupleBuilder outTupleBuilder)
+                throws HyracksDataException {
+            // frame boundaries
+            boolean frameValid = true;
+            if (frameStartValidationExists) {
+                evaluate(frameStartValidationEvals, tupleRef, frameStartValidationPointables);
+                frameValid = allTrue(frameStartValidationPointables, booleanAccessor);
+            }
+            if (frameValid && frameEndValidationExists) {
+                evaluate(frameEndValidationEvals, tupleRef, frameEndValidationPointables);
+                frameValid = allTrue(frameEndValidationPointables, booleanAccessor);
+            }
+
+            if (frameValid) {
+                evaluate(frameStartEvals, tupleRef, frameStartPointables);
+                evaluate(frameEndEvals, tupleRef, frameEndPointables);
+
+                if (seekFrame) {
+                    seekFrameCursors();
+                    seekFrame = false;
+                }
+
+                // both boundaries are monotonic, so the cursors never need to move backwards
+                while (frameStartCursor.hasTuple() && compareFrameValue(frameStartCursor, frameStartPointables) < 0) {
+                    // value < start => before the frame start
+                    frameStartCursor.next();
+                }
+                while (frameEndCursor.hasTuple() && compareFrameValue(frameEndCursor, frameEndPointables) <= 0) {
+                    // value <= end => within the frame end
+                    if (frameEndCursor.position % blockSize == 0) {
+                        frameEndBlockCursor.copyFrom(frameEndCursor);
+                    }
+                    frameEndCursor.next();
+                }
+
+                long frameBegin = frameStartCursor.position, frameEnd = frameEndCursor.position - 1;
+                if (frameBegin <= frameEnd) {
+                    aggregateFrame(frameBegin, frameEnd, outTupleBuilder);
+                    return;
+                }
+            }
+
+            // empty frame
+            if (parallelPartition) {
+                appendEmptyFrameResult(outTupleBuilder);
+            } else {
+                nestedAggInit();
+                nestedAggOutputFinalResult(outTupleBuilder);
+            }
+        }
+
+        /**
+         * Positions the frame cursors at the frame boundaries of the current tuple with binary searches
+         * over the in-memory partition, relying on the frame values being ordered within the partition
+         */
+        private void seekFrameCursors() throws HyracksDataException {
+            frameStartCursor.seek(findFirstAfter(frameStartPointables, false));
+            long frameEndPosition = findFirstAfter(frameEndPointables, true);
+            frameEndCursor.seek(frameEndPosition);
+            if (frameEndPosition > 0) {
+                frameEndBlockCursor.seek((frameEndPosition - 1) / blockSize * blockSize);
+            }
+        }
+
+        /**
+         * @return position of the first tuple whose frame value is greater than (or equal to, if not inclusive)
+         *         the given boundary, or the partition length if there is no such tuple
+         */
+        private long findFirstAfter(PointableTupleReference boundaryPointables, boolean inclusive)
+                throws HyracksDataException {
+            tmpCursor.reset(true);
+            long low = 0, high = partitionLength;
+            while (low < high) {
+                long mid = (low + high) >>> 1;
+                tmpCursor.seek(mid);
+                int c = compareFrameValue(tmpCursor, boundaryPointables);
+                if (c < 0 || (inclusive && c == 0)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private int compareFrameValue(PartitionCursor cursor, PointableTupleReference boundaryPointables)
+                throws HyracksDataException {
+            evaluate(frameValueEvals, cursor.getTuple(), frameValuePointables);
+            return frameValueComparators.compare(frameValuePointables, boundaryPointables);
+        }
+
+        /**
+         * Aggregates tuples [frameBegin, frameEnd] of the partition and appends final results to the output tuple
+         */
+        private void aggregateFrame(long frameBegin, long frameEnd, ArrayTupleBuilder outTupleBuilder)
+                throws HyracksDataException {
+            int firstBlockIdx = (int) (frameBegin / blockSize);
+            int lastBlockIdx = (int) (frameEnd / blockSize);
+            boolean firstBlockIsWhole = frameBegin == (long) firstBlockIdx * blockSize;
+            boolean lastBlockIsWhole = frameEnd == Math.min((long) (lastBlockIdx + 1) * blockSize, partitionLength) - 1;
+
+            mergeInit();
+            if (firstBlockIdx == lastBlockIdx && !(firstBlockIsWhole && lastBlockIsWhole)) {
+                mergeEdge(frameStartCursor, (int) (frameEnd - frameBegin + 1));
+            } else {
+                int lowBlockIdx = firstBlockIdx, highBlockIdx = lastBlockIdx;
+                if (!firstBlockIsWhole) {
+                    mergeEdge(frameStartCursor, (int) ((long) (firstBlockIdx + 1) * blockSize - frameBegin));
+                    lowBlockIdx++;
+                }
+                if (!lastBlockIsWhole) {
+                    mergeEdge(frameEndBlockCursor, (int) (frameEnd - (long) lastBlockIdx * blockSize + 1));
+                    highBlockIdx--;
+                }
+                for (int l = lowBlockIdx + leafCapacity, r = highBlockIdx + leafCapacity + 1; l < r; l >>= 1, r >>= 1) {
+                    if ((l & 1) != 0) {
+                        mergeNode(l++);
+                    }
+                    if ((r & 1) != 0) {
+                        mergeNode(--r);
+                    }
+                }
+            }
+            for (IAggregateEvaluator mergeAgg : mergeAggs) {
+                mergeAgg.finish(aggResult);
+                outTupleBuilder.addField(aggResult);
+            }
+        }
+
+        /**
+         * Computes the partial aggregate state of {@code length} tuples starting at the cursor position
+         * into {@link #partialStateBuilder}. The cursor is moved past these tuples.
+         */
+        private void computePartialState(PartitionCursor cursor, int length) throws HyracksDataException {
+            for (IAggregateEvaluator partialAgg : partialAggs) {
+                partialAgg.init();
+            }
+            for (int i = 0; i < length; i++) {
+                IFrameTupleReference tuple = cursor.getTuple();
+                for (IAggregateEvaluator partialAgg : partialAggs) {
+                    partialAgg.step(tuple);
+                }
+                cursor.next();
+            }
+            partialStateBuilder.reset();
+            for (IAggregateEvaluator partialAgg : partialAggs) {
+                partialAgg.finishPartial(aggResult);
+                partialStateBuilder.addField(aggResult);
+            }
+        }
+
+        private void mergeInit() throws HyracksDataException {
+            for (IAggregateEvaluator mergeAgg : mergeAggs) {
+                mergeAgg.init();
+            }
+        }
+
+        private void mergeFinishPartial() throws HyracksDataException {
+            partialStateBuilder.reset();
+            for (IAggregateEvaluator mergeAgg : mergeAggs) {
+                mergeAgg.finishPartial(aggResult);
+                partialStateBuilder.addField(aggResult);
+            }
+        }
+
+        private void mergeEdge(PartitionCursor cursor, int length) throws HyracksDataException {
+            tmpCursor.copyFrom(cursor);
+            computePartialState(tmpCursor, length);
+            edgeAppender.reset(edgeFrame, true);
+            edgeAppender.append(partialStateBuilder.getFieldEndOffsets(), partialStateBuilder.getByteArray(), 0,
+                    partialStateBuilder.getSize());
+            partialStateAccess.reset(edgeFrame.getBuffer());
+            mergeState(0);
+        }
+
+        private void mergeNode(int nodeIdx) throws HyracksDataException {
+            partialStateAccess.reset(nodeStore.getFrame(nodeFrameIdx[nodeIdx]).getBuffer());
+            mergeState(nodeTupleIdx[nodeIdx]);
+        }
+
+        private void mergeState(int tIdx) throws HyracksDataException {
+            partialStateRef.reset(partialStateAccess, tIdx);
+            for (IAggregateEvaluator mergeAgg : mergeAggs) {
+                mergeAgg.step(partialStateRef);
+            }
+        }
+    }
+
+    /**
+     * Forward only cursor over the tuples of the current partition.
+     * If the partition is kept in memory then its frames are accessed directly,
+     * otherwise they are read with the partition reader.
+     */
+    private final class PartitionCursor {
+
+        private final int positionSlot;
+
+        private final int nextChunkPositionSlot;
+
+        private final FrameTupleAccessor cursorAccess;
+
+        private final FrameTupleReference cursorRef;
+
+        private boolean inMemory;
+
+        private int chunkIdx;
+
+        private int tIdx;
+
+        private int loadedChunkIdx;
+
+        private boolean nextChunkPositionSaved;
+
+        private long position;
+
+        private PartitionCursor(int positionSlot) {
+            this.positionSlot = positionSlot;
+            this.nextChunkPositionSlot = positionSlot + 1;
+            cursorAccess = new FrameTupleAccessor(inputRecordDesc);
+            cursorRef = new FrameTupleReference();
+        }
+
+        private void reset(boolean inMemory) {
+            this.inMemory = inMemory;
+            if (!inMemory) {
+                partitionReader.rewind();
+                partitionReader.savePosition(positionSlot);
+            }
+            chunkIdx = 0;
+            tIdx = getTupleBeginIdx(0);
+            loadedChunkIdx = -1;
+            nextChunkPositionSaved = false;
+            position = 0;
+            if (loadedCursor == this) {
+                loadedCursor = null;
+            }
+        }
+
+        private boolean hasTuple() {
+            return chunkIdx < getPartitionChunkCount();
+        }
+
+        private IFrameTupleReference getTuple() throws HyracksDataException {
+            if (inMemory) {
+                if (loadedChunkIdx != chunkIdx) {
+                    cursorAccess.reset(getPartitionChunkFrame(chunkIdx).getBuffer());
+                    loadedChunkIdx = chunkIdx;
+                }
+            } else if (loadedCursor != this) {
+                // the frame returned by the reader for non-primary scans is shared by all cursors
+                partitionReader.restorePosition(positionSlot);
+                IFrame frame = partitionReader.nextFrame(false);
+                partitionReader.savePosition(nextChunkPositionSlot);
+                nextChunkPositionSaved = true;
+                cursorAccess.reset(frame.getBuffer());
+                loadedCursor = this;
+            }
+            cursorRef.reset(cursorAccess, tIdx);
+            return cursorRef;
+        }
+
+        private void next() throws HyracksDataException {
+            position++;
+            if (tIdx < getTupleEndIdx(chunkIdx)) {
+                tIdx++;
+                return;
+            }
+            if (!inMemory) {
+                if (!nextChunkPositionSaved) {
+                    getTuple();
+                }
+                partitionReader.copyPosition(nextChunkPositionSlot, positionSlot);
+                nextChunkPositionSaved = false;
+                if (loadedCursor == this) {
+                    loadedCursor = null;
+                }
+            }
+            chunkIdx++;
+            tIdx = 0;
+        }
+
+        /**
+         * Moves the cursor to a given position of the partition, which must be kept in memory
+         */
+        private void seek(long newPosition) {
+            int chunkCount = getPartitionChunkCount();
+            if (newPosition >= partitionLength) {
+                chunkIdx = chunkCount;
+                tIdx = 0;
+            } else {
+                int idx = Arrays.binarySearch(chunkPositions, 0, chunkCount, newPosition);
+                chunkIdx = idx >= 0 ? idx : -idx - 2;
+                tIdx = getTupleBeginIdx(chunkIdx) + (int) (newPosition - chunkPositions[chunkIdx]);
+            }
+            position = newPosition;
+        }
+
+        private void copyFrom(PartitionCursor other) {
+            inMemory = other.inMemory;
+            if (!inMemory) {
+                partitionReader.copyPosition(other.positionSlot, positionSlot);
+                partitionReader.copyPosition(other.nextChunkPositionSlot, nextChunkPositionSlot);
+                if (loadedCursor == this) {
+                    loadedCursor = null;
+                }
+            }
+            chunkIdx = other.chunkIdx;
+            tIdx = other.tIdx;
+            nextChunkPositionSaved = other.nextChunkPositionSaved;
+            position = other.position;
+        }
+    }
+
+    /**
+     * Append only storage of tuples in a list of frames
+     */
+    private static final class TupleStore {
+
+        private final IHyracksTaskContext ctx;
+
+        private final int frameLimit;
+
+        private final List<IFrame> frames = new ArrayList<>();
+
+        private final FrameTupleAppender appender = new FrameTupleAppender();
+
+        private int frameCount;
+
+        private TupleStore(IHyracksTaskContext ctx, int frameLimit) {
+            this.ctx = ctx;
+            this.frameLimit = frameLimit;
+        }
+
+        private void reset() throws HyracksDataException {
+            frameCount = 0;
+            nextFrame();
+        }
+
+        /**
+         * @return {@code false} if the tuple was not stored because all frames of the store are full
+         */
+        private boolean append(ArrayTupleBuilder tupleBuilder) throws HyracksDataException {
+            int[] fieldEndOffsets = tupleBuilder.getFieldEndOffsets();
+            byte[] bytes = tupleBuilder.getByteArray();
+            int length = tupleBuilder.getSize();
+            if (!appender.append(fieldEndOffsets, bytes, 0, length)) {
+                if (frameCount >= frameLimit) {
+                    return false;
+                }
+                nextFrame();
+                appender.append(fieldEndOffsets, bytes, 0, length);
+            }
+            return true;
+        }
+
+        private int getLastFrameIdx() {
+            return frameCount - 1;
+        }
+
+        private int getLastTupleIdx() {
+            return appender.getTupleCount() - 1;
+        }
+
+        private IFrame getFrame(int frameIdx) {
+            return frames.get(frameIdx);
+        }
+
+        private void nextFrame() throws HyracksDataException {
+            IFrame frame;
+            if (frameCount < frames.size()) {
+                frame = frames.get(frameCount);
+            } else {
+                frame = new VSizeFrame(ctx);
+                frames.add(frame);
+            }
+            frameCount++;
+            appender.reset(frame, true);
+        }
+    }
+
+    /**
+     * Keeps the warnings issued by a thread that aggregates a range of frames,
+     * so that the operator thread can pass them to the warning collector of the task
+     */
+    private static final class BufferedWarningCollector implements IWarningCollector {
+
+        private final List<Warning> warnings = new ArrayList<>();
+
+        private long warningsCount;
+
+        @Override
+        public void warn(Warning warning) {
+            if (warnings.size() < MAX_BUFFERED_WARNINGS) {
+                warnings.add(warning);
+            }
+        }
+
+        @Override
+        public boolean shouldWarn() {
+            warningsCount++;
+            return true;
+        }
+
+        @Override
+        public long getTotalWarningsCount() {
+            return warningsCount;
+        }
+
+        private void flush(IWarningCollector target) {
+            for (long i = 0; i < warningsCount; i++) {
+                if (target.shouldWarn() && i < warnings.size()) {
+                    target.warn(warnings.get((int) i));
+                }
+            }
+            warnings.clear();
+            warningsCount = 0;
+        }
+    }
+}
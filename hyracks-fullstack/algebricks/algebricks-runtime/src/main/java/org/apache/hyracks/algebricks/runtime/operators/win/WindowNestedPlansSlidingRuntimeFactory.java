@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.runtime.operators.win;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.algebricks.data.IBinaryBooleanInspectorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IAggregateEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IRunningAggregateEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputOneFramePushRuntime;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+
+/**
+ * Optimized runtime for window operators that performs partition materialization and can evaluate running aggregates
+ * as well as decomposable regular aggregates (in nested plans) over sliding window frames
+ * (N preceding/following to M preceding/following, both boundaries moving forward).
+ * Partial aggregate states of fixed size blocks of each partition are kept in a segment tree, so each frame is
+ * aggregated from the partial states of its whole blocks and only the tuples of its first and last blocks are read.
+ * Frames of large partitions that are kept in memory can be aggregated by several threads.
+ */
+public class WindowNestedPlansSlidingRuntimeFactory extends AbstractWindowNestedPlansRuntimeFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final IScalarEvaluatorFactory[] frameValueEvalFactories;
+
+    private final IBinaryComparatorFactory[] frameValueComparatorFactories;
+
+    private final IScalarEvaluatorFactory[] frameStartEvalFactories;
+
+    private final IScalarEvaluatorFactory[] frameStartValidationEvalFactories;
+
+    private final IScalarEvaluatorFactory[] frameEndEvalFactories;
+
+    private final IScalarEvaluatorFactory[] frameEndValidationEvalFactories;
+
+    private final IBinaryBooleanInspectorFactory booleanAccessorFactory;
+
+    private final IAggregateEvaluatorFactory[] partialAggFactories;
+
+    private final IAggregateEvaluatorFactory[] mergeAggFactories;
+
+    private final int parallelism;
+
+    public WindowNestedPlansSlidingRuntimeFactory(int[] partitionColumns,
+            IBinaryComparatorFactory[] partitionComparatorFactories,
+            IBinaryComparatorFactory[] orderComparatorFactories, IScalarEvaluatorFactory[] frameValueEvalFactories,
+            IBinaryComparatorFactory[] frameValueComparatorFactories, IScalarEvaluatorFactory[] frameStartEvalFactories,
+            IScalarEvaluatorFactory[] frameStartValidationEvalFactories,
+            IScalarEvaluatorFactory[] frameEndEvalFactories, IScalarEvaluatorFactory[] frameEndValidationEvalFactories,
+            IBinaryBooleanInspectorFactory booleanAccessorFactory, IAggregateEvaluatorFactory[] partialAggFactories,
+            IAggregateEvaluatorFactory[] mergeAggFactories, int parallelism, int[] projectionColumnsExcludingSubplans,
+            int[] runningAggOutColumns, IRunningAggregateEvaluatorFactory[] runningAggFactories,
+            int nestedAggOutSchemaSize, WindowAggregatorDescriptorFactory nestedAggFactory, int memSizeInFrames) {
+        super(partitionColumns, partitionComparatorFactories, orderComparatorFactories,
+                projectionColumnsExcludingSubplans, runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize,
+                nestedAggFactory, memSizeInFrames);
+        this.frameValueEvalFactories = frameValueEvalFactories;
+        this.frameValueComparatorFactories = frameValueComparatorFactories;
+        this.frameStartEvalFactories = frameStartEvalFactories;
+        this.frameStartValidationEvalFactories = frameStartValidationEvalFactories;
+        this.frameEndEvalFactories = frameEndEvalFactories;
+        this.frameEndValidationEvalFactories = frameEndValidationEvalFactories;
+        this.booleanAccessorFactory = booleanAccessorFactory;
+        this.partialAggFactories = partialAggFactories;
+        this.mergeAggFactories = mergeAggFactories;
+        this.parallelism = parallelism;
+    }
+
+    @Override
+    public AbstractOneInputOneOutputOneFramePushRuntime createOneOutputPushRuntime(IHyracksTaskContext ctx) {
+        return new WindowNestedPlansSlidingPushRuntime(partitionColumns, partitionComparatorFactories,
+                orderComparatorFactories, frameValueEvalFactories, frameValueComparatorFactories,
+                frameStartEvalFactories, frameStartValidationEvalFactories, frameEndEvalFactories,
+                frameEndValidationEvalFactories, booleanAccessorFactory, partialAggFactories, mergeAggFactories,
+                parallelism, projectionList, runningAggOutColumns, runningAggFactories, nestedAggOutSchemaSize,
+                nestedAggFactory, ctx, memSizeInFrames, sourceLoc);
+    }
+
+    @Override
+    public String toString() {
+        return "window [nested-sliding] (" + Arrays.toString(partitionColumns) + ") "
+                + Arrays.toString(runningAggOutColumns) + " := " + Arrays.toString(runningAggFactories);
+    }
+}
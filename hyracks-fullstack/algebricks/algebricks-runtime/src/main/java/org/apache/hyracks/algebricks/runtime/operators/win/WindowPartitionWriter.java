@@ -117,6 +117,25 @@ final class WindowPartitionWriter {
         writerFrameCount++;
     }
 
+    /**
+     * @return {@code true} if all frames of the current partition are kept in memory
+     */
+    boolean isInMemory() {
+        return writerFrameCount <= writerFrames.length;
+    }
+
+    /**
+     * Returns a frame of the current partition if that partition is kept in memory.
+     * Unlike {@link WindowPartitionReader} this method does not change any reader state,
+     * so it can be called by multiple threads once the partition has been written.
+     */
+    IFrame getInMemoryFrame(int frameIdx) {
+        if (frameIdx >= writerFrameCount || !isInMemory()) {
+            throw new IllegalStateException(String.valueOf(frameIdx));
+        }
+        return writerFrames[frameIdx];
+    }
+
     WindowPartitionReader getReader() {
         return partitionReader;
     }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.algebricks.tests.pushruntime;
+
+import org.apache.hyracks.algebricks.runtime.base.IBatchScalarEvaluator;
+import org.apache.hyracks.algebricks.runtime.base.IBatchScalarEvaluatorFactory;
+import org.apache.hyracks.algebricks.runtime.base.IEvaluatorContext;
+import org.apache.hyracks.algebricks.runtime.base.ScalarVector;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.api.IPointable;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.data.accessors.IFrameTupleReference;
+
+/**
+ * Compares an integer field of the tuples of a frame with a constant. The evaluators only evaluate whole frames and
+ * fail when they are asked to evaluate a single tuple, so that a runtime that does not use the batch evaluation of
+ * its condition fails.
+ */
+public class IntegerGreaterThanBatchEvalFactory implements IBatchScalarEvaluatorFactory {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int fieldIndex;
+    private final int constant;
+
+    public IntegerGreaterThanBatchEvalFactory(int fieldIndex, int constant) {
+        this.fieldIndex = fieldIndex;
+        this.constant = constant;
+    }
+
+    @Override
+    public IBatchScalarEvaluator createScalarEvaluator(IEvaluatorContext ctx) throws HyracksDataException {
+        return new IBatchScalarEvaluator() {
+
+            @Override
+            public void evaluate(IFrameTupleReference tuple, IPointable result) throws HyracksDataException {
+                throw new HyracksDataException("The condition was evaluated one tuple at a time");
+            }
+
+            @Override
+            public void evaluate(IFrameTupleAccessor accessor, ScalarVector result) throws HyracksDataException {
+                int nTuple = accessor.getTupleCount();
+                result.reset(nTuple, true);
+                long[] values = result.getValues();
+                boolean[] nullMask = result.getNullMask();
+                byte[] array = accessor.getBuffer().array();
+                for (int t = 0; t < nTuple; t++) {
+                    int v = IntegerPointable.getInteger(array, accessor.getAbsoluteFieldStartOffset(t, fieldIndex));
+                    values[t] = v > constant ? 1 : 0;
+                    nullMask[t] = false;
+                }
+            }
+        };
+    }
+}
@@ -22,6 +22,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.Collections;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -45,7 +46,10 @@ import org.apache.hyracks.algebricks.runtime.operators.aggreg.AggregateRuntimeFa
 import org.apache.hyracks.algebricks.runtime.operators.aggreg.NestedPlansAccumulatingAggregatorFactory;
 import org.apache.hyracks.algebricks.runtime.operators.aggrun.RunningAggregateRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.group.MicroPreClusteredGroupRuntimeFactory;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputPushRuntime;
+import org.apache.hyracks.algebricks.runtime.operators.base.AbstractOneInputOneOutputRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.meta.AlgebricksMetaOperatorDescriptor;
+import org.apache.hyracks.algebricks.runtime.operators.meta.FusedPipelineRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.meta.SubplanRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.sort.MicroSortRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.operators.std.AssignRuntimeFactory;
@@ -62,12 +66,14 @@ import org.apache.hyracks.algebricks.runtime.operators.std.UnnestRuntimeFactory;
 import org.apache.hyracks.algebricks.runtime.writers.PrinterBasedWriterFactory;
 import org.apache.hyracks.algebricks.tests.util.AlgebricksHyracksIntegrationUtil;
 import org.apache.hyracks.api.constraints.PartitionConstraintHelper;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.IOperatorDescriptor;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.io.FileSplit;
 import org.apache.hyracks.api.io.ManagedFileSplit;
@@ -225,6 +231,178 @@ public class PushRuntimeTest {
         outFile.delete();
     }
 
+    @Test
+    public void scanFusedAssignSelectProjectWrite() throws Exception {
+        JobSpecification spec = new JobSpecification(FRAME_SIZE);
+
+        // the scanner
+        FileSplit[] intFileSplits = new FileSplit[1];
+        intFileSplits[0] = new ManagedFileSplit(AlgebricksHyracksIntegrationUtil.NC1_ID,
+                "data" + File.separator + "simple" + File.separator + "int-part1.tbl");
+        IFileSplitProvider intSplitProvider = new ConstantFileSplitProvider(intFileSplits);
+        RecordDescriptor intScannerDesc =
+                new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE });
+        IValueParserFactory[] valueParsers = new IValueParserFactory[] { IntegerParserFactory.INSTANCE };
+        FileScanOperatorDescriptor intScanner = new FileScanOperatorDescriptor(spec, intSplitProvider,
+                new DelimitedDataTupleParserFactory(valueParsers, '|'), intScannerDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, intScanner, DEFAULT_NODES);
+
+        // the fused algebricks ops.
+        AssignRuntimeFactory assign = new AssignRuntimeFactory(new int[] { 1 },
+                new IScalarEvaluatorFactory[] { new IntegerConstantEvalFactory(2) }, new int[] { 0, 1 });
+        RecordDescriptor assignDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+                IntegerSerializerDeserializer.INSTANCE, IntegerSerializerDeserializer.INSTANCE });
+        IScalarEvaluatorFactory cond =
+                new IntegerGreaterThanEvalFactory(new TupleFieldEvaluatorFactory(1), new TupleFieldEvaluatorFactory(0));
+        StreamSelectRuntimeFactory select =
+                new StreamSelectRuntimeFactory(cond, null, BinaryBooleanInspectorImpl.FACTORY, false, -1, null);
+        StreamProjectRuntimeFactory project = new StreamProjectRuntimeFactory(new int[] { 0 });
+        Assert.assertTrue(FusedPipelineRuntimeFactory.isFusible(assign));
+        Assert.assertTrue(FusedPipelineRuntimeFactory.isFusible(select));
+        Assert.assertTrue(FusedPipelineRuntimeFactory.isFusible(project));
+        FusedPipelineRuntimeFactory fused = new FusedPipelineRuntimeFactory(
+                new AbstractOneInputOneOutputRuntimeFactory[] { assign, select, project });
+        RecordDescriptor fusedDesc = intScannerDesc;
+
+        String filePath = PATH_ACTUAL + SEPARATOR + "scanFusedAssignSelectProjectWrite.out";
+        File outFile = new File(filePath);
+        SinkWriterRuntimeFactory writer =
+                new SinkWriterRuntimeFactory(new int[] { 0 }, new IPrinterFactory[] { IntegerPrinterFactory.INSTANCE },
+                        outFile, PrinterBasedWriterFactory.INSTANCE, fusedDesc);
+
+        AlgebricksMetaOperatorDescriptor algebricksOp = new AlgebricksMetaOperatorDescriptor(spec, 1, 0,
+                new IPushRuntimeFactory[] { fused, writer }, new RecordDescriptor[] { fusedDesc, null });
+
+        PartitionConstraintHelper.addPartitionCountConstraint(spec, algebricksOp, 1);
+
+        spec.connect(new OneToOneConnectorDescriptor(spec), intScanner, 0, algebricksOp, 0);
+
+        spec.addRoot(algebricksOp);
+        AlgebricksHyracksIntegrationUtil.runJob(spec);
+
+        StringBuilder buf = new StringBuilder();
+        readFileToString(outFile, buf);
+        Assert.assertEquals("0", buf.toString());
+        outFile.delete();
+    }
+
+    @Test
+    public void scanFusedBatchSelectAssignProjectWrite() throws Exception {
+        JobSpecification spec = new JobSpecification(FRAME_SIZE);
+
+        // the scanner
+        FileSplit[] intFileSplits = new FileSplit[1];
+        intFileSplits[0] = new ManagedFileSplit(AlgebricksHyracksIntegrationUtil.NC1_ID,
+                "data" + File.separator + "simple" + File.separator + "int-part1.tbl");
+        IFileSplitProvider intSplitProvider = new ConstantFileSplitProvider(intFileSplits);
+        RecordDescriptor intScannerDesc =
+                new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE });
+        IValueParserFactory[] valueParsers = new IValueParserFactory[] { IntegerParserFactory.INSTANCE };
+        FileScanOperatorDescriptor intScanner = new FileScanOperatorDescriptor(spec, intSplitProvider,
+                new DelimitedDataTupleParserFactory(valueParsers, '|'), intScannerDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, intScanner, DEFAULT_NODES);
+
+        // the fused algebricks ops. the condition of the select fails if it is evaluated one tuple at a time, so the
+        // select must be evaluated on whole frames although it is fused.
+        StreamSelectRuntimeFactory select = new StreamSelectRuntimeFactory(new IntegerGreaterThanBatchEvalFactory(0, 6),
+                null, BinaryBooleanInspectorImpl.FACTORY, false, -1, null);
+        AssignRuntimeFactory assign = new AssignRuntimeFactory(new int[] { 1 }, new IScalarEvaluatorFactory[] {
+                new IntegerAddEvalFactory(new TupleFieldEvaluatorFactory(0), new IntegerConstantEvalFactory(1)) },
+                new int[] { 0, 1 });
+        StreamProjectRuntimeFactory project = new StreamProjectRuntimeFactory(new int[] { 1 });
+        // a select whose condition is evaluated on whole frames only reads the tuples of the input frame at the head
+        // of a chain
+        Assert.assertTrue(FusedPipelineRuntimeFactory.startsChain(select));
+        Assert.assertFalse(FusedPipelineRuntimeFactory.startsChain(new StreamSelectRuntimeFactory(
+                new IntegerGreaterThanEvalFactory(new TupleFieldEvaluatorFactory(0), new IntegerConstantEvalFactory(6)),
+                null, BinaryBooleanInspectorImpl.FACTORY, false, -1, null)));
+        Assert.assertFalse(FusedPipelineRuntimeFactory.startsChain(assign));
+        FusedPipelineRuntimeFactory fused = new FusedPipelineRuntimeFactory(
+                new AbstractOneInputOneOutputRuntimeFactory[] { select, assign, project });
+        RecordDescriptor fusedDesc = intScannerDesc;
+
+        String filePath = PATH_ACTUAL + SEPARATOR + "scanFusedBatchSelectAssignProjectWrite.out";
+        File outFile = new File(filePath);
+        SinkWriterRuntimeFactory writer =
+                new SinkWriterRuntimeFactory(new int[] { 0 }, new IPrinterFactory[] { IntegerPrinterFactory.INSTANCE },
+                        outFile, PrinterBasedWriterFactory.INSTANCE, fusedDesc);
+
+        AlgebricksMetaOperatorDescriptor algebricksOp = new AlgebricksMetaOperatorDescriptor(spec, 1, 0,
+                new IPushRuntimeFactory[] { fused, writer }, new RecordDescriptor[] { fusedDesc, null });
+
+        PartitionConstraintHelper.addPartitionCountConstraint(spec, algebricksOp, 1);
+
+        spec.connect(new OneToOneConnectorDescriptor(spec), intScanner, 0, algebricksOp, 0);
+
+        spec.addRoot(algebricksOp);
+        AlgebricksHyracksIntegrationUtil.runJob(spec);
+
+        StringBuilder buf = new StringBuilder();
+        readFileToString(outFile, buf);
+        Assert.assertEquals("91113", buf.toString());
+        outFile.delete();
+    }
+
+    @Test
+    public void scanFusedSelectPassThroughWrite() throws Exception {
+        JobSpecification spec = new JobSpecification(FRAME_SIZE);
+
+        // the scanner
+        FileSplit[] intFileSplits = new FileSplit[1];
+        intFileSplits[0] = new ManagedFileSplit(AlgebricksHyracksIntegrationUtil.NC1_ID,
+                "data" + File.separator + "simple" + File.separator + "int-part1.tbl");
+        IFileSplitProvider intSplitProvider = new ConstantFileSplitProvider(intFileSplits);
+        RecordDescriptor intScannerDesc =
+                new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE });
+        IValueParserFactory[] valueParsers = new IValueParserFactory[] { IntegerParserFactory.INSTANCE };
+        FileScanOperatorDescriptor intScanner = new FileScanOperatorDescriptor(spec, intSplitProvider,
+                new DelimitedDataTupleParserFactory(valueParsers, '|'), intScannerDesc);
+        PartitionConstraintHelper.addAbsoluteLocationConstraint(spec, intScanner, DEFAULT_NODES);
+
+        // the fused algebricks ops: two selects that every tuple satisfies and an identity project, which output the
+        // input frames as they are
+        StreamSelectRuntimeFactory batchSelect =
+                new StreamSelectRuntimeFactory(new IntegerGreaterThanBatchEvalFactory(0, -1), null,
+                        BinaryBooleanInspectorImpl.FACTORY, false, -1, null);
+        StreamSelectRuntimeFactory select =
+                new StreamSelectRuntimeFactory(
+                        new IntegerGreaterThanEvalFactory(new TupleFieldEvaluatorFactory(0),
+                                new IntegerConstantEvalFactory(-1)),
+                        null, BinaryBooleanInspectorImpl.FACTORY, false, -1, null);
+        StreamProjectRuntimeFactory project = new StreamProjectRuntimeFactory(new int[] { 0 });
+        FusedPipelineRuntimeFactory fused = new FusedPipelineRuntimeFactory(
+                new AbstractOneInputOneOutputRuntimeFactory[] { batchSelect, select, project });
+        RecordDescriptor fusedDesc = intScannerDesc;
+
+        String filePath = PATH_ACTUAL + SEPARATOR + "scanFusedSelectPassThroughWrite.out";
+        File outFile = new File(filePath);
+        SinkWriterRuntimeFactory writer =
+                new SinkWriterRuntimeFactory(new int[] { 0 }, new IPrinterFactory[] { IntegerPrinterFactory.INSTANCE },
+                        outFile, PrinterBasedWriterFactory.INSTANCE, fusedDesc);
+
+        AlgebricksMetaOperatorDescriptor algebricksOp = new AlgebricksMetaOperatorDescriptor(spec, 1, 0,
+                new IPushRuntimeFactory[] { new FrameRecorderRuntimeFactory(), fused,
+                        new FrameIdentityCheckRuntimeFactory(), writer },
+                new RecordDescriptor[] { intScannerDesc, fusedDesc, fusedDesc, null });
+
+        PartitionConstraintHelper.addPartitionCountConstraint(spec, algebricksOp, 1);
+
+        spec.connect(new OneToOneConnectorDescriptor(spec), intScanner, 0, algebricksOp, 0);
+
+        spec.addRoot(algebricksOp);
+        recordedFrame = null;
+        passedThroughFrames.set(0);
+        copiedFrames.set(0);
+        AlgebricksHyracksIntegrationUtil.runJob(spec);
+
+        Assert.assertTrue(passedThroughFrames.get() > 0);
+        Assert.assertEquals(0, copiedFrames.get());
+        StringBuilder buf = new StringBuilder();
+        readFileToString(outFile, buf);
+        Assert.assertEquals("024681012", buf.toString());
+        outFile.delete();
+    }
+
     @Test
     public void etsAssignProjectWrite() throws Exception {
 
@@ -886,6 +1064,71 @@ public class PushRuntimeTest {
         outFile.delete();
     }
 
+    // the last frame received by a FrameRecorderRuntimeFactory runtime
+    private static volatile ByteBuffer recordedFrame;
+    private static final AtomicInteger passedThroughFrames = new AtomicInteger();
+    private static final AtomicInteger copiedFrames = new AtomicInteger();
+
+    /**
+     * Records the frames it forwards, so that a later runtime of the same pipeline can check whether it receives
+     * them unchanged.
+     */
+    private static class FrameRecorderRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactory {
+
+        private static final long serialVersionUID = 1L;
+
+        FrameRecorderRuntimeFactory() {
+            super(null);
+        }
+
+        @Override
+        public AbstractOneInputOneOutputPushRuntime createOneOutputPushRuntime(IHyracksTaskContext ctx) {
+            return new ForwardingPushRuntime() {
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    recordedFrame = buffer;
+                    writer.nextFrame(buffer);
+                }
+            };
+        }
+    }
+
+    /**
+     * Counts the frames it forwards that are, or are not, the frame recorded by a FrameRecorderRuntimeFactory runtime.
+     */
+    private static class FrameIdentityCheckRuntimeFactory extends AbstractOneInputOneOutputRuntimeFactory {
+
+        private static final long serialVersionUID = 1L;
+
+        FrameIdentityCheckRuntimeFactory() {
+            super(null);
+        }
+
+        @Override
+        public AbstractOneInputOneOutputPushRuntime createOneOutputPushRuntime(IHyracksTaskContext ctx) {
+            return new ForwardingPushRuntime() {
+                @Override
+                public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    (buffer == recordedFrame ? passedThroughFrames : copiedFrames).incrementAndGet();
+                    writer.nextFrame(buffer);
+                }
+            };
+        }
+    }
+
+    private abstract static class ForwardingPushRuntime extends AbstractOneInputOneOutputPushRuntime {
+
+        @Override
+        public void close() throws HyracksDataException {
+            writer.close();
+        }
+
+        @Override
+        public void flush() throws HyracksDataException {
+            writer.flush();
+        }
+    }
+
     private static void readFileToString(File file, StringBuilder buf) throws Exception {
         BufferedReader result = new BufferedReader(new FileReader(file));
         boolean first = true;
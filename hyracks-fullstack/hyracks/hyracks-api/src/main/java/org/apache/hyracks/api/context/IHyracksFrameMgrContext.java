@@ -31,8 +31,30 @@ public interface IHyracksFrameMgrContext {
 
     public ByteBuffer allocateFrame(int bytes) throws HyracksDataException;
 
+    /**
+     * Replaces a frame by a frame of a new size. The replaced frame must not be referenced anymore, since it may be
+     * recycled by later allocations.
+     *
+     * @param tobeDeallocate
+     *            the frame to replace
+     * @param newSizeInBytes
+     *            the size of the new frame
+     * @param copyOldData
+     *            whether the content of the replaced frame is copied to the new frame
+     * @return the new frame
+     */
     public ByteBuffer reallocateFrame(ByteBuffer tobeDeallocate, int newSizeInBytes, boolean copyOldData)
             throws HyracksDataException;
 
     public void deallocateFrames(int bytes);
+
+    /**
+     * Deallocates a frame that is not referenced anymore, so that it can be recycled by later allocations.
+     *
+     * @param frame
+     *            the frame to deallocate
+     */
+    public default void deallocateFrame(ByteBuffer frame) {
+        deallocateFrames(frame.capacity());
+    }
 }
@@ -119,8 +119,17 @@ class ClientInterfaceIPCI implements IIPCI {
                     //The job is new
                     acggfBytes = sjf.getACGGFBytes();
                 }
-                ccs.getWorkQueue().schedule(new JobStartWork(ccs, sjf.getDeploymentId(), acggfBytes, sjf.getJobFlags(),
-                        jobIdFactory, sjf.getJobParameters(), new IPCResponder<>(handle, mid), id));
+                JobStartWork startWork = new JobStartWork(ccs, sjf.getDeploymentId(), acggfBytes, sjf.getJobFlags(),
+                        jobIdFactory, sjf.getJobParameters(), new IPCResponder<>(handle, mid), id);
+                if (id == null) {
+                    //Create the ActivityClusterGraph off the work queue, in parallel with other jobs
+                    ccs.getExecutor().execute(() -> {
+                        startWork.prepare();
+                        ccs.getWorkQueue().schedule(startWork);
+                    });
+                } else {
+                    ccs.getWorkQueue().schedule(startWork);
+                }
                 break;
             case GET_RESULT_DIRECTORY_ADDRESS:
                 ccs.getWorkQueue().schedule(
@@ -89,11 +89,20 @@ public class JobExecutor {
 
     private boolean cancelled = false;
 
+    // the serialized activity cluster graph sent to the nodes that newly participate in a non-deployed job
+    private byte[] acgBytes;
+
     public JobExecutor(ClusterControllerService ccs, JobRun jobRun, Collection<Constraint> constraints,
             DeployedJobSpecId deployedJobSpecId) {
+        this(ccs, jobRun, constraints, deployedJobSpecId, null);
+    }
+
+    public JobExecutor(ClusterControllerService ccs, JobRun jobRun, Collection<Constraint> constraints,
+            DeployedJobSpecId deployedJobSpecId, byte[] acgBytes) {
         this.ccs = ccs;
         this.jobRun = jobRun;
         this.deployedJobSpecId = deployedJobSpecId;
+        this.acgBytes = acgBytes;
         solver = new PartitionConstraintSolver();
         partitionProducingTaskClusterMap = new HashMap<>();
         inProgressTaskClusters = new HashSet<>();
@@ -249,7 +258,13 @@ public class JobExecutor {
             return;
         }
 
+        assignPartitionLocations(taskAttemptMap);
+        long tasksStartTime = System.nanoTime();
         startTasks(taskAttemptMap);
+        if (jobRun.setTasksStartTime(tasksStartTime, System.nanoTime()) && LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Started the first tasks of {}, start latency: {}", jobRun.getJobId(),
+                    jobRun.getStartLatency());
+        }
     }
 
     /*
@@ -381,11 +396,19 @@ public class JobExecutor {
         tcAttempt.initializePendingTaskCounter();
         tcAttempts.add(tcAttempt);
 
+        tcAttempt.setStatus(TaskClusterAttempt.TaskClusterStatus.RUNNING);
+        tcAttempt.setStartTime(System.currentTimeMillis());
+        inProgressTaskClusters.add(tc);
+    }
+
+    private void assignPartitionLocations(Map<String, List<TaskAttemptDescriptor>> taskAttemptMap) {
         /*
          * Improvement for reducing master/slave message communications, for each TaskAttemptDescriptor,
          * we set the NetworkAddress[][] partitionLocations, in which each row is for an incoming connector descriptor
-         * and each column is for an input channel of the connector.
+         * and each column is for an input channel of the connector. This is done once per scheduling round, after
+         * all the task clusters of the round have been assigned to nodes, rather than once per task cluster.
          */
+        ActivityClusterGraph acg = jobRun.getActivityClusterGraph();
         INodeManager nodeManager = ccs.getNodeManager();
         taskAttemptMap.forEach((key, tads) -> {
             for (TaskAttemptDescriptor tad : tads) {
@@ -421,10 +444,6 @@ public class JobExecutor {
                 tad.setInputPartitionLocations(partitionLocations);
             }
         });
-
-        tcAttempt.setStatus(TaskClusterAttempt.TaskClusterStatus.RUNNING);
-        tcAttempt.setStartTime(System.currentTimeMillis());
-        inProgressTaskClusters.add(tc);
     }
 
     private String assignLocation(ActivityClusterGraph acg, Map<TaskId, LValueConstraintExpression> locationMap,
@@ -504,7 +523,6 @@ public class JobExecutor {
                 new HashMap<>(jobRun.getConnectorPolicyMap());
         INodeManager nodeManager = ccs.getNodeManager();
         try {
-            byte[] acgBytes = isDeployed() ? null : JavaSerializationUtils.serialize(acg);
             for (Map.Entry<String, List<TaskAttemptDescriptor>> entry : taskAttemptMap.entrySet()) {
                 String nodeId = entry.getKey();
                 final List<TaskAttemptDescriptor> taskDescriptors = entry.getValue();
@@ -515,7 +533,13 @@ public class JobExecutor {
                     if (LOGGER.isTraceEnabled()) {
                         LOGGER.trace("Starting: " + taskDescriptors + " at " + entry.getKey());
                     }
-                    byte[] jagBytes = changed ? acgBytes : null;
+                    byte[] jagBytes = null;
+                    if (changed && !isDeployed()) {
+                        if (acgBytes == null) {
+                            acgBytes = JavaSerializationUtils.serialize(acg);
+                        }
+                        jagBytes = acgBytes;
+                    }
                     node.getNodeController().startTasks(deploymentId, jobId, jagBytes, taskDescriptors,
                             connectorPolicies, jobRun.getFlags(),
                             ccs.createOrGetJobParameterByteStore(jobId).getParameterMap(), deployedJobSpecId,
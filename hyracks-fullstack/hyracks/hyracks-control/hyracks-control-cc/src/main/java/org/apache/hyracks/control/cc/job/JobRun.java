@@ -90,6 +90,16 @@ public class JobRun implements IJobStatusConditionVariable {
 
     private long executionStartTime;
 
+    private long submitTime = -1;
+
+    private long graphCreationTime;
+
+    private long createNanoTime;
+
+    private long tasksStartTime = -1;
+
+    private long tasksStartedTime = -1;
+
     private long executionEndTime;
 
     private long startTime;
@@ -123,6 +133,7 @@ public class JobRun implements IJobStatusConditionVariable {
         connectorPolicyMap = new HashMap<>();
         operatorLocations = new HashMap<>();
         createTime = System.currentTimeMillis();
+        createNanoTime = System.nanoTime();
     }
 
     //Run a deployed job spec
@@ -139,8 +150,15 @@ public class JobRun implements IJobStatusConditionVariable {
     //Run a new job by creating an ActivityClusterGraph
     public JobRun(ClusterControllerService ccs, DeploymentId deploymentId, JobId jobId,
             IActivityClusterGraphGeneratorFactory acggf, IActivityClusterGraphGenerator acgg, Set<JobFlag> jobFlags) {
-        this(deploymentId, jobId, jobFlags, acggf.getJobSpecification(), acgg.initialize());
-        this.scheduler = new JobExecutor(ccs, this, acgg.getConstraints(), null);
+        this(ccs, deploymentId, jobId, jobFlags, acggf.getJobSpecification(), acgg.initialize(), acgg.getConstraints(),
+                null);
+    }
+
+    //Run a new job with an ActivityClusterGraph that was created (and possibly serialized) beforehand
+    public JobRun(ClusterControllerService ccs, DeploymentId deploymentId, JobId jobId, Set<JobFlag> jobFlags,
+            JobSpecification spec, ActivityClusterGraph acg, Set<Constraint> constraints, byte[] acgBytes) {
+        this(deploymentId, jobId, jobFlags, spec, acg);
+        this.scheduler = new JobExecutor(ccs, this, constraints, null, acgBytes);
     }
 
     public DeploymentId getDeploymentId() {
@@ -163,6 +181,52 @@ public class JobRun implements IJobStatusConditionVariable {
         this.executionStartTime = executionStartTime;
     }
 
+    /**
+     * Records when the start request of this job was received by the cluster controller and how long it took to
+     * create its activity cluster graph before the job was handed to the work queue (all in nanoseconds).
+     */
+    public void setSubmitTime(long submitTime, long graphCreationTime) {
+        this.submitTime = submitTime;
+        this.graphCreationTime = graphCreationTime;
+    }
+
+    /**
+     * Records when the start messages of the first tasks of this job began and finished being sent (in nanoseconds).
+     *
+     * @return true if these were the first tasks of the job, false if the times were already recorded
+     */
+    public boolean setTasksStartTime(long tasksStartTime, long tasksStartedTime) {
+        if (this.tasksStartTime >= 0) {
+            return false;
+        }
+        this.tasksStartTime = tasksStartTime;
+        this.tasksStartedTime = tasksStartedTime;
+        return true;
+    }
+
+    /**
+     * @return the breakdown (in milliseconds) of the time spent on the cluster controller between receiving the start
+     *         request of this job and sending the start messages of its first tasks
+     */
+    public ObjectNode getStartLatency() {
+        ObjectNode result = new ObjectMapper().createObjectNode();
+        if (submitTime >= 0) {
+            result.put("graph-creation", toMillis(graphCreationTime));
+            result.put("work-queue", toMillis(createNanoTime - submitTime - graphCreationTime));
+        }
+        if (tasksStartTime >= 0) {
+            result.put("job-queue", toMillis(executionStartTime - createNanoTime));
+            result.put("planning", toMillis(tasksStartTime - executionStartTime));
+            result.put("task-start", toMillis(tasksStartedTime - tasksStartTime));
+            result.put("total", toMillis(tasksStartedTime - (submitTime >= 0 ? submitTime : createNanoTime)));
+        }
+        return result;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1000000.0;
+    }
+
     public long getExecutionEndTime() {
         return executionEndTime;
     }
@@ -309,6 +373,7 @@ public class JobRun implements IJobStatusConditionVariable {
         result.put("create-time", getCreateTime());
         result.put("start-time", getStartTime());
         result.put("end-time", getEndTime());
+        result.set("start-latency", getStartLatency());
 
         ArrayNode aClusters = om.createArrayNode();
         for (ActivityCluster ac : acg.getActivityClusterMap().values()) {
@@ -21,13 +21,16 @@ package org.apache.hyracks.control.cc.work;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.hyracks.api.constraints.Constraint;
 import org.apache.hyracks.api.deployment.DeploymentId;
+import org.apache.hyracks.api.job.ActivityClusterGraph;
 import org.apache.hyracks.api.job.DeployedJobSpecId;
 import org.apache.hyracks.api.job.IActivityClusterGraphGenerator;
 import org.apache.hyracks.api.job.IActivityClusterGraphGeneratorFactory;
 import org.apache.hyracks.api.job.JobFlag;
 import org.apache.hyracks.api.job.JobId;
 import org.apache.hyracks.api.job.JobIdFactory;
+import org.apache.hyracks.api.util.JavaSerializationUtils;
 import org.apache.hyracks.control.cc.ClusterControllerService;
 import org.apache.hyracks.control.cc.application.CCServiceContext;
 import org.apache.hyracks.control.cc.job.IJobManager;
@@ -45,6 +48,13 @@ public class JobStartWork extends SynchronizableWork {
     private final JobIdFactory jobIdFactory;
     private final DeployedJobSpecId deployedJobSpecId;
     private final Map<byte[], byte[]> jobParameters;
+    private final long submitTime;
+    private IActivityClusterGraphGeneratorFactory acggf;
+    private ActivityClusterGraph acg;
+    private Set<Constraint> constraints;
+    private byte[] acgBytes;
+    private Exception prepareFailure;
+    private long graphCreationTime;
 
     public JobStartWork(ClusterControllerService ccs, DeploymentId deploymentId, byte[] acggfBytes,
             Set<JobFlag> jobFlags, JobIdFactory jobIdFactory, Map<byte[], byte[]> jobParameters,
@@ -57,28 +67,56 @@ public class JobStartWork extends SynchronizableWork {
         this.deployedJobSpecId = deployedJobSpecId;
         this.jobParameters = jobParameters;
         this.jobIdFactory = jobIdFactory;
+        this.submitTime = System.nanoTime();
+    }
+
+    /**
+     * Creates and serializes the activity cluster graph of a new job. This does not touch the state of the cluster
+     * controller and may run on any thread before this work is scheduled, which leaves the work queue only with
+     * registering the job. If it is not called, the graph is created when this work runs.
+     */
+    public void prepare() {
+        if (deployedJobSpecId != null || acg != null || prepareFailure != null) {
+            return;
+        }
+        long begin = System.nanoTime();
+        try {
+            final CCServiceContext ccServiceCtx = ccs.getContext();
+            acggf = (IActivityClusterGraphGeneratorFactory) DeploymentUtils.deserialize(acggfBytes, deploymentId,
+                    ccServiceCtx);
+            IActivityClusterGraphGenerator acgg = acggf.createActivityClusterGraphGenerator(ccServiceCtx, jobFlags);
+            acg = acgg.initialize();
+            constraints = acgg.getConstraints();
+            acgBytes = JavaSerializationUtils.serialize(acg);
+        } catch (Exception e) {
+            prepareFailure = e;
+        }
+        graphCreationTime = System.nanoTime() - begin;
     }
 
     @Override
     protected void doRun() throws Exception {
         IJobManager jobManager = ccs.getJobManager();
         try {
-            final CCServiceContext ccServiceCtx = ccs.getContext();
             JobId jobId;
             JobRun run;
-            jobId = jobIdFactory.create();
             if (deployedJobSpecId == null) {
-                //Need to create the ActivityClusterGraph
-                IActivityClusterGraphGeneratorFactory acggf = (IActivityClusterGraphGeneratorFactory) DeploymentUtils
-                        .deserialize(acggfBytes, deploymentId, ccServiceCtx);
-                IActivityClusterGraphGenerator acgg = acggf.createActivityClusterGraphGenerator(ccServiceCtx, jobFlags);
-                run = new JobRun(ccs, deploymentId, jobId, acggf, acgg, jobFlags);
+                //Need to create the ActivityClusterGraph, unless it was created beforehand
+                prepare();
+                if (prepareFailure != null) {
+                    throw prepareFailure;
+                }
+                jobId = jobIdFactory.create();
+                run = new JobRun(ccs, deploymentId, jobId, jobFlags, acggf.getJobSpecification(), acg, constraints,
+                        acgBytes);
             } else {
+                jobId = jobIdFactory.create();
                 //ActivityClusterGraph has already been distributed
                 run = new JobRun(ccs, deploymentId, jobId, jobFlags,
                         ccs.getDeployedJobSpecStore().getDeployedJobSpecDescriptor(deployedJobSpecId), jobParameters,
                         deployedJobSpecId);
             }
+            run.setSubmitTime(submitTime, graphCreationTime);
             jobManager.add(run);
             callback.setValue(jobId);
         } catch (Exception e) {
@@ -22,6 +22,7 @@ import static org.apache.hyracks.control.common.config.OptionTypes.BOOLEAN;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.INTEGER_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.LONG;
+import static org.apache.hyracks.control.common.config.OptionTypes.LONG_BYTE_UNIT;
 import static org.apache.hyracks.control.common.config.OptionTypes.NONNEGATIVE_INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.POSITIVE_INTEGER;
 import static org.apache.hyracks.control.common.config.OptionTypes.STRING;
@@ -82,6 +83,8 @@ public class NCConfig extends ControllerConfig {
         RESULT_TTL(LONG, 86400000L),
         RESULT_SWEEP_THRESHOLD(LONG, 60000L),
         RESULT_MANAGER_MEMORY(INTEGER_BYTE_UNIT, -1),
+        FRAME_POOL_SIZE(LONG_BYTE_UNIT, 64L * 1024 * 1024),
+        VIRTUAL_THREAD_TASKS(BOOLEAN, false),
         @SuppressWarnings("RedundantCast") // not redundant- false positive from IDEA
         APP_CLASS(STRING, (String) null),
         NCSERVICE_PID(INTEGER, -1),
@@ -217,6 +220,12 @@ public class NCConfig extends ControllerConfig {
                             + "milliseconds";
                 case RESULT_MANAGER_MEMORY:
                     return "Memory usable for result caching at this Node Controller in bytes";
+                case FRAME_POOL_SIZE:
+                    return "The maximum size of the released frames kept for reuse by the jobs at this Node "
+                            + "Controller in bytes, 0 disables frame pooling";
+                case VIRTUAL_THREAD_TASKS:
+                    return "Whether the tasks of jobs and their input collectors run on virtual threads instead of "
+                            + "pooled platform threads, if the JVM supports virtual threads";
                 case APP_CLASS:
                     return "Application NC Main Class";
                 case NCSERVICE_PID:
@@ -572,6 +581,22 @@ public class NCConfig extends ControllerConfig {
         configManager.set(nodeId, Option.RESULT_MANAGER_MEMORY, resultManagerMemory);
     }
 
+    public long getFramePoolSize() {
+        return appConfig.getLong(Option.FRAME_POOL_SIZE);
+    }
+
+    public void setFramePoolSize(long framePoolSize) {
+        configManager.set(nodeId, Option.FRAME_POOL_SIZE, framePoolSize);
+    }
+
+    public boolean isVirtualThreadTasks() {
+        return appConfig.getBoolean(Option.VIRTUAL_THREAD_TASKS);
+    }
+
+    public void setVirtualThreadTasks(boolean virtualThreadTasks) {
+        configManager.set(nodeId, Option.VIRTUAL_THREAD_TASKS, virtualThreadTasks);
+    }
+
     public String getAppClass() {
         return appConfig.getString(Option.APP_CLASS);
     }
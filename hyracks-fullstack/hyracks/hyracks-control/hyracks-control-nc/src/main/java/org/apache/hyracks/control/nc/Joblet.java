@@ -116,7 +116,7 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
         this.serviceCtx = serviceCtx;
         this.deploymentId = deploymentId;
         this.jobId = jobId;
-        this.frameManager = new FrameManager(acg.getFrameSize());
+        this.frameManager = new FrameManager(acg.getFrameSize(), nodeController.getFramePool());
         memoryAllocation = new AtomicLong();
         this.acg = acg;
         partitionRequestMap = new HashMap<>();
@@ -270,11 +270,17 @@ public class Joblet implements IHyracksJobletContext, ICounterContext {
 
     @Override
     public void deallocateFrames(int bytes) {
-        memoryAllocation.addAndGet(bytes);
+        memoryAllocation.addAndGet(-bytes);
         serviceCtx.getMemoryManager().deallocate(bytes);
         frameManager.deallocateFrames(bytes);
     }
 
+    @Override
+    public void deallocateFrame(ByteBuffer frame) {
+        deallocateFrames(frame.capacity());
+        frameManager.recycleFrame(frame);
+    }
+
     @Override
     public final int getInitialFrameSize() {
         return frameManager.getInitialFrameSize();
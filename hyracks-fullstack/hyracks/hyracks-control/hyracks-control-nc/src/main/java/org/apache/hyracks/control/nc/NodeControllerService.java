@@ -35,6 +35,7 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -82,6 +83,7 @@ import org.apache.hyracks.control.nc.net.MessagingNetworkManager;
 import org.apache.hyracks.control.nc.net.NetworkManager;
 import org.apache.hyracks.control.nc.net.ResultNetworkManager;
 import org.apache.hyracks.control.nc.partitions.PartitionManager;
+import org.apache.hyracks.control.nc.resources.memory.FramePool;
 import org.apache.hyracks.control.nc.resources.memory.MemoryManager;
 import org.apache.hyracks.control.nc.result.ResultPartitionManager;
 import org.apache.hyracks.control.nc.work.AbortAllJobsWork;
@@ -147,6 +149,9 @@ public class NodeControllerService implements IControllerService {
 
     private ExecutorService executor;
 
+    // runs the tasks of jobs, the same as executor unless the tasks run on virtual threads
+    private ExecutorService taskExecutor;
+
     private Map<CcId, HeartbeatManager> heartbeatManagers = new ConcurrentHashMap<>();
 
     private Map<CcId, Timer> ccTimers = new ConcurrentHashMap<>();
@@ -163,6 +168,8 @@ public class NodeControllerService implements IControllerService {
 
     private final MemoryManager memoryManager;
 
+    private final FramePool framePool;
+
     private final INetworkSecurityManager networkSecurityManager;
 
     private StackTraceElement[] shutdownCallStack;
@@ -221,6 +228,7 @@ public class NodeControllerService implements IControllerService {
             getNodeControllerInfosAcceptor = new MutableObject<>();
             memoryManager =
                     new MemoryManager((long) (memoryMXBean.getHeapMemoryUsage().getMax() * MEMORY_FUDGE_FACTOR));
+            framePool = ncConfig.getFramePoolSize() > 0 ? new FramePool(ncConfig.getFramePoolSize()) : null;
         } catch (Throwable th) { // NOSONAR will be re-thrown
             CleanupUtils.close(ioManager, th);
             throw th;
@@ -231,6 +239,14 @@ public class NodeControllerService implements IControllerService {
         return ioManager;
     }
 
+    /**
+     * @return the pool of released frames shared by the joblets of this node controller, or null if frames are not
+     *         pooled
+     */
+    public FramePool getFramePool() {
+        return framePool;
+    }
+
     @Override
     public NCServiceContext getContext() {
         return serviceCtx;
@@ -469,9 +485,26 @@ public class NodeControllerService implements IControllerService {
                 ncConfig.getNodeScopedAppConfig());
         application.init(serviceCtx);
         executor = MaintainedThreadNameExecutorService.newCachedThreadPool(serviceCtx.getThreadFactory());
+        taskExecutor = ncConfig.isVirtualThreadTasks() ? createVirtualThreadExecutor() : null;
+        if (taskExecutor == null) {
+            taskExecutor = executor;
+        }
         application.start(ncConfig.getAppArgsArray());
     }
 
+    private static ExecutorService createVirtualThreadExecutor() {
+        // virtual threads are only available in newer JVMs than the ones the sources are compiled for
+        try {
+            ExecutorService virtualThreadExecutor =
+                    (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            LOGGER.info("Running tasks on virtual threads");
+            return virtualThreadExecutor;
+        } catch (ReflectiveOperationException e) {
+            LOGGER.warn("Virtual threads are not supported by this JVM, running tasks on platform threads");
+            return null;
+        }
+    }
+
     public void updateMaxJobId(JobId jobId) {
         maxJobIds.computeIfAbsent(jobId.getCcId(), key -> new AtomicLong())
                 .getAndUpdate(currentMaxId -> Math.max(currentMaxId, jobId.getId()));
@@ -491,8 +524,11 @@ public class NodeControllerService implements IControllerService {
         shutdownCallStack = new Throwable().getStackTrace();
         LOGGER.info("Stopping NodeControllerService");
         application.preStop();
+        if (taskExecutor != executor) {
+            taskExecutor.shutdownNow();
+        }
         executor.shutdownNow();
-        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS) || !taskExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
             LOGGER.log(Level.ERROR, "Some jobs failed to exit, continuing with abnormal shutdown");
         }
         partitionManager.close();
@@ -520,6 +556,9 @@ public class NodeControllerService implements IControllerService {
         }
         ipc.stop();
         ioManager.close();
+        if (framePool != null) {
+            LOGGER.info("Frame pool usage: {}", framePool);
+        }
         LOGGER.info("Stopped NodeControllerService");
     }
 
@@ -600,6 +639,13 @@ public class NodeControllerService implements IControllerService {
         return executor;
     }
 
+    /**
+     * @return the executor the tasks of jobs and their input collectors run on
+     */
+    public ExecutorService getTaskExecutor() {
+        return taskExecutor;
+    }
+
     @Override
     public Timer getTimer() {
         return timer;
@@ -29,9 +29,15 @@ import org.apache.hyracks.api.exceptions.HyracksDataException;
 public class FrameManager implements IHyracksFrameMgrContext {
 
     private final int minFrameSize;
+    private final FramePool framePool;
 
     public FrameManager(int minFrameSize) {
+        this(minFrameSize, null);
+    }
+
+    public FrameManager(int minFrameSize, FramePool framePool) {
         this.minFrameSize = minFrameSize;
+        this.framePool = framePool;
     }
 
     @Override
@@ -53,7 +59,7 @@ public class FrameManager implements IHyracksFrameMgrContext {
             throw new HyracksDataException(
                     "Unable to allocate frame larger than:" + FrameConstants.MAX_FRAMESIZE + " bytes");
         }
-        ByteBuffer buffer = ByteBuffer.allocate(bytes);
+        ByteBuffer buffer = framePool != null ? framePool.allocate(bytes) : ByteBuffer.allocate(bytes);
         FrameHelper.serializeFrameSize(buffer, bytes / minFrameSize);
         return (ByteBuffer) buffer.clear();
     }
@@ -62,7 +68,7 @@ public class FrameManager implements IHyracksFrameMgrContext {
     public ByteBuffer reallocateFrame(ByteBuffer tobeDeallocate, int newSizeInBytes, boolean copyOldData)
             throws HyracksDataException {
         if (!copyOldData) {
-            deallocateFrames(tobeDeallocate.capacity());
+            deallocateFrame(tobeDeallocate);
             return allocateFrame(newSizeInBytes);
         } else {
             if (newSizeInBytes > FrameConstants.MAX_FRAMESIZE) {
@@ -76,6 +82,7 @@ public class FrameManager implements IHyracksFrameMgrContext {
             tobeDeallocate.limit(limit);
             buffer.put(tobeDeallocate);
             buffer.position(pos);
+            recycleFrame(tobeDeallocate);
 
             FrameHelper.serializeFrameSize(buffer, newSizeInBytes / minFrameSize);
             return buffer;
@@ -86,4 +93,19 @@ public class FrameManager implements IHyracksFrameMgrContext {
     public void deallocateFrames(int bytes) {
         //TODO make a global memory manager to allocate and deallocate the frames.
     }
+
+    @Override
+    public void deallocateFrame(ByteBuffer frame) {
+        deallocateFrames(frame.capacity());
+        recycleFrame(frame);
+    }
+
+    /**
+     * Returns a frame that is not referenced anymore to the frame pool, if there is one.
+     */
+    public void recycleFrame(ByteBuffer frame) {
+        if (framePool != null) {
+            framePool.release(frame);
+        }
+    }
 }
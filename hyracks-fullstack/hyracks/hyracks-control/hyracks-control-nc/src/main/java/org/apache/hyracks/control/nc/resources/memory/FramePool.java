@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A node-level pool of released frames, shared by all the joblets of a node controller. Frames are pooled by their
+ * exact size, since the frames of a job are all multiples of the job's frame size and most of them have the frame
+ * size itself. The pool never holds more than its capacity: a frame released while the pool is full is left to the
+ * garbage collector.
+ * <p>
+ * Only frames that are explicitly released with {@link FrameManager#deallocateFrame(ByteBuffer)} are recycled, so
+ * a frame must not be referenced anymore once it is released. Releasing a frame that is already in the pool has no
+ * effect, so that a frame is never handed out twice.
+ */
+public class FramePool {
+
+    private final long capacity;
+    private final Map<Integer, Queue<ByteBuffer>> sizeClasses = new ConcurrentHashMap<>();
+    // the backing arrays of the pooled frames, which are compared by identity unlike the frames themselves
+    private final Set<byte[]> pooledArrays = ConcurrentHashMap.newKeySet();
+    private final AtomicLong pooledBytes = new AtomicLong();
+    private final AtomicLong allocated = new AtomicLong();
+    private final AtomicLong reused = new AtomicLong();
+    private final AtomicLong released = new AtomicLong();
+    private final AtomicLong discarded = new AtomicLong();
+
+    public FramePool(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return a zeroed released frame of the given size, or a new frame if there is none
+     */
+    public ByteBuffer allocate(int bytes) {
+        Queue<ByteBuffer> frames = sizeClasses.get(bytes);
+        ByteBuffer frame = frames != null ? frames.poll() : null;
+        if (frame == null) {
+            allocated.incrementAndGet();
+            return ByteBuffer.allocate(bytes);
+        }
+        pooledArrays.remove(frame.array());
+        pooledBytes.addAndGet(-bytes);
+        reused.incrementAndGet();
+        Arrays.fill(frame.array(), frame.arrayOffset(), frame.arrayOffset() + frame.capacity(), (byte) 0);
+        frame.clear();
+        return frame;
+    }
+
+    /**
+     * Keeps the given frame for a later allocation of the same size, unless the pool is full or already holds it.
+     */
+    public void release(ByteBuffer frame) {
+        if (!frame.hasArray()) {
+            discarded.incrementAndGet();
+            return;
+        }
+        if (!pooledArrays.add(frame.array())) {
+            return;
+        }
+        int bytes = frame.capacity();
+        if (pooledBytes.addAndGet(bytes) > capacity) {
+            pooledBytes.addAndGet(-bytes);
+            pooledArrays.remove(frame.array());
+            discarded.incrementAndGet();
+            return;
+        }
+        released.incrementAndGet();
+        sizeClasses.computeIfAbsent(bytes, size -> new ConcurrentLinkedQueue<>()).offer(frame);
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public long getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    /**
+     * @return the number of frames that could not be served from the pool
+     */
+    public long getAllocatedCount() {
+        return allocated.get();
+    }
+
+    /**
+     * @return the number of frames that were served from the pool
+     */
+    public long getReusedCount() {
+        return reused.get();
+    }
+
+    public long getReleasedCount() {
+        return released.get();
+    }
+
+    /**
+     * @return the number of released frames that were dropped because the pool was full
+     */
+    public long getDiscardedCount() {
+        return discarded.get();
+    }
+
+    @Override
+    public String toString() {
+        return "FramePool [capacity=" + capacity + ", pooledBytes=" + pooledBytes.get() + ", allocated="
+                + allocated.get() + ", reused=" + reused.get() + ", released=" + released.get() + ", discarded="
+                + discarded.get() + "]";
+    }
+}
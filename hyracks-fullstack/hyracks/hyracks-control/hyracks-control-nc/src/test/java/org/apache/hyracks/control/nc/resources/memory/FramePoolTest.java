@@ -0,0 +1,149 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.control.nc.resources.memory;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class FramePoolTest {
+
+    private static final int FRAME_SIZE = 256;
+
+    @Test
+    public void testReleasedFrameIsReusedForTheSameSize() {
+        FramePool pool = new FramePool(16 * FRAME_SIZE);
+        ByteBuffer frame = pool.allocate(FRAME_SIZE);
+        ByteBuffer doubleFrame = pool.allocate(2 * FRAME_SIZE);
+        pool.release(frame);
+        pool.release(doubleFrame);
+        Assert.assertEquals(3 * FRAME_SIZE, pool.getPooledBytes());
+
+        // a frame of another size class is not served from the released frames
+        ByteBuffer tripleFrame = pool.allocate(3 * FRAME_SIZE);
+        Assert.assertNotSame(frame, tripleFrame);
+        Assert.assertNotSame(doubleFrame, tripleFrame);
+        Assert.assertSame(doubleFrame, pool.allocate(2 * FRAME_SIZE));
+        Assert.assertSame(frame, pool.allocate(FRAME_SIZE));
+        Assert.assertEquals(0, pool.getPooledBytes());
+        Assert.assertNotSame(frame, pool.allocate(FRAME_SIZE));
+    }
+
+    @Test
+    public void testPoolDoesNotExceedItsCapacity() {
+        FramePool pool = new FramePool(2 * FRAME_SIZE);
+        ByteBuffer frame1 = pool.allocate(FRAME_SIZE);
+        ByteBuffer frame2 = pool.allocate(FRAME_SIZE);
+        ByteBuffer frame3 = pool.allocate(FRAME_SIZE);
+        ByteBuffer largeFrame = pool.allocate(4 * FRAME_SIZE);
+        pool.release(largeFrame);
+        pool.release(frame1);
+        pool.release(frame2);
+        pool.release(frame3);
+        Assert.assertEquals(2 * FRAME_SIZE, pool.getPooledBytes());
+        Assert.assertEquals(2, pool.getReleasedCount());
+        Assert.assertEquals(2, pool.getDiscardedCount());
+
+        // the discarded frames are never handed out again
+        Assert.assertNotSame(largeFrame, pool.allocate(4 * FRAME_SIZE));
+        Assert.assertSame(frame1, pool.allocate(FRAME_SIZE));
+        Assert.assertSame(frame2, pool.allocate(FRAME_SIZE));
+        Assert.assertNotSame(frame3, pool.allocate(FRAME_SIZE));
+    }
+
+    @Test
+    public void testReusedFrameIsZeroed() {
+        FramePool pool = new FramePool(16 * FRAME_SIZE);
+        ByteBuffer frame = pool.allocate(FRAME_SIZE);
+        Arrays.fill(frame.array(), (byte) 7);
+        frame.position(FRAME_SIZE / 2);
+        frame.limit(FRAME_SIZE - 1);
+        pool.release(frame);
+
+        ByteBuffer reused = pool.allocate(FRAME_SIZE);
+        Assert.assertSame(frame, reused);
+        Assert.assertArrayEquals(new byte[FRAME_SIZE], reused.array());
+        Assert.assertEquals(0, reused.position());
+        Assert.assertEquals(FRAME_SIZE, reused.limit());
+    }
+
+    @Test
+    public void testFrameReleasedTwiceIsHandedOutOnce() {
+        FramePool pool = new FramePool(16 * FRAME_SIZE);
+        ByteBuffer frame = pool.allocate(FRAME_SIZE);
+        pool.release(frame);
+        pool.release(frame);
+        Assert.assertEquals(FRAME_SIZE, pool.getPooledBytes());
+        Assert.assertEquals(1, pool.getReleasedCount());
+
+        ByteBuffer first = pool.allocate(FRAME_SIZE);
+        ByteBuffer second = pool.allocate(FRAME_SIZE);
+        Assert.assertSame(frame, first);
+        Assert.assertNotSame(first, second);
+
+        // once handed out again, the frame can be released again
+        pool.release(first);
+        Assert.assertSame(frame, pool.allocate(FRAME_SIZE));
+    }
+
+    @Test
+    public void testCounts() {
+        FramePool pool = new FramePool(FRAME_SIZE);
+        ByteBuffer frame1 = pool.allocate(FRAME_SIZE);
+        ByteBuffer frame2 = pool.allocate(FRAME_SIZE);
+        pool.release(frame1);
+        pool.release(frame2);
+        pool.allocate(FRAME_SIZE);
+        pool.release(ByteBuffer.allocateDirect(FRAME_SIZE));
+
+        Assert.assertEquals(FRAME_SIZE, pool.getCapacity());
+        Assert.assertEquals(0, pool.getPooledBytes());
+        Assert.assertEquals(2, pool.getAllocatedCount());
+        Assert.assertEquals(1, pool.getReusedCount());
+        Assert.assertEquals(1, pool.getReleasedCount());
+        Assert.assertEquals(2, pool.getDiscardedCount());
+        Assert.assertEquals("FramePool [capacity=256, pooledBytes=0, allocated=2, reused=1, released=1, discarded=2]",
+                pool.toString());
+    }
+
+    @Test
+    public void testResizedFrameIsRecycled() throws HyracksDataException {
+        FramePool pool = new FramePool(16 * FRAME_SIZE);
+        FrameManager frameManager = new FrameManager(FRAME_SIZE, pool);
+        VSizeFrame frame = new VSizeFrame(frameManager);
+        ByteBuffer initialBuffer = frame.getBuffer();
+
+        // growing the frame copies its content and recycles the smaller buffer
+        frame.getBuffer().put(FRAME_SIZE / 2, (byte) 1);
+        frame.ensureFrameSize(2 * FRAME_SIZE);
+        Assert.assertEquals(1, frame.getBuffer().get(FRAME_SIZE / 2));
+        Assert.assertEquals(FRAME_SIZE, pool.getPooledBytes());
+
+        // shrinking it back hands out the recycled buffer and recycles the larger one
+        ByteBuffer largeBuffer = frame.getBuffer();
+        frame.reset();
+        Assert.assertSame(initialBuffer, frame.getBuffer());
+        Assert.assertSame(largeBuffer, frameManager.allocateFrame(2 * FRAME_SIZE));
+        Assert.assertEquals(0, pool.getPooledBytes());
+    }
+}
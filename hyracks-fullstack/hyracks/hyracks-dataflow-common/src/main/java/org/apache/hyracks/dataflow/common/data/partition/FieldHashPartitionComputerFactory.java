@@ -60,11 +60,19 @@ public class FieldHashPartitionComputerFactory implements ITuplePartitionCompute
                             fEnd - fStart);
                     h = h * 31 + fh;
                 }
-                if (h < 0) {
-                    h = -(h + 1);
-                }
-                return h % nParts;
+                return toPartition(h, nParts);
             }
         };
     }
+
+    /**
+     * @return the partition of a tuple whose fields hash to the given combined hash value
+     */
+    public static int toPartition(int hash, int nParts) {
+        int h = hash;
+        if (h < 0) {
+            h = -(h + 1);
+        }
+        return h % nParts;
+    }
 }
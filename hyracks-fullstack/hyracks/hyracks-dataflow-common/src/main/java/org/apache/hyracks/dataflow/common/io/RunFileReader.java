@@ -19,6 +19,10 @@
 package org.apache.hyracks.dataflow.common.io;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.commons.io.FileUtils;
 import org.apache.hyracks.api.comm.FrameHelper;
@@ -38,6 +42,15 @@ public class RunFileReader implements IFrameReader {
     private long readPtr;
     private boolean deleteAfterClose;
 
+    // read-ahead of the file in chunks, the next chunk is read asynchronously while the current one is consumed
+    private ExecutorService readAheadExecutor;
+    private ByteBuffer readyChunk;
+    private long readyChunkOffset;
+    private ByteBuffer pendingChunk;
+    private long pendingChunkOffset;
+    private Future<Integer> pendingRead;
+    private boolean readAheadRepositioned;
+
     public RunFileReader(FileReference file, IIOManager ioManager, long size, boolean deleteAfterRead) {
         this.file = file;
         this.ioManager = ioManager;
@@ -51,6 +64,26 @@ public class RunFileReader implements IFrameReader {
         handle = ioManager.open(file, IIOManager.FileReadWriteMode.READ_ONLY,
                 IIOManager.FileSyncMode.METADATA_ASYNC_DATA_ASYNC);
         readPtr = 0;
+        if (readAheadExecutor != null) {
+            restartReadAhead();
+        }
+    }
+
+    /**
+     * Makes this reader read the file asynchronously ahead of the current position, in chunks of the size of the
+     * given buffers. Must be called before {@link #open()}.
+     *
+     * @param executor
+     *            the executor that performs the reads
+     * @param chunk1
+     *            the first chunk buffer
+     * @param chunk2
+     *            the second chunk buffer, of the same capacity as the first one
+     */
+    public void enableReadAhead(ExecutorService executor, ByteBuffer chunk1, ByteBuffer chunk2) {
+        this.readAheadExecutor = executor;
+        this.readyChunk = chunk1;
+        this.pendingChunk = chunk2;
     }
 
     public void seek(long position) {
@@ -58,6 +91,8 @@ public class RunFileReader implements IFrameReader {
             throw new IllegalArgumentException(String.valueOf(position));
         }
         readPtr = position;
+        // the read-ahead restarts at the new position with the next read
+        readAheadRepositioned = readAheadExecutor != null;
     }
 
     public long position() {
@@ -71,7 +106,7 @@ public class RunFileReader implements IFrameReader {
         }
         frame.reset();
 
-        int readLength = ioManager.syncRead(handle, readPtr, frame.getBuffer());
+        int readLength = read(readPtr, frame.getBuffer());
         if (readLength <= 0) {
             throw HyracksDataException.create(ErrorCode.EOF);
         }
@@ -79,7 +114,7 @@ public class RunFileReader implements IFrameReader {
         frame.ensureFrameSize(frame.getMinSize() * FrameHelper.deserializeNumOfMinFrame(frame.getBuffer()));
         if (frame.getBuffer().hasRemaining()) {
             if (readPtr < size) {
-                readLength = ioManager.syncRead(handle, readPtr, frame.getBuffer());
+                readLength = read(readPtr, frame.getBuffer());
                 if (readLength < 0) {
                     throw HyracksDataException.create(ErrorCode.EOF);
                 }
@@ -98,6 +133,10 @@ public class RunFileReader implements IFrameReader {
         if (handle == null) {
             return; // Makes sure the close operation is idempotent.
         }
+        if (pendingRead != null) {
+            // the handle must not be closed while it is read
+            awaitPendingReadQuietly();
+        }
         if (deleteAfterClose) {
             try {
                 ioManager.close(handle);
@@ -111,6 +150,96 @@ public class RunFileReader implements IFrameReader {
         handle = null;
     }
 
+    private int read(long offset, ByteBuffer data) throws HyracksDataException {
+        if (readAheadExecutor == null) {
+            return ioManager.syncRead(handle, offset, data);
+        }
+        if (readAheadRepositioned) {
+            restartReadAhead();
+        }
+        long position = offset;
+        while (data.hasRemaining() && position < size) {
+            if (position < readyChunkOffset || position >= readyChunkOffset + readyChunk.limit()) {
+                if (position != pendingChunkOffset || pendingRead == null) {
+                    // reads are contiguous unless the reader is repositioned, which restarts the read-ahead
+                    throw new IllegalStateException("Unexpected read position " + position);
+                }
+                if (!nextChunk()) {
+                    break;
+                }
+            }
+            int chunkPos = (int) (position - readyChunkOffset);
+            int length = Math.min(data.remaining(), readyChunk.limit() - chunkPos);
+            data.put(readyChunk.array(), readyChunk.arrayOffset() + chunkPos, length);
+            position += length;
+        }
+        return position > offset ? (int) (position - offset) : -1;
+    }
+
+    private void restartReadAhead() throws HyracksDataException {
+        if (pendingRead != null) {
+            awaitPendingRead();
+        }
+        readAheadRepositioned = false;
+        readyChunk.clear();
+        readyChunk.limit(0);
+        readyChunkOffset = readPtr;
+        readAhead(readPtr);
+    }
+
+    private void readAhead(long offset) {
+        pendingChunkOffset = offset;
+        if (offset >= size) {
+            pendingRead = null;
+            return;
+        }
+        IFileHandle fileHandle = handle;
+        ByteBuffer chunk = pendingChunk;
+        chunk.clear();
+        pendingRead = readAheadExecutor.submit(() -> ioManager.syncRead(fileHandle, offset, chunk));
+    }
+
+    /**
+     * Makes the pending chunk the ready one and starts reading the chunk after it
+     *
+     * @return false if there are no more bytes to read
+     */
+    private boolean nextChunk() throws HyracksDataException {
+        int length = awaitPendingRead();
+        if (length <= 0) {
+            return false;
+        }
+        ByteBuffer chunk = readyChunk;
+        readyChunk = pendingChunk;
+        pendingChunk = chunk;
+        readyChunk.flip();
+        readyChunkOffset = pendingChunkOffset;
+        readAhead(readyChunkOffset + length);
+        return true;
+    }
+
+    private int awaitPendingRead() throws HyracksDataException {
+        try {
+            return pendingRead.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw HyracksDataException.create(e);
+        } catch (ExecutionException e) {
+            throw HyracksDataException.create(e.getCause());
+        } finally {
+            pendingRead = null;
+        }
+    }
+
+    @SuppressWarnings("squid:S1166") // the read failure does not matter once the reader is closed
+    private void awaitPendingReadQuietly() {
+        try {
+            awaitPendingRead();
+        } catch (HyracksDataException e) {
+            // ignore
+        }
+    }
+
     public long getFileSize() {
         return size;
     }
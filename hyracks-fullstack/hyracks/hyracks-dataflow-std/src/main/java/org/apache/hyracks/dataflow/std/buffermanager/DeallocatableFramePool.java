@@ -68,7 +68,7 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
             ByteBuffer buffer = iter.next();
             iter.remove();
             mergedSize += buffer.capacity();
-            ctx.deallocateFrames(buffer.capacity());
+            ctx.deallocateFrame(buffer);
             allocated -= buffer.capacity();
             if (mergedSize >= frameSize) {
                 return createNewFrame(frameSize);
@@ -98,11 +98,30 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
         return null;
     }
 
+    /**
+     * Reserves memory of the budget for use outside of the frames, giving back cached frames if needed.
+     *
+     * @return true if the memory was reserved, false if the budget does not have enough memory left
+     */
+    public boolean reserve(long bytes) {
+        for (Iterator<ByteBuffer> iter = buffers.iterator(); iter.hasNext() && allocated + bytes > memBudget;) {
+            ByteBuffer buffer = iter.next();
+            iter.remove();
+            ctx.deallocateFrame(buffer);
+            allocated -= buffer.capacity();
+        }
+        if (allocated + bytes > memBudget) {
+            return false;
+        }
+        allocated += bytes;
+        return true;
+    }
+
     @Override
     public void deAllocateBuffer(ByteBuffer buffer) {
         if (buffer.capacity() != ctx.getInitialFrameSize()) {
             // simply deallocate the Big Object frame
-            ctx.deallocateFrames(buffer.capacity());
+            ctx.deallocateFrame(buffer);
             allocated -= buffer.capacity();
         } else {
             buffers.add(buffer);
@@ -119,7 +138,7 @@ public class DeallocatableFramePool implements IDeallocatableFramePool {
     public void close() {
         for (Iterator<ByteBuffer> iter = buffers.iterator(); iter.hasNext();) {
             ByteBuffer next = iter.next();
-            ctx.deallocateFrames(next.capacity());
+            ctx.deallocateFrame(next);
             iter.remove();
         }
         allocated = 0;
@@ -60,6 +60,24 @@ public class PreferToSpillFullyOccupiedFramePolicy {
         return findInMemPartitionWithMaxMemoryUsage();
     }
 
+    /**
+     * This method finds a victim partition the way the hybrid hash join destages its partitions dynamically.
+     * If the given partition is already spilled, only its single frame is written out since it is full anyway.
+     * Otherwise, the in-memory partition that uses the most memory is spilled, so that the partitions that stay in
+     * memory until the end are the small ones.
+     */
+    public int selectLargestVictimPartition(int failedToInsertPartition) {
+        boolean hasTuples = bufferManager.getNumTuples(failedToInsertPartition) > 0;
+        if (hasTuples && spilledStatus.get(failedToInsertPartition)) {
+            return failedToInsertPartition;
+        }
+        int victim = findInMemPartitionWithMaxMemoryUsage();
+        if (victim >= 0) {
+            return victim;
+        }
+        return hasTuples ? failedToInsertPartition : findSpilledPartitionWithMaxMemoryUsage();
+    }
+
     public int findInMemPartitionWithMaxMemoryUsage() {
         return findMaxSize(spilledStatus.nextClearBit(0), (i) -> spilledStatus.nextClearBit(i + 1));
     }
@@ -36,7 +36,6 @@ import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.data.partition.FieldHashPartitionComputerFamily;
 import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.FramePoolBackedFrameBufferManager;
-import org.apache.hyracks.dataflow.std.buffermanager.IDeallocatableFramePool;
 import org.apache.hyracks.dataflow.std.buffermanager.IPartitionedTupleBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.ISimpleFrameBufferManager;
 import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
@@ -59,9 +58,23 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
     private static final int MIN_HASH_TABLE_FRAME_LIMT = 2;
     private static final int OUTPUT_FRAME_LIMT = 1;
     private static final int MIN_FRAME_LIMT = MIN_DATA_TABLE_FRAME_LIMT + MIN_HASH_TABLE_FRAME_LIMT + OUTPUT_FRAME_LIMT;
+    private static final int MAX_DYNAMIC_NUM_PARTITIONS = 64;
+    private final boolean dynamicDestaging;
 
     public HashSpillableTableFactory(IBinaryHashFunctionFamily[] hashFunctionFamilies) {
+        this(hashFunctionFamilies, false);
+    }
+
+    /**
+     * @param hashFunctionFamilies
+     *            the hash functions of the group-by fields
+     * @param dynamicDestaging
+     *            whether the number of partitions should only depend on the memory budget instead of the estimated
+     *            input size, and the largest in-memory partition should be spilled when the memory is full
+     */
+    public HashSpillableTableFactory(IBinaryHashFunctionFamily[] hashFunctionFamilies, boolean dynamicDestaging) {
         this.hashFunctionFamilies = hashFunctionFamilies;
+        this.dynamicDestaging = dynamicDestaging;
     }
 
     @Override
@@ -129,7 +142,8 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
         long memoryBudget = Math.max(MIN_DATA_TABLE_FRAME_LIMT + MIN_HASH_TABLE_FRAME_LIMT,
                 framesLimit - OUTPUT_FRAME_LIMT - MIN_HASH_TABLE_FRAME_LIMT);
 
-        final int numPartitions = getNumOfPartitions(inputDataBytesSize / ctx.getInitialFrameSize(), memoryBudget);
+        final int numPartitions = dynamicDestaging ? getDynamicNumOfPartitions(memoryBudget)
+                : getNumOfPartitions(inputDataBytesSize / ctx.getInitialFrameSize(), memoryBudget);
         final int entriesPerPartition = (int) Math.ceil(1.0 * tableSize / numPartitions);
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("created hashtable, table size:" + tableSize + " file size:" + inputDataBytesSize
@@ -144,7 +158,7 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
             private final BitSet spilledSet = new BitSet(numPartitions);
             // This frame pool will be shared by both data table and hash table.
             private final long memSizeInBytes = (long) framesLimit * (long) ctx.getInitialFrameSize();
-            private final IDeallocatableFramePool framePool = new DeallocatableFramePool(ctx, memSizeInBytes);
+            private final DeallocatableFramePool framePool = new DeallocatableFramePool(ctx, memSizeInBytes);
             // buffer manager for hash table
             private final ISimpleFrameBufferManager bufferManagerForHashTable =
                     new FramePoolBackedFrameBufferManager(framePool);
@@ -164,6 +178,11 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
 
             private final FrameTupleAppender outputAppender = new FrameTupleAppender(new VSizeFrame(ctx));
 
+            private long numCreatedGroups = 0;
+
+            // memory reserved from the frame pool for the aggregate states kept outside of the data table
+            private long reservedStateBytes = 0;
+
             @Override
             public void close() throws HyracksDataException {
                 hashTableForTuplePointer.close();
@@ -230,11 +249,16 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
             private boolean insertNewAggregateEntry(int entryInHashTable, IFrameTupleAccessor accessor, int tIndex)
                     throws HyracksDataException {
                 initStateTupleBuilder(accessor, tIndex);
+                if (!reserveExternalStateMemory()) {
+                    aggregator.cancelInit(aggregateState);
+                    return false;
+                }
                 int pid = getPartition(entryInHashTable);
 
                 // Insertion to the data table
                 if (!bufferManager.insertTuple(pid, stateTupleBuilder.getByteArray(),
                         stateTupleBuilder.getFieldEndOffsets(), 0, stateTupleBuilder.getSize(), pointer)) {
+                    aggregator.cancelInit(aggregateState);
                     return false;
                 }
 
@@ -249,10 +273,27 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
                         // To preserve the atomicity of this method, we need to undo the effect
                         // of the above bufferManager.insertTuple() call since the given insertion has failed.
                         bufferManager.cancelInsertTuple(pid);
+                        aggregator.cancelInit(aggregateState);
                         return false;
                     }
                 }
 
+                numCreatedGroups++;
+                return true;
+            }
+
+            /**
+             * Reserves the growth of the aggregate states kept outside of the data table from the frame pool, so that
+             * they share the memory budget with the data table and the hash table.
+             */
+            private boolean reserveExternalStateMemory() {
+                long stateBytes = aggregator.getExternalStateSize();
+                if (stateBytes > reservedStateBytes) {
+                    if (!framePool.reserve(stateBytes - reservedStateBytes)) {
+                        return false;
+                    }
+                    reservedStateBytes = stateBytes;
+                }
                 return true;
             }
 
@@ -321,11 +362,27 @@ public class HashSpillableTableFactory implements ISpillableTableFactory {
             public int findVictimPartition(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
                 int entryInHashTable = tpc.partition(accessor, tIndex, tableSize);
                 int partition = getPartition(entryInHashTable);
-                return spillPolicy.selectVictimPartition(partition);
+                return dynamicDestaging ? spillPolicy.selectLargestVictimPartition(partition)
+                        : spillPolicy.selectVictimPartition(partition);
+            }
+
+            @Override
+            public long getNumCreatedGroups() {
+                return numCreatedGroups;
             }
         };
     }
 
+    /**
+     * Calculates the number of partitions for Data table when partitions are destaged dynamically. Since partitions
+     * stay in memory until it is full, more partitions do not cause more spilling but only make each spill smaller.
+     * However, a spilled partition keeps one frame for itself, so the spilled partitions may not take more than half
+     * of the budget.
+     */
+    private static int getDynamicNumOfPartitions(long frameLimit) {
+        return (int) Math.max(2, Math.min(MAX_DYNAMIC_NUM_PARTITIONS, frameLimit / 2));
+    }
+
     /**
      * Calculates the number of partitions for Data table. The formula is from Shapiro's paper -
      * http://cs.stanford.edu/people/chrismre/cs345/rl/shapiro.pdf. Check the page 249 for more details.
@@ -44,6 +44,24 @@ public interface IAggregatorDescriptor {
     void init(ArrayTupleBuilder tupleBuilder, IFrameTupleAccessor accessor, int tIndex, AggregateState state)
             throws HyracksDataException;
 
+    /**
+     * Undo the last {@link #init(ArrayTupleBuilder, IFrameTupleAccessor, int, AggregateState)} call, whose state tuple
+     * could not be stored. Aggregators that keep states outside of the state tuples release them here.
+     *
+     * @param state
+     *            the aggregate state passed to the init call
+     */
+    default void cancelInit(AggregateState state) {
+    }
+
+    /**
+     * @return the number of bytes of the states kept outside of the state tuples, which the caller counts against its
+     *         memory budget
+     */
+    default long getExternalStateSize() {
+        return 0;
+    }
+
     /**
      * Reset the aggregator. The corresponding aggregate state should be reset
      * too. Note that here the frame is not an input argument, since it can be
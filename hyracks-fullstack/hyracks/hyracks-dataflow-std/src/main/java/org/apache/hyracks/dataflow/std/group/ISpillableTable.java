@@ -69,4 +69,10 @@ public interface ISpillableTable {
      * @param tIndex
      */
     int findVictimPartition(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException;
+
+    /**
+     * Get the number of groups that have been created in this table so far, including the ones that have been
+     * flushed and cleared since.
+     */
+    long getNumCreatedGroups();
 }
@@ -0,0 +1,144 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.aggregators;
+
+import java.io.Serializable;
+
+/**
+ * Describes one fixed-width aggregate computed by {@link PrimitiveStateAggregatorFactory}.
+ * <p>
+ * Partial results are written as: COUNT a long; SUM, MIN and MAX a long for integral inputs and a double for
+ * floating point inputs; AVG a double sum followed by a long count. Final results use the same encodings, except AVG,
+ * which is written as a double. With {@link PrimitiveValueTags}, the input fields and the results other than the
+ * partial AVG results are tagged.
+ */
+public class PrimitiveFieldAggregate implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public enum Function {
+        COUNT,
+        SUM,
+        MIN,
+        MAX,
+        AVG
+    }
+
+    public enum ValueType {
+        INT32,
+        INT64,
+        FLOAT,
+        DOUBLE;
+
+        public boolean isIntegral() {
+            return this == INT32 || this == INT64;
+        }
+    }
+
+    private final Function function;
+    private final int field;
+    private final ValueType valueType;
+    private final PrimitiveValueTags tags;
+    private final String name;
+
+    /**
+     * @param function
+     *            the aggregate function
+     * @param field
+     *            the aggregated field of the input, ignored by COUNT on raw untagged input
+     * @param valueType
+     *            the type of the raw input field; on partial results the type of the field they were computed from
+     */
+    public PrimitiveFieldAggregate(Function function, int field, ValueType valueType) {
+        this(function, field, valueType, null);
+    }
+
+    /**
+     * @param function
+     *            the aggregate function
+     * @param field
+     *            the aggregated field of the input; a negative field makes COUNT count every input tuple
+     * @param valueType
+     *            the type of the raw input values; on partial results the type of the values they were computed from
+     * @param tags
+     *            the type tags of the fields, or null if the fields are not tagged
+     */
+    public PrimitiveFieldAggregate(Function function, int field, ValueType valueType, PrimitiveValueTags tags) {
+        this(function, field, valueType, tags, function.name());
+    }
+
+    /**
+     * @param function
+     *            the aggregate function
+     * @param field
+     *            the aggregated field of the input; a negative field makes COUNT count every input tuple
+     * @param valueType
+     *            the type of the raw input values; on partial results the type of the values they were computed from
+     * @param tags
+     *            the type tags of the fields, or null if the fields are not tagged
+     * @param name
+     *            the name of the aggregate in error messages
+     */
+    public PrimitiveFieldAggregate(Function function, int field, ValueType valueType, PrimitiveValueTags tags,
+            String name) {
+        this.function = function;
+        this.field = field;
+        this.valueType = valueType;
+        this.tags = tags;
+        this.name = name;
+    }
+
+    public static PrimitiveFieldAggregate count(int field) {
+        return new PrimitiveFieldAggregate(Function.COUNT, field, ValueType.INT64);
+    }
+
+    public Function getFunction() {
+        return function;
+    }
+
+    public int getField() {
+        return field;
+    }
+
+    public ValueType getValueType() {
+        return valueType;
+    }
+
+    public PrimitiveValueTags getTags() {
+        return tags;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return the same aggregate over another field, e.g. over the field of its partial results
+     */
+    public PrimitiveFieldAggregate withField(int field) {
+        return new PrimitiveFieldAggregate(function, field, valueType, tags, name);
+    }
+
+    /**
+     * @return true if the state is kept as long values, false if it is kept as double values
+     */
+    public boolean hasIntegralState() {
+        return function == Function.COUNT || (function != Function.AVG && valueType.isIntegral());
+    }
+}
@@ -0,0 +1,552 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.aggregators;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.data.std.primitive.FloatPointable;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.data.std.primitive.LongPointable;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate.Function;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate.ValueType;
+
+/**
+ * The states of all groups of a {@link PrimitiveStateAggregatorFactory} aggregator, kept in primitive arrays indexed
+ * by group slot. The arrays are allocated in chunks of slots that take about a frame each, so the memory they take
+ * only grows in small steps that the caller can count against its budget. Input values are first staged, together
+ * with the slot of their group, into a batch of the same size that is applied one aggregate at a time once it is full
+ * or before any state is read. A slot is recycled once the result of its group has been written out.
+ * <p>
+ * With {@link PrimitiveValueTags}, absent input values are staged as the identity of their aggregate, and the
+ * aggregates other than COUNT and AVG keep a flag per group that tells whether it has seen a value.
+ */
+class PrimitiveGroupStates {
+
+    private final FieldState[] states;
+    private final int bytesPerSlot;
+    // the number of slots of a chunk, which is also the number of entries of the batch
+    private final int chunkSize;
+    private final int[] batchSlots;
+    private int batchSize;
+    private int numChunks;
+    private int numSlots;
+    private int[] freeSlots = new int[0];
+    private int numFreeSlots;
+
+    PrimitiveGroupStates(PrimitiveFieldAggregate[] aggregates, boolean merge, int frameSize) {
+        // the free slot list holds an int per slot
+        int slotBytes = Integer.BYTES;
+        for (PrimitiveFieldAggregate aggregate : aggregates) {
+            slotBytes += aggregate.getFunction() == Function.AVG ? Double.BYTES + Long.BYTES : Long.BYTES;
+            if (tracksSeen(aggregate)) {
+                slotBytes++;
+            }
+        }
+        bytesPerSlot = slotBytes;
+        chunkSize = Integer.highestOneBit(Math.max(1, frameSize / slotBytes));
+        batchSlots = new int[chunkSize];
+        states = new FieldState[aggregates.length];
+        for (int i = 0; i < aggregates.length; i++) {
+            PrimitiveFieldAggregate aggregate = aggregates[i];
+            if (aggregate.getFunction() == Function.AVG) {
+                states[i] = new AvgState(aggregate, merge, chunkSize);
+            } else if (aggregate.hasIntegralState()) {
+                states[i] = new LongState(aggregate, merge, chunkSize);
+            } else {
+                states[i] = new DoubleState(aggregate, merge, chunkSize);
+            }
+        }
+    }
+
+    int allocate() {
+        int slot;
+        if (numFreeSlots > 0) {
+            slot = freeSlots[--numFreeSlots];
+        } else {
+            if (numSlots == numChunks * chunkSize) {
+                for (FieldState state : states) {
+                    state.addChunk(numChunks);
+                }
+                numChunks++;
+                freeSlots = Arrays.copyOf(freeSlots, numChunks * chunkSize);
+            }
+            slot = numSlots++;
+        }
+        for (FieldState state : states) {
+            state.init(slot);
+        }
+        return slot;
+    }
+
+    void release(int slot) {
+        freeSlots[numFreeSlots++] = slot;
+    }
+
+    /**
+     * Undoes the last {@link #allocate()} and the {@link #stage(IFrameTupleAccessor, int, int)} of the same slot that
+     * followed it, giving back the chunk that the allocation added, if any
+     */
+    void cancel(int slot) {
+        batchSize--;
+        if (slot != numSlots - 1) {
+            release(slot);
+            return;
+        }
+        numSlots--;
+        if (numSlots == (numChunks - 1) * chunkSize) {
+            numChunks--;
+            for (FieldState state : states) {
+                state.removeChunk(numChunks);
+            }
+            freeSlots = Arrays.copyOf(freeSlots, numChunks * chunkSize);
+        }
+    }
+
+    /**
+     * @return the number of bytes taken by the state arrays, including the batch
+     */
+    long getMemorySize() {
+        // the batch holds as many entries as a chunk, and its slot array takes the place of the free slot list
+        return (long) (numChunks + 1) * chunkSize * bytesPerSlot;
+    }
+
+    void stage(IFrameTupleAccessor accessor, int tIndex, int slot) throws HyracksDataException {
+        if (batchSize == chunkSize) {
+            apply();
+        }
+        batchSlots[batchSize] = slot;
+        for (FieldState state : states) {
+            state.stage(accessor, tIndex, batchSize);
+        }
+        batchSize++;
+    }
+
+    void apply() throws HyracksDataException {
+        if (batchSize > 0) {
+            for (FieldState state : states) {
+                try {
+                    state.apply(batchSlots, batchSize);
+                } catch (ArithmeticException e) {
+                    throw HyracksDataException.create(ErrorCode.OVERFLOW, e, state.name);
+                }
+            }
+            batchSize = 0;
+        }
+    }
+
+    void write(DataOutput out, int field, int slot, boolean partial) throws IOException {
+        states[field].write(out, slot, partial);
+    }
+
+    int getNumFields() {
+        return states.length;
+    }
+
+    void reset() {
+        batchSize = 0;
+        numSlots = 0;
+        numFreeSlots = 0;
+    }
+
+    private static boolean tracksSeen(PrimitiveFieldAggregate aggregate) {
+        // COUNT is never empty and AVG knows its count
+        return aggregate.getTags() != null && aggregate.getFunction() != Function.COUNT
+                && aggregate.getFunction() != Function.AVG;
+    }
+
+    private static int getFieldOffset(IFrameTupleAccessor accessor, int tIndex, int field) {
+        return accessor.getTupleStartOffset(tIndex) + accessor.getFieldSlotsLength()
+                + accessor.getFieldStartOffset(tIndex, field);
+    }
+
+    private abstract static class FieldState {
+        protected final Function function;
+        protected final int field;
+        protected final boolean merge;
+        protected final ValueType inputType;
+        protected final PrimitiveValueTags tags;
+        protected final String name;
+        protected final int chunkSize;
+        protected final int chunkShift;
+        protected final int chunkMask;
+        // whether the groups and the staged entries have seen a value, null if not tracked
+        private final boolean[] batchSeen;
+        private boolean[][] seen = new boolean[0][];
+
+        FieldState(PrimitiveFieldAggregate aggregate, boolean merge, int chunkSize) {
+            this.chunkSize = chunkSize;
+            this.chunkShift = Integer.numberOfTrailingZeros(chunkSize);
+            this.chunkMask = chunkSize - 1;
+            this.function = aggregate.getFunction();
+            this.field = aggregate.getField();
+            this.merge = merge;
+            this.tags = aggregate.getTags();
+            this.name = aggregate.getName();
+            this.batchSeen = tracksSeen(aggregate) ? new boolean[chunkSize] : null;
+            // partial results are always written with 8 byte values
+            if (merge) {
+                inputType = aggregate.hasIntegralState() ? ValueType.INT64 : ValueType.DOUBLE;
+            } else {
+                inputType = aggregate.getValueType();
+            }
+        }
+
+        /**
+         * @return the offset of the value of the aggregated field of the tuple, or -1 if the value is absent
+         */
+        protected int getValueOffset(IFrameTupleAccessor accessor, int tIndex) {
+            int offset = getFieldOffset(accessor, tIndex, field);
+            if (tags == null) {
+                return offset;
+            }
+            byte tag = accessor.getBuffer().array()[offset];
+            // the partial result of a group without values is the empty tag
+            return tags.isAbsent(tag) || (merge && tag == tags.getEmptyTag()) ? -1 : offset + 1;
+        }
+
+        protected long readLong(byte[] bytes, int offset) {
+            return inputType == ValueType.INT32 ? IntegerPointable.getInteger(bytes, offset)
+                    : LongPointable.getLong(bytes, offset);
+        }
+
+        protected double readDouble(byte[] bytes, int offset) {
+            switch (inputType) {
+                case INT32:
+                    return IntegerPointable.getInteger(bytes, offset);
+                case INT64:
+                    return LongPointable.getLong(bytes, offset);
+                case FLOAT:
+                    return FloatPointable.getFloat(bytes, offset);
+                default:
+                    return DoublePointable.getDouble(bytes, offset);
+            }
+        }
+
+        void addChunk(int chunk) {
+            if (batchSeen != null) {
+                seen = Arrays.copyOf(seen, chunk + 1);
+                seen[chunk] = new boolean[chunkSize];
+            }
+        }
+
+        void removeChunk(int chunk) {
+            if (batchSeen != null) {
+                seen = Arrays.copyOf(seen, chunk);
+            }
+        }
+
+        void init(int slot) {
+            if (batchSeen != null) {
+                seen[slot >>> chunkShift][slot & chunkMask] = false;
+            }
+        }
+
+        protected void stageSeen(int batchIndex, boolean value) {
+            if (batchSeen != null) {
+                batchSeen[batchIndex] = value;
+            }
+        }
+
+        protected void applySeen(int[] slots, int size) {
+            if (batchSeen != null) {
+                for (int i = 0; i < size; i++) {
+                    if (batchSeen[i]) {
+                        seen[slots[i] >>> chunkShift][slots[i] & chunkMask] = true;
+                    }
+                }
+            }
+        }
+
+        /**
+         * Writes the tag of a result of the given type, or the empty tag if the group has not seen any value
+         *
+         * @return true if the value of the result follows the tag
+         */
+        protected boolean writeTag(DataOutput out, int slot, ValueType resultType) throws IOException {
+            if (tags == null) {
+                return true;
+            }
+            if (batchSeen != null && !seen[slot >>> chunkShift][slot & chunkMask]) {
+                out.writeByte(tags.getEmptyTag());
+                return false;
+            }
+            out.writeByte(tags.getTypeTag(resultType));
+            return true;
+        }
+
+        abstract void stage(IFrameTupleAccessor accessor, int tIndex, int batchIndex);
+
+        abstract void apply(int[] slots, int size);
+
+        abstract void write(DataOutput out, int slot, boolean partial) throws IOException;
+    }
+
+    private static final class LongState extends FieldState {
+        private final long identity;
+        private final long[] batch;
+        private long[][] values = new long[0][];
+
+        LongState(PrimitiveFieldAggregate aggregate, boolean merge, int chunkSize) {
+            super(aggregate, merge, chunkSize);
+            identity = function == Function.MIN ? Long.MAX_VALUE : function == Function.MAX ? Long.MIN_VALUE : 0L;
+            batch = new long[chunkSize];
+        }
+
+        @Override
+        void addChunk(int chunk) {
+            super.addChunk(chunk);
+            values = Arrays.copyOf(values, chunk + 1);
+            values[chunk] = new long[chunkSize];
+        }
+
+        @Override
+        void removeChunk(int chunk) {
+            super.removeChunk(chunk);
+            values = Arrays.copyOf(values, chunk);
+        }
+
+        @Override
+        void init(int slot) {
+            super.init(slot);
+            values[slot >>> chunkShift][slot & chunkMask] = identity;
+        }
+
+        @Override
+        void stage(IFrameTupleAccessor accessor, int tIndex, int batchIndex) {
+            boolean count = function == Function.COUNT && !merge;
+            if (count && (tags == null || field < 0)) {
+                batch[batchIndex] = 1L;
+                return;
+            }
+            int offset = getValueOffset(accessor, tIndex);
+            if (offset < 0) {
+                batch[batchIndex] = identity;
+                stageSeen(batchIndex, false);
+            } else {
+                batch[batchIndex] = count ? 1L : readLong(accessor.getBuffer().array(), offset);
+                stageSeen(batchIndex, true);
+            }
+        }
+
+        @Override
+        void apply(int[] slots, int size) {
+            final long[][] v = values;
+            switch (function) {
+                case MIN:
+                    for (int i = 0; i < size; i++) {
+                        long[] chunk = v[slots[i] >>> chunkShift];
+                        int j = slots[i] & chunkMask;
+                        chunk[j] = Math.min(chunk[j], batch[i]);
+                    }
+                    break;
+                case MAX:
+                    for (int i = 0; i < size; i++) {
+                        long[] chunk = v[slots[i] >>> chunkShift];
+                        int j = slots[i] & chunkMask;
+                        chunk[j] = Math.max(chunk[j], batch[i]);
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < size; i++) {
+                        long[] chunk = v[slots[i] >>> chunkShift];
+                        int j = slots[i] & chunkMask;
+                        chunk[j] = Math.addExact(chunk[j], batch[i]);
+                    }
+                    break;
+            }
+            applySeen(slots, size);
+        }
+
+        @Override
+        void write(DataOutput out, int slot, boolean partial) throws IOException {
+            if (writeTag(out, slot, ValueType.INT64)) {
+                out.writeLong(values[slot >>> chunkShift][slot & chunkMask]);
+            }
+        }
+    }
+
+    private static final class DoubleState extends FieldState {
+        private final double identity;
+        private final double[] batch;
+        private double[][] values = new double[0][];
+
+        DoubleState(PrimitiveFieldAggregate aggregate, boolean merge, int chunkSize) {
+            super(aggregate, merge, chunkSize);
+            identity = function == Function.MIN ? Double.POSITIVE_INFINITY
+                    : function == Function.MAX ? Double.NEGATIVE_INFINITY : 0.0d;
+            batch = new double[chunkSize];
+        }
+
+        @Override
+        void addChunk(int chunk) {
+            super.addChunk(chunk);
+            values = Arrays.copyOf(values, chunk + 1);
+            values[chunk] = new double[chunkSize];
+        }
+
+        @Override
+        void removeChunk(int chunk) {
+            super.removeChunk(chunk);
+            values = Arrays.copyOf(values, chunk);
+        }
+
+        @Override
+        void init(int slot) {
+            super.init(slot);
+            values[slot >>> chunkShift][slot & chunkMask] = identity;
+        }
+
+        @Override
+        void stage(IFrameTupleAccessor accessor, int tIndex, int batchIndex) {
+            int offset = getValueOffset(accessor, tIndex);
+            if (offset < 0) {
+                batch[batchIndex] = identity;
+                stageSeen(batchIndex, false);
+            } else {
+                batch[batchIndex] = readDouble(accessor.getBuffer().array(), offset);
+                stageSeen(batchIndex, true);
+            }
+        }
+
+        @Override
+        void apply(int[] slots, int size) {
+            final double[][] v = values;
+            switch (function) {
+                case MIN:
+                    for (int i = 0; i < size; i++) {
+                        double[] chunk = v[slots[i] >>> chunkShift];
+                        int j = slots[i] & chunkMask;
+                        chunk[j] = Math.min(chunk[j], batch[i]);
+                    }
+                    break;
+                case MAX:
+                    for (int i = 0; i < size; i++) {
+                        double[] chunk = v[slots[i] >>> chunkShift];
+                        int j = slots[i] & chunkMask;
+                        chunk[j] = Math.max(chunk[j], batch[i]);
+                    }
+                    break;
+                default:
+                    for (int i = 0; i < size; i++) {
+                        v[slots[i] >>> chunkShift][slots[i] & chunkMask] += batch[i];
+                    }
+                    break;
+            }
+            applySeen(slots, size);
+        }
+
+        @Override
+        void write(DataOutput out, int slot, boolean partial) throws IOException {
+            if (writeTag(out, slot, ValueType.DOUBLE)) {
+                out.writeDouble(values[slot >>> chunkShift][slot & chunkMask]);
+            }
+        }
+    }
+
+    private static final class AvgState extends FieldState {
+        private final double[] batchSums;
+        private final long[] batchCounts;
+        private double[][] sums = new double[0][];
+        private long[][] counts = new long[0][];
+
+        AvgState(PrimitiveFieldAggregate aggregate, boolean merge, int chunkSize) {
+            super(aggregate, merge, chunkSize);
+            batchSums = new double[chunkSize];
+            batchCounts = new long[chunkSize];
+        }
+
+        @Override
+        void addChunk(int chunk) {
+            super.addChunk(chunk);
+            sums = Arrays.copyOf(sums, chunk + 1);
+            sums[chunk] = new double[chunkSize];
+            counts = Arrays.copyOf(counts, chunk + 1);
+            counts[chunk] = new long[chunkSize];
+        }
+
+        @Override
+        void removeChunk(int chunk) {
+            super.removeChunk(chunk);
+            sums = Arrays.copyOf(sums, chunk);
+            counts = Arrays.copyOf(counts, chunk);
+        }
+
+        @Override
+        void init(int slot) {
+            super.init(slot);
+            sums[slot >>> chunkShift][slot & chunkMask] = 0.0d;
+            counts[slot >>> chunkShift][slot & chunkMask] = 0L;
+        }
+
+        @Override
+        void stage(IFrameTupleAccessor accessor, int tIndex, int batchIndex) {
+            byte[] bytes = accessor.getBuffer().array();
+            if (merge) {
+                // partial results are never tagged
+                int offset = getFieldOffset(accessor, tIndex, field);
+                batchSums[batchIndex] = DoublePointable.getDouble(bytes, offset);
+                batchCounts[batchIndex] = LongPointable.getLong(bytes, offset + Double.BYTES);
+                return;
+            }
+            int offset = getValueOffset(accessor, tIndex);
+            if (offset < 0) {
+                batchSums[batchIndex] = 0.0d;
+                batchCounts[batchIndex] = 0L;
+            } else {
+                batchSums[batchIndex] = readDouble(bytes, offset);
+                batchCounts[batchIndex] = 1L;
+            }
+        }
+
+        @Override
+        void apply(int[] slots, int size) {
+            final double[][] s = sums;
+            final long[][] c = counts;
+            for (int i = 0; i < size; i++) {
+                int chunk = slots[i] >>> chunkShift;
+                int j = slots[i] & chunkMask;
+                s[chunk][j] += batchSums[i];
+                c[chunk][j] += batchCounts[i];
+            }
+        }
+
+        @Override
+        void write(DataOutput out, int slot, boolean partial) throws IOException {
+            double sum = sums[slot >>> chunkShift][slot & chunkMask];
+            long count = counts[slot >>> chunkShift][slot & chunkMask];
+            if (partial) {
+                out.writeDouble(sum);
+                out.writeLong(count);
+            } else if (tags == null) {
+                out.writeDouble(sum / count);
+            } else if (count == 0) {
+                out.writeByte(tags.getEmptyTag());
+            } else {
+                out.writeByte(tags.getTypeTag(ValueType.DOUBLE));
+                out.writeDouble(sum / count);
+            }
+        }
+    }
+}
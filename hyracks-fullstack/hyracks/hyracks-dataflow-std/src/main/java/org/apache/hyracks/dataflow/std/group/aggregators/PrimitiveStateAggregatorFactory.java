@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.aggregators;
+
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.std.group.AbstractAccumulatingAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.AggregateState;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptor;
+
+/**
+ * An aggregator factory for COUNT, SUM, MIN, MAX and AVG over fixed-width fields that keeps the aggregate states in
+ * primitive arrays instead of serialized bytes. The state tuple of a group only holds the slot of the group in these
+ * arrays (in its first aggregate field; the other aggregate fields are empty), so updating a group does not touch its
+ * frame. Updates are applied in batches, one aggregate at a time, and the states are only serialized when the results
+ * are written out, e.g. when a partition of a hash group-by spills or at the final output.
+ * <p>
+ * Writing the partial or final result of a group releases its state, so each group must be output at most once.
+ * The merge variant ({@code merge = true}) aggregates partial results produced by the non-merge variant with the same
+ * aggregates; see {@link PrimitiveFieldAggregate} for the result encodings.
+ * <p>
+ * The aggregates read fixed-width fields, either raw or with the type tags of {@link PrimitiveValueTags}, which also
+ * let them skip null values. The Algebricks external group-by uses this factory when its aggregate functions have been
+ * mapped to such aggregates. Integral sums and counts fail on overflow. The state arrays are not part of the state
+ * tuples and are reported through {@link IAggregatorDescriptor#getExternalStateSize()}.
+ */
+public class PrimitiveStateAggregatorFactory extends AbstractAccumulatingAggregatorDescriptorFactory {
+
+    private static final long serialVersionUID = 1L;
+    private final PrimitiveFieldAggregate[] aggregates;
+    private final boolean merge;
+
+    public PrimitiveStateAggregatorFactory(PrimitiveFieldAggregate[] aggregates, boolean merge) {
+        this.aggregates = aggregates;
+        this.merge = merge;
+    }
+
+    @Override
+    public IAggregatorDescriptor createAggregator(IHyracksTaskContext ctx, RecordDescriptor inRecordDescriptor,
+            RecordDescriptor outRecordDescriptor, final int[] keyFields, final int[] keyFieldsInPartialResults,
+            long memoryBudget) throws HyracksDataException {
+        final PrimitiveGroupStates states = new PrimitiveGroupStates(aggregates, merge, ctx.getInitialFrameSize());
+        final int slotField = keyFields.length;
+
+        return new IAggregatorDescriptor() {
+
+            @Override
+            public AggregateState createAggregateStates() {
+                // the slot of the last initialized group, for callers that keep a single group without a state frame
+                return new AggregateState(new int[] { -1 });
+            }
+
+            @Override
+            public void init(ArrayTupleBuilder tupleBuilder, IFrameTupleAccessor accessor, int tIndex,
+                    AggregateState state) throws HyracksDataException {
+                int slot = states.allocate();
+                states.stage(accessor, tIndex, slot);
+                ((int[]) state.state)[0] = slot;
+                if (tupleBuilder != null) {
+                    try {
+                        tupleBuilder.getDataOutput().writeInt(slot);
+                    } catch (IOException e) {
+                        throw HyracksDataException.create(e);
+                    }
+                    tupleBuilder.addFieldEndOffset();
+                    for (int i = 1; i < states.getNumFields(); i++) {
+                        tupleBuilder.addFieldEndOffset();
+                    }
+                }
+            }
+
+            @Override
+            public void cancelInit(AggregateState state) {
+                states.cancel(((int[]) state.state)[0]);
+            }
+
+            @Override
+            public long getExternalStateSize() {
+                return states.getMemorySize();
+            }
+
+            @Override
+            public void reset() {
+                states.reset();
+            }
+
+            @Override
+            public void aggregate(IFrameTupleAccessor accessor, int tIndex, IFrameTupleAccessor stateAccessor,
+                    int stateTupleIndex, AggregateState state) throws HyracksDataException {
+                states.stage(accessor, tIndex, getSlot(stateAccessor, stateTupleIndex, state));
+            }
+
+            @Override
+            public boolean outputPartialResult(ArrayTupleBuilder tupleBuilder, IFrameTupleAccessor stateAccessor,
+                    int tIndex, AggregateState state) throws HyracksDataException {
+                return output(tupleBuilder, getSlot(stateAccessor, tIndex, state), true);
+            }
+
+            @Override
+            public boolean outputFinalResult(ArrayTupleBuilder tupleBuilder, IFrameTupleAccessor stateAccessor,
+                    int tIndex, AggregateState state) throws HyracksDataException {
+                return output(tupleBuilder, getSlot(stateAccessor, tIndex, state), false);
+            }
+
+            private boolean output(ArrayTupleBuilder tupleBuilder, int slot, boolean partial)
+                    throws HyracksDataException {
+                states.apply();
+                DataOutput out = tupleBuilder.getDataOutput();
+                try {
+                    for (int i = 0; i < states.getNumFields(); i++) {
+                        states.write(out, i, slot, partial);
+                        tupleBuilder.addFieldEndOffset();
+                    }
+                } catch (IOException e) {
+                    throw HyracksDataException.create(e);
+                }
+                states.release(slot);
+                return true;
+            }
+
+            private int getSlot(IFrameTupleAccessor stateAccessor, int stateTupleIndex, AggregateState state) {
+                if (stateAccessor == null) {
+                    return ((int[]) state.state)[0];
+                }
+                return IntegerPointable.getInteger(stateAccessor.getBuffer().array(),
+                        stateAccessor.getTupleStartOffset(stateTupleIndex) + stateAccessor.getFieldSlotsLength()
+                                + stateAccessor.getFieldStartOffset(stateTupleIndex, slotField));
+            }
+
+            @Override
+            public void close() {
+                states.reset();
+            }
+        };
+    }
+}
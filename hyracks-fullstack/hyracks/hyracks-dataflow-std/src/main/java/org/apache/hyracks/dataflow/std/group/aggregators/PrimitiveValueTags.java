@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.aggregators;
+
+import java.io.Serializable;
+
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate.ValueType;
+
+/**
+ * The type tags of the fields read and written by a {@link PrimitiveFieldAggregate} when the fields start with a one
+ * byte type tag, as the values of a data model with nulls do. Input values with an absent tag (e.g. null or missing)
+ * are skipped. A result is written as the tag of its type followed by its value, except when an aggregate other than
+ * COUNT has not seen any value of its group, in which case only the empty tag is written.
+ */
+public class PrimitiveValueTags implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final byte[] typeTags;
+    private final byte emptyTag;
+    private final byte[] absentTags;
+
+    /**
+     * @param int32Tag
+     *            the tag of INT32 values
+     * @param int64Tag
+     *            the tag of INT64 values
+     * @param floatTag
+     *            the tag of FLOAT values
+     * @param doubleTag
+     *            the tag of DOUBLE values
+     * @param emptyTag
+     *            the tag written as the result of a group without values
+     * @param absentTags
+     *            the tags of the input values that are skipped
+     */
+    public PrimitiveValueTags(byte int32Tag, byte int64Tag, byte floatTag, byte doubleTag, byte emptyTag,
+            byte... absentTags) {
+        this.typeTags = new byte[ValueType.values().length];
+        typeTags[ValueType.INT32.ordinal()] = int32Tag;
+        typeTags[ValueType.INT64.ordinal()] = int64Tag;
+        typeTags[ValueType.FLOAT.ordinal()] = floatTag;
+        typeTags[ValueType.DOUBLE.ordinal()] = doubleTag;
+        this.emptyTag = emptyTag;
+        this.absentTags = absentTags;
+    }
+
+    public byte getTypeTag(ValueType valueType) {
+        return typeTags[valueType.ordinal()];
+    }
+
+    public byte getEmptyTag() {
+        return emptyTag;
+    }
+
+    public boolean isAbsent(byte tag) {
+        for (byte absentTag : absentTags) {
+            if (tag == absentTag) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
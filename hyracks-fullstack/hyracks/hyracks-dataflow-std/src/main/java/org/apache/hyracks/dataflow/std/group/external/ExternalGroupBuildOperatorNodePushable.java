@@ -20,20 +20,28 @@ package org.apache.hyracks.dataflow.std.group.external;
 
 import java.nio.ByteBuffer;
 
+import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.ErrorCode;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.api.io.FileReference;
+import org.apache.hyracks.api.job.profiling.counters.ICounterContext;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
+import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.base.AbstractUnaryInputSinkOperatorNodePushable;
 import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
 import org.apache.hyracks.dataflow.std.group.ISpillableTable;
 import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.ITupleWeightReader;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -44,6 +52,10 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
      * See https://issues.apache.org/jira/browse/ASTERIXDB-2783 for more details.
      */
     private static final int INIT_SEED = 573275022;
+    // the fewest frames a spillable table works with, see ExternalGroupOperatorDescriptor
+    private static final int MIN_TABLE_FRAMES = 4;
+    // the key bytes budgeted per counter of a heavy-hitters summary
+    private static final int HEAVY_HITTERS_KEY_BYTES = 64;
 
     private static final Logger LOGGER = LogManager.getLogger();
     private final IHyracksTaskContext ctx;
@@ -59,16 +71,50 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
     private final RecordDescriptor outRecordDescriptor;
     private final int tableSize;
     private final long fileSize;
+    // number of input frames after which a local aggregation checks its reduction, 0 if it never gives up
+    private final int bypassSampleFrames;
+    private final double bypassMaxGroupRatio;
+    private final FrameTupleAccessor inputAccessor;
 
     private ExternalHashGroupBy externalGroupBy;
     private ExternalGroupState state;
     private boolean isFailed = false;
+    private int numSampledFrames;
+    private long numSampledTuples;
+    private PassThroughGroupWriter passThroughWriter;
+    // only the groups that may be among the topK heaviest ones are needed, 0 if all groups are needed
+    private int topK;
+    private int numCounters;
+    private IBinaryHashFunction[] hashFunctions;
+    private ITupleWeightReader weightReader;
+    // null if the heaviest groups are not looked for or could not be bounded within the memory budget
+    private SpaceSavingSummary summary;
+    // the input that arrived after the memory was exhausted, null until then
+    private RunFileWriter heavyHittersInput;
+    private VSizeFrame heavyHittersFrame;
 
     public ExternalGroupBuildOperatorNodePushable(IHyracksTaskContext ctx, Object stateId, int tableSize, long fileSize,
             int[] gbyFields, int[] fdFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
             INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory aggregatorFactory,
             RecordDescriptor inRecordDescriptor, RecordDescriptor outRecordDescriptor,
             ISpillableTableFactory spillableTableFactory) throws HyracksDataException {
+        this(ctx, stateId, tableSize, fileSize, gbyFields, fdFields, framesLimit, comparatorFactories,
+                firstNormalizerFactory, aggregatorFactory, inRecordDescriptor, outRecordDescriptor,
+                spillableTableFactory, 0, 0);
+    }
+
+    /**
+     * Creates a build that, when {@code bypassSampleFrames} is positive, checks after that many input frames how many
+     * groups its input tuples have formed. If there are more than {@code bypassMaxGroupRatio} groups per tuple, the
+     * remaining input is not aggregated anymore but passed through as single-tuple groups. This is only correct for a
+     * local aggregation whose output is merged by a global one.
+     */
+    public ExternalGroupBuildOperatorNodePushable(IHyracksTaskContext ctx, Object stateId, int tableSize, long fileSize,
+            int[] gbyFields, int[] fdFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
+            INormalizedKeyComputerFactory firstNormalizerFactory, IAggregatorDescriptorFactory aggregatorFactory,
+            RecordDescriptor inRecordDescriptor, RecordDescriptor outRecordDescriptor,
+            ISpillableTableFactory spillableTableFactory, int bypassSampleFrames, double bypassMaxGroupRatio)
+            throws HyracksDataException {
         if (comparatorFactories.length != gbyFields.length) {
             throw HyracksDataException.create(ErrorCode.ILLEGAL_STATE, "mismatch in group by fields and comparators");
         }
@@ -89,14 +135,49 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
         this.outRecordDescriptor = outRecordDescriptor;
         this.tableSize = tableSize;
         this.fileSize = fileSize;
+        this.bypassSampleFrames = bypassSampleFrames;
+        this.bypassMaxGroupRatio = bypassMaxGroupRatio;
+        this.inputAccessor = new FrameTupleAccessor(inRecordDescriptor);
+    }
+
+    /**
+     * Makes this build only aggregate the groups that may be among the {@code topK} groups with the largest total
+     * weight. The input is aggregated in memory while a Space-Saving summary of {@code numCounters} keys is maintained.
+     * Once the memory is exhausted, the rest of the input is spooled instead of spilling groups. Then, if the summary
+     * proves that the heaviest groups are among its candidate keys, only the spooled tuples of the candidates are
+     * aggregated. Otherwise, the whole spooled input is aggregated. The summary and the spooling frames are taken from
+     * the frames of the build. Must be set before {@link #open()}.
+     */
+    public void setHeavyHitters(int topK, int numCounters, IBinaryHashFunction[] hashFunctions,
+            ITupleWeightReader weightReader) {
+        this.topK = topK;
+        this.numCounters = numCounters;
+        this.hashFunctions = hashFunctions;
+        this.weightReader = weightReader;
     }
 
     @Override
     public void open() throws HyracksDataException {
         state = new ExternalGroupState(ctx.getJobletContext().getJobId(), stateId);
+        int tableFramesLimit = framesLimit;
+        if (topK > 0) {
+            int frameSize = ctx.getInitialFrameSize();
+            long summaryBytes = SpaceSavingSummary.getFixedMemorySize(numCounters, gbyFields.length)
+                    + (long) numCounters * HEAVY_HITTERS_KEY_BYTES;
+            int summaryFrames = (int) ((summaryBytes + frameSize - 1) / frameSize);
+            // one frame spools the input and one reads it back
+            int reservedFrames = summaryFrames + 2;
+            if (framesLimit - reservedFrames >= MIN_TABLE_FRAMES) {
+                tableFramesLimit = framesLimit - reservedFrames;
+                summary = new SpaceSavingSummary(numCounters, (long) summaryFrames * frameSize, gbyFields, comparators,
+                        hashFunctions);
+            } else if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("a summary of " + numCounters + " keys does not fit in " + framesLimit + " frames");
+            }
+        }
         ISpillableTable table = spillableTableFactory.buildSpillableTable(ctx, tableSize, fileSize, gbyFields, fdFields,
                 comparators, firstNormalizerComputer, aggregatorFactory, inRecordDescriptor, outRecordDescriptor,
-                framesLimit, INIT_SEED);
+                tableFramesLimit, INIT_SEED);
         RunFileWriter[] runFileWriters = new RunFileWriter[table.getNumPartitions()];
         this.externalGroupBy = new ExternalHashGroupBy(this, table, runFileWriters, inRecordDescriptor);
 
@@ -107,12 +188,154 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
 
     @Override
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        if (passThroughWriter != null) {
+            passThroughWriter.nextFrame(buffer);
+            return;
+        }
+        if (summary != null) {
+            insertWithHeavyHitters(buffer);
+            return;
+        }
         externalGroupBy.insert(buffer);
+        if (numSampledFrames < bypassSampleFrames) {
+            numSampledFrames++;
+            inputAccessor.reset(buffer);
+            numSampledTuples += inputAccessor.getTupleCount();
+            if (numSampledFrames == bypassSampleFrames) {
+                checkReduction();
+            }
+        }
+    }
+
+    private void insertWithHeavyHitters(ByteBuffer buffer) throws HyracksDataException {
+        inputAccessor.reset(buffer);
+        int tupleCount = inputAccessor.getTupleCount();
+        for (int i = 0; i < tupleCount; i++) {
+            if (!summary.add(inputAccessor, i, weightReader.getWeight(inputAccessor, i))) {
+                // the keys do not fit in the memory of the summary, so the heaviest groups cannot be bounded
+                summary = null;
+                if (heavyHittersInput != null) {
+                    aggregateSpooledInput(false, 0);
+                }
+                externalGroupBy.insert(buffer);
+                return;
+            }
+        }
+        if (heavyHittersInput != null) {
+            heavyHittersInput.nextFrame(buffer);
+            return;
+        }
+        ISpillableTable table = state.getSpillableTable();
+        for (int i = 0; i < tupleCount; i++) {
+            if (!table.insert(inputAccessor, i)) {
+                // the memory is exhausted, the rest of the input is spooled rather than spilled with its groups
+                heavyHittersInput = getRunFileWriter();
+                heavyHittersInput.open();
+                heavyHittersFrame = new VSizeFrame(ctx);
+                FrameTupleAppender appender = new FrameTupleAppender(heavyHittersFrame);
+                for (; i < tupleCount; i++) {
+                    FrameUtils.appendToWriter(heavyHittersInput, appender, inputAccessor, i);
+                }
+                appender.write(heavyHittersInput, true);
+                return;
+            }
+        }
+    }
+
+    private void checkReduction() throws HyracksDataException {
+        long numGroups = state.getSpillableTable().getNumCreatedGroups();
+        boolean bypass = numGroups > numSampledTuples * bypassMaxGroupRatio;
+        ICounterContext counters = ctx.getCounterContext();
+        if (counters != null) {
+            counters.getCounter(getCounterName("sampledTuples"), true).set(numSampledTuples);
+            counters.getCounter(getCounterName("sampledGroups"), true).set(numGroups);
+            counters.getCounter(getCounterName("bypassed"), true).set(bypass ? 1 : 0);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("local aggregation formed " + numGroups + " groups out of " + numSampledTuples + " tuples, "
+                    + (bypass ? "passing the rest of the input through" : "keeps aggregating"));
+        }
+        if (bypass) {
+            passThroughWriter = new PassThroughGroupWriter(ctx, gbyFields, fdFields, aggregatorFactory,
+                    inRecordDescriptor, outRecordDescriptor);
+            RunFileWriter run = getRunFileWriter();
+            state.setPassThroughRun(run);
+            passThroughWriter.open(run);
+        }
+    }
+
+    private String getCounterName(String name) {
+        return stateId + ".preaggregation." + name;
+    }
+
+    private void aggregateHeavyHitters() throws HyracksDataException {
+        long threshold = summary.getKthLargestLowerBound(topK);
+        // a key that is not monitored weighs at most the minimum count, so it can only tie with the topK-th group
+        boolean filter = threshold >= summary.getMinCount();
+        int numCandidates = summary.getNumCandidates(threshold);
+        ICounterContext counters = ctx.getCounterContext();
+        if (counters != null) {
+            counters.getCounter(stateId + ".heavyhitters.filtered", true).set(filter ? 1 : 0);
+            counters.getCounter(stateId + ".heavyhitters.candidates", true).set(numCandidates);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("top " + topK + " groups " + (filter ? "are among " + numCandidates + " candidates"
+                    : "could not be bounded, aggregating all groups"));
+        }
+        // the groups aggregated before the memory was exhausted are output as well. Those that are not candidates may
+        // miss some of their spooled tuples, but they weigh less than the topK-th group either way.
+        aggregateSpooledInput(filter, threshold);
+    }
+
+    private void aggregateSpooledInput(boolean filter, long threshold) throws HyracksDataException {
+        heavyHittersInput.close();
+        RunFileReader reader = heavyHittersInput.createDeleteOnCloseReader();
+        heavyHittersInput = null;
+        reader.open();
+        try {
+            VSizeFrame frame = new VSizeFrame(ctx);
+            VSizeFrame candidateFrame = heavyHittersFrame;
+            FrameTupleAppender candidateAppender = new FrameTupleAppender(candidateFrame, true);
+            while (reader.nextFrame(frame)) {
+                if (!filter) {
+                    externalGroupBy.insert(frame.getBuffer());
+                    continue;
+                }
+                inputAccessor.reset(frame.getBuffer());
+                for (int i = 0, n = inputAccessor.getTupleCount(); i < n; i++) {
+                    if (summary.isCandidate(inputAccessor, i, threshold)
+                            && !candidateAppender.append(inputAccessor, i)) {
+                        externalGroupBy.insert(candidateFrame.getBuffer());
+                        candidateAppender.reset(candidateFrame, true);
+                        if (!candidateAppender.append(inputAccessor, i)) {
+                            // a large tuple, the spooled frame that holds it is big enough
+                            candidateFrame.ensureFrameSize(frame.getFrameSize());
+                            candidateAppender.reset(candidateFrame, true);
+                            if (!candidateAppender.append(inputAccessor, i)) {
+                                throw HyracksDataException.create(ErrorCode.ILLEGAL_STATE,
+                                        "a tuple does not fit in an empty frame");
+                            }
+                        }
+                    }
+                }
+            }
+            if (candidateAppender.getTupleCount() > 0) {
+                externalGroupBy.insert(candidateFrame.getBuffer());
+            }
+        } finally {
+            reader.close();
+        }
     }
 
     @Override
     public void fail() throws HyracksDataException {
         isFailed = true;
+        if (passThroughWriter != null) {
+            passThroughWriter.fail();
+        }
+        if (heavyHittersInput != null) {
+            heavyHittersInput.fail();
+        }
     }
 
     @Override
@@ -123,7 +346,23 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
                     run.erase();
                 }
             }
+            if (state.getPassThroughRun() != null) {
+                state.getPassThroughRun().erase();
+            }
+            if (heavyHittersInput != null) {
+                heavyHittersInput.erase();
+            }
         } else {
+            if (heavyHittersInput != null) {
+                aggregateHeavyHitters();
+            }
+            if (passThroughWriter != null) {
+                passThroughWriter.close();
+                ICounterContext counters = ctx.getCounterContext();
+                if (counters != null) {
+                    counters.getCounter(getCounterName("passedTuples"), true).set(passThroughWriter.getNumTuples());
+                }
+            }
             externalGroupBy.flushSpilledPartitions();
             ctx.setStateObject(state);
             if (LOGGER.isDebugEnabled()) {
@@ -140,6 +379,10 @@ public class ExternalGroupBuildOperatorNodePushable extends AbstractUnaryInputSi
         }
         state = null;
         externalGroupBy = null;
+        passThroughWriter = null;
+        heavyHittersInput = null;
+        heavyHittersFrame = null;
+        summary = null;
     }
 
     @Override
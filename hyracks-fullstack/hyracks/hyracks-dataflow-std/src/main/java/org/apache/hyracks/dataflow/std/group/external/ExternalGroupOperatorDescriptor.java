@@ -24,6 +24,8 @@ import org.apache.hyracks.api.dataflow.IActivityGraphBuilder;
 import org.apache.hyracks.api.dataflow.IOperatorNodePushable;
 import org.apache.hyracks.api.dataflow.TaskId;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.IRecordDescriptorProvider;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
@@ -33,6 +35,7 @@ import org.apache.hyracks.dataflow.std.base.AbstractActivityNode;
 import org.apache.hyracks.dataflow.std.base.AbstractOperatorDescriptor;
 import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
 import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.ITupleWeightReaderFactory;
 import org.apache.hyracks.dataflow.std.structures.SerializableHashTable;
 
 /**
@@ -44,6 +47,25 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
 
     private static final int MERGE_ACTIVITY_ID = 1;
 
+    /**
+     * Number of input frames a local aggregation looks at before deciding whether it reduces its input enough.
+     */
+    public static final int DEFAULT_BYPASS_SAMPLE_FRAMES = 16;
+
+    /**
+     * Ratio of groups to input tuples above which a local aggregation gives up and passes its input through.
+     */
+    public static final double DEFAULT_BYPASS_MAX_GROUP_RATIO = 0.9;
+
+    /**
+     * The largest number of heaviest groups a heavy-hitters aggregation is used for. The summary monitors a multiple
+     * of it, so that the counts of the heaviest groups are likely to be separated from the error of the summary.
+     */
+    public static final int HEAVY_HITTERS_MAX_TOP_K = 1024;
+    private static final int HEAVY_HITTERS_MIN_COUNTERS = 1024;
+    private static final int HEAVY_HITTERS_COUNTERS_PER_GROUP = 16;
+    private static final int HEAVY_HITTERS_HASH_SEED = 1436725297;
+
     private static final long serialVersionUID = 2L;
     private final int[] gbyFields;
     private final int[] fdFields; // nullable
@@ -58,6 +80,12 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
     private final RecordDescriptor outRecDesc;
     private final int tableSize;
     private final long fileSize;
+    private int bypassSampleFrames = 0;
+    private double bypassMaxGroupRatio = 0;
+    private int heavyHittersTopK = 0;
+    private int heavyHittersNumCounters = 0;
+    private IBinaryHashFunctionFamily[] heavyHittersHashFunctionFamilies;
+    private ITupleWeightReaderFactory heavyHittersWeightReaderFactory;
 
     public ExternalGroupOperatorDescriptor(IOperatorDescriptorRegistry spec, int inputSizeInTuple, long inputFileSize,
             int[] gbyFields, int[] fdFields, int framesLimit, IBinaryComparatorFactory[] comparatorFactories,
@@ -94,6 +122,38 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         this.fileSize = inputFileSize;
     }
 
+    /**
+     * Lets this aggregation stop aggregating once it has seen {@code sampleFrames} input frames that formed more than
+     * {@code maxGroupRatio} groups per tuple. From then on, every input tuple is output as its own group. Must only be
+     * set on a local aggregation whose output is aggregated again.
+     *
+     * @param sampleFrames number of input frames to sample, 0 to never stop aggregating
+     * @param maxGroupRatio the ratio of groups to input tuples above which the aggregation stops
+     */
+    public void setPreAggregationBypass(int sampleFrames, double maxGroupRatio) {
+        this.bypassSampleFrames = sampleFrames;
+        this.bypassMaxGroupRatio = maxGroupRatio;
+    }
+
+    /**
+     * Lets this aggregation only aggregate the groups that may be among the {@code topK} groups with the largest total
+     * weight, as determined by a Space-Saving summary of {@code numCounters} keys over its input. The other groups are
+     * not output. Must only be set on an aggregation that sees all the tuples of its groups and whose output is only
+     * needed for its heaviest groups, e.g. a global COUNT(*) followed by an ORDER BY on the count and a LIMIT.
+     *
+     * @param topK the number of heaviest groups that are needed
+     * @param numCounters the number of keys the summary monitors, which must not be smaller than {@code topK}
+     * @param hashFunctionFamilies the hash function families of the group-by fields
+     * @param weightReaderFactory reads the weight an input tuple adds to its group
+     */
+    public void setHeavyHitters(int topK, int numCounters, IBinaryHashFunctionFamily[] hashFunctionFamilies,
+            ITupleWeightReaderFactory weightReaderFactory) {
+        this.heavyHittersTopK = topK;
+        this.heavyHittersNumCounters = numCounters;
+        this.heavyHittersHashFunctionFamilies = hashFunctionFamilies;
+        this.heavyHittersWeightReaderFactory = weightReaderFactory;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         AggregateActivity aggregateAct = new AggregateActivity(new ActivityId(getOperatorId(), AGGREGATE_ACTIVITY_ID));
@@ -119,10 +179,21 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
         public IOperatorNodePushable createPushRuntime(final IHyracksTaskContext ctx,
                 final IRecordDescriptorProvider recordDescProvider, final int partition, int nPartitions)
                 throws HyracksDataException {
-            return new ExternalGroupBuildOperatorNodePushable(ctx, new TaskId(getActivityId(), partition), tableSize,
-                    fileSize, gbyFields, fdFields, framesLimit, comparatorFactories, firstNormalizerFactory,
-                    partialAggregatorFactory, recordDescProvider.getInputRecordDescriptor(getActivityId(), 0),
-                    outRecDescs[0], spillableTableFactory);
+            ExternalGroupBuildOperatorNodePushable build =
+                    new ExternalGroupBuildOperatorNodePushable(ctx, new TaskId(getActivityId(), partition), tableSize,
+                            fileSize, gbyFields, fdFields, framesLimit, comparatorFactories, firstNormalizerFactory,
+                            partialAggregatorFactory, recordDescProvider.getInputRecordDescriptor(getActivityId(), 0),
+                            outRecDescs[0], spillableTableFactory, bypassSampleFrames, bypassMaxGroupRatio);
+            if (heavyHittersTopK > 0) {
+                IBinaryHashFunction[] hashFunctions = new IBinaryHashFunction[heavyHittersHashFunctionFamilies.length];
+                for (int i = 0; i < hashFunctions.length; i++) {
+                    hashFunctions[i] =
+                            heavyHittersHashFunctionFamilies[i].createBinaryHashFunction(HEAVY_HITTERS_HASH_SEED);
+                }
+                build.setHeavyHitters(heavyHittersTopK, heavyHittersNumCounters, hashFunctions,
+                        heavyHittersWeightReaderFactory.createTupleWeightReader(ctx));
+            }
+            return build;
         }
     }
 
@@ -146,6 +217,10 @@ public class ExternalGroupOperatorDescriptor extends AbstractOperatorDescriptor
 
     }
 
+    public static int getHeavyHittersNumCounters(int topK) {
+        return Math.max(HEAVY_HITTERS_MIN_COUNTERS, HEAVY_HITTERS_COUNTERS_PER_GROUP * topK);
+    }
+
     /**
      * Based on a rough estimation of a tuple (each field size: 4 bytes) size and the number of possible hash values
      * for the given number of group-by columns, calculates the number of hash entries for the hash table in Group-by.
@@ -106,6 +106,9 @@ public class ExternalGroupWriteOperatorNodePushable extends AbstractUnaryOutputS
         try {
             writer.open();
             doPass(table, partitionRuns, numberOfTuples, writer, 1); // level 0 use used at build stage.
+            if (aggState.getPassThroughRun() != null) {
+                copyPassThroughRun(aggState.getPassThroughRun().createDeleteOnCloseReader(), writer);
+            }
         } catch (Exception e) {
             try {
                 for (RunFileWriter run : generatedRuns) {
@@ -169,6 +172,18 @@ public class ExternalGroupWriteOperatorNodePushable extends AbstractUnaryOutputS
         }
     }
 
+    private void copyPassThroughRun(RunFileReader reader, IFrameWriter writer) throws HyracksDataException {
+        reader.open();
+        try {
+            VSizeFrame frame = new VSizeFrame(ctx);
+            while (reader.nextFrame(frame)) {
+                writer.nextFrame(frame.getBuffer());
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
     private int[] buildGroup(RunFileReader reader, ISpillableTable table, RunFileWriter[] runFileWriters)
             throws HyracksDataException {
         ExternalHashGroupBy groupBy = new ExternalHashGroupBy(this, table, runFileWriters, partialAggRecordDesc);
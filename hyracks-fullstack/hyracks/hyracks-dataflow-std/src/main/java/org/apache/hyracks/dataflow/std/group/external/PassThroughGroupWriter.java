@@ -0,0 +1,147 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.external;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.std.group.AggregateState;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptor;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+
+/**
+ * Writes every input tuple out as a group of its own, i.e. without looking for other tuples of the same group.
+ * The output has the same format as the one of a group that went through the hash table, so that a local
+ * aggregation that stopped aggregating can hand these tuples to the global aggregation that merges them anyway.
+ */
+class PassThroughGroupWriter {
+
+    private final int[] keyFields;
+    private final IAggregatorDescriptor aggregator;
+    private final AggregateState aggregateState;
+    private final FrameTupleAccessor inputAccessor;
+    private final ArrayTupleBuilder stateTupleBuilder;
+    private final VSizeFrame stateFrame;
+    private final FrameTupleAppender stateAppender;
+    private final FrameTupleAccessor stateAccessor;
+    private final ArrayTupleBuilder outputTupleBuilder;
+    private final FrameTupleAppender outputAppender;
+    private IFrameWriter writer;
+    private long numTuples;
+
+    PassThroughGroupWriter(IHyracksTaskContext ctx, int[] gbyFields, int[] fdFields,
+            IAggregatorDescriptorFactory aggregatorFactory, RecordDescriptor inRecordDescriptor,
+            RecordDescriptor outRecordDescriptor) throws HyracksDataException {
+        int numKeyFields = gbyFields.length + (fdFields == null ? 0 : fdFields.length);
+        keyFields = new int[numKeyFields];
+        int[] stateKeyFields = new int[numKeyFields];
+        for (int i = 0; i < numKeyFields; i++) {
+            keyFields[i] = i < gbyFields.length ? gbyFields[i] : fdFields[i - gbyFields.length];
+            stateKeyFields[i] = i;
+        }
+        aggregator = aggregatorFactory.createAggregator(ctx, inRecordDescriptor, outRecordDescriptor, keyFields,
+                stateKeyFields, null, -1);
+        aggregateState = aggregator.createAggregateStates();
+        inputAccessor = new FrameTupleAccessor(inRecordDescriptor);
+        stateTupleBuilder = new ArrayTupleBuilder(outRecordDescriptor.getFieldCount());
+        stateFrame = new VSizeFrame(ctx);
+        stateAppender = new FrameTupleAppender(stateFrame);
+        stateAccessor = new FrameTupleAccessor(outRecordDescriptor);
+        outputTupleBuilder = new ArrayTupleBuilder(outRecordDescriptor.getFieldCount());
+        outputAppender = new FrameTupleAppender(new VSizeFrame(ctx));
+    }
+
+    void open(IFrameWriter writer) throws HyracksDataException {
+        this.writer = writer;
+        writer.open();
+    }
+
+    void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+        inputAccessor.reset(buffer);
+        int tupleCount = inputAccessor.getTupleCount();
+        for (int i = 0; i < tupleCount; i++) {
+            stateTupleBuilder.reset();
+            for (int k = 0; k < keyFields.length; k++) {
+                stateTupleBuilder.addField(inputAccessor, i, keyFields[k]);
+            }
+            aggregator.init(stateTupleBuilder, inputAccessor, i, aggregateState);
+            if (!appendState()) {
+                flushStates();
+                if (!appendState()) {
+                    throw new HyracksDataException("The output item is too large to be fit into a frame.");
+                }
+            }
+        }
+        numTuples += tupleCount;
+    }
+
+    /**
+     * Outputs the pending groups and closes the underlying writer.
+     */
+    void close() throws HyracksDataException {
+        try {
+            flushStates();
+            outputAppender.write(writer, true);
+        } finally {
+            aggregator.close();
+            writer.close();
+        }
+    }
+
+    void fail() throws HyracksDataException {
+        writer.fail();
+    }
+
+    long getNumTuples() {
+        return numTuples;
+    }
+
+    private boolean appendState() throws HyracksDataException {
+        return stateAppender.append(stateTupleBuilder.getFieldEndOffsets(), stateTupleBuilder.getByteArray(), 0,
+                stateTupleBuilder.getSize());
+    }
+
+    private void flushStates() throws HyracksDataException {
+        stateAccessor.reset(stateAppender.getBuffer());
+        int stateCount = stateAccessor.getTupleCount();
+        for (int t = 0; t < stateCount; t++) {
+            outputTupleBuilder.reset();
+            for (int k = 0; k < keyFields.length; k++) {
+                outputTupleBuilder.addField(stateAccessor, t, k);
+            }
+            if (aggregator.outputFinalResult(outputTupleBuilder, stateAccessor, t, aggregateState)
+                    && !outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
+                            outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
+                outputAppender.write(writer, true);
+                if (!outputAppender.appendSkipEmptyField(outputTupleBuilder.getFieldEndOffsets(),
+                        outputTupleBuilder.getByteArray(), 0, outputTupleBuilder.getSize())) {
+                    throw new HyracksDataException("The output item is too large to be fit into a frame.");
+                }
+            }
+        }
+        stateAppender.reset(stateFrame, true);
+    }
+}
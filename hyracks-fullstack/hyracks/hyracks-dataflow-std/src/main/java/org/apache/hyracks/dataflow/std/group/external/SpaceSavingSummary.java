@@ -0,0 +1,313 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.external;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+
+/**
+ * A weighted Space-Saving summary (Metwally et al., 2005) that monitors at most {@code capacity} group keys.
+ * A monitored key has a count that over-estimates its total weight by at most its error. When the summary is full,
+ * a new key replaces the key with the minimum count and inherits that count as its error, so any key that is not
+ * monitored has a total weight of at most {@link #getMinCount()}.
+ * The summary stays within a memory budget: a key that would exceed it is not added, and the summary must then be
+ * discarded.
+ */
+class SpaceSavingSummary {
+
+    private static final int EMPTY = -1;
+    // the bytes of a byte[] other than its elements
+    private static final int ARRAY_OVERHEAD = 16;
+
+    private final int capacity;
+    private final int[] keyFields;
+    private final IBinaryComparator[] comparators;
+    private final IBinaryHashFunction[] hashFunctions;
+    // per monitored key: its field values back to back, the end offsets of its fields, its hash, count and error
+    private final byte[][] keys;
+    private final int[] keyFieldEnds;
+    private final int[] hashes;
+    private final long[] counts;
+    private final long[] errors;
+    // min-heap of the monitored keys ordered by count
+    private final int[] heap;
+    private final int[] heapPositions;
+    // open-addressing (linear probing) index of the monitored keys
+    private final int[] slots;
+    private final int slotMask;
+    private final long memoryBudget;
+    private long memorySize;
+    private int size;
+    private boolean evicted;
+
+    SpaceSavingSummary(int capacity, long memoryBudget, int[] keyFields, IBinaryComparator[] comparators,
+            IBinaryHashFunction[] hashFunctions) {
+        this.capacity = capacity;
+        this.memoryBudget = memoryBudget;
+        this.memorySize = getFixedMemorySize(capacity, keyFields.length);
+        this.keyFields = keyFields;
+        this.comparators = comparators;
+        this.hashFunctions = hashFunctions;
+        keys = new byte[capacity][];
+        keyFieldEnds = new int[capacity * keyFields.length];
+        hashes = new int[capacity];
+        counts = new long[capacity];
+        errors = new long[capacity];
+        heap = new int[capacity];
+        heapPositions = new int[capacity];
+        int numSlots = getNumSlots(capacity);
+        slots = new int[numSlots];
+        slotMask = numSlots - 1;
+        Arrays.fill(slots, EMPTY);
+    }
+
+    /**
+     * @return the memory taken by a summary of {@code capacity} keys, not counting the bytes of the keys
+     */
+    static long getFixedMemorySize(int capacity, int numKeyFields) {
+        // per key: its byte[] reference, field ends, hash, count, error and heap entries
+        long perKey =
+                Long.BYTES + (long) Integer.BYTES * numKeyFields + Integer.BYTES + 2L * Long.BYTES + 2L * Integer.BYTES;
+        return capacity * perKey + (long) getNumSlots(capacity) * Integer.BYTES;
+    }
+
+    private static int getNumSlots(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 1) * 2 - 1) << 1;
+    }
+
+    long getMemorySize() {
+        return memorySize;
+    }
+
+    /**
+     * Adds the weight of a tuple to its key.
+     *
+     * @return false if the key could not be monitored within the memory budget, the summary is unchanged then
+     */
+    boolean add(IFrameTupleAccessor accessor, int tIndex, long weight) throws HyracksDataException {
+        int hash = hash(accessor, tIndex);
+        int key = find(accessor, tIndex, hash);
+        if (key != EMPTY) {
+            counts[key] += weight;
+            siftDown(heapPositions[key]);
+            return true;
+        }
+        int newKey = size < capacity ? size : heap[0];
+        if (!reserveKeyBytes(newKey, getKeyLength(accessor, tIndex))) {
+            return false;
+        }
+        if (size < capacity) {
+            key = size++;
+            store(key, accessor, tIndex, hash);
+            counts[key] = weight;
+            errors[key] = 0;
+            heap[key] = key;
+            heapPositions[key] = key;
+            siftUp(key);
+            return true;
+        }
+        // replaces the key with the minimum count
+        key = heap[0];
+        long minCount = counts[key];
+        remove(key);
+        store(key, accessor, tIndex, hash);
+        counts[key] = minCount + weight;
+        errors[key] = minCount;
+        siftDown(0);
+        evicted = true;
+        return true;
+    }
+
+    private int getKeyLength(IFrameTupleAccessor accessor, int tIndex) {
+        int length = 0;
+        for (int keyField : keyFields) {
+            length += accessor.getFieldLength(tIndex, keyField);
+        }
+        return length;
+    }
+
+    private boolean reserveKeyBytes(int key, int length) {
+        if (keys[key] != null && keys[key].length >= length) {
+            return true;
+        }
+        long oldSize = keys[key] == null ? 0 : ARRAY_OVERHEAD + keys[key].length;
+        long newSize = memorySize - oldSize + ARRAY_OVERHEAD + length;
+        if (newSize > memoryBudget) {
+            return false;
+        }
+        keys[key] = new byte[length];
+        memorySize = newSize;
+        return true;
+    }
+
+    /**
+     * @return an upper bound of the weight of any key that is not monitored
+     */
+    long getMinCount() {
+        return evicted ? counts[heap[0]] : 0;
+    }
+
+    /**
+     * @return the k-th largest guaranteed weight of the monitored keys, 0 if less than k keys are monitored
+     */
+    long getKthLargestLowerBound(int k) {
+        if (k <= 0 || size < k) {
+            return 0;
+        }
+        long[] lowerBounds = new long[size];
+        for (int i = 0; i < size; i++) {
+            lowerBounds[i] = counts[i] - errors[i];
+        }
+        Arrays.sort(lowerBounds);
+        return lowerBounds[size - k];
+    }
+
+    /**
+     * @return whether the key of the given tuple is monitored with a count of at least {@code threshold}
+     */
+    boolean isCandidate(IFrameTupleAccessor accessor, int tIndex, long threshold) throws HyracksDataException {
+        int key = find(accessor, tIndex, hash(accessor, tIndex));
+        return key != EMPTY && counts[key] >= threshold;
+    }
+
+    int getNumCandidates(long threshold) {
+        int numCandidates = 0;
+        for (int i = 0; i < size; i++) {
+            if (counts[i] >= threshold) {
+                numCandidates++;
+            }
+        }
+        return numCandidates;
+    }
+
+    private int hash(IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
+        byte[] bytes = accessor.getBuffer().array();
+        int tupleStart = accessor.getTupleStartOffset(tIndex) + accessor.getFieldSlotsLength();
+        int h = 0;
+        for (int i = 0; i < keyFields.length; i++) {
+            int fieldStart = tupleStart + accessor.getFieldStartOffset(tIndex, keyFields[i]);
+            int fieldLength = accessor.getFieldLength(tIndex, keyFields[i]);
+            h = h * 31 + hashFunctions[i].hash(bytes, fieldStart, fieldLength);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private int find(IFrameTupleAccessor accessor, int tIndex, int hash) throws HyracksDataException {
+        for (int slot = hash & slotMask; slots[slot] != EMPTY; slot = (slot + 1) & slotMask) {
+            int key = slots[slot];
+            if (hashes[key] == hash && isEqual(key, accessor, tIndex)) {
+                return key;
+            }
+        }
+        return EMPTY;
+    }
+
+    private boolean isEqual(int key, IFrameTupleAccessor accessor, int tIndex) throws HyracksDataException {
+        byte[] bytes = accessor.getBuffer().array();
+        int tupleStart = accessor.getTupleStartOffset(tIndex) + accessor.getFieldSlotsLength();
+        int keyFieldStart = 0;
+        for (int i = 0; i < keyFields.length; i++) {
+            int keyFieldEnd = keyFieldEnds[key * keyFields.length + i];
+            int fieldStart = tupleStart + accessor.getFieldStartOffset(tIndex, keyFields[i]);
+            int fieldLength = accessor.getFieldLength(tIndex, keyFields[i]);
+            if (comparators[i].compare(keys[key], keyFieldStart, keyFieldEnd - keyFieldStart, bytes, fieldStart,
+                    fieldLength) != 0) {
+                return false;
+            }
+            keyFieldStart = keyFieldEnd;
+        }
+        return true;
+    }
+
+    private void store(int key, IFrameTupleAccessor accessor, int tIndex, int hash) {
+        byte[] bytes = accessor.getBuffer().array();
+        int tupleStart = accessor.getTupleStartOffset(tIndex) + accessor.getFieldSlotsLength();
+        int keyFieldEnd = 0;
+        for (int i = 0; i < keyFields.length; i++) {
+            int fieldLength = accessor.getFieldLength(tIndex, keyFields[i]);
+            System.arraycopy(bytes, tupleStart + accessor.getFieldStartOffset(tIndex, keyFields[i]), keys[key],
+                    keyFieldEnd, fieldLength);
+            keyFieldEnd += fieldLength;
+            keyFieldEnds[key * keyFields.length + i] = keyFieldEnd;
+        }
+        hashes[key] = hash;
+        int slot = hash & slotMask;
+        while (slots[slot] != EMPTY) {
+            slot = (slot + 1) & slotMask;
+        }
+        slots[slot] = key;
+    }
+
+    private void remove(int key) {
+        int hole = hashes[key] & slotMask;
+        while (slots[hole] != key) {
+            hole = (hole + 1) & slotMask;
+        }
+        // backward-shift deletion keeps every key reachable from its home slot without tombstones
+        for (int slot = (hole + 1) & slotMask; slots[slot] != EMPTY; slot = (slot + 1) & slotMask) {
+            int home = hashes[slots[slot]] & slotMask;
+            if (((slot - home) & slotMask) >= ((slot - hole) & slotMask)) {
+                slots[hole] = slots[slot];
+                hole = slot;
+            }
+        }
+        slots[hole] = EMPTY;
+    }
+
+    private void siftUp(int position) {
+        int key = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[key]) {
+                break;
+            }
+            setHeap(position, heap[parent]);
+            position = parent;
+        }
+        setHeap(position, key);
+    }
+
+    private void siftDown(int position) {
+        int key = heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[key] <= counts[heap[child]]) {
+                break;
+            }
+            setHeap(position, heap[child]);
+            position = child;
+        }
+        setHeap(position, key);
+    }
+
+    private void setHeap(int position, int key) {
+        heap[position] = key;
+        heapPositions[key] = position;
+    }
+}
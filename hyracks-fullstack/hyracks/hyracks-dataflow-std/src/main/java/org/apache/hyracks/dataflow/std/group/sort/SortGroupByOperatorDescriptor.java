@@ -55,7 +55,7 @@ public class SortGroupByOperatorDescriptor extends AbstractSorterOperatorDescrip
     private final RecordDescriptor partialAggRecordDesc;
     private final RecordDescriptor outputRecordDesc;
     private final boolean finalStage;
-    private static final Algorithm ALG = Algorithm.MERGE_SORT;
+    private Algorithm alg = Algorithm.MERGE_SORT;
 
     /**
      * @param spec
@@ -135,6 +135,10 @@ public class SortGroupByOperatorDescriptor extends AbstractSorterOperatorDescrip
         this.finalStage = finalStage;
     }
 
+    public void setAlgorithm(Algorithm alg) {
+        this.alg = alg;
+    }
+
     @Override
     public AbstractSorterOperatorDescriptor.SortActivity getSortActivity(ActivityId id) {
         return new AbstractSorterOperatorDescriptor.SortActivity(id) {
@@ -147,7 +151,7 @@ public class SortGroupByOperatorDescriptor extends AbstractSorterOperatorDescrip
                 IRunGenerator runGen = new ExternalSortGroupByRunGenerator(ctx, sortFields,
                         recordDescriptorProvider.getInputRecordDescriptor(this.getActivityId(), 0), framesLimit,
                         groupFields, keyNormalizerFactories, comparatorFactories, partialAggregatorFactory,
-                        partialAggRecordDesc, ALG);
+                        partialAggRecordDesc, alg);
                 return profile ? TimedRunGenerator.time(runGen, ctx, "GroupBy (Sort Runs)") : runGen;
             }
         };
@@ -149,6 +149,24 @@ public class InMemoryHashJoin {
         return -1;
     }
 
+    /**
+     * Makes this joiner probe frames that were already inserted into its table by another joiner. No tuple is inserted
+     * into the table; the frames must be exactly the ones (in the same order) the table was built from.
+     *
+     * @param frames the build frames of the prebuilt table
+     */
+    void attachBuildFrames(List<ByteBuffer> frames) {
+        buffers.addAll(frames);
+    }
+
+    List<ByteBuffer> getBuildFrames() {
+        return buffers;
+    }
+
+    ISerializableTable getTable() {
+        return table;
+    }
+
     /**
      * Must be called before starting to join to set the right comparator with the right context.
      *
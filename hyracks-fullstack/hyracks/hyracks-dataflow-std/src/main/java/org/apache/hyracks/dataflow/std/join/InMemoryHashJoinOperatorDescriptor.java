@@ -66,6 +66,10 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
     private final int tableSize;
     // The maximum number of in-memory frames that this hash join can use.
     private final int memSizeInFrames;
+    // When set, the build table is looked up in (and published to) the node's join build table cache.
+    private JoinBuildCacheKey buildCacheKey;
+    // When set, the table of the build cache key is pinned on every node and the build input is empty.
+    private String buildTablePin;
 
     public InMemoryHashJoinOperatorDescriptor(IOperatorDescriptorRegistry spec, int[] keys0, int[] keys1,
             IBinaryHashFunctionFactory[] hashFunctionFactories0, IBinaryHashFunctionFactory[] hashFunctionFactories1,
@@ -92,6 +96,18 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
         this.memSizeInFrames = memSizeInFrames;
     }
 
+    public void setBuildCacheKey(JoinBuildCacheKey buildCacheKey) {
+        this.buildCacheKey = buildCacheKey;
+    }
+
+    public JoinBuildCacheKey getBuildCacheKey() {
+        return buildCacheKey;
+    }
+
+    public void setBuildTablePin(String buildTablePin) {
+        this.buildTablePin = buildTablePin;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         ActivityId hbaId = new ActivityId(odId, 0);
@@ -112,6 +128,9 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
 
     static class HashBuildTaskState extends AbstractStateObject {
         InMemoryHashJoin joiner;
+        JoinBuildTableCache cache;
+        // non-null if the joiner probes a cached table, which must be released rather than freed
+        JoinBuildTableCache.Entry cachedTable;
 
         private HashBuildTaskState(JobId jobId, TaskId taskId) {
             super(jobId, taskId);
@@ -161,6 +180,8 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
 
             IOperatorNodePushable op = new AbstractUnaryInputSinkOperatorNodePushable() {
                 private HashBuildTaskState state;
+                // whether the table is built here and published to the cache when the build completes
+                private boolean publish;
 
                 @Override
                 public void open() throws HyracksDataException {
@@ -169,13 +190,29 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
                     ITuplePartitionComputer hpc1 =
                             new FieldHashPartitionComputerFactory(keys1, hashFunctionFactories1).createPartitioner(ctx);
                     state = new HashBuildTaskState(jobletCtx.getJobId(), new TaskId(getActivityId(), partition));
-                    ISerializableTable table = new SerializableHashTable(tableSize, jobletCtx, bufferManager);
+                    state.cache = buildCacheKey != null ? JoinBuildTableCache.get(jobletCtx) : null;
+                    state.cachedTable =
+                            JoinBuildTableCache.acquireBuildTable(state.cache, buildCacheKey, buildTablePin);
+                    ISerializableTable table;
+                    if (state.cachedTable != null) {
+                        table = state.cachedTable.getTable();
+                    } else {
+                        publish = state.cache != null;
+                        table = new SerializableHashTable(tableSize, jobletCtx, bufferManager);
+                    }
                     state.joiner = new InMemoryHashJoin(jobletCtx, new FrameTupleAccessor(rd0), hpc0,
                             new FrameTupleAccessor(rd1), rd1, hpc1, isLeftOuter, nullWriters1, table, bufferManager);
+                    if (state.cachedTable != null) {
+                        state.joiner.attachBuildFrames(state.cachedTable.getFrames());
+                    }
                 }
 
                 @Override
                 public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                    if (state.cachedTable != null) {
+                        // the cached table already holds this input
+                        return;
+                    }
                     ByteBuffer copyBuffer = allocateBuffer(buffer.capacity());
                     FrameUtils.copyAndFlip(buffer, copyBuffer);
                     state.joiner.build(copyBuffer);
@@ -201,11 +238,22 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
 
                 @Override
                 public void close() throws HyracksDataException {
+                    if (publish) {
+                        state.cachedTable =
+                                state.cache.put(buildCacheKey, state.joiner.getBuildFrames(), state.joiner.getTable());
+                        publish = false;
+                    }
                     ctx.setStateObject(state);
                 }
 
                 @Override
                 public void fail() throws HyracksDataException {
+                    // a failed build must neither publish its table nor keep a cached one pinned
+                    publish = false;
+                    if (state != null && state.cachedTable != null) {
+                        state.cache.release(state.cachedTable);
+                        state.cachedTable = null;
+                    }
                 }
             };
             return op;
@@ -244,7 +292,12 @@ public class InMemoryHashJoinOperatorDescriptor extends AbstractOperatorDescript
                         state.joiner.completeJoin(writer);
                     } finally {
                         try {
-                            state.joiner.releaseMemory();
+                            if (state.cachedTable != null) {
+                                state.cache.release(state.cachedTable);
+                                state.cachedTable = null;
+                            } else {
+                                state.joiner.releaseMemory();
+                            }
                         } finally {
                             writer.close();
                         }
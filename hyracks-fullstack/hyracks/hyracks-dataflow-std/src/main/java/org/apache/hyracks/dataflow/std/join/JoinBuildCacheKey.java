@@ -0,0 +1,70 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Identifies a cacheable build side of an in-memory hash join. The signature describes the build input (the datasets
+ * it reads, the predicates applied on top of them and the join keys) and must be identical for two builds that produce
+ * the same table. The tags hold the data versions of the datasets the build input reads, taken when the job was
+ * compiled; a modification of any of them changes the tags, so a cached table is never hit with newer data.
+ */
+public class JoinBuildCacheKey implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String signature;
+    private final String[] tags;
+
+    public JoinBuildCacheKey(String signature, String[] tags) {
+        this.signature = signature;
+        this.tags = tags;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public String[] getTags() {
+        return tags;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof JoinBuildCacheKey)) {
+            return false;
+        }
+        JoinBuildCacheKey other = (JoinBuildCacheKey) o;
+        return signature.equals(other.signature) && Arrays.equals(tags, other.tags);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * signature.hashCode() + Arrays.hashCode(tags);
+    }
+
+    @Override
+    public String toString() {
+        return signature + " " + Arrays.toString(tags);
+    }
+}
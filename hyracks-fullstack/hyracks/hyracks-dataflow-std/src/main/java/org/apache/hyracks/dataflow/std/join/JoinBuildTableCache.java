@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.context.IHyracksJobletContext;
+import org.apache.hyracks.api.exceptions.ErrorCode;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * A node-level cache of immutable in-memory hash join build tables. Once built, a table and its frames are never
+ * modified again, so any number of probes may read them concurrently. Entries are reference counted: an entry that
+ * is evicted (to make room under the memory cap) or superseded (by a table built from a newer version of the same
+ * input) is removed from the cache immediately, but its memory is only accounted as released when its last user lets
+ * go of it.
+ * <p>
+ * The cache does not track modifications itself. The keys carry the data versions of the datasets the build input
+ * reads, as known by the cluster controller when the job was compiled, so a modification from any node leads to
+ * new keys and the tables built from older data are no longer hit.
+ * <p>
+ * Before a job starts, the cluster controller can pin the table of a key on every node. A pinned table stays readable
+ * until it is unpinned, even if it is superseded or the node's tasks start late, so the job may skip its build input
+ * altogether and probe the pinned tables instead.
+ */
+public class JoinBuildTableCache {
+    private static final Logger LOGGER = LogManager.getLogger();
+
+    private final long capacity;
+    private final Map<JoinBuildCacheKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Entry> pins = new HashMap<>();
+    private long usedBytes;
+
+    public JoinBuildTableCache(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return the join build table cache of the node running the joblet, or null if the node does not cache tables
+     */
+    public static JoinBuildTableCache get(IHyracksJobletContext jobletCtx) {
+        Object appCtx = jobletCtx.getServiceContext().getApplicationContext();
+        return appCtx instanceof IJoinBuildTableCacheProvider
+                ? ((IJoinBuildTableCacheProvider) appCtx).getJoinBuildTableCache() : null;
+    }
+
+    /**
+     * Acquires the table a build task of a job probes instead of building its own: the table pinned for the job if
+     * there is one, the table cached for the key otherwise.
+     *
+     * @param cache
+     *            the cache of the node, or null if the node does not cache tables
+     * @param key
+     *            the key of the build input
+     * @param pinId
+     *            the id the table was pinned under for the job, or null if the job did not pin the table
+     * @return the table with its reference count incremented, or null if the task must build the table
+     * @throws HyracksDataException
+     *             if the job pinned a table that is not pinned on this node
+     */
+    public static Entry acquireBuildTable(JoinBuildTableCache cache, JoinBuildCacheKey key, String pinId)
+            throws HyracksDataException {
+        if (pinId == null) {
+            return cache != null ? cache.acquire(key) : null;
+        }
+        Entry entry = cache != null ? cache.acquirePinned(pinId) : null;
+        if (entry == null) {
+            // the build input of the job is empty, so the table cannot be built here
+            throw HyracksDataException.create(ErrorCode.ILLEGAL_STATE, "join build table " + key + " is not pinned");
+        }
+        return entry;
+    }
+
+    /**
+     * @return the cached table for the key with its reference count incremented, or null if it is not cached
+     */
+    public synchronized Entry acquire(JoinBuildCacheKey key) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.refCount++;
+        }
+        return entry;
+    }
+
+    /**
+     * Pins the cached table for the key until {@link #unpin} is called with the same pin id.
+     *
+     * @return true if the table is cached and now pinned, false otherwise
+     */
+    public synchronized boolean pin(String pinId, JoinBuildCacheKey key) {
+        Entry entry = entries.get(key);
+        if (entry == null || pins.containsKey(pinId)) {
+            return false;
+        }
+        entry.refCount++;
+        pins.put(pinId, entry);
+        return true;
+    }
+
+    /**
+     * @return the table pinned under the pin id with its reference count incremented, or null if there is none
+     */
+    public synchronized Entry acquirePinned(String pinId) {
+        Entry entry = pins.get(pinId);
+        if (entry != null) {
+            entry.refCount++;
+        }
+        return entry;
+    }
+
+    public synchronized void unpin(String pinId) {
+        Entry entry = pins.remove(pinId);
+        if (entry != null) {
+            release(entry);
+        }
+    }
+
+    /**
+     * Tries to cache a freshly built table, dropping the tables cached for the same build input with other data
+     * versions. On success, the caller holds a reference to the returned entry and must {@link #release} it once
+     * done. The caller must not modify or free the frames of a cached table.
+     *
+     * @return the cached entry, or null if the table could not be cached
+     */
+    public synchronized Entry put(JoinBuildCacheKey key, List<ByteBuffer> frames, ISerializableTable table) {
+        if (entries.containsKey(key)) {
+            return null;
+        }
+        long byteSize = table.getCurrentByteSize();
+        for (ByteBuffer frame : frames) {
+            byteSize += frame.capacity();
+        }
+        if (byteSize > capacity) {
+            return null;
+        }
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry other = it.next();
+            if (other.key.getSignature().equals(key.getSignature())) {
+                it.remove();
+                drop(other);
+            }
+        }
+        Iterator<Entry> lru = entries.values().iterator();
+        while (usedBytes + byteSize > capacity && lru.hasNext()) {
+            Entry victim = lru.next();
+            if (victim.refCount == 0) {
+                lru.remove();
+                drop(victim);
+            }
+        }
+        if (usedBytes + byteSize > capacity) {
+            return null;
+        }
+        Entry entry = new Entry(key, new ArrayList<>(frames), table, byteSize);
+        entry.refCount = 1;
+        entries.put(key, entry);
+        usedBytes += byteSize;
+        return entry;
+    }
+
+    public synchronized void release(Entry entry) {
+        entry.refCount--;
+        if (entry.refCount == 0 && entry.dropped) {
+            usedBytes -= entry.byteSize;
+        }
+    }
+
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    private void drop(Entry entry) {
+        entry.dropped = true;
+        if (entry.refCount == 0) {
+            usedBytes -= entry.byteSize;
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("dropped cached join build table {} ({} bytes)", entry.key, entry.byteSize);
+        }
+    }
+
+    public static class Entry {
+        private final JoinBuildCacheKey key;
+        private final List<ByteBuffer> frames;
+        private final ISerializableTable table;
+        private final long byteSize;
+        private int refCount;
+        private boolean dropped;
+
+        private Entry(JoinBuildCacheKey key, List<ByteBuffer> frames, ISerializableTable table, long byteSize) {
+            this.key = key;
+            this.frames = frames;
+            this.table = table;
+            this.byteSize = byteSize;
+        }
+
+        public List<ByteBuffer> getFrames() {
+            return frames;
+        }
+
+        public ISerializableTable getTable() {
+            return table;
+        }
+    }
+}
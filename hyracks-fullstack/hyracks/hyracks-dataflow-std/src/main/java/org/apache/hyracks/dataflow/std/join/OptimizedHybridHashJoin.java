@@ -37,6 +37,7 @@ import org.apache.hyracks.api.io.FileReference;
 import org.apache.hyracks.api.util.CleanupUtils;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 import org.apache.hyracks.dataflow.common.io.RunFileReader;
 import org.apache.hyracks.dataflow.common.io.RunFileWriter;
 import org.apache.hyracks.dataflow.std.buffermanager.DeallocatableFramePool;
@@ -224,6 +225,75 @@ public class OptimizedHybridHashJoin {
         buildHashTable();
     }
 
+    /**
+     * Copies the build relation into a table of the given cache once the build phase is closed. Only a build relation
+     * whose partitions are all memory-resident is copied, and only if the copy fits in the cache. The copy is hashed
+     * like the table of the resident partitions, so it can be probed by the same partition computers.
+     *
+     * @return the cached entry, held by the caller, or null if the build relation was not cached
+     */
+    public JoinBuildTableCache.Entry cacheBuildTable(JoinBuildTableCache cache, JoinBuildCacheKey key)
+            throws HyracksDataException {
+        if (!isBuildRelAllInMemory()) {
+            return null;
+        }
+        int tupleCount = 0;
+        long byteSize = 0;
+        for (int pid = 0; pid < numOfPartitions; pid++) {
+            tupleCount += buildPSizeInTups[pid];
+            byteSize += bufferManager.getPhysicalSize(pid);
+        }
+        if (byteSize
+                + SerializableHashTable.getExpectedTableByteSize(tupleCount, jobletCtx.getInitialFrameSize()) > cache
+                        .getCapacity()) {
+            return null;
+        }
+        ISimpleFrameBufferManager cacheBufferManager =
+                new FramePoolBackedFrameBufferManager(new DeallocatableFramePool(jobletCtx, cache.getCapacity()));
+        InMemoryHashJoin copy = new InMemoryHashJoin(jobletCtx, new FrameTupleAccessor(probeRd), probeHpc,
+                new FrameTupleAccessor(buildRd), buildRd, buildHpc, isLeftOuter, nonMatchWriters,
+                new SerializableHashTable(tupleCount, jobletCtx, cacheBufferManager), cacheBufferManager);
+        JoinBuildTableCache.Entry entry = null;
+        try {
+            for (int pid = 0; pid < numOfPartitions; pid++) {
+                bufferManager.flushPartition(pid, new IFrameWriter() {
+                    @Override
+                    public void open() {
+                        // Only nextFrame method is needed to copy the frame.
+                    }
+
+                    @Override
+                    public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+                        ByteBuffer copyBuffer = cacheBufferManager.acquireFrame(buffer.capacity());
+                        if (copyBuffer == null) {
+                            throw HyracksDataException.create(ErrorCode.INSUFFICIENT_MEMORY);
+                        }
+                        buffer.clear();
+                        FrameUtils.copyAndFlip(buffer, copyBuffer);
+                        copy.build(copyBuffer);
+                    }
+
+                    @Override
+                    public void fail() {
+                        // Only nextFrame method is needed to copy the frame.
+                    }
+
+                    @Override
+                    public void close() {
+                        // Only nextFrame method is needed to copy the frame.
+                    }
+                });
+            }
+            entry = cache.put(key, copy.getBuildFrames(), copy.getTable());
+        } finally {
+            if (entry == null) {
+                copy.releaseMemory();
+                copy.closeTable();
+            }
+        }
+        return entry;
+    }
+
     public void clearBuildTempFiles() throws HyracksDataException {
         clearTempFiles(buildRFWriters);
     }
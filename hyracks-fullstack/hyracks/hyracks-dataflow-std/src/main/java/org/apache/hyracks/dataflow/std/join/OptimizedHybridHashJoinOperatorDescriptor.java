@@ -141,6 +141,10 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
     private boolean skipInMemoryHJ = false;
     private boolean forceNLJ = false;
     private boolean forceRoleReversal = false;
+    // When set, the build table is looked up in (and published to) the node's join build table cache.
+    private JoinBuildCacheKey buildCacheKey;
+    // When set, the table of the build cache key is pinned on every node and the build input is empty.
+    private String buildTablePin;
 
     private static final Logger LOGGER = LogManager.getLogger();
 
@@ -181,6 +185,18 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                 predEvalFactory0, predEvalFactory1, false, null);
     }
 
+    public void setBuildCacheKey(JoinBuildCacheKey buildCacheKey) {
+        this.buildCacheKey = buildCacheKey;
+    }
+
+    public JoinBuildCacheKey getBuildCacheKey() {
+        return buildCacheKey;
+    }
+
+    public void setBuildTablePin(String buildTablePin) {
+        this.buildTablePin = buildTablePin;
+    }
+
     @Override
     public void contributeActivities(IActivityGraphBuilder builder) {
         ActivityId buildAid = new ActivityId(odId, BUILD_AND_PARTITION_ACTIVITY_ID);
@@ -229,6 +245,9 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
         private int memForJoin;
         private int numOfPartitions;
         private OptimizedHybridHashJoin hybridHJ;
+        private JoinBuildTableCache cache;
+        // the cached table probed instead of the one of hybridHJ, which is then null
+        private JoinBuildTableCache.Entry cachedTable;
 
         public BuildAndPartitionTaskState() {
         }
@@ -296,6 +315,15 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                         throw new HyracksDataException("Not enough memory is assigend for Hybrid Hash Join.");
                     }
                     state.memForJoin = memSizeInFrames - 2;
+                    if (buildCacheKey != null) {
+                        state.cache = JoinBuildTableCache.get(ctx.getJobletContext());
+                        state.cachedTable =
+                                JoinBuildTableCache.acquireBuildTable(state.cache, buildCacheKey, buildTablePin);
+                        if (state.cachedTable != null) {
+                            // the cached table already holds this input
+                            return;
+                        }
+                    }
                     LOGGER.warn("Memory(MB): " + memSizeInFrames * 32 / 1024);
                     LOGGER.warn("BuildSize(MB): " + inputsize0 * 32 / 1024);
                     state.numOfPartitions =
@@ -313,15 +341,27 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
                 @Override
                 public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
-                    state.hybridHJ.build(buffer);
+                    if (state.hybridHJ != null) {
+                        state.hybridHJ.build(buffer);
+                    }
                 }
 
                 @Override
                 public void close() throws HyracksDataException {
-                    if (state.hybridHJ != null) {
+                    if (state.cachedTable != null) {
+                        if (failed) {
+                            state.cache.release(state.cachedTable);
+                            state.cachedTable = null;
+                        } else {
+                            ctx.setStateObject(state);
+                        }
+                    } else if (state.hybridHJ != null) {
                         if (!failed) {
                             LOGGER.warn(state.hybridHJ.printInfo(HybridHashJoinUtil.SIDE.BUILD));
                             state.hybridHJ.closeBuild();
+                            if (state.cache != null) {
+                                cacheBuildTable();
+                            }
                             ctx.setStateObject(state);
                             if (LOGGER.isTraceEnabled()) {
                                 LOGGER.trace("OptimizedHybridHashJoin closed its build phase");
@@ -340,6 +380,18 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                     }
                 }
 
+                private void cacheBuildTable() throws HyracksDataException {
+                    // another task of the node may have cached the table in the meantime
+                    state.cachedTable = state.cache.acquire(buildCacheKey);
+                    if (state.cachedTable == null) {
+                        state.cachedTable = state.hybridHJ.cacheBuildTable(state.cache, buildCacheKey);
+                    }
+                    if (state.cachedTable != null) {
+                        state.hybridHJ.releaseResource();
+                        state.hybridHJ = null;
+                    }
+                }
+
                 @Override
                 public String getDisplayName() {
                     return "Hybrid Hash Join: Build";
@@ -376,6 +428,8 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
             final RecordDescriptor probeRd = recordDescProvider.getInputRecordDescriptor(getActivityId(), 0);
             final ITuplePairComparator probComp = tuplePairComparatorFactoryProbe2Build.createTuplePairComparator(ctx);
             final ITuplePairComparator buildComp = tuplePairComparatorFactoryBuild2Probe.createTuplePairComparator(ctx);
+            final IPredicateEvaluator probePredEval = (probePredEvalFactory == null || isLeftOuter ? null
+                    : probePredEvalFactory.createPredicateEvaluator());
 
             final IMissingWriter[] nonMatchWriter =
                     isLeftOuter ? new IMissingWriter[nonMatchWriterFactories.length] : null;
@@ -398,6 +452,8 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                 private FrameTupleAppender nullResultAppender = null;
                 private FrameTupleAccessor probeTupleAccessor;
                 private boolean failed = false;
+                // joins the probe input with the cached build table, if the build phase used one
+                private InMemoryHashJoin cachedJoiner;
 
                 @Override
                 public void open() throws HyracksDataException {
@@ -406,6 +462,10 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
                             new TaskId(new ActivityId(getOperatorId(), BUILD_AND_PARTITION_ACTIVITY_ID), partition));
 
                     writer.open();
+                    if (state.cachedTable != null) {
+                        openCachedJoiner();
+                        return;
+                    }
                     state.hybridHJ.initProbe(probComp);
 
                     if (LOGGER.isDebugEnabled()) {
@@ -415,7 +475,49 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
                 @Override
                 public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
-                    state.hybridHJ.probe(buffer, writer);
+                    if (cachedJoiner == null) {
+                        state.hybridHJ.probe(buffer, writer);
+                        return;
+                    }
+                    probeTupleAccessor.reset(buffer);
+                    cachedJoiner.resetAccessorProbe(probeTupleAccessor);
+                    int tupleCount = probeTupleAccessor.getTupleCount();
+                    for (int i = 0; i < tupleCount; ++i) {
+                        if (probePredEval == null || probePredEval.evaluate(probeTupleAccessor, i)) {
+                            cachedJoiner.join(i, writer);
+                        }
+                    }
+                }
+
+                private void openCachedJoiner() throws HyracksDataException {
+                    // the partitioners hash like the ones of the build phase that built the cached table
+                    ITuplePartitionComputer probeHpc =
+                            new FieldHashPartitionComputerFamily(probeKeys, propHashFunctionFactories)
+                                    .createPartitioner(INIT_SEED);
+                    ITuplePartitionComputer buildHpc =
+                            new FieldHashPartitionComputerFamily(buildKeys, buildHashFunctionFactories)
+                                    .createPartitioner(INIT_SEED);
+                    probeTupleAccessor = new FrameTupleAccessor(probeRd);
+                    cachedJoiner = new InMemoryHashJoin(jobletCtx, new FrameTupleAccessor(probeRd), probeHpc,
+                            new FrameTupleAccessor(buildRd), buildRd, buildHpc, isLeftOuter, nonMatchWriter,
+                            state.cachedTable.getTable(), null);
+                    cachedJoiner.attachBuildFrames(state.cachedTable.getFrames());
+                    cachedJoiner.setComparator(probComp);
+                }
+
+                private void closeCachedJoiner() throws HyracksDataException {
+                    try {
+                        if (!failed) {
+                            cachedJoiner.completeJoin(writer);
+                        }
+                    } finally {
+                        try {
+                            state.cache.release(state.cachedTable);
+                            state.cachedTable = null;
+                        } finally {
+                            writer.close();
+                        }
+                    }
                 }
 
                 @Override
@@ -429,6 +531,10 @@ public class OptimizedHybridHashJoinOperatorDescriptor extends AbstractOperatorD
 
                 @Override
                 public void close() throws HyracksDataException {
+                    if (cachedJoiner != null) {
+                        closeCachedJoiner();
+                        return;
+                    }
                     if (failed) {
                         try {
                             // Clear temp files if fail() was called.
@@ -67,6 +67,9 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
         if (alg == Algorithm.MERGE_SORT) {
             frameSorter = new FrameSorterMergeSort(ctx, bufferManager, maxSortFrames, sortFields,
                     keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
+        } else if (alg == Algorithm.RADIX_SORT) {
+            frameSorter = new FrameSorterRadixSort(ctx, bufferManager, maxSortFrames, sortFields,
+                    keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
         } else {
             frameSorter = new FrameSorterQuickSort(ctx, bufferManager, maxSortFrames, sortFields,
                     keyNormalizerFactories, comparatorFactories, recordDesc, outputLimit);
@@ -88,4 +91,8 @@ public abstract class AbstractExternalSortRunGenerator extends AbstractSortRunGe
         return frameSorter;
     }
 
+    public void setSortParallelism(int parallelism) {
+        frameSorter.setParallelism(parallelism);
+    }
+
 }
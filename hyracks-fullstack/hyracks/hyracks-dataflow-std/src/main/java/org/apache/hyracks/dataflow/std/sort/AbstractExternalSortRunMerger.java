@@ -18,6 +18,7 @@
  */
 package org.apache.hyracks.dataflow.std.sort;
 
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.LinkedList;
@@ -54,6 +55,7 @@ public abstract class AbstractExternalSortRunMerger {
     private List<GeneratedRunFileReader> partialRuns;
     private List<GroupVSizeFrame> inFrames;
     private VSizeFrame outputFrame;
+    private List<ByteBuffer> readAheadChunks;
     private boolean first;
     private static final Logger LOGGER = LogManager.getLogger();
 
@@ -87,6 +89,8 @@ public abstract class AbstractExternalSortRunMerger {
             while (true) {
                 int unUsed = selectPartialRuns(maxMergeWidth * ctx.getInitialFrameSize(), runs, partialRuns,
                         currentGenerationRunAvailable, stop);
+                // the fan-in is never reduced for read-ahead, it only uses memory that is left over by the runs
+                unUsed -= prepareReadAhead(unUsed, partialRuns);
                 prepareFrames(unUsed, inFrames, partialRuns);
 
                 if (!currentGenerationRunAvailable.isEmpty() || stop < runs.size()) {
@@ -144,6 +148,8 @@ public abstract class AbstractExternalSortRunMerger {
                     }
                 }
             }
+            // the chunks are released after the runs are closed, which waits for their pending reads
+            releaseReadAheadChunks();
         }
     }
 
@@ -166,6 +172,47 @@ public abstract class AbstractExternalSortRunMerger {
         return budget;
     }
 
+    /**
+     * Enables asynchronous read-ahead of the given runs if the free memory is enough for two chunks per run, each
+     * of the size of the largest frame of the run.
+     *
+     * @return the amount of memory used for read-ahead chunks
+     */
+    private int prepareReadAhead(int freeMem, List<GeneratedRunFileReader> partialRuns) throws HyracksDataException {
+        releaseReadAheadChunks();
+        if (partialRuns.size() <= 1) {
+            return 0;
+        }
+        int requiredMem = 0;
+        for (GeneratedRunFileReader run : partialRuns) {
+            requiredMem += 2 * run.getMaxFrameSize();
+        }
+        if (requiredMem > freeMem) {
+            return 0;
+        }
+        for (GeneratedRunFileReader run : partialRuns) {
+            if (run.getMaxFrameSize() <= 0) {
+                continue;
+            }
+            ByteBuffer chunk1 = ctx.allocateFrame(run.getMaxFrameSize());
+            readAheadChunks.add(chunk1);
+            ByteBuffer chunk2 = ctx.allocateFrame(run.getMaxFrameSize());
+            readAheadChunks.add(chunk2);
+            run.enableReadAhead(ctx.getExecutorService(), chunk1, chunk2);
+        }
+        return requiredMem;
+    }
+
+    private void releaseReadAheadChunks() {
+        if (readAheadChunks == null) {
+            return;
+        }
+        for (ByteBuffer chunk : readAheadChunks) {
+            ctx.deallocateFrame(chunk);
+        }
+        readAheadChunks.clear();
+    }
+
     private void prepareFrames(int extraFreeMem, List<GroupVSizeFrame> inFrames,
             List<GeneratedRunFileReader> partialRuns) throws HyracksDataException {
         if (extraFreeMem > 0 && partialRuns.size() > 1) {
@@ -224,6 +271,7 @@ public abstract class AbstractExternalSortRunMerger {
             inFrames = new ArrayList<>(maxMergeWidth);
             outputFrame = new VSizeFrame(ctx);
             partialRuns = new ArrayList<>(maxMergeWidth);
+            readAheadChunks = new ArrayList<>();
         }
     }
 
@@ -20,6 +20,11 @@
 package org.apache.hyracks.dataflow.std.sort;
 
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameTupleAppender;
@@ -50,6 +55,8 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
     protected static final int ID_TUPLE_START = 1;
     protected static final int ID_TUPLE_END = 2;
     protected static final int ID_NORMALIZED_KEY = 3;
+    // each thread of a parallel sort should sort at least this many tuples
+    static final int MIN_TUPLES_PER_SORT_THREAD = 1 << 14;
 
     // the length of each normalized key (in terms of integers)
     protected final int[] normalizedKeyLength;
@@ -61,6 +68,7 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
     protected final int ptrSize;
 
     protected final int[] sortFields;
+    protected final IBinaryComparatorFactory[] comparatorFactories;
     protected final IBinaryComparator[] comparators;
     protected final INormalizedKeyComputer[] nkcs;
     protected final IFrameBufferManager bufferManager;
@@ -72,11 +80,17 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
     protected final long maxSortMemory;
     protected long totalMemoryUsed;
     protected int[] tPointers;
+    protected int[] tPointersTemp;
     protected final int[] tmpPointer;
     protected int tupleCount;
 
-    private final FrameTupleAccessor fta2;
     private final BufferInfo info = new BufferInfo(null, -1, -1);
+    private final RecordDescriptor recordDescriptor;
+    final TuplePointerComparator tuplePointerComparator;
+    private final ExecutorService executor;
+    private int parallelism = 1;
+    // range sorters of a parallel sort, the first one uses the comparators of this sorter
+    private final List<RangeSorter> rangeSorters = new ArrayList<>();
 
     public AbstractFrameSorter(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int maxSortFrames,
             int[] sortFields, INormalizedKeyComputerFactory[] normalizedKeyComputerFactories,
@@ -117,16 +131,29 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         }
         this.normalizedKeyTotalLength = runningNormalizedKeyTotalLength;
         this.ptrSize = ID_NORMALIZED_KEY + normalizedKeyTotalLength;
-        this.comparators = new IBinaryComparator[comparatorFactories.length];
-        for (int i = 0; i < comparatorFactories.length; ++i) {
-            comparators[i] = comparatorFactories[i].createBinaryComparator();
-        }
+        this.comparatorFactories = comparatorFactories;
+        this.comparators = createComparators();
         this.inputTupleAccessor = new FrameTupleAccessor(recordDescriptor);
         this.outputAppender = new FrameTupleAppender();
         this.outputFrame = new VSizeFrame(ctx);
         this.outputLimit = outputLimit;
-        this.fta2 = new FrameTupleAccessor(recordDescriptor);
         this.tmpPointer = new int[ptrSize];
+        this.recordDescriptor = recordDescriptor;
+        this.tuplePointerComparator = new TuplePointerComparator(recordDescriptor, comparators);
+        this.executor = ctx.getExecutorService();
+    }
+
+    private IBinaryComparator[] createComparators() {
+        IBinaryComparator[] newComparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; ++i) {
+            newComparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+        return newComparators;
+    }
+
+    @Override
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(parallelism, 1);
     }
 
     @Override
@@ -194,12 +221,106 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
             }
         }
         if (tupleCount > 0) {
-            sortTupleReferences();
+            int threadCount = getSortThreadCount();
+            if (threadCount > 1) {
+                sortInParallel(threadCount);
+            } else {
+                sortTupleReferences();
+            }
         }
     }
 
     abstract void sortTupleReferences() throws HyracksDataException;
 
+    /**
+     * Creates a sorter of ranges of the tuple pointers that uses the given comparator.
+     * Sorters that return {@code null} do not sort in parallel.
+     */
+    RangeSorter createRangeSorter(TuplePointerComparator comparator) {
+        return null;
+    }
+
+    /**
+     * @return the range sorter for the given thread of a parallel sort, or {@code null} if ranges cannot be sorted
+     *         separately. The range sorter of the thread 0 uses the comparators of this sorter.
+     */
+    final RangeSorter getRangeSorter(int threadIdx) {
+        while (rangeSorters.size() <= threadIdx) {
+            TuplePointerComparator comparator = rangeSorters.isEmpty() ? tuplePointerComparator
+                    : new TuplePointerComparator(recordDescriptor, createComparators());
+            rangeSorters.add(createRangeSorter(comparator));
+        }
+        return rangeSorters.get(threadIdx);
+    }
+
+    private int getSortThreadCount() {
+        int threadCount = Math.min(parallelism, tupleCount / MIN_TUPLES_PER_SORT_THREAD);
+        return threadCount > 1 && getRangeSorter(0) != null ? threadCount : 1;
+    }
+
+    /**
+     * Splits the tuple pointers into contiguous ranges, sorts the ranges in parallel and then merges pairs of sorted
+     * runs in parallel until a single run remains.
+     */
+    private void sortInParallel(int threadCount) throws HyracksDataException {
+        if (tPointersTemp == null || tPointersTemp.length < tPointers.length) {
+            tPointersTemp = new int[tPointers.length];
+        }
+        for (int i = 0; i < threadCount; i++) {
+            getRangeSorter(i);
+        }
+        int[] bounds = new int[threadCount + 1];
+        for (int i = 0; i <= threadCount; i++) {
+            bounds[i] = (int) ((long) tupleCount * i / threadCount);
+        }
+        runInParallel(threadCount, i -> rangeSorters.get(i).sort(bounds[i], bounds[i + 1]));
+        for (int width = 1; width < threadCount; width *= 2) {
+            int runWidth = width;
+            int mergeCount = (threadCount + 2 * width - 1) / (2 * width);
+            runInParallel(mergeCount, i -> {
+                int first = i * 2 * runWidth;
+                int start = bounds[first];
+                int mid = bounds[Math.min(first + runWidth, threadCount)];
+                int end = bounds[Math.min(first + 2 * runWidth, threadCount)];
+                merge(rangeSorters.get(i).comparator, tPointers, tPointersTemp, start, mid, mid - start, end - mid);
+            });
+            int[] tmp = tPointersTemp;
+            tPointersTemp = tPointers;
+            tPointers = tmp;
+        }
+    }
+
+    private void runInParallel(int taskCount, IRangeTask task) throws HyracksDataException {
+        List<Future<Void>> futures = new ArrayList<>(taskCount - 1);
+        Throwable failure = null;
+        try {
+            for (int i = 1; i < taskCount; i++) {
+                int taskIdx = i;
+                futures.add(executor.submit(() -> {
+                    task.run(taskIdx);
+                    return null;
+                }));
+            }
+            task.run(0);
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            failure = e.getCause();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure = e;
+        } catch (Throwable e) { // NOSONAR: Must catch all causes of failure
+            failure = e;
+        }
+        if (failure != null) {
+            for (Future<Void> future : futures) {
+                future.cancel(true);
+            }
+            throw HyracksDataException.create(failure);
+        }
+    }
+
     @Override
     public int getFrameCount() {
         return bufferManager.getNumFrames();
@@ -237,48 +358,78 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         return maxFrameSize;
     }
 
-    protected final int compare(int tp1, int tp2) throws HyracksDataException {
-        return compare(tPointers, tp1, tPointers, tp2);
-    }
-
-    protected final int compare(int[] tPointers1, int tp1, int[] tPointers2, int tp2) throws HyracksDataException {
-        if (nkcs != null) {
-            int cmpNormalizedKey =
-                    NormalizedKeyUtils.compareNormalizeKeys(tPointers1, tp1 * ptrSize + ID_NORMALIZED_KEY, tPointers2,
-                            tp2 * ptrSize + ID_NORMALIZED_KEY, normalizedKeyTotalLength);
-            if (cmpNormalizedKey != 0 || normalizedKeysDecisive) {
-                return cmpNormalizedKey;
+    /**
+     * Sorts tuple pointers [offset, offset + length) of {@code src} with a stable bottom-up merge sort that uses the
+     * same range of {@code temp}
+     *
+     * @return the array that holds the sorted range, either {@code src} or {@code temp}
+     */
+    final int[] mergeSort(TuplePointerComparator comparator, int[] src, int[] temp, int offset, int length)
+            throws HyracksDataException {
+        int step = 1;
+        int end = offset + length;
+        /** bottom-up merge */
+        while (step < length) {
+            /** merge */
+            for (int i = offset; i < end; i += 2 * step) {
+                int next = i + step;
+                if (next < end) {
+                    merge(comparator, src, temp, i, next, step, Math.min(step, end - next));
+                } else {
+                    copy(src, i, temp, i, end - i);
+                }
             }
+            /** prepare next phase merge */
+            step *= 2;
+            int[] tmp = temp;
+            temp = src;
+            src = tmp;
         }
+        return src;
+    }
 
-        int i1 = tPointers1[tp1 * ptrSize + ID_FRAME_ID];
-        int j1 = tPointers1[tp1 * ptrSize + ID_TUPLE_START];
-        int i2 = tPointers2[tp2 * ptrSize + ID_FRAME_ID];
-        int j2 = tPointers2[tp2 * ptrSize + ID_TUPLE_START];
-
-        bufferManager.getFrame(i1, info);
-        byte[] b1 = info.getBuffer().array();
-        inputTupleAccessor.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
-
-        bufferManager.getFrame(i2, info);
-        byte[] b2 = info.getBuffer().array();
-        fta2.reset(info.getBuffer(), info.getStartOffset(), info.getLength());
-        for (int f = 0; f < comparators.length; ++f) {
-            int fIdx = sortFields[f];
-            int f1Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b1, j1 + (fIdx - 1) * 4);
-            int f1End = IntSerDeUtils.getInt(b1, j1 + fIdx * 4);
-            int s1 = j1 + inputTupleAccessor.getFieldSlotsLength() + f1Start;
-            int l1 = f1End - f1Start;
-            int f2Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b2, j2 + (fIdx - 1) * 4);
-            int f2End = IntSerDeUtils.getInt(b2, j2 + fIdx * 4);
-            int s2 = j2 + fta2.getFieldSlotsLength() + f2Start;
-            int l2 = f2End - f2Start;
-            int c = comparators[f].compare(b1, s1, l1, b2, s2, l2);
-            if (c != 0) {
-                return c;
+    /**
+     * Merges the sorted tuple pointers [start1, start1 + len1) and [start2, start2 + len2) of {@code src} into
+     * {@code dest}, starting at {@code start1}
+     */
+    final void merge(TuplePointerComparator comparator, int[] src, int[] dest, int start1, int start2, int len1,
+            int len2) throws HyracksDataException {
+        int targetPos = start1;
+        int pos1 = start1;
+        int pos2 = start2;
+        int end1 = start1 + len1 - 1;
+        int end2 = start2 + len2 - 1;
+        while (pos1 <= end1 && pos2 <= end2) {
+            int cmp = comparator.compare(src, pos1, src, pos2);
+            if (cmp <= 0) {
+                copy(src, pos1, dest, targetPos, 1);
+                pos1++;
+            } else {
+                copy(src, pos2, dest, targetPos, 1);
+                pos2++;
             }
+            targetPos++;
+        }
+        if (pos1 <= end1) {
+            int rest = end1 - pos1 + 1;
+            copy(src, pos1, dest, targetPos, rest);
+        }
+        if (pos2 <= end2) {
+            int rest = end2 - pos2 + 1;
+            copy(src, pos2, dest, targetPos, rest);
         }
-        return 0;
+    }
+
+    private void copy(int[] src, int srcPos, int[] dest, int destPos, int n) {
+        System.arraycopy(src, srcPos * ptrSize, dest, destPos * ptrSize, n * ptrSize);
+    }
+
+    protected final int compare(int tp1, int tp2) throws HyracksDataException {
+        return compare(tPointers, tp1, tPointers, tp2);
+    }
+
+    protected final int compare(int[] tPointers1, int tp1, int[] tPointers2, int tp2) throws HyracksDataException {
+        return tuplePointerComparator.compare(tPointers1, tp1, tPointers2, tp2);
     }
 
     @Override
@@ -287,5 +438,98 @@ public abstract class AbstractFrameSorter implements IFrameSorter {
         totalMemoryUsed = 0;
         bufferManager.close();
         tPointers = null;
+        tPointersTemp = null;
+    }
+
+    @FunctionalInterface
+    private interface IRangeTask {
+        void run(int taskIdx) throws HyracksDataException;
+    }
+
+    /**
+     * Compares tuple pointers by their normalized keys and, if needed, by the sort fields of their tuples.
+     * Each thread of a parallel sort uses its own instance.
+     */
+    final class TuplePointerComparator {
+
+        private final FrameTupleAccessor fta1;
+        private final FrameTupleAccessor fta2;
+        private final BufferInfo info1 = new BufferInfo(null, -1, -1);
+        private final BufferInfo info2 = new BufferInfo(null, -1, -1);
+        private final IBinaryComparator[] comparators;
+
+        private TuplePointerComparator(RecordDescriptor recordDescriptor, IBinaryComparator[] comparators) {
+            this.fta1 = new FrameTupleAccessor(recordDescriptor);
+            this.fta2 = new FrameTupleAccessor(recordDescriptor);
+            this.comparators = comparators;
+        }
+
+        int compare(int[] tPointers1, int tp1, int[] tPointers2, int tp2) throws HyracksDataException {
+            if (nkcs != null) {
+                int cmpNormalizedKey =
+                        NormalizedKeyUtils.compareNormalizeKeys(tPointers1, tp1 * ptrSize + ID_NORMALIZED_KEY,
+                                tPointers2, tp2 * ptrSize + ID_NORMALIZED_KEY, normalizedKeyTotalLength);
+                if (cmpNormalizedKey != 0 || normalizedKeysDecisive) {
+                    return cmpNormalizedKey;
+                }
+            }
+
+            int i1 = tPointers1[tp1 * ptrSize + ID_FRAME_ID];
+            int j1 = tPointers1[tp1 * ptrSize + ID_TUPLE_START];
+            int i2 = tPointers2[tp2 * ptrSize + ID_FRAME_ID];
+            int j2 = tPointers2[tp2 * ptrSize + ID_TUPLE_START];
+
+            bufferManager.getFrame(i1, info1);
+            byte[] b1 = info1.getBuffer().array();
+            fta1.reset(info1.getBuffer(), info1.getStartOffset(), info1.getLength());
+
+            bufferManager.getFrame(i2, info2);
+            byte[] b2 = info2.getBuffer().array();
+            fta2.reset(info2.getBuffer(), info2.getStartOffset(), info2.getLength());
+            for (int f = 0; f < comparators.length; ++f) {
+                int fIdx = sortFields[f];
+                int f1Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b1, j1 + (fIdx - 1) * 4);
+                int f1End = IntSerDeUtils.getInt(b1, j1 + fIdx * 4);
+                int s1 = j1 + fta1.getFieldSlotsLength() + f1Start;
+                int l1 = f1End - f1Start;
+                int f2Start = fIdx == 0 ? 0 : IntSerDeUtils.getInt(b2, j2 + (fIdx - 1) * 4);
+                int f2End = IntSerDeUtils.getInt(b2, j2 + fIdx * 4);
+                int s2 = j2 + fta2.getFieldSlotsLength() + f2Start;
+                int l2 = f2End - f2Start;
+                int c = comparators[f].compare(b1, s1, l1, b2, s2, l2);
+                if (c != 0) {
+                    return c;
+                }
+            }
+            return 0;
+        }
+    }
+
+    /**
+     * Sorts a range of the tuple pointers. Each thread of a parallel sort uses its own instance, so the threads must
+     * work on disjoint ranges.
+     */
+    abstract class RangeSorter {
+
+        protected final TuplePointerComparator comparator;
+
+        RangeSorter(TuplePointerComparator comparator) {
+            this.comparator = comparator;
+        }
+
+        /**
+         * Sorts tuple pointers [start, end) in place, {@link #tPointersTemp} can be used for the same range
+         */
+        abstract void sort(int start, int end) throws HyracksDataException;
+
+        /**
+         * Sorts tuple pointers [start, end) in place with a stable merge sort
+         */
+        final void mergeSort(int start, int end) throws HyracksDataException {
+            int[] sorted = AbstractFrameSorter.this.mergeSort(comparator, tPointers, tPointersTemp, start, end - start);
+            if (sorted != tPointers) {
+                copy(sorted, start, tPointers, start, end - start);
+            }
+        }
     }
 }
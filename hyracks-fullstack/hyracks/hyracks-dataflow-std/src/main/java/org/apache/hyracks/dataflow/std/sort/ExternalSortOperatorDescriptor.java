@@ -41,6 +41,7 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
     private Algorithm alg = Algorithm.MERGE_SORT;
     private EnumFreeSlotPolicy policy = EnumFreeSlotPolicy.LAST_FIT;
     private final int outputLimit;
+    private int sortParallelism = 1;
 
     public ExternalSortOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int[] sortFields,
             INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
@@ -80,8 +81,9 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
             protected IRunGenerator getRunGenerator(IHyracksTaskContext ctx,
                     IRecordDescriptorProvider recordDescProvider) throws HyracksDataException {
                 final boolean profile = ctx.getJobFlags().contains(JobFlag.PROFILE_RUNTIME);
-                IRunGenerator runGen = new ExternalSortRunGenerator(ctx, sortFields, keyNormalizerFactories,
+                ExternalSortRunGenerator runGen = new ExternalSortRunGenerator(ctx, sortFields, keyNormalizerFactories,
                         comparatorFactories, outRecDescs[0], alg, policy, framesLimit, outputLimit);
+                runGen.setSortParallelism(sortParallelism);
                 return profile ? TimedRunGenerator.time(runGen, ctx, "ExternalSort(Sort)") : runGen;
             }
         };
@@ -121,4 +123,10 @@ public class ExternalSortOperatorDescriptor extends AbstractSorterOperatorDescri
         this.outputLimit = outputLimit;
     }
 
+    /**
+     * Sets the maximum number of threads that each sort task can use to sort the tuples held in memory
+     */
+    public void setSortParallelism(int sortParallelism) {
+        this.sortParallelism = sortParallelism;
+    }
 }
@@ -28,8 +28,6 @@ import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
 
 public class FrameSorterMergeSort extends AbstractFrameSorter {
 
-    private int[] tPointersTemp;
-
     public FrameSorterMergeSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int maxSortFrames,
             int[] sortFields, INormalizedKeyComputerFactory[] keyNormalizerFactories,
             IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor)
@@ -55,73 +53,25 @@ public class FrameSorterMergeSort extends AbstractFrameSorter {
     }
 
     @Override
-    protected long getRequiredMemory(FrameTupleAccessor frameAccessor) {
-        return super.getRequiredMemory(frameAccessor) + ptrSize * frameAccessor.getTupleCount() * Integer.BYTES;
+    RangeSorter createRangeSorter(TuplePointerComparator comparator) {
+        return new RangeSorter(comparator) {
+            @Override
+            void sort(int start, int end) throws HyracksDataException {
+                mergeSort(start, end);
+            }
+        };
     }
 
     @Override
-    public void close() {
-        super.close();
-        tPointersTemp = null;
+    protected long getRequiredMemory(FrameTupleAccessor frameAccessor) {
+        return super.getRequiredMemory(frameAccessor) + ptrSize * frameAccessor.getTupleCount() * Integer.BYTES;
     }
 
     void sort(int offset, int length) throws HyracksDataException {
-        int step = 1;
-        int end = offset + length;
-        /** bottom-up merge */
-        while (step < length) {
-            /** merge */
-            for (int i = offset; i < end; i += 2 * step) {
-                int next = i + step;
-                if (next < end) {
-                    merge(i, next, step, Math.min(step, end - next));
-                } else {
-                    copy(tPointers, i, tPointersTemp, i, end - i);
-                }
-            }
-            /** prepare next phase merge */
-            step *= 2;
-            int[] tmp = tPointersTemp;
+        int[] sorted = mergeSort(tuplePointerComparator, tPointers, tPointersTemp, offset, length);
+        if (sorted != tPointers) {
             tPointersTemp = tPointers;
-            tPointers = tmp;
+            tPointers = sorted;
         }
     }
-
-    /**
-     * Merge two subarrays into one
-     */
-    private void merge(int start1, int start2, int len1, int len2) throws HyracksDataException {
-        int targetPos = start1;
-        int pos1 = start1;
-        int pos2 = start2;
-        int end1 = start1 + len1 - 1;
-        int end2 = start2 + len2 - 1;
-        while (pos1 <= end1 && pos2 <= end2) {
-            int cmp = compare(pos1, pos2);
-            if (cmp <= 0) {
-                copy(tPointers, pos1, tPointersTemp, targetPos);
-                pos1++;
-            } else {
-                copy(tPointers, pos2, tPointersTemp, targetPos);
-                pos2++;
-            }
-            targetPos++;
-        }
-        if (pos1 <= end1) {
-            int rest = end1 - pos1 + 1;
-            copy(tPointers, pos1, tPointersTemp, targetPos, rest);
-        }
-        if (pos2 <= end2) {
-            int rest = end2 - pos2 + 1;
-            copy(tPointers, pos2, tPointersTemp, targetPos, rest);
-        }
-    }
-
-    private void copy(int src[], int srcPos, int dest[], int destPos) {
-        System.arraycopy(src, srcPos * ptrSize, dest, destPos * ptrSize, ptrSize);
-    }
-
-    private void copy(int src[], int srcPos, int dest[], int destPos, int n) {
-        System.arraycopy(src, srcPos * ptrSize, dest, destPos * ptrSize, n * ptrSize);
-    }
 }
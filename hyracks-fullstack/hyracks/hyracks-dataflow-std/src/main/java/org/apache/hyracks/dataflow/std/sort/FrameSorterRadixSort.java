@@ -0,0 +1,159 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort;
+
+import java.util.Arrays;
+
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.std.buffermanager.IFrameBufferManager;
+
+/**
+ * Most significant digit radix sort of the tuple pointers on the bytes of their normalized keys.
+ * Tuples whose normalized keys are equal are ordered with the comparators only if the normalized keys are not
+ * decisive. Small buckets, and all tuples if there are no normalized keys, are sorted with a comparison based
+ * merge sort.
+ */
+class FrameSorterRadixSort extends AbstractFrameSorter {
+
+    private static final int RADIX = 256;
+
+    // buckets smaller than this are sorted by comparisons
+    private static final int COMPARISON_SORT_THRESHOLD = 64;
+
+    private final int normalizedKeyTotalBytes;
+
+    FrameSorterRadixSort(IHyracksTaskContext ctx, IFrameBufferManager bufferManager, int maxSortFrames,
+            int[] sortFields, INormalizedKeyComputerFactory[] keyNormalizerFactories,
+            IBinaryComparatorFactory[] comparatorFactories, RecordDescriptor recordDescriptor, int outputLimit)
+            throws HyracksDataException {
+        super(ctx, bufferManager, maxSortFrames, sortFields, keyNormalizerFactories, comparatorFactories,
+                recordDescriptor, outputLimit);
+        this.normalizedKeyTotalBytes = normalizedKeyTotalLength * Integer.BYTES;
+    }
+
+    @Override
+    void sortTupleReferences() throws HyracksDataException {
+        if (tPointersTemp == null || tPointersTemp.length < tPointers.length) {
+            tPointersTemp = new int[tPointers.length];
+        }
+        getRangeSorter(0).sort(0, tupleCount);
+    }
+
+    @Override
+    RangeSorter createRangeSorter(TuplePointerComparator comparator) {
+        return new RadixRangeSorter(comparator);
+    }
+
+    @Override
+    protected long getRequiredMemory(FrameTupleAccessor frameAccessor) {
+        return super.getRequiredMemory(frameAccessor) + ptrSize * frameAccessor.getTupleCount() * Integer.BYTES;
+    }
+
+    private int getKeyByte(int[] pointers, int ptr, int depth) {
+        int key = pointers[ptr * ptrSize + ID_NORMALIZED_KEY + (depth >> 2)];
+        return (key >>> ((3 - (depth & 3)) << 3)) & 0xff;
+    }
+
+    private final class RadixRangeSorter extends RangeSorter {
+
+        // one histogram for each byte of the normalized key, reused by all buckets at the same depth
+        private final int[][] bucketCounts = new int[normalizedKeyTotalBytes][];
+
+        private RadixRangeSorter(TuplePointerComparator comparator) {
+            super(comparator);
+        }
+
+        @Override
+        void sort(int start, int end) throws HyracksDataException {
+            if (nkcs == null) {
+                mergeSort(start, end);
+            } else {
+                radixSort(start, end, 0);
+            }
+        }
+
+        /**
+         * Sorts tuple pointers [start, end) whose normalized keys share the first {@code depth} bytes
+         */
+        private void radixSort(int start, int end, int depth) throws HyracksDataException {
+            while (true) {
+                int length = end - start;
+                if (length < 2) {
+                    return;
+                }
+                if (depth == normalizedKeyTotalBytes) {
+                    // normalized keys are equal
+                    if (!normalizedKeysDecisive) {
+                        mergeSort(start, end);
+                    }
+                    return;
+                }
+                if (length < COMPARISON_SORT_THRESHOLD) {
+                    mergeSort(start, end);
+                    return;
+                }
+
+                int[] counts = bucketCounts[depth];
+                if (counts == null) {
+                    counts = bucketCounts[depth] = new int[RADIX + 1];
+                } else {
+                    Arrays.fill(counts, 0);
+                }
+                for (int i = start; i < end; i++) {
+                    counts[getKeyByte(tPointers, i, depth) + 1]++;
+                }
+                int firstNonEmpty = 0;
+                while (counts[firstNonEmpty + 1] == 0) {
+                    firstNonEmpty++;
+                }
+                if (counts[firstNonEmpty + 1] == length) {
+                    // all keys share this byte, look at the next one
+                    depth++;
+                    continue;
+                }
+
+                // counts[b] becomes the start of bucket b (relative to start)
+                for (int b = 0; b < RADIX; b++) {
+                    counts[b + 1] += counts[b];
+                }
+                for (int i = start; i < end; i++) {
+                    int b = getKeyByte(tPointers, i, depth);
+                    System.arraycopy(tPointers, i * ptrSize, tPointersTemp, (start + counts[b]++) * ptrSize, ptrSize);
+                }
+                System.arraycopy(tPointersTemp, start * ptrSize, tPointers, start * ptrSize, length * ptrSize);
+
+                // counts[b] is now the end of bucket b
+                int bucketStart = start;
+                for (int b = 0; b < RADIX; b++) {
+                    int bucketEnd = start + counts[b];
+                    if (bucketEnd - bucketStart > 1) {
+                        radixSort(bucketStart, bucketEnd, depth + 1);
+                    }
+                    bucketStart = bucketEnd;
+                }
+                return;
+            }
+        }
+    }
+}
@@ -24,6 +24,7 @@ import java.nio.ByteBuffer;
 import org.apache.hyracks.api.comm.IFrameTupleAccessor;
 import org.apache.hyracks.api.comm.IFrameWriter;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
 import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
@@ -46,6 +47,8 @@ public class HeapSortRunGenerator extends AbstractSortRunGenerator {
     protected final RecordDescriptor recordDescriptor;
     protected ITupleSorter tupleSorter;
     protected final IFrameTupleAccessor inAccessor;
+    protected TopKThreshold threshold;
+    protected IBinaryComparator[] thresholdComparators;
 
     public HeapSortRunGenerator(IHyracksTaskContext ctx, int frameLimit, int topK, int[] sortFields,
             INormalizedKeyComputerFactory[] keyNormalizerFactories, IBinaryComparatorFactory[] comparatorFactories,
@@ -70,6 +73,28 @@ public class HeapSortRunGenerator extends AbstractSortRunGenerator {
         super.open();
     }
 
+    /**
+     * Makes this generator drop the tuples that are above the given threshold and lower the threshold with its own
+     * K-th tuple.
+     */
+    public void setThreshold(TopKThreshold threshold) {
+        this.threshold = threshold;
+        thresholdComparators = new IBinaryComparator[comparatorFactories.length];
+        for (int i = 0; i < comparatorFactories.length; ++i) {
+            thresholdComparators[i] = comparatorFactories[i].createBinaryComparator();
+        }
+    }
+
+    protected boolean isAboveThreshold(int tIndex) throws HyracksDataException {
+        return threshold != null && threshold.isAbove(inAccessor, tIndex, sortFields, thresholdComparators);
+    }
+
+    protected void offerThreshold() throws HyracksDataException {
+        if (threshold != null) {
+            tupleSorter.offerThreshold(threshold);
+        }
+    }
+
     @Override
     public ISorter getSorter() {
         return tupleSorter;
@@ -91,6 +116,9 @@ public class HeapSortRunGenerator extends AbstractSortRunGenerator {
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
         inAccessor.reset(buffer);
         for (int i = 0; i < inAccessor.getTupleCount(); i++) {
+            if (isAboveThreshold(i)) {
+                continue;
+            }
             if (!tupleSorter.insertTuple(inAccessor, i)) {
                 flushFramesToRun();
                 if (!tupleSorter.insertTuple(inAccessor, i)) {
@@ -98,5 +126,6 @@ public class HeapSortRunGenerator extends AbstractSortRunGenerator {
                 }
             }
         }
+        offerThreshold();
     }
 }
@@ -74,6 +74,9 @@ public class HybridTopKSortRunGenerator extends HeapSortRunGenerator {
         if (tupleSorter != null) {
             boolean isBadK = false;
             for (int i = 0; i < inAccessor.getTupleCount(); i++) {
+                if (isAboveThreshold(i)) {
+                    continue;
+                }
                 if (!tupleSorter.insertTuple(inAccessor, i)) {
                     flushFramesToRun();
                     isBadK = true;
@@ -82,6 +85,8 @@ public class HybridTopKSortRunGenerator extends HeapSortRunGenerator {
                     }
                 }
             }
+            // the tuples of a flushed heap stay in a run, so the heap can offer its K-th tuple after flushes too
+            offerThreshold();
             if (isBadK) {
                 tupleSorterFlushedTimes++;
                 if (tupleSorterFlushedTimes > SWITCH_TO_FRAME_SORTER_THRESHOLD) {
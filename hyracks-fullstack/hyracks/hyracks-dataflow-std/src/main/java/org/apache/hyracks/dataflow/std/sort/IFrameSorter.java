@@ -29,4 +29,12 @@ public interface IFrameSorter extends ISorter {
 
     boolean insertFrame(ByteBuffer inputBuffer) throws HyracksDataException;
 
+    /**
+     * Sets the maximum number of threads that can be used by {@link #sort()}
+     *
+     * @param parallelism
+     *            the maximum number of threads, 1 to sort on the calling thread only
+     */
+    void setParallelism(int parallelism);
+
 }
@@ -27,4 +27,9 @@ public interface ITupleSorter extends ISorter {
 
     boolean insertTuple(IFrameTupleAccessor frameTupleAccessor, int index) throws HyracksDataException;
 
+    /**
+     * Offers the largest kept tuple to the given threshold if K tuples are kept.
+     */
+    void offerThreshold(TopKThreshold threshold) throws HyracksDataException;
+
 }
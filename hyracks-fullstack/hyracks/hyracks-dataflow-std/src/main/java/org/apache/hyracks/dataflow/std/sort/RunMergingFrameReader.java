@@ -46,6 +46,7 @@ public class RunMergingFrameReader implements IFrameReader {
     private final boolean normalizedKeyDecisive;
     private final RecordDescriptor recordDesc;
     private final int topK;
+    private final boolean offsetValueCoding;
     private int tupleCount;
     private FrameTupleAppender outFrameAppender;
     private ReferencedPriorityQueue topTuples;
@@ -76,6 +77,9 @@ public class RunMergingFrameReader implements IFrameReader {
                 ? nmkComputer.getNormalizedKeyProperties().isDecisive() && comparators.length == 1 : false;
         this.recordDesc = recordDesc;
         this.topK = topK;
+        // with a single key field the codes only tell duplicates apart, and with two runs there is a single match per
+        // tuple, so coding the tuples would cost more comparisons than it saves
+        this.offsetValueCoding = sortFields.length > 1 && runs.size() > 2;
     }
 
     @Override
@@ -83,7 +87,7 @@ public class RunMergingFrameReader implements IFrameReader {
         tupleCount = 0;
         tupleAccessors = new IFrameTupleAccessor[runCursors.size()];
         outFrameAppender = new FrameTupleAppender();
-        Comparator<ReferenceEntry> comparator = createEntryComparator(comparators);
+        Comparator<ReferenceEntry> comparator = new OffsetValueCodedComparator();
         topTuples = new ReferencedPriorityQueue(runCursors.size(), comparator, sortFields, nmkComputer);
         tupleIndexes = new int[runCursors.size()];
         for (int i = 0; i < runCursors.size(); i++) {
@@ -132,12 +136,18 @@ public class RunMergingFrameReader implements IFrameReader {
         }
     }
 
-    private static void setNextTopTuple(int runIndex, int[] tupleIndexes, List<? extends IFrameReader> runCursors,
+    private void setNextTopTuple(int runIndex, int[] tupleIndexes, List<? extends IFrameReader> runCursors,
             List<? extends IFrame> inFrames, IFrameTupleAccessor[] tupleAccessors, ReferencedPriorityQueue topTuples)
             throws HyracksDataException {
         boolean exists = hasNextTuple(runIndex, tupleIndexes, runCursors, inFrames, tupleAccessors);
         if (exists) {
-            topTuples.popAndReplace(tupleAccessors[runIndex], tupleIndexes[runIndex]);
+            // the top entry is the previous tuple of the same run. when it is still in the frame, the new tuple is
+            // coded against it so that the tuples coded against the same top entry are mostly compared by their codes
+            int tupleIndex = tupleIndexes[runIndex];
+            int offsetValueCode =
+                    offsetValueCoding && tupleIndex > 0 ? computeOffsetValueCode(tupleAccessors[runIndex], tupleIndex)
+                            : ReferenceEntry.UNKNOWN_OFFSET_VALUE_CODE;
+            topTuples.popAndReplace(tupleAccessors[runIndex], tupleIndex, offsetValueCode);
         } else {
             topTuples.pop();
             closeRun(runIndex, runCursors, tupleAccessors);
@@ -171,45 +181,92 @@ public class RunMergingFrameReader implements IFrameReader {
         }
     }
 
-    private Comparator<ReferenceEntry> createEntryComparator(final IBinaryComparator[] comparators) {
-        return new Comparator<ReferenceEntry>() {
-            @Override
-            public int compare(ReferenceEntry tp1, ReferenceEntry tp2) {
-                int[] tPointers1 = tp1.getTPointers();
-                int[] tPointers2 = tp2.getTPointers();
+    /**
+     * @return the index of the first key field where the given tuple differs from its previous tuple in the frame, or
+     *         the number of key fields if they are equal
+     */
+    private int computeOffsetValueCode(IFrameTupleAccessor fta, int tupleIndex) throws HyracksDataException {
+        byte[] b = fta.getBuffer().array();
+        for (int f = 0; f < sortFields.length; ++f) {
+            int fIdx = sortFields[f];
+            int c = comparators[f].compare(b, fta.getAbsoluteFieldStartOffset(tupleIndex - 1, fIdx),
+                    fta.getFieldLength(tupleIndex - 1, fIdx), b, fta.getAbsoluteFieldStartOffset(tupleIndex, fIdx),
+                    fta.getFieldLength(tupleIndex, fIdx));
+            if (c != 0) {
+                return f;
+            }
+        }
+        return sortFields.length;
+    }
+
+    /**
+     * Compares the entries of the tournament tree using offset-value codes. Two entries coded against the same entry
+     * are decided by their codes alone when the codes differ: the entry sharing the longer key prefix with the common
+     * entry is the smaller one and the code of the larger one stays valid relative to the smaller one. When the codes
+     * are equal, the key fields before the code are known to be equal and are not compared. In both cases the loser
+     * (the larger entry) is left coded against the winner.
+     */
+    private class OffsetValueCodedComparator implements Comparator<ReferenceEntry> {
+        private int diffField;
+
+        @Override
+        public int compare(ReferenceEntry tp1, ReferenceEntry tp2) {
+            int code1 = tp1.getOffsetValueCode();
+            int code2 = tp2.getOffsetValueCode();
+            int startField = 0;
+            if (code1 != ReferenceEntry.UNKNOWN_OFFSET_VALUE_CODE
+                    && code2 != ReferenceEntry.UNKNOWN_OFFSET_VALUE_CODE) {
+                if (code1 != code2) {
+                    return code1 > code2 ? -1 : 1;
+                }
+                startField = code1;
+            }
+            int c = compareKeys(tp1, tp2, startField);
+            if (c == 0) {
+                // we further compare the run id
+                c = compareRun(tp1, tp2);
+            }
+            (c <= 0 ? tp2 : tp1).setOffsetValueCode(diffField);
+            return c;
+        }
+
+        private int compareKeys(ReferenceEntry tp1, ReferenceEntry tp2, int startField) {
+            int[] tPointers1 = tp1.getTPointers();
+            int[] tPointers2 = tp2.getTPointers();
+            if (startField == 0) {
                 int cmp = NormalizedKeyUtils.compareNormalizeKeys(tPointers1, 0, tPointers2, 0, normalizedKeyLength);
                 if (cmp != 0) {
+                    diffField = 0;
                     return cmp;
                 } else if (normalizedKeyDecisive) {
-                    // we further compare the run id
-                    return compareRun(tp1, tp2);
+                    diffField = sortFields.length;
+                    return 0;
+                }
+            }
+            byte[] b1 = tp1.getAccessor().getBuffer().array();
+            byte[] b2 = tp2.getAccessor().getBuffer().array();
+            for (int f = startField; f < sortFields.length; ++f) {
+                int c;
+                try {
+                    c = comparators[f].compare(b1, tPointers1[2 * f + normalizedKeyLength],
+                            tPointers1[2 * f + normalizedKeyLength + 1], b2, tPointers2[2 * f + normalizedKeyLength],
+                            tPointers2[2 * f + normalizedKeyLength + 1]);
+                } catch (HyracksDataException e) {
+                    throw new IllegalArgumentException(e);
                 }
-                IFrameTupleAccessor fta1 = tp1.getAccessor();
-                IFrameTupleAccessor fta2 = tp2.getAccessor();
-                byte[] b1 = fta1.getBuffer().array();
-                byte[] b2 = fta2.getBuffer().array();
-
-                for (int f = 0; f < sortFields.length; ++f) {
-                    int c;
-                    try {
-                        c = comparators[f].compare(b1, tPointers1[2 * f + normalizedKeyLength],
-                                tPointers1[2 * f + normalizedKeyLength + 1], b2,
-                                tPointers2[2 * f + normalizedKeyLength], tPointers2[2 * f + normalizedKeyLength + 1]);
-                        if (c != 0) {
-                            return c;
-                        }
-                    } catch (HyracksDataException e) {
-                        throw new IllegalArgumentException(e);
-                    }
+                if (c != 0) {
+                    diffField = f;
+                    return c;
                 }
-                return compareRun(tp1, tp2);
             }
+            diffField = sortFields.length;
+            return 0;
+        }
 
-            private int compareRun(ReferenceEntry tp1, ReferenceEntry tp2) {
-                int runid1 = tp1.getRunid();
-                int runid2 = tp2.getRunid();
-                return runid1 < runid2 ? -1 : (runid1 == runid2 ? 0 : 1);
-            }
-        };
+        private int compareRun(ReferenceEntry tp1, ReferenceEntry tp2) {
+            int runid1 = tp1.getRunid();
+            int runid2 = tp2.getRunid();
+            return runid1 < runid2 ? -1 : (runid1 == runid2 ? 0 : 1);
+        }
     }
 }
@@ -37,6 +37,7 @@ public class TopKSorterOperatorDescriptor extends AbstractSorterOperatorDescript
 
     private static final long serialVersionUID = 1L;
     private final int topK;
+    private boolean shareThreshold;
 
     public TopKSorterOperatorDescriptor(IOperatorDescriptorRegistry spec, int framesLimit, int topK, int[] sortFields,
             INormalizedKeyComputerFactory firstKeyNormalizerFactory, IBinaryComparatorFactory[] comparatorFactories,
@@ -54,6 +55,14 @@ public class TopKSorterOperatorDescriptor extends AbstractSorterOperatorDescript
         this.topK = topK;
     }
 
+    /**
+     * Makes the partitions that run on the same node share their K-th smallest key, so that each partition drops the
+     * tuples that cannot make it to the global top K because of the tuples of the other partitions.
+     */
+    public void setShareThreshold(boolean shareThreshold) {
+        this.shareThreshold = shareThreshold;
+    }
+
     @Override
     public SortActivity getSortActivity(ActivityId id) {
         return new SortActivity(id) {
@@ -63,8 +72,11 @@ public class TopKSorterOperatorDescriptor extends AbstractSorterOperatorDescript
             protected IRunGenerator getRunGenerator(IHyracksTaskContext ctx,
                     IRecordDescriptorProvider recordDescProvider) {
                 final boolean profile = ctx.getJobFlags().contains(JobFlag.PROFILE_RUNTIME);
-                IRunGenerator runGen = new HybridTopKSortRunGenerator(ctx, framesLimit, topK, sortFields,
+                HybridTopKSortRunGenerator runGen = new HybridTopKSortRunGenerator(ctx, framesLimit, topK, sortFields,
                         keyNormalizerFactories, comparatorFactories, outRecDescs[0]);
+                if (shareThreshold) {
+                    runGen.setThreshold(TopKThreshold.get(ctx, getActivityId()));
+                }
                 return profile ? TimedRunGenerator.time(runGen, ctx, "TopKSort (Sort)") : runGen;
 
             }
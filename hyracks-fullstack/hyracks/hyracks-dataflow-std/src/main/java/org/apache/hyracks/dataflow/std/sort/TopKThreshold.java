@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.sort;
+
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.api.job.JobId;
+import org.apache.hyracks.dataflow.std.base.AbstractStateObject;
+import org.apache.hyracks.dataflow.std.buffermanager.ITuplePointerAccessor;
+
+/**
+ * The smallest sort key that some top-K sorter of an operator has seen at least K tuples below (or at), shared by
+ * all the partitions of the operator that run on the same node. A partition holding K tuples at or below the
+ * threshold means that no tuple above it can make it to the global top K, so the other partitions can drop such
+ * tuples as soon as they read them instead of keeping them until their own heap fills up with smaller ones.
+ * <p>
+ * Readers only see immutable snapshots of the key, so they compare without locking.
+ */
+public class TopKThreshold extends AbstractStateObject {
+
+    private volatile Key key;
+
+    private TopKThreshold(JobId jobId, ActivityId activityId) {
+        super(jobId, activityId);
+    }
+
+    /**
+     * @return the threshold shared by the partitions of the given activity that run on the node of the task, created
+     *         by the first partition asking for it
+     */
+    public static TopKThreshold get(IHyracksTaskContext ctx, ActivityId activityId) {
+        synchronized (ctx.getJobletContext()) {
+            TopKThreshold threshold = (TopKThreshold) ctx.getStateObject(activityId);
+            if (threshold == null) {
+                threshold = new TopKThreshold(ctx.getJobletContext().getJobId(), activityId);
+                ctx.setStateObject(threshold);
+            }
+            return threshold;
+        }
+    }
+
+    /**
+     * @return true if the sort key of the given tuple is strictly above the threshold
+     */
+    public boolean isAbove(IFrameTupleAccessor fta, int tIndex, int[] sortFields, IBinaryComparator[] comparators)
+            throws HyracksDataException {
+        Key current = key;
+        if (current == null) {
+            return false;
+        }
+        byte[] b = fta.getBuffer().array();
+        for (int f = 0; f < sortFields.length; ++f) {
+            int fIdx = sortFields[f];
+            int c = comparators[f].compare(b, fta.getAbsoluteFieldStartOffset(tIndex, fIdx),
+                    fta.getFieldLength(tIndex, fIdx), current.bytes, current.starts[f], current.lengths[f]);
+            if (c != 0) {
+                return c > 0;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lowers the threshold to the sort key of the given tuple if it is below the current one. The caller must have at
+     * least K tuples at or below the given one and must not drop them.
+     */
+    public synchronized void offer(ITuplePointerAccessor accessor, int[] sortFields, IBinaryComparator[] comparators)
+            throws HyracksDataException {
+        Key current = key;
+        byte[] b = accessor.getBuffer().array();
+        if (current != null) {
+            int c = 0;
+            for (int f = 0; f < sortFields.length && c == 0; ++f) {
+                int fIdx = sortFields[f];
+                c = comparators[f].compare(b, accessor.getAbsFieldStartOffset(fIdx), accessor.getFieldLength(fIdx),
+                        current.bytes, current.starts[f], current.lengths[f]);
+            }
+            if (c >= 0) {
+                return;
+            }
+        }
+        int[] starts = new int[sortFields.length];
+        int[] lengths = new int[sortFields.length];
+        int size = 0;
+        for (int f = 0; f < sortFields.length; ++f) {
+            starts[f] = size;
+            lengths[f] = accessor.getFieldLength(sortFields[f]);
+            size += lengths[f];
+        }
+        byte[] bytes = new byte[size];
+        for (int f = 0; f < sortFields.length; ++f) {
+            System.arraycopy(b, accessor.getAbsFieldStartOffset(sortFields[f]), bytes, starts[f], lengths[f]);
+        }
+        key = new Key(bytes, starts, lengths);
+        memoryOccupancy = size;
+    }
+
+    private static final class Key {
+        private final byte[] bytes;
+        private final int[] starts;
+        private final int[] lengths;
+
+        private Key(byte[] bytes, int[] starts, int[] lengths) {
+            this.bytes = bytes;
+            this.starts = starts;
+            this.lengths = lengths;
+        }
+    }
+}
@@ -209,6 +209,16 @@ public class TupleSorterHeapSort implements ITupleSorter {
         return true;
     }
 
+    @Override
+    public void offerThreshold(TopKThreshold threshold) throws HyracksDataException {
+        if (heap.getNumEntries() < topK) {
+            return;
+        }
+        heap.peekMax(maxEntry);
+        bufferAccessor1.reset(maxEntry.tuplePointer);
+        threshold.offer(bufferAccessor1, sortFields, comparators);
+    }
+
     private int[] getPNK(IFrameTupleAccessor fta, int tIx) {
         if (nkcs == null) {
             return nmk;
@@ -23,11 +23,17 @@ import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputer;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 
 public class ReferenceEntry {
+    /**
+     * The offset-value code of an entry that has not been compared with the entry it is coded against.
+     */
+    public static final int UNKNOWN_OFFSET_VALUE_CODE = -1;
+
     private final int runid;
     private IFrameTupleAccessor acccessor;
     private int tupleIndex;
     private final int[] tPointers;
     private final int normalizedKeyLength;
+    private int offsetValueCode = UNKNOWN_OFFSET_VALUE_CODE;
 
     public ReferenceEntry(int runid, FrameTupleAccessor fta, int tupleIndex, int[] keyFields,
             INormalizedKeyComputer nmkComputer) {
@@ -58,6 +64,18 @@ public class ReferenceEntry {
         return tPointers;
     }
 
+    /**
+     * @return the index of the first key field where this entry differs from the entry it is coded against (the
+     *         number of key fields if they are all equal), or {@link #UNKNOWN_OFFSET_VALUE_CODE}
+     */
+    public int getOffsetValueCode() {
+        return offsetValueCode;
+    }
+
+    public void setOffsetValueCode(int offsetValueCode) {
+        this.offsetValueCode = offsetValueCode;
+    }
+
     public int getTupleIndex() {
         return tupleIndex;
     }
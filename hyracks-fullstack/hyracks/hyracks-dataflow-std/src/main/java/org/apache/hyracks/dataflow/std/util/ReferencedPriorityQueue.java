@@ -70,9 +70,22 @@ public class ReferencedPriorityQueue {
      * @throws IOException
      */
     public int popAndReplace(IFrameTupleAccessor fta, int tIndex) {
+        return popAndReplace(fta, tIndex, ReferenceEntry.UNKNOWN_OFFSET_VALUE_CODE);
+    }
+
+    /**
+     * Same as {@link #popAndReplace(IFrameTupleAccessor, int)} for a new entry whose offset-value code relative to
+     * the current top entry is known.
+     *
+     * @param offsetValueCode
+     *            the offset-value code of the new entry relative to the current top entry
+     * @return runid of this entry
+     */
+    public int popAndReplace(IFrameTupleAccessor fta, int tIndex, int offsetValueCode) {
         ReferenceEntry entry = entries[0];
         entry.setAccessor(fta);
         entry.setTupleIndex(tIndex, keyFields, nmkComputer);
+        entry.setOffsetValueCode(offsetValueCode);
 
         add(entry);
         return entry.getRunid();
@@ -90,6 +103,7 @@ public class ReferencedPriorityQueue {
         ReferenceEntry curr = e;
         while (!runAvail.isEmpty() && slot > 0) {
             int c = 0;
+            boolean compared = false;
             if (!runAvail.get(entries[slot].getRunid())) {
                 // run of entries[slot] is exhausted, i.e. not available, curr
                 // wins
@@ -101,13 +115,19 @@ public class ReferencedPriorityQueue {
                     && runAvail.get(curr.getRunid() /* curr run is available */)) {
 
                 if (curr.getAccessor() != null) {
+                    // the comparator codes the loser relative to the winner
                     c = comparator.compare(entries[slot], curr);
+                    compared = true;
                 } else {
                     // curr is MIN value, wins
                     c = 1;
                 }
             }
 
+            if (!compared) {
+                // the loser was not compared with the winner, so its offset-value code cannot be relied on
+                (c <= 0 ? curr : entries[slot]).setOffsetValueCode(ReferenceEntry.UNKNOWN_OFFSET_VALUE_CODE);
+            }
             if (c <= 0) { // curr lost
                 // entries[slot] swaps up
                 ReferenceEntry tmp = entries[slot];
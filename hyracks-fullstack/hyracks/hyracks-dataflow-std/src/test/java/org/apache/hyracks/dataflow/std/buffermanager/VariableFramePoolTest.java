@@ -33,6 +33,8 @@ import java.nio.ByteBuffer;
 import java.util.Set;
 
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.control.nc.resources.memory.FramePool;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -70,6 +72,19 @@ public class VariableFramePoolTest extends AbstractFramePoolTest {
         pool.close();
     }
 
+    @Test
+    public void testCloseShouldReleaseFramesToTheFramePool() throws HyracksDataException {
+        FramePool framePool = new FramePool(BUDGET);
+        pool = new VariableFramePool(new FrameManager(MIN_FRAME_SIZE, framePool), BUDGET);
+        Set<?> set1 = testAllocateAllSpacesWithMinFrames();
+        pool.close();
+        assertEquals(BUDGET, framePool.getPooledBytes());
+        Set<?> set2 = testAllocateAllSpacesWithMinFrames();
+        assertEquals(set1, set2);
+        assertEquals(NUM_MIN_FRAME, framePool.getReusedCount());
+        pool.close();
+    }
+
     @Test
     public void testShouldReturnLargerFramesIfFitOneIsUsed() throws HyracksDataException {
         Set<?> set = testAllocateVariableFrames();
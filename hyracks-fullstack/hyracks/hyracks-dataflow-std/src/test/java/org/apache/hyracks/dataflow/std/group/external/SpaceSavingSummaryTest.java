@@ -0,0 +1,128 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.group.external;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.apache.hyracks.api.comm.FixedSizeFrame;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparator;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.IntegerBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.MurmurHash3BinaryHashFunctionFamily;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.junit.Test;
+
+public class SpaceSavingSummaryTest {
+    private static final int FRAME_SIZE = 256;
+    private static final RecordDescriptor RECORD_DESC =
+            new RecordDescriptor(new ISerializerDeserializer[] { IntegerSerializerDeserializer.INSTANCE });
+
+    private final FixedSizeFrame frame = new FixedSizeFrame(ByteBuffer.allocate(FRAME_SIZE));
+    private final FrameTupleAccessor accessor = new FrameTupleAccessor(RECORD_DESC);
+
+    private static SpaceSavingSummary newSummary(int capacity) {
+        return newSummary(capacity, Long.MAX_VALUE);
+    }
+
+    private static SpaceSavingSummary newSummary(int capacity, long memoryBudget) {
+        IBinaryComparator[] comparators =
+                new IBinaryComparator[] { IntegerBinaryComparatorFactory.INSTANCE.createBinaryComparator() };
+        IBinaryHashFunction[] hashFunctions =
+                new IBinaryHashFunction[] { MurmurHash3BinaryHashFunctionFamily.INSTANCE.createBinaryHashFunction(0) };
+        return new SpaceSavingSummary(capacity, memoryBudget, new int[] { 0 }, comparators, hashFunctions);
+    }
+
+    private FrameTupleAccessor key(int key) throws HyracksDataException {
+        ArrayTupleBuilder tb = new ArrayTupleBuilder(1);
+        tb.addField(IntegerSerializerDeserializer.INSTANCE, key);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        assertTrue(appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize()));
+        accessor.reset(frame.getBuffer());
+        return accessor;
+    }
+
+    @Test
+    public void testExactCountsBelowCapacity() throws HyracksDataException {
+        SpaceSavingSummary summary = newSummary(8);
+        for (int i = 1; i <= 4; i++) {
+            summary.add(key(i), 0, 10 * i);
+        }
+        summary.add(key(1), 0, 5);
+        assertEquals(0, summary.getMinCount());
+        // counts are 15, 20, 30, 40
+        assertEquals(30, summary.getKthLargestLowerBound(2));
+        assertEquals(0, summary.getKthLargestLowerBound(5));
+        assertTrue(summary.isCandidate(key(3), 0, 30));
+        assertFalse(summary.isCandidate(key(1), 0, 30));
+        assertFalse(summary.isCandidate(key(5), 0, 0));
+        assertEquals(2, summary.getNumCandidates(30));
+    }
+
+    @Test
+    public void testHeavyHittersSurviveEvictions() throws HyracksDataException {
+        SpaceSavingSummary summary = newSummary(4);
+        summary.add(key(1), 0, 100);
+        summary.add(key(2), 0, 50);
+        for (int i = 10; i < 30; i++) {
+            summary.add(key(i), 0, 1);
+        }
+        long threshold = summary.getKthLargestLowerBound(2);
+        assertEquals(50, threshold);
+        assertTrue(summary.getMinCount() > 0);
+        assertTrue(threshold >= summary.getMinCount());
+        assertTrue(summary.isCandidate(key(1), 0, threshold));
+        assertTrue(summary.isCandidate(key(2), 0, threshold));
+        assertFalse(summary.isCandidate(key(29), 0, threshold));
+        assertEquals(2, summary.getNumCandidates(threshold));
+    }
+
+    @Test
+    public void testUniformInputIsNotBounded() throws HyracksDataException {
+        SpaceSavingSummary summary = newSummary(2);
+        for (int i = 0; i < 10; i++) {
+            summary.add(key(i), 0, 1);
+        }
+        // every monitored key may mostly consist of the weight of evicted keys
+        assertTrue(summary.getKthLargestLowerBound(2) < summary.getMinCount());
+    }
+
+    @Test
+    public void testKeysBeyondMemoryBudgetAreRefused() throws HyracksDataException {
+        // room for two keys of 4 bytes
+        long budget = SpaceSavingSummary.getFixedMemorySize(4, 1) + 2 * (16 + Integer.BYTES);
+        SpaceSavingSummary summary = newSummary(4, budget);
+        assertTrue(summary.add(key(1), 0, 1));
+        assertTrue(summary.add(key(2), 0, 1));
+        assertTrue(summary.add(key(1), 0, 1));
+        assertFalse(summary.add(key(3), 0, 1));
+        assertEquals(budget, summary.getMemorySize());
+        assertFalse(summary.isCandidate(key(3), 0, 0));
+        assertEquals(2, summary.getKthLargestLowerBound(1));
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.dataflow.std.join;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.control.nc.resources.memory.FrameManager;
+import org.apache.hyracks.dataflow.std.structures.ISerializableTable;
+import org.apache.hyracks.dataflow.std.structures.SimpleSerializableHashTable;
+import org.junit.Test;
+
+public class JoinBuildTableCacheTest {
+    private static final int FRAME_SIZE = 256;
+    private static final FrameManager FRAME_MANAGER = new FrameManager(FRAME_SIZE);
+
+    private static final JoinBuildCacheKey KEY_A = new JoinBuildCacheKey("a", new String[] { "dataset:1@1" });
+    private static final JoinBuildCacheKey KEY_B = new JoinBuildCacheKey("b", new String[] { "dataset:2@1" });
+    private static final JoinBuildCacheKey KEY_A_NEWER = new JoinBuildCacheKey("a", new String[] { "dataset:1@2" });
+
+    private final List<ByteBuffer> frames = Collections.singletonList(ByteBuffer.allocate(FRAME_SIZE));
+
+    private static ISerializableTable newTable() throws HyracksDataException {
+        return new SimpleSerializableHashTable(8, FRAME_MANAGER);
+    }
+
+    private long entrySize() throws HyracksDataException {
+        return newTable().getCurrentByteSize() + FRAME_SIZE;
+    }
+
+    @Test
+    public void testPutAndAcquire() throws HyracksDataException {
+        JoinBuildTableCache cache = new JoinBuildTableCache(10 * entrySize());
+        assertNull(cache.acquire(KEY_A));
+        ISerializableTable table = newTable();
+        JoinBuildTableCache.Entry entry = cache.put(KEY_A, frames, table);
+        assertNotNull(entry);
+        JoinBuildTableCache.Entry hit = cache.acquire(KEY_A);
+        assertSame(entry, hit);
+        assertSame(table, hit.getTable());
+        assertEquals(frames, hit.getFrames());
+        // the same build is published only once
+        assertNull(cache.put(KEY_A, frames, newTable()));
+        cache.release(entry);
+        cache.release(hit);
+        assertEquals(entrySize(), cache.getUsedBytes());
+    }
+
+    @Test
+    public void testNewerVersionSupersedes() throws HyracksDataException {
+        JoinBuildTableCache cache = new JoinBuildTableCache(10 * entrySize());
+        JoinBuildTableCache.Entry older = cache.put(KEY_A, frames, newTable());
+        JoinBuildTableCache.Entry other = cache.put(KEY_B, frames, newTable());
+        // the dataset was modified, so the build input gets a new key and misses
+        assertNull(cache.acquire(KEY_A_NEWER));
+        JoinBuildTableCache.Entry newer = cache.put(KEY_A_NEWER, frames, newTable());
+        assertNotNull(newer);
+        // the older table of the same build input is dropped, the table of another input is kept
+        assertNull(cache.acquire(KEY_A));
+        JoinBuildTableCache.Entry hit = cache.acquire(KEY_B);
+        assertSame(other, hit);
+        cache.release(hit);
+        // memory is accounted until the last user releases the older table
+        assertEquals(3 * entrySize(), cache.getUsedBytes());
+        cache.release(older);
+        assertEquals(2 * entrySize(), cache.getUsedBytes());
+        cache.release(other);
+        cache.release(newer);
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws HyracksDataException {
+        JoinBuildTableCache cache = new JoinBuildTableCache(entrySize());
+        JoinBuildTableCache.Entry entryA = cache.put(KEY_A, frames, newTable());
+        // a pinned entry is never evicted
+        assertNull(cache.put(KEY_B, frames, newTable()));
+        cache.release(entryA);
+        JoinBuildTableCache.Entry entryB = cache.put(KEY_B, frames, newTable());
+        assertNotNull(entryB);
+        assertNull(cache.acquire(KEY_A));
+        cache.release(entryB);
+        assertEquals(entrySize(), cache.getUsedBytes());
+    }
+
+    @Test
+    public void testPinnedTableOutlivesEviction() throws HyracksDataException {
+        JoinBuildTableCache cache = new JoinBuildTableCache(entrySize());
+        assertFalse(cache.pin("job", KEY_A));
+        cache.release(cache.put(KEY_A, frames, newTable()));
+        assertTrue(cache.pin("job", KEY_A));
+        // a pinned entry is never evicted
+        assertNull(cache.put(KEY_B, frames, newTable()));
+        JoinBuildTableCache.Entry pinned = JoinBuildTableCache.acquireBuildTable(cache, KEY_A, "job");
+        assertSame(pinned, cache.acquire(KEY_A));
+        cache.release(pinned);
+        cache.release(pinned);
+        cache.unpin("job");
+        assertNull(cache.acquirePinned("job"));
+        // once unpinned, the entry can be evicted
+        JoinBuildTableCache.Entry entryB = cache.put(KEY_B, frames, newTable());
+        assertNotNull(entryB);
+        cache.release(entryB);
+        assertEquals(entrySize(), cache.getUsedBytes());
+    }
+
+    @Test
+    public void testPinnedTableOutlivesNewerVersion() throws HyracksDataException {
+        JoinBuildTableCache cache = new JoinBuildTableCache(10 * entrySize());
+        JoinBuildTableCache.Entry older = cache.put(KEY_A, frames, newTable());
+        cache.release(older);
+        assertTrue(cache.pin("job", KEY_A));
+        cache.release(cache.put(KEY_A_NEWER, frames, newTable()));
+        // the job that pinned the older table still probes it
+        assertSame(older, cache.acquirePinned("job"));
+        cache.release(older);
+        assertEquals(2 * entrySize(), cache.getUsedBytes());
+        cache.unpin("job");
+        assertEquals(entrySize(), cache.getUsedBytes());
+    }
+
+    @Test
+    public void testJobWithoutPinFails() throws HyracksDataException {
+        JoinBuildTableCache cache = new JoinBuildTableCache(10 * entrySize());
+        cache.release(cache.put(KEY_A, frames, newTable()));
+        // a job that did not pin the table probes the cached table if there is one
+        JoinBuildTableCache.Entry hit = JoinBuildTableCache.acquireBuildTable(cache, KEY_A, null);
+        assertNotNull(hit);
+        cache.release(hit);
+        assertNull(JoinBuildTableCache.acquireBuildTable(cache, KEY_B, null));
+        // a job that pinned the table on the other nodes has no build input to build it from
+        try {
+            JoinBuildTableCache.acquireBuildTable(cache, KEY_A, "job");
+            fail("the table is not pinned on this node");
+        } catch (HyracksDataException e) {
+            assertTrue(e.getMessage().contains("is not pinned"));
+        }
+    }
+}
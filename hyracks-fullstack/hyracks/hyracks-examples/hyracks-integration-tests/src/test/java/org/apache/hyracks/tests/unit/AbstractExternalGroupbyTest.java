@@ -145,8 +145,8 @@ public abstract class AbstractExternalGroupbyTest {
                 }
                 Result result = answer.remove(outRecord[0]);
                 assertNotNull(result);
-                assertEquals(result.sum, (int) outRecord[1]);
-                assertEquals(result.count, (int) outRecord[2]);
+                assertEquals(result.sum, ((Number) outRecord[1]).intValue());
+                assertEquals(result.count, ((Number) outRecord[2]).intValue());
             }
         }
 
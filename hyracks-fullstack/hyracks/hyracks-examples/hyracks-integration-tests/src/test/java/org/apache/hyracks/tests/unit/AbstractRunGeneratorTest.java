@@ -27,6 +27,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.hyracks.api.comm.FrameHelper;
 import org.apache.hyracks.api.comm.IFrame;
@@ -45,6 +47,7 @@ import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
 import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
 import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
+import org.apache.hyracks.dataflow.std.sort.AbstractExternalSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.AbstractSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.util.GroupFrameAccessor;
 import org.apache.hyracks.dataflow.std.sort.util.GroupVSizeFrame;
@@ -72,8 +75,33 @@ public abstract class AbstractRunGeneratorTest {
 
     protected List<List<GeneratedRunFileReader>> testSortRecords(int pageSize, int frameLimit, int numRuns,
             int minRecordSize, int maxRecordSize, HashMap<Integer, String> specialData) throws HyracksDataException {
-        IHyracksTaskContext ctx = testUtils.create(pageSize);
+        return testSortRecords(testUtils.create(pageSize), frameLimit, numRuns, minRecordSize, maxRecordSize,
+                specialData, 1);
+    }
 
+    /**
+     * Sorts runs that are large enough for every thread of a parallel sort to get at least 16K tuples
+     */
+    protected void testParallelSort(int sortParallelism) throws HyracksDataException {
+        int pageSize = 32768;
+        int frameLimit = 128;
+        int numRuns = 2;
+        ExecutorService executor = Executors.newFixedThreadPool(sortParallelism);
+        try {
+            List<List<GeneratedRunFileReader>> runs = testSortRecords(testUtils.create(pageSize, executor), frameLimit,
+                    numRuns, 8, 8, null, sortParallelism);
+            for (List<GeneratedRunFileReader> run : runs) {
+                assertMaxFrameSizesAreAllEqualsTo(run, pageSize);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private List<List<GeneratedRunFileReader>> testSortRecords(IHyracksTaskContext ctx, int frameLimit, int numRuns,
+            int minRecordSize, int maxRecordSize, HashMap<Integer, String> specialData, int sortParallelism)
+            throws HyracksDataException {
+        int pageSize = ctx.getInitialFrameSize();
         HashMap<Integer, String> keyValuePair = new HashMap<>();
         List<IFrame> frameList = new ArrayList<>();
         prepareData(ctx, frameList, pageSize * frameLimit * numRuns, minRecordSize, maxRecordSize, specialData,
@@ -82,11 +110,18 @@ public abstract class AbstractRunGeneratorTest {
         List<List<GeneratedRunFileReader>> results = new ArrayList<>();
         AbstractSortRunGenerator[] runGenerators = getSortRunGenerator(ctx, frameLimit, keyValuePair.size());
         for (AbstractSortRunGenerator runGenerator : runGenerators) {
+            if (sortParallelism > 1) {
+                ((AbstractExternalSortRunGenerator) runGenerator).setSortParallelism(sortParallelism);
+            }
             runGenerator.open();
             for (IFrame frame : frameList) {
                 runGenerator.nextFrame(frame.getBuffer());
             }
             runGenerator.close();
+            if (sortParallelism > 1) {
+                // on average, a run has enough tuples for two or more sort threads with 16K tuples each
+                assertTrue(keyValuePair.size() / runGenerator.getRuns().size() >= 2 * (1 << 14));
+            }
             matchResult(ctx, runGenerator.getRuns(), keyValuePair);
             results.add(runGenerator.getRuns());
         }
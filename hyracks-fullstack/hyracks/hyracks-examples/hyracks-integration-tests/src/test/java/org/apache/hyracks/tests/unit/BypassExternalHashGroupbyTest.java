@@ -0,0 +1,175 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.UTF8StringBinaryHashFunctionFamily;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryOutputSourceOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupBuildOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupState;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupWriteOperatorNodePushable;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Test;
+
+public class BypassExternalHashGroupbyTest extends AbstractExternalGroupbyTest {
+    private static final int SAMPLE_FRAMES = 4;
+    private static final double MAX_GROUP_RATIO = 0.9;
+
+    ExternalGroupBuildOperatorNodePushable buildOperator;
+    ExternalGroupWriteOperatorNodePushable mergeOperator;
+
+    @Override
+    protected void initial(IHyracksTaskContext ctx, int tableSize, int numFrames) throws HyracksDataException {
+        ISpillableTableFactory tableFactory = new HashSpillableTableFactory(
+                new IBinaryHashFunctionFamily[] { UTF8StringBinaryHashFunctionFamily.INSTANCE });
+        buildOperator = new ExternalGroupBuildOperatorNodePushable(ctx, this.hashCode(), tableSize,
+                numFrames * ctx.getInitialFrameSize(), keyFields, null, numFrames, comparatorFactories,
+                normalizedKeyComputerFactory, partialAggrInPlace, inRecordDesc, outputRec, tableFactory, SAMPLE_FRAMES,
+                MAX_GROUP_RATIO);
+        mergeOperator = new ExternalGroupWriteOperatorNodePushable(ctx, this.hashCode(), tableFactory, outputRec,
+                outputRec, numFrames, keyFieldsAfterPartial, null, normalizedKeyComputerFactory, comparatorFactories,
+                finalAggrInPlace);
+    }
+
+    @Override
+    protected IFrameWriter getBuilder() {
+        return buildOperator;
+    }
+
+    @Override
+    protected AbstractUnaryOutputSourceOperatorNodePushable getMerger() {
+        return mergeOperator;
+    }
+
+    /**
+     * Almost every key is distinct, so the build passes most of its input through. Some keys repeat on both sides of
+     * the bypass decision, so their partial results have to be merged like a global group-by does.
+     */
+    @Test
+    public void testHighCardinalityBypass() throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(256);
+        initial(ctx, 101, 23);
+        int numTuples = 5000;
+        int numKeys = 4750;
+        Map<String, int[]> expected = new HashMap<>();
+        List<IFrame> input = new ArrayList<>();
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(inRecordDesc.getFieldCount());
+        IFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        for (int i = 0; i < numTuples; i++) {
+            String key = "key" + (i * 7919L % numKeys);
+            tupleBuilder.reset();
+            tupleBuilder.addField(IntegerSerializerDeserializer.INSTANCE, i);
+            tupleBuilder.addField(new UTF8StringSerializerDeserializer(), key);
+            if (!appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                    tupleBuilder.getSize())) {
+                input.add(frame);
+                frame = new VSizeFrame(ctx);
+                appender.reset(frame, true);
+                assertTrue(appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                        tupleBuilder.getSize()));
+            }
+            int[] sumAndCount = expected.computeIfAbsent(key, k -> new int[2]);
+            sumAndCount[0] += i;
+            sumAndCount[1]++;
+        }
+        input.add(frame);
+
+        try {
+            buildOperator.open();
+            for (IFrame inputFrame : input) {
+                buildOperator.nextFrame(inputFrame.getBuffer());
+            }
+        } finally {
+            buildOperator.close();
+        }
+        ExternalGroupState state = (ExternalGroupState) ctx.getStateObject(this.hashCode());
+        assertNotNull("the build should have bypassed its aggregation", state.getPassThroughRun());
+
+        MergingResultWriter writer = new MergingResultWriter();
+        mergeOperator.setOutputFrameWriter(0, writer, outputRec);
+        mergeOperator.initialize();
+        assertEquals(expected.size(), writer.merged.size());
+        expected.forEach((key, sumAndCount) -> {
+            int[] result = writer.merged.get(key);
+            assertNotNull(key, result);
+            assertEquals(key, sumAndCount[0], result[0]);
+            assertEquals(key, sumAndCount[1], result[1]);
+        });
+    }
+
+    private class MergingResultWriter implements IFrameWriter {
+        final Map<String, int[]> merged = new HashMap<>();
+        final FrameTupleAccessor resultAccessor = new FrameTupleAccessor(outputRec);
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            resultAccessor.reset(buffer);
+            ByteBufferInputStream bbis = new ByteBufferInputStream();
+            DataInputStream di = new DataInputStream(bbis);
+            Object[] outRecord = new Object[outputRec.getFieldCount()];
+            for (int tid = 0; tid < resultAccessor.getTupleCount(); tid++) {
+                for (int fid = 0; fid < outputRec.getFieldCount(); fid++) {
+                    bbis.setByteBuffer(resultAccessor.getBuffer(),
+                            resultAccessor.getAbsoluteFieldStartOffset(tid, fid));
+                    outRecord[fid] = outputRec.getFields()[fid].deserialize(di);
+                }
+                int[] sumAndCount = merged.computeIfAbsent((String) outRecord[0], k -> new int[2]);
+                sumAndCount[0] += ((Number) outRecord[1]).intValue();
+                sumAndCount[1] += ((Number) outRecord[2]).intValue();
+            }
+        }
+
+        @Override
+        public void fail() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -28,6 +28,7 @@ import org.apache.hyracks.dataflow.std.buffermanager.EnumFreeSlotPolicy;
 import org.apache.hyracks.dataflow.std.sort.AbstractSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.Algorithm;
 import org.apache.hyracks.dataflow.std.sort.ExternalSortRunGenerator;
+import org.junit.Test;
 
 public class ExternalSortRunGeneratorTest extends AbstractRunGeneratorTest {
 
@@ -48,4 +49,9 @@ public class ExternalSortRunGeneratorTest extends AbstractRunGeneratorTest {
         return new AbstractSortRunGenerator[] { runGenerator, runGeneratorWithOneNormalizeKey,
                 runGeneratorWithNormalizeKeys };
     }
+
+    @Test
+    public void testParallelSort() throws HyracksDataException {
+        testParallelSort(4);
+    }
 }
@@ -0,0 +1,232 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package org.apache.hyracks.tests.unit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataInputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameTupleAccessor;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryComparatorFactory;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunction;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.UTF8StringBinaryComparatorFactory;
+import org.apache.hyracks.data.std.accessors.UTF8StringBinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.primitive.IntegerPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.IFieldAggregateDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.IntSumFieldAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.MultiFieldsAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupBuildOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupWriteOperatorNodePushable;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Test;
+
+/**
+ * Tests a global group-by that only needs the groups with the largest sums of partial counts. The input consists of
+ * (key, partial count) tuples and the output of (key, count) tuples.
+ */
+public class HeavyHittersExternalHashGroupbyTest {
+    private static final int FRAME_SIZE = 256;
+    private static final int FRAMES_LIMIT = 23;
+    private static final int TOP_K = 3;
+    private static final int NUM_COUNTERS = 16;
+
+    private final RecordDescriptor recordDesc = new RecordDescriptor(new ISerializerDeserializer[] {
+            new UTF8StringSerializerDeserializer(), IntegerSerializerDeserializer.INSTANCE });
+    private final IBinaryComparatorFactory[] comparatorFactories =
+            new IBinaryComparatorFactory[] { UTF8StringBinaryComparatorFactory.INSTANCE };
+    private final IAggregatorDescriptorFactory sumAggregator = new MultiFieldsAggregatorFactory(
+            new IFieldAggregateDescriptorFactory[] { new IntSumFieldAggregatorFactory(1, false) });
+    private final int[] keyFields = new int[] { 0 };
+
+    private ExternalGroupBuildOperatorNodePushable buildOperator;
+    private ExternalGroupWriteOperatorNodePushable mergeOperator;
+
+    private void initial(IHyracksTaskContext ctx) throws HyracksDataException {
+        IBinaryHashFunctionFamily hashFamily = UTF8StringBinaryHashFunctionFamily.INSTANCE;
+        ISpillableTableFactory tableFactory =
+                new HashSpillableTableFactory(new IBinaryHashFunctionFamily[] { hashFamily });
+        buildOperator = new ExternalGroupBuildOperatorNodePushable(ctx, this.hashCode(), 101,
+                FRAMES_LIMIT * ctx.getInitialFrameSize(), keyFields, null, FRAMES_LIMIT, comparatorFactories,
+                new UTF8StringNormalizedKeyComputerFactory(), sumAggregator, recordDesc, recordDesc, tableFactory);
+        buildOperator.setHeavyHitters(TOP_K, NUM_COUNTERS,
+                new IBinaryHashFunction[] { hashFamily.createBinaryHashFunction(1436725297) },
+                (IFrameTupleAccessor accessor, int tIndex) -> IntegerPointable.getInteger(accessor.getBuffer().array(),
+                        accessor.getAbsoluteFieldStartOffset(tIndex, 1)));
+        mergeOperator = new ExternalGroupWriteOperatorNodePushable(ctx, this.hashCode(), tableFactory, recordDesc,
+                recordDesc, FRAMES_LIMIT, keyFields, null, new UTF8StringNormalizedKeyComputerFactory(),
+                comparatorFactories, sumAggregator);
+    }
+
+    /**
+     * A few heavy keys among many light ones that exhaust the memory, so only the candidate keys are aggregated after
+     * that. The heaviest groups must still be exact.
+     */
+    @Test
+    public void testSkewedInputOnlyAggregatesCandidates() throws HyracksDataException {
+        Map<String, Integer> expected = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (int i = 0; i < 4000; i++) {
+            add(keys, weights, expected, "light" + i, 1 + i % 3);
+            if (i % 20 == 0) {
+                int heavy = i % 100 / 20;
+                add(keys, weights, expected, "heavy" + heavy, 50 + 25 * heavy);
+            }
+        }
+        Map<String, Integer> result = run(keys, weights);
+        // every light key weighs less than the topK-th heavy one, only some light keys are aggregated in memory
+        assertTrue(result.size() < expected.size());
+        for (int heavy = 4; heavy > 4 - TOP_K; heavy--) {
+            String key = "heavy" + heavy;
+            assertEquals(key, expected.get(key), result.get(key));
+        }
+        result.forEach((key, count) -> assertTrue(key, count <= expected.get(key)));
+        long maxLight = result.entrySet().stream().filter(e -> e.getKey().startsWith("light"))
+                .mapToLong(Map.Entry::getValue).max().orElse(0);
+        assertTrue(maxLight < expected.get("heavy" + (5 - TOP_K)));
+    }
+
+    /**
+     * Every key weighs the same, so the summary cannot bound the heaviest groups and all of them are aggregated.
+     */
+    @Test
+    public void testUniformInputAggregatesAllGroups() throws HyracksDataException {
+        Map<String, Integer> expected = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (int i = 0; i < 6000; i++) {
+            add(keys, weights, expected, "key" + i % 2000, 1);
+        }
+        assertEquals(expected, run(keys, weights));
+    }
+
+    /**
+     * The input fits in memory, so it is aggregated without spooling.
+     */
+    @Test
+    public void testInMemoryInputAggregatesAllGroups() throws HyracksDataException {
+        Map<String, Integer> expected = new HashMap<>();
+        List<String> keys = new ArrayList<>();
+        List<Integer> weights = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            add(keys, weights, expected, "key" + i % 10, i);
+        }
+        assertEquals(expected, run(keys, weights));
+    }
+
+    private static void add(List<String> keys, List<Integer> weights, Map<String, Integer> expected, String key,
+            int weight) {
+        keys.add(key);
+        weights.add(weight);
+        expected.merge(key, weight, Integer::sum);
+    }
+
+    private Map<String, Integer> run(List<String> keys, List<Integer> weights) throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(FRAME_SIZE);
+        initial(ctx);
+        List<IFrame> input = new ArrayList<>();
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(recordDesc.getFieldCount());
+        IFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        for (int i = 0; i < keys.size(); i++) {
+            tupleBuilder.reset();
+            tupleBuilder.addField(new UTF8StringSerializerDeserializer(), keys.get(i));
+            tupleBuilder.addField(IntegerSerializerDeserializer.INSTANCE, weights.get(i));
+            if (!appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                    tupleBuilder.getSize())) {
+                input.add(frame);
+                frame = new VSizeFrame(ctx);
+                appender.reset(frame, true);
+                assertTrue(appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                        tupleBuilder.getSize()));
+            }
+        }
+        input.add(frame);
+
+        try {
+            buildOperator.open();
+            for (IFrame inputFrame : input) {
+                buildOperator.nextFrame(inputFrame.getBuffer());
+            }
+        } finally {
+            buildOperator.close();
+        }
+        ResultCollector writer = new ResultCollector();
+        mergeOperator.setOutputFrameWriter(0, writer, recordDesc);
+        mergeOperator.initialize();
+        return writer.result;
+    }
+
+    private class ResultCollector implements IFrameWriter {
+        final Map<String, Integer> result = new HashMap<>();
+        final FrameTupleAccessor resultAccessor = new FrameTupleAccessor(recordDesc);
+
+        @Override
+        public void open() {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            resultAccessor.reset(buffer);
+            ByteBufferInputStream bbis = new ByteBufferInputStream();
+            DataInputStream di = new DataInputStream(bbis);
+            for (int tid = 0; tid < resultAccessor.getTupleCount(); tid++) {
+                bbis.setByteBuffer(resultAccessor.getBuffer(), resultAccessor.getAbsoluteFieldStartOffset(tid, 0));
+                String key = (String) recordDesc.getFields()[0].deserialize(di);
+                bbis.setByteBuffer(resultAccessor.getBuffer(), resultAccessor.getAbsoluteFieldStartOffset(tid, 1));
+                Integer count = (Integer) recordDesc.getFields()[1].deserialize(di);
+                assertNotNull(key, count);
+                assertEquals("a group is output once", null, result.put(key, count));
+            }
+        }
+
+        @Override
+        public void fail() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
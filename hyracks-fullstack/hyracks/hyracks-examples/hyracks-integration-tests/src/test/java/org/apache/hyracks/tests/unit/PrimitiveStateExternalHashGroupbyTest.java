@@ -0,0 +1,246 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package org.apache.hyracks.tests.unit;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import org.apache.hyracks.api.comm.IFrame;
+import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
+import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.value.IBinaryHashFunctionFamily;
+import org.apache.hyracks.api.dataflow.value.ISerializerDeserializer;
+import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
+import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.data.std.accessors.UTF8StringBinaryHashFunctionFamily;
+import org.apache.hyracks.data.std.primitive.DoublePointable;
+import org.apache.hyracks.data.std.primitive.LongPointable;
+import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.data.marshalling.DoubleSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.Integer64SerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.IntegerSerializerDeserializer;
+import org.apache.hyracks.dataflow.common.data.marshalling.UTF8StringSerializerDeserializer;
+import org.apache.hyracks.dataflow.std.base.AbstractUnaryOutputSourceOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.AggregateState;
+import org.apache.hyracks.dataflow.std.group.HashSpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptor;
+import org.apache.hyracks.dataflow.std.group.IAggregatorDescriptorFactory;
+import org.apache.hyracks.dataflow.std.group.ISpillableTableFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate.Function;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate.ValueType;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveFieldAggregate;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveStateAggregatorFactory;
+import org.apache.hyracks.dataflow.std.group.aggregators.PrimitiveValueTags;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupBuildOperatorNodePushable;
+import org.apache.hyracks.dataflow.std.group.external.ExternalGroupWriteOperatorNodePushable;
+import org.apache.hyracks.test.support.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PrimitiveStateExternalHashGroupbyTest extends AbstractExternalGroupbyTest {
+    ExternalGroupBuildOperatorNodePushable buildOperator;
+    ExternalGroupWriteOperatorNodePushable mergeOperator;
+
+    PrimitiveFieldAggregate[] partialAggregates =
+            new PrimitiveFieldAggregate[] { new PrimitiveFieldAggregate(Function.SUM, 0, ValueType.INT32),
+                    PrimitiveFieldAggregate.count(0), new PrimitiveFieldAggregate(Function.AVG, 0, ValueType.INT32) };
+
+    PrimitiveFieldAggregate[] mergeAggregates =
+            new PrimitiveFieldAggregate[] { new PrimitiveFieldAggregate(Function.SUM, 1, ValueType.INT32),
+                    new PrimitiveFieldAggregate(Function.COUNT, 2, ValueType.INT64),
+                    new PrimitiveFieldAggregate(Function.AVG, 3, ValueType.INT32) };
+
+    IAggregatorDescriptorFactory partialAggrPrimitive = new PrimitiveStateAggregatorFactory(partialAggregates, false);
+
+    IAggregatorDescriptorFactory finalAggrPrimitive = new PrimitiveStateAggregatorFactory(mergeAggregates, true);
+
+    {
+        outputRec = new RecordDescriptor(new ISerializerDeserializer[] { new UTF8StringSerializerDeserializer(), // key
+                Integer64SerializerDeserializer.INSTANCE, // sum
+                Integer64SerializerDeserializer.INSTANCE, // count
+                DoubleSerializerDeserializer.INSTANCE, // avg
+        });
+    }
+
+    @Override
+    protected void initial(IHyracksTaskContext ctx, int tableSize, int numFrames) throws HyracksDataException {
+        ISpillableTableFactory tableFactory = new HashSpillableTableFactory(
+                new IBinaryHashFunctionFamily[] { UTF8StringBinaryHashFunctionFamily.INSTANCE });
+        buildOperator = new ExternalGroupBuildOperatorNodePushable(ctx, this.hashCode(), tableSize,
+                numFrames * ctx.getInitialFrameSize(), keyFields, null, numFrames, comparatorFactories,
+                normalizedKeyComputerFactory, partialAggrPrimitive, inRecordDesc, outputRec, tableFactory);
+        mergeOperator = new ExternalGroupWriteOperatorNodePushable(ctx, this.hashCode(), tableFactory, outputRec,
+                outputRec, numFrames, keyFieldsAfterPartial, null, normalizedKeyComputerFactory, comparatorFactories,
+                finalAggrPrimitive);
+    }
+
+    @Test
+    public void testCancelInitReleasesState() throws HyracksDataException {
+        IHyracksTaskContext ctx = TestUtils.create(256);
+        IAggregatorDescriptor aggregator =
+                partialAggrPrimitive.createAggregator(ctx, inRecordDesc, outputRec, keyFields, keyFields, null, -1);
+        AggregateState state = aggregator.createAggregateStates();
+        FrameTupleAccessor accessor = new FrameTupleAccessor(inRecordDesc);
+        accessor.reset(createFrame(ctx, 5, 7).getBuffer());
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(outputRec.getFieldCount());
+
+        long emptySize = aggregator.getExternalStateSize();
+        aggregator.init(tupleBuilder, accessor, 0, state);
+        Assert.assertTrue(aggregator.getExternalStateSize() > emptySize);
+        // the state tuple could not be stored, so neither the slot nor the staged value may survive
+        aggregator.cancelInit(state);
+        Assert.assertEquals(emptySize, aggregator.getExternalStateSize());
+
+        tupleBuilder.reset();
+        aggregator.init(tupleBuilder, accessor, 1, state);
+        Assert.assertEquals(0, ((int[]) state.state)[0]);
+        aggregator.aggregate(accessor, 1, null, 0, state);
+        tupleBuilder.reset();
+        aggregator.outputFinalResult(tupleBuilder, null, 0, state);
+        byte[] result = tupleBuilder.getByteArray();
+        int[] offsets = tupleBuilder.getFieldEndOffsets();
+        Assert.assertEquals(14L, LongPointable.getLong(result, 0));
+        Assert.assertEquals(2L, LongPointable.getLong(result, offsets[0]));
+        Assert.assertEquals(7.0d, DoublePointable.getDouble(result, offsets[1]), 0.0d);
+        aggregator.close();
+    }
+
+    @Test
+    public void testTaggedAggregatesSkipAbsentValues() throws HyracksDataException {
+        final byte emptyTag = 0;
+        final byte nullTag = 5;
+        PrimitiveValueTags tags = new PrimitiveValueTags((byte) 1, (byte) 2, (byte) 3, (byte) 4, emptyTag, nullTag);
+        PrimitiveFieldAggregate[] aggregates =
+                new PrimitiveFieldAggregate[] { new PrimitiveFieldAggregate(Function.SUM, 0, ValueType.INT32, tags),
+                        new PrimitiveFieldAggregate(Function.COUNT, 0, ValueType.INT32, tags),
+                        new PrimitiveFieldAggregate(Function.AVG, 0, ValueType.INT32, tags),
+                        new PrimitiveFieldAggregate(Function.MIN, 0, ValueType.INT32, tags) };
+        PrimitiveFieldAggregate[] mergeAggregates = new PrimitiveFieldAggregate[aggregates.length];
+        for (int i = 0; i < aggregates.length; i++) {
+            mergeAggregates[i] = aggregates[i].withField(keyFieldsAfterPartial.length + i);
+        }
+        RecordDescriptor stateRec = new RecordDescriptor(new ISerializerDeserializer[1 + aggregates.length]);
+        IHyracksTaskContext ctx = TestUtils.create(256);
+        IAggregatorDescriptor aggregator = new PrimitiveStateAggregatorFactory(aggregates, false).createAggregator(ctx,
+                inRecordDesc, stateRec, keyFields, keyFieldsAfterPartial, null, -1);
+        IAggregatorDescriptor merger = new PrimitiveStateAggregatorFactory(mergeAggregates, true).createAggregator(ctx,
+                stateRec, stateRec, keyFieldsAfterPartial, keyFieldsAfterPartial, null, -1);
+        AggregateState state = aggregator.createAggregateStates();
+        AggregateState mergeState = merger.createAggregateStates();
+        FrameTupleAccessor accessor = new FrameTupleAccessor(inRecordDesc);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(stateRec.getFieldCount());
+
+        // the null value is neither summed, counted nor averaged
+        accessor.reset(createTaggedFrame(ctx, nullTag, 5, null, 7).getBuffer());
+        aggregator.init(null, accessor, 0, state);
+        aggregator.aggregate(accessor, 1, null, 0, state);
+        aggregator.aggregate(accessor, 2, null, 0, state);
+        aggregator.outputFinalResult(tupleBuilder, null, 0, state);
+        byte[] result = tupleBuilder.getByteArray();
+        int[] offsets = tupleBuilder.getFieldEndOffsets();
+        Assert.assertEquals(2, result[0]);
+        Assert.assertEquals(12L, LongPointable.getLong(result, 1));
+        Assert.assertEquals(2, result[offsets[0]]);
+        Assert.assertEquals(2L, LongPointable.getLong(result, offsets[0] + 1));
+        Assert.assertEquals(4, result[offsets[1]]);
+        Assert.assertEquals(6.0d, DoublePointable.getDouble(result, offsets[1] + 1), 0.0d);
+        Assert.assertEquals(2, result[offsets[2]]);
+        Assert.assertEquals(5L, LongPointable.getLong(result, offsets[2] + 1));
+
+        // a group without values stays empty through its partial result, except for its count
+        accessor.reset(createTaggedFrame(ctx, nullTag, null, null).getBuffer());
+        aggregator.init(null, accessor, 0, state);
+        aggregator.aggregate(accessor, 1, null, 0, state);
+        tupleBuilder.reset();
+        tupleBuilder.addField(accessor, 0, 1);
+        aggregator.outputPartialResult(tupleBuilder, null, 0, state);
+        IFrame partialFrame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(partialFrame, true);
+        Assert.assertTrue(appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                tupleBuilder.getSize()));
+        FrameTupleAccessor partialAccessor = new FrameTupleAccessor(stateRec);
+        partialAccessor.reset(partialFrame.getBuffer());
+        merger.init(null, partialAccessor, 0, mergeState);
+        tupleBuilder.reset();
+        merger.outputFinalResult(tupleBuilder, null, 0, mergeState);
+        result = tupleBuilder.getByteArray();
+        offsets = tupleBuilder.getFieldEndOffsets();
+        Assert.assertArrayEquals(new int[] { 1, 10, 11, 12 }, Arrays.copyOf(offsets, aggregates.length));
+        Assert.assertEquals(emptyTag, result[0]);
+        Assert.assertEquals(2, result[1]);
+        Assert.assertEquals(0L, LongPointable.getLong(result, 2));
+        Assert.assertEquals(emptyTag, result[offsets[1]]);
+        Assert.assertEquals(emptyTag, result[offsets[2]]);
+        aggregator.close();
+        merger.close();
+    }
+
+    private IFrame createTaggedFrame(IHyracksTaskContext ctx, byte nullTag, Integer... values)
+            throws HyracksDataException {
+        IFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(inRecordDesc.getFieldCount());
+        for (Integer value : values) {
+            tupleBuilder.reset();
+            try {
+                if (value == null) {
+                    tupleBuilder.getDataOutput().writeByte(nullTag);
+                } else {
+                    tupleBuilder.getDataOutput().writeByte(1);
+                    tupleBuilder.getDataOutput().writeInt(value);
+                }
+            } catch (IOException e) {
+                throw HyracksDataException.create(e);
+            }
+            tupleBuilder.addFieldEndOffset();
+            tupleBuilder.addField(new UTF8StringSerializerDeserializer(), "key");
+            Assert.assertTrue(appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                    tupleBuilder.getSize()));
+        }
+        return frame;
+    }
+
+    private IFrame createFrame(IHyracksTaskContext ctx, int... values) throws HyracksDataException {
+        IFrame frame = new VSizeFrame(ctx);
+        FrameTupleAppender appender = new FrameTupleAppender(frame, true);
+        ArrayTupleBuilder tupleBuilder = new ArrayTupleBuilder(inRecordDesc.getFieldCount());
+        for (int value : values) {
+            tupleBuilder.reset();
+            tupleBuilder.addField(IntegerSerializerDeserializer.INSTANCE, value);
+            tupleBuilder.addField(new UTF8StringSerializerDeserializer(), "key");
+            Assert.assertTrue(appender.append(tupleBuilder.getFieldEndOffsets(), tupleBuilder.getByteArray(), 0,
+                    tupleBuilder.getSize()));
+        }
+        return frame;
+    }
+
+    @Override
+    protected IFrameWriter getBuilder() {
+        return buildOperator;
+    }
+
+    @Override
+    protected AbstractUnaryOutputSourceOperatorNodePushable getMerger() {
+        return mergeOperator;
+    }
+}
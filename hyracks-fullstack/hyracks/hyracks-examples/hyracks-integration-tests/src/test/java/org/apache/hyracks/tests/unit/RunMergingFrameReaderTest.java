@@ -346,6 +346,99 @@ public class RunMergingFrameReaderTest {
         assertAllKeyValueIsConsumed(Arrays.asList(keyValuePair));
     }
 
+    @Test
+    public void testRunMergeWithSharedKeyPrefixes() throws HyracksDataException {
+        int pageSize = 128;
+        int numRuns = 5;
+        int numTuplesPerRun = 200;
+
+        IHyracksTaskContext ctx = testUtils.create(pageSize);
+        List<String> expected = new ArrayList<>();
+        List<IFrameReader> readerList = new ArrayList<>(numRuns);
+        List<IFrame> frameList = new ArrayList<>(numRuns);
+        for (int i = 0; i < numRuns; i++) {
+            // few distinct first keys and duplicates so that the tuples of the runs share key prefixes
+            List<String> run = new ArrayList<>(numTuplesPerRun);
+            for (int j = 0; j < numTuplesPerRun; j++) {
+                run.add(GRandom.nextInt(4) + ":" + (char) ('a' + GRandom.nextInt(8)));
+            }
+            run.sort(RunMergingFrameReaderTest::compareKeys);
+            expected.addAll(run);
+            readerList.add(new ListFrameReader(run));
+            frameList.add(new VSizeFrame(ctx));
+        }
+        expected.sort(RunMergingFrameReaderTest::compareKeys);
+
+        RunMergingFrameReader reader =
+                new RunMergingFrameReader(ctx, readerList, frameList, SortFields, Comparators, null, RecordDesc);
+        List<String> actual = new ArrayList<>(expected.size());
+        FrameTupleAccessor fta = new FrameTupleAccessor(RecordDesc);
+        ByteBufferInputStream bbis = new ByteBufferInputStream();
+        DataInputStream di = new DataInputStream(bbis);
+        IFrame frame = new VSizeFrame(ctx);
+        reader.open();
+        while (reader.nextFrame(frame)) {
+            fta.reset(frame.getBuffer());
+            for (int i = 0; i < fta.getTupleCount(); i++) {
+                bbis.setByteBuffer(fta.getBuffer(),
+                        fta.getTupleStartOffset(i) + fta.getFieldStartOffset(i, 0) + fta.getFieldSlotsLength());
+                int key = (int) RecordDesc.getFields()[0].deserialize(di);
+                bbis.setByteBuffer(fta.getBuffer(),
+                        fta.getTupleStartOffset(i) + fta.getFieldStartOffset(i, 1) + fta.getFieldSlotsLength());
+                String value = (String) RecordDesc.getFields()[1].deserialize(di);
+                actual.add(key + ":" + value);
+            }
+        }
+        reader.close();
+        assertEquals(expected, actual);
+    }
+
+    private static int compareKeys(String tuple1, String tuple2) {
+        String[] fields1 = tuple1.split(":");
+        String[] fields2 = tuple2.split(":");
+        int c = Integer.compare(Integer.parseInt(fields1[0]), Integer.parseInt(fields2[0]));
+        return c != 0 ? c : fields1[1].compareTo(fields2[1]);
+    }
+
+    static class ListFrameReader implements IFrameReader {
+        private final List<String> tuples;
+        private final ArrayTupleBuilder tb = new ArrayTupleBuilder(RecordDesc.getFieldCount());
+        private final FrameTupleAppender appender = new FrameTupleAppender();
+        private int next;
+
+        ListFrameReader(List<String> tuples) {
+            this.tuples = tuples;
+        }
+
+        @Override
+        public void open() throws HyracksDataException {
+            next = 0;
+        }
+
+        @Override
+        public boolean nextFrame(IFrame frame) throws HyracksDataException {
+            if (next >= tuples.size()) {
+                return false;
+            }
+            appender.reset(frame, true);
+            while (next < tuples.size()) {
+                String[] fields = tuples.get(next).split(":");
+                tb.reset();
+                tb.addField(IntegerSerializerDeserializer.INSTANCE, Integer.parseInt(fields[0]));
+                tb.addField(new UTF8StringSerializerDeserializer(), fields[1]);
+                if (!appender.append(tb.getFieldEndOffsets(), tb.getByteArray(), 0, tb.getSize())) {
+                    break;
+                }
+                next++;
+            }
+            return true;
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+    }
+
     private void assertAllKeyValueIsConsumed(List<Map<Integer, String>> keyValueMapList) {
         for (Map<Integer, String> map : keyValueMapList) {
             assertTrue(map.isEmpty());
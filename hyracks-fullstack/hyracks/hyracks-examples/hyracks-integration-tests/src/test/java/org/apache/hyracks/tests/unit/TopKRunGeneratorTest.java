@@ -22,27 +22,36 @@ package org.apache.hyracks.tests.unit;
 import static org.apache.hyracks.tests.unit.AbstractRunGeneratorTest.*;
 import static org.junit.Assert.*;
 
+import java.io.DataInputStream;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
 import java.util.TreeMap;
 
 import org.apache.hyracks.api.comm.FixedSizeFrame;
 import org.apache.hyracks.api.comm.IFrame;
 import org.apache.hyracks.api.comm.IFrameWriter;
+import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
+import org.apache.hyracks.api.dataflow.ActivityId;
+import org.apache.hyracks.api.dataflow.OperatorDescriptorId;
 import org.apache.hyracks.api.dataflow.value.INormalizedKeyComputerFactory;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.comm.io.ArrayTupleBuilder;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAccessor;
 import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
+import org.apache.hyracks.dataflow.common.comm.util.ByteBufferInputStream;
 import org.apache.hyracks.dataflow.common.data.normalizers.IntegerNormalizedKeyComputerFactory;
 import org.apache.hyracks.dataflow.common.data.normalizers.UTF8StringNormalizedKeyComputerFactory;
+import org.apache.hyracks.dataflow.common.io.GeneratedRunFileReader;
 import org.apache.hyracks.dataflow.std.sort.AbstractSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.HeapSortRunGenerator;
 import org.apache.hyracks.dataflow.std.sort.HybridTopKSortRunGenerator;
+import org.apache.hyracks.dataflow.std.sort.TopKThreshold;
 import org.junit.Test;
 
 public class TopKRunGeneratorTest {
@@ -50,6 +59,9 @@ public class TopKRunGeneratorTest {
     static final int PAGE_SIZE = 512;
     static final int NUM_PAGES = 80;
     static final int SORT_FRAME_LIMIT = 4;
+    // orders "key:value" strings like the sort fields of the tuples
+    static final Comparator<String> TUPLE_ORDER = Comparator
+            .comparingInt((String t) -> Integer.parseInt(t.substring(0, t.indexOf(':')))).thenComparing(t -> t);
 
     enum ORDER {
         INORDER,
@@ -144,6 +156,162 @@ public class TopKRunGeneratorTest {
         testInMemoryOnly(ctx, topK, ORDER.REVERSE, sorter);
     }
 
+    @Test
+    public void testSharedThresholdWithHeapSort() throws HyracksDataException {
+        testSharedThreshold((ctx, topK) -> new HeapSortRunGenerator(ctx, SORT_FRAME_LIMIT, topK, SortFields, null,
+                ComparatorFactories, RecordDesc));
+    }
+
+    @Test
+    public void testSharedThresholdWithHybridTopK() throws HyracksDataException {
+        testSharedThreshold((ctx, topK) -> new HybridTopKSortRunGenerator(ctx, SORT_FRAME_LIMIT, topK, SortFields,
+                new INormalizedKeyComputerFactory[] { new IntegerNormalizedKeyComputerFactory() }, ComparatorFactories,
+                RecordDesc));
+    }
+
+    @FunctionalInterface
+    private interface ITopKRunGeneratorFactory {
+        HeapSortRunGenerator create(IHyracksTaskContext ctx, int topK);
+    }
+
+    /**
+     * Sorts several partitions that share a threshold and checks that the top K of their results is the top K of the
+     * same partitions sorted without sharing. The partitions are sorted one after the other, so the later ones drop
+     * the tuples above the K-th tuple of the earlier ones. Keys are repeated so that tuples of all partitions tie with
+     * the K-th tuple.
+     */
+    private void testSharedThreshold(ITopKRunGeneratorFactory factory) throws HyracksDataException {
+        int topK = 50;
+        int partitions = 3;
+        int framesPerPartition = 8;
+        IHyracksTaskContext ctx = AbstractRunGeneratorTest.testUtils.create(PAGE_SIZE);
+        Random random = new Random(0);
+        List<List<ByteBuffer>> input = new ArrayList<>();
+        List<String> allTuples = new ArrayList<>();
+        for (int p = 0; p < partitions; p++) {
+            // all partitions have the smallest keys, the later ones also have larger keys that the threshold drops
+            input.add(prepareRepeatedKeys(random, framesPerPartition, 30 * (p + 1), allTuples));
+        }
+        allTuples.sort(TUPLE_ORDER);
+        List<String> answer = allTuples.subList(0, topK);
+        assertEquals("the K-th tuple should be tied", answer.get(topK - 1), allTuples.get(topK));
+
+        List<String> unshared = sortPartitions(ctx, factory, topK, input, null);
+        TopKThreshold threshold = TopKThreshold.get(ctx, new ActivityId(new OperatorDescriptorId(0), 0));
+        List<String> shared = sortPartitions(ctx, factory, topK, input, threshold);
+        assertEquals(partitions * topK, unshared.size());
+        assertTrue("the shared threshold should drop tuples", shared.size() < unshared.size());
+        assertEquals(answer, unshared.subList(0, topK));
+        assertEquals(unshared.subList(0, topK), shared.subList(0, topK));
+    }
+
+    private List<ByteBuffer> prepareRepeatedKeys(Random random, int frameCount, int keyRange, List<String> allTuples)
+            throws HyracksDataException {
+        List<ByteBuffer> frames = new ArrayList<>();
+        FrameTupleAppender appender = new FrameTupleAppender();
+        ArrayTupleBuilder builder = new ArrayTupleBuilder(RecordDesc.getFieldCount());
+        for (int f = 0; f < frameCount; f++) {
+            ByteBuffer buffer = ByteBuffer.allocate(PAGE_SIZE);
+            appender.reset(new FixedSizeFrame(buffer), true);
+            while (true) {
+                int key = random.nextInt(keyRange);
+                String value = "v" + random.nextInt(2);
+                builder.reset();
+                builder.addField(SerDers[0], key);
+                builder.addField(SerDers[1], value);
+                if (!appender.append(builder.getFieldEndOffsets(), builder.getByteArray(), 0, builder.getSize())) {
+                    break;
+                }
+                allTuples.add(key + ":" + value);
+            }
+            frames.add(buffer);
+        }
+        return frames;
+    }
+
+    /**
+     * @return the sorted tuples that all partitions kept
+     */
+    private List<String> sortPartitions(IHyracksTaskContext ctx, ITopKRunGeneratorFactory factory, int topK,
+            List<List<ByteBuffer>> input, TopKThreshold threshold) throws HyracksDataException {
+        List<HeapSortRunGenerator> generators = new ArrayList<>();
+        for (int p = 0; p < input.size(); p++) {
+            HeapSortRunGenerator generator = factory.create(ctx, topK);
+            if (threshold != null) {
+                generator.setThreshold(threshold);
+            }
+            generator.open();
+            generators.add(generator);
+        }
+        for (int p = 0; p < input.size(); p++) {
+            for (ByteBuffer frame : input.get(p)) {
+                generators.get(p).nextFrame(frame);
+            }
+        }
+        List<String> result = new ArrayList<>();
+        for (HeapSortRunGenerator generator : generators) {
+            generator.close();
+            TupleCollector collector = new TupleCollector(result);
+            collector.open();
+            for (GeneratedRunFileReader run : generator.getRuns()) {
+                run.open();
+                try {
+                    IFrame frame = new VSizeFrame(ctx);
+                    while (run.nextFrame(frame)) {
+                        collector.nextFrame(frame.getBuffer());
+                    }
+                } finally {
+                    run.close();
+                }
+            }
+            if (generator.getRuns().isEmpty()) {
+                generator.getSorter().flush(collector);
+            }
+            collector.close();
+        }
+        result.sort(TUPLE_ORDER);
+        return result;
+    }
+
+    private static class TupleCollector implements IFrameWriter {
+        private final List<String> tuples;
+        private final FrameTupleAccessor accessor = new FrameTupleAccessor(RecordDesc);
+        private final ByteBufferInputStream bbis = new ByteBufferInputStream();
+        private final DataInputStream di = new DataInputStream(bbis);
+
+        TupleCollector(List<String> tuples) {
+            this.tuples = tuples;
+        }
+
+        @Override
+        public void open() throws HyracksDataException {
+        }
+
+        @Override
+        public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
+            accessor.reset(buffer);
+            for (int i = 0; i < accessor.getTupleCount(); i++) {
+                bbis.setByteBuffer(buffer, accessor.getAbsoluteFieldStartOffset(i, 0));
+                int key = (int) SerDers[0].deserialize(di);
+                bbis.setByteBuffer(buffer, accessor.getAbsoluteFieldStartOffset(i, 1));
+                String value = (String) SerDers[1].deserialize(di);
+                tuples.add(key + ":" + value);
+            }
+        }
+
+        @Override
+        public void fail() throws HyracksDataException {
+        }
+
+        @Override
+        public void close() throws HyracksDataException {
+        }
+
+        @Override
+        public void flush() throws HyracksDataException {
+        }
+    }
+
     private void testInMemoryOnly(IHyracksTaskContext ctx, int topK, ORDER order, AbstractSortRunGenerator sorter)
             throws HyracksDataException {
         Map<Integer, String> keyValuePair = null;
@@ -31,6 +31,7 @@ public class BatchPredicate extends RangePredicate {
     private static final long serialVersionUID = 1L;
 
     protected final FrameTupleReference keyTuple;
+    protected final FrameTupleReference batchKeyTuple;
     protected final FrameTupleReference minFilterTuple;
     protected final FrameTupleReference maxFilterTuple;
 
@@ -44,8 +45,10 @@ public class BatchPredicate extends RangePredicate {
         this.accessor = accessor;
         if (keyFields != null && keyFields.length > 0) {
             this.keyTuple = new PermutingFrameTupleReference(keyFields);
+            this.batchKeyTuple = new PermutingFrameTupleReference(keyFields);
         } else {
             this.keyTuple = new FrameTupleReference();
+            this.batchKeyTuple = new FrameTupleReference();
         }
         if (minFilterKeyFields != null && minFilterKeyFields.length > 0) {
             this.minFilterTuple = new PermutingFrameTupleReference(minFilterKeyFields);
@@ -115,6 +118,14 @@ public class BatchPredicate extends RangePredicate {
         return keyIndex;
     }
 
+    /**
+     * @return the search key at the given index of the batch, without moving the current key
+     */
+    public ITupleReference getKey(int index) {
+        batchKeyTuple.reset(accessor, index);
+        return batchKeyTuple;
+    }
+
     public int getNumKeys() {
         return accessor.getTupleCount();
     }
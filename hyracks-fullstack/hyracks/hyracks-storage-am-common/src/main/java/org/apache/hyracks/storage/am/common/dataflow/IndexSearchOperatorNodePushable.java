@@ -215,7 +215,8 @@ public abstract class IndexSearchOperatorNodePushable extends AbstractUnaryInput
             tupleFilter = tupleFilterFactory.createTupleFilter(ctx);
             referenceFilterTuple = new ReferenceFrameTupleReference();
         }
-        finished = false;
+        // a limit of 0 skips the search altogether
+        finished = outputLimit == 0;
         outputCount = 0;
 
         try {
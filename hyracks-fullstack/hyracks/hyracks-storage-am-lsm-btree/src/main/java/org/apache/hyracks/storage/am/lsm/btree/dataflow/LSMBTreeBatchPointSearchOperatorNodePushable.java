@@ -21,12 +21,15 @@ package org.apache.hyracks.storage.am.lsm.btree.dataflow;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 
+import org.apache.hyracks.api.comm.VSizeFrame;
 import org.apache.hyracks.api.context.IHyracksTaskContext;
 import org.apache.hyracks.api.dataflow.value.IMissingWriterFactory;
 import org.apache.hyracks.api.dataflow.value.RecordDescriptor;
 import org.apache.hyracks.api.exceptions.HyracksDataException;
+import org.apache.hyracks.dataflow.common.comm.io.FrameTupleAppender;
 import org.apache.hyracks.dataflow.common.comm.util.FrameUtils;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
+import org.apache.hyracks.dataflow.common.data.accessors.PermutingFrameTupleReference;
 import org.apache.hyracks.storage.am.btree.dataflow.BTreeSearchOperatorNodePushable;
 import org.apache.hyracks.storage.am.btree.impls.BatchPredicate;
 import org.apache.hyracks.storage.am.btree.util.BTreeUtils;
@@ -41,9 +44,21 @@ import org.apache.hyracks.storage.common.IIndexCursor;
 import org.apache.hyracks.storage.common.ISearchPredicate;
 import org.apache.hyracks.storage.common.projection.ITupleProjectorFactory;
 
+/**
+ * Performs the point lookups of a whole frame of search keys with one {@link LSMBTreeBatchPointSearchCursor}.
+ * The search keys of each frame are sorted first (if they are not sorted already), so that consecutive lookups visit
+ * neighbouring leaf pages and the Bloom filters of the disk components can be checked for the whole batch at once.
+ * The output of a frame is therefore ordered by the search key.
+ */
 public class LSMBTreeBatchPointSearchOperatorNodePushable extends BTreeSearchOperatorNodePushable {
+    private static final int INSERTION_SORT_THRESHOLD = 16;
 
     private final int[] keyFields;
+    private final PermutingFrameTupleReference sortKey1;
+    private final PermutingFrameTupleReference sortKey2;
+    private int[] tupleOrder = new int[0];
+    private VSizeFrame sortedFrame;
+    private FrameTupleAppender sortedAppender;
 
     public LSMBTreeBatchPointSearchOperatorNodePushable(IHyracksTaskContext ctx, int partition,
             RecordDescriptor inputRecDesc, int[] lowKeyFields, int[] highKeyFields, boolean lowKeyInclusive,
@@ -57,6 +72,8 @@ public class LSMBTreeBatchPointSearchOperatorNodePushable extends BTreeSearchOpe
                 missingWriterFactory, searchCallbackFactory, false, null, tupleFilterFactory, outputLimit, false, null,
                 null, tupleProjectorFactory);
         this.keyFields = lowKeyFields;
+        this.sortKey1 = new PermutingFrameTupleReference(lowKeyFields);
+        this.sortKey2 = new PermutingFrameTupleReference(lowKeyFields);
     }
 
     @Override
@@ -77,6 +94,7 @@ public class LSMBTreeBatchPointSearchOperatorNodePushable extends BTreeSearchOpe
     public void nextFrame(ByteBuffer buffer) throws HyracksDataException {
         accessor.reset(buffer);
         if (accessor.getTupleCount() > 0) {
+            sortSearchKeys(buffer);
             BatchPredicate batchPred = (BatchPredicate) searchPred;
             batchPred.reset(accessor);
             try {
@@ -93,7 +111,7 @@ public class LSMBTreeBatchPointSearchOperatorNodePushable extends BTreeSearchOpe
     protected void writeSearchResults() throws IOException {
         long matchingTupleCount = 0;
         LSMBTreeBatchPointSearchCursor batchCursor = (LSMBTreeBatchPointSearchCursor) cursor;
-        int tupleIndex = 0;
+        int nextMissingTupleIndex = 0;
         while (cursor.hasNext()) {
             cursor.next();
             matchingTupleCount++;
@@ -106,12 +124,12 @@ public class LSMBTreeBatchPointSearchOperatorNodePushable extends BTreeSearchOpe
             }
             tb.reset();
 
+            int tupleIndex = batchCursor.getKeyIndex();
             if (retainInput && retainMissing) {
-                appendMissingTuple(tupleIndex, batchCursor.getKeyIndex());
+                appendMissingTuple(nextMissingTupleIndex, tupleIndex);
+                nextMissingTupleIndex = tupleIndex + 1;
             }
 
-            tupleIndex = batchCursor.getKeyIndex();
-
             if (retainInput) {
                 frameTuple.reset(accessor, tupleIndex);
                 for (int i = 0; i < frameTuple.getFieldCount(); i++) {
@@ -126,8 +144,88 @@ public class LSMBTreeBatchPointSearchOperatorNodePushable extends BTreeSearchOpe
                 break;
             }
         }
+        if (retainInput && retainMissing && !finished) {
+            appendMissingTuple(nextMissingTupleIndex, accessor.getTupleCount());
+        }
         stats.getTupleCounter().update(matchingTupleCount);
+    }
+
+    /**
+     * Sorts the tuples of the current frame by their search keys. If the frame is not sorted already, the tuples are
+     * copied into a frame of the same size in key order and the accessor is reset to that frame.
+     */
+    private void sortSearchKeys(ByteBuffer buffer) throws HyracksDataException {
+        int tupleCount = accessor.getTupleCount();
+        boolean sorted = true;
+        for (int i = 1; i < tupleCount && sorted; i++) {
+            sorted = compare(i - 1, i) <= 0;
+        }
+        if (sorted) {
+            return;
+        }
+        if (tupleOrder.length < tupleCount) {
+            tupleOrder = new int[tupleCount];
+        }
+        for (int i = 0; i < tupleCount; i++) {
+            tupleOrder[i] = i;
+        }
+        sort(0, tupleCount - 1);
+        if (sortedFrame == null) {
+            sortedFrame = new VSizeFrame(ctx, buffer.capacity());
+            sortedAppender = new FrameTupleAppender();
+        } else {
+            sortedFrame.ensureFrameSize(buffer.capacity());
+        }
+        sortedAppender.reset(sortedFrame, true);
+        for (int i = 0; i < tupleCount; i++) {
+            // the sorted frame has the size of the input frame, so all tuples fit
+            sortedAppender.append(accessor, tupleOrder[i]);
+        }
+        accessor.reset(sortedFrame.getBuffer());
+    }
+
+    private int compare(int tupleIndex1, int tupleIndex2) throws HyracksDataException {
+        sortKey1.reset(accessor, tupleIndex1);
+        sortKey2.reset(accessor, tupleIndex2);
+        return lowKeySearchCmp.compare(sortKey1, sortKey2);
+    }
+
+    private void sort(int low, int high) throws HyracksDataException {
+        while (high - low >= INSERTION_SORT_THRESHOLD) {
+            int pivot = tupleOrder[(low + high) >>> 1];
+            int i = low;
+            int j = high;
+            while (i <= j) {
+                while (compare(tupleOrder[i], pivot) < 0) {
+                    i++;
+                }
+                while (compare(tupleOrder[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(i++, j--);
+                }
+            }
+            // Recurse into the smaller half to bound the stack depth.
+            if (j - low < high - i) {
+                sort(low, j);
+                low = i;
+            } else {
+                sort(i, high);
+                high = j;
+            }
+        }
+        for (int i = low + 1; i <= high; i++) {
+            for (int j = i; j > low && compare(tupleOrder[j - 1], tupleOrder[j]) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+    }
 
+    private void swap(int i, int j) {
+        int tmp = tupleOrder[i];
+        tupleOrder[i] = tupleOrder[j];
+        tupleOrder[j] = tmp;
     }
 
     private void appendMissingTuple(int start, int end) throws HyracksDataException {
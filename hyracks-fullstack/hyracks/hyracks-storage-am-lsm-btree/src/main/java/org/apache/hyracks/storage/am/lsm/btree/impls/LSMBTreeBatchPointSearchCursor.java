@@ -19,6 +19,8 @@
 
 package org.apache.hyracks.storage.am.lsm.btree.impls;
 
+import java.util.Arrays;
+
 import org.apache.hyracks.api.exceptions.HyracksDataException;
 import org.apache.hyracks.dataflow.common.data.accessors.ITupleReference;
 import org.apache.hyracks.storage.am.btree.impls.BTree.BTreeAccessor;
@@ -26,13 +28,24 @@ import org.apache.hyracks.storage.am.btree.impls.BatchPredicate;
 import org.apache.hyracks.storage.am.common.api.ITreeIndexCursor;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMComponent.LSMComponentType;
 import org.apache.hyracks.storage.am.lsm.common.api.ILSMIndexOperationContext;
+import org.apache.hyracks.storage.common.ICursorInitialState;
+import org.apache.hyracks.storage.common.ISearchPredicate;
 
 /**
  * This cursor performs point searches for each batch of search keys.
  * Assumption: the search keys must be sorted into the increasing order.
+ * Before the first lookup of a batch, the Bloom filters of the disk components are probed for all keys of the batch,
+ * one component after the other, so that the Bloom filter pages of a component are accessed together and the hash
+ * of every key is computed only once. Keys that no component may contain are skipped without any B-tree search.
  */
 public class LSMBTreeBatchPointSearchCursor extends LSMBTreePointSearchCursor {
 
+    // bit i of the mask of a key is set if component i may contain the key
+    private long[] candidateMasks = new long[0];
+    private long[] batchHashes = new long[0];
+    private boolean useCandidateMasks;
+    private boolean batchChecked;
+
     public LSMBTreeBatchPointSearchCursor(ILSMIndexOperationContext opCtx) {
         super(opCtx);
     }
@@ -40,6 +53,10 @@ public class LSMBTreeBatchPointSearchCursor extends LSMBTreePointSearchCursor {
     @Override
     public boolean doHasNext() throws HyracksDataException {
         BatchPredicate batchPred = (BatchPredicate) predicate;
+        if (!batchChecked) {
+            checkBloomFilters(batchPred);
+            batchChecked = true;
+        }
         while (!foundTuple && batchPred.hasNext()) {
             batchPred.next();
             if (foundIn >= 0) {
@@ -48,6 +65,9 @@ public class LSMBTreeBatchPointSearchCursor extends LSMBTreePointSearchCursor {
                 }
                 foundIn = -1;
             }
+            if (useCandidateMasks && candidateMasks[batchPred.getKeyIndex()] == 0) {
+                continue;
+            }
             foundTuple = super.doHasNext();
         }
         return foundTuple;
@@ -58,6 +78,57 @@ public class LSMBTreeBatchPointSearchCursor extends LSMBTreePointSearchCursor {
         foundTuple = false;
     }
 
+    @Override
+    public void doOpen(ICursorInitialState initialState, ISearchPredicate searchPred) throws HyracksDataException {
+        super.doOpen(initialState, searchPred);
+        batchChecked = false;
+    }
+
+    @Override
+    public void doClose() throws HyracksDataException {
+        batchChecked = false;
+        super.doClose();
+    }
+
+    private void checkBloomFilters(BatchPredicate batchPred) throws HyracksDataException {
+        useCandidateMasks = numBTrees <= Long.SIZE;
+        if (!useCandidateMasks) {
+            return;
+        }
+        int numKeys = batchPred.getNumKeys();
+        if (candidateMasks.length < numKeys) {
+            candidateMasks = new long[numKeys];
+            batchHashes = new long[numKeys * hashes.length];
+        }
+        long memoryComponents = 0L;
+        for (int i = 0; i < numBTrees; i++) {
+            if (bloomFilters[i] == null) {
+                memoryComponents |= 1L << i;
+            }
+        }
+        Arrays.fill(candidateMasks, 0, numKeys, memoryComponents);
+        boolean batchHashed = false;
+        for (int i = 0; i < numBTrees; i++) {
+            if (bloomFilters[i] == null) {
+                continue;
+            }
+            if (!batchHashed) {
+                // all bloom filters share the same hash function
+                for (int k = 0; k < numKeys; k++) {
+                    bloomFilters[i].computeHashes(batchPred.getKey(k), hashes);
+                    System.arraycopy(hashes, 0, batchHashes, k * hashes.length, hashes.length);
+                }
+                batchHashed = true;
+            }
+            for (int k = 0; k < numKeys; k++) {
+                System.arraycopy(batchHashes, k * hashes.length, hashes, 0, hashes.length);
+                if (bloomFilters[i].contains(hashes)) {
+                    candidateMasks[k] |= 1L << i;
+                }
+            }
+        }
+    }
+
     @Override
     protected ITreeIndexCursor createCursor(LSMComponentType type, BTreeAccessor btreeAccessor) {
         return btreeAccessor.createPointCursor(false, true);
@@ -65,7 +136,11 @@ public class LSMBTreeBatchPointSearchCursor extends LSMBTreePointSearchCursor {
 
     @Override
     protected boolean isSearchCandidate(int componentIndex) throws HyracksDataException {
-        if (!super.isSearchCandidate(componentIndex)) {
+        if (useCandidateMasks) {
+            if ((candidateMasks[((BatchPredicate) predicate).getKeyIndex()] & (1L << componentIndex)) == 0) {
+                return false;
+            }
+        } else if (!super.isSearchCandidate(componentIndex)) {
             return false;
         }
         // check filters
@@ -55,6 +55,7 @@ public class TestTaskContext implements IHyracksTaskContext {
     private Object sharedObject;
     private final IStatsCollector statsCollector = new StatsCollector();
     private final ThreadStats threadStats = new ThreadStats();
+    private ExecutorService executor;
 
     public TestTaskContext(TestJobletContext jobletContext, TaskAttemptId taskId, int partitionCount) {
         this.jobletContext = jobletContext;
@@ -161,7 +162,11 @@ public class TestTaskContext implements IHyracksTaskContext {
 
     @Override
     public ExecutorService getExecutorService() {
-        return null;
+        return executor;
+    }
+
+    public void setExecutorService(ExecutorService executor) {
+        this.executor = executor;
     }
 
     @Override
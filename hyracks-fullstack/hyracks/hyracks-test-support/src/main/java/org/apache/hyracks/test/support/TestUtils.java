@@ -26,6 +26,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
 
 import org.apache.hyracks.api.application.INCServiceContext;
 import org.apache.hyracks.api.client.NodeControllerInfo;
@@ -71,6 +72,12 @@ public class TestUtils {
         }
     }
 
+    public static IHyracksTaskContext create(int frameSize, ExecutorService executor) {
+        TestTaskContext taskCtx = (TestTaskContext) create(frameSize);
+        taskCtx.setExecutorService(executor);
+        return taskCtx;
+    }
+
     public static IHyracksTaskContext create(int frameSize, IOManager ioManager) {
         try {
             INCServiceContext serviceCtx = new TestNCServiceContext(ioManager, null);